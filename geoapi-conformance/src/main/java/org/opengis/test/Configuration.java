@@ -95,7 +95,9 @@ import org.opengis.referencing.operation.CoordinateOperationAuthorityFactory;
  * {@link Key#isDerivativeSupported               isDerivativeSupported}<br>
  * {@link Key#isNonSquareMatrixSupported          isNonSquareMatrixSupported}<br>
  * {@link Key#isNonBidimensionalSpaceSupported    isNonBidimensionalSpaceSupported}<br>
- * {@link Key#isAxisSwappingSupported             isAxisSwappingSupported}</td><td valign="top">
+ * {@link Key#isAxisSwappingSupported             isAxisSwappingSupported}<br>
+ * {@link Key#isConcurrentTransformSupported      isConcurrentTransformSupported}<br>
+ * {@link Key#isConcurrentFactorySupported        isConcurrentFactorySupported}</td><td valign="top">
  * {@link Key#mtFactory                           mtFactory}<br>
  * {@link Key#copFactory                          copFactory}<br>
  * {@link Key#copAuthorityFactory                 copAuthorityFactory}<br>
@@ -448,6 +450,31 @@ public class Configuration implements Serializable {
         public static final Key<Boolean> isAxisSwappingSupported =
                 new Key<>(Boolean.class, "isAxisSwappingSupported");
 
+        /**
+         * Whether the same {@link MathTransform} instance can be used concurrently by many threads
+         * without external synchronization. This includes the {@code transform(…)}, {@code inverse()}
+         * and {@code derivative(…)} methods. Implementors can set the value for this key to {@code false}
+         * if their transforms are not thread-safe.
+         *
+         * @see org.opengis.test.referencing.ConcurrencyTest#isConcurrentTransformSupported
+         *
+         * @since 4.0
+         */
+        public static final Key<Boolean> isConcurrentTransformSupported =
+                new Key<>(Boolean.class, "isConcurrentTransformSupported");
+
+        /**
+         * Whether the same factory instance can be used concurrently by many threads
+         * without external synchronization. Implementors can set the value for this key
+         * to {@code false} if their factories are not thread-safe.
+         *
+         * @see org.opengis.test.referencing.ConcurrencyTest#isConcurrentFactorySupported
+         *
+         * @since 4.0
+         */
+        public static final Key<Boolean> isConcurrentFactorySupported =
+                new Key<>(Boolean.class, "isConcurrentFactorySupported");
+
         /**
          * Whether the test methods can invoke a <code>{@linkplain TestCase#validators validators}.validate(…)}</code>
          * method. GeoAPI allows to disable the validation checks in some tests where strict conformance to a standard
@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Objects;
+import java.util.Collections;
 import java.util.ServiceLoader;
 import java.util.ServiceConfigurationError;
 import java.util.logging.Level;
@@ -57,7 +58,7 @@ import org.opengis.util.Factory;
  * {@link #factories(Class[])} method.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   2.2
  *
  * @see TestSuite
@@ -82,20 +83,29 @@ public strictfp abstract class TestCase {
     /**
      * The service loader to use for loading {@link FactoryFilter}.
      *
-     * <p>Accesses to this field must be synchronized on itself. If both {@code FACTORIES} and
-     * {@code FACTORY_FILTER} are synchronized, then {@code FACTORIES} must be synchronized first.</p>
+     * <p>Accesses to this field must be synchronized on {@link #FACTORIES}.</p>
      */
     private static ServiceLoader<FactoryFilter> factoryFilter;
 
     /**
      * The service loader to use for loading {@link ImplementationDetails}.
      *
-     * <p>Accesses to this field must be synchronized on itself. If both {@code FACTORIES}
-     * and {@code IMPLEMENTATION_DETAILS} are synchronized, then {@code FACTORIES} must be
-     * synchronized first.</p>
+     * <p>Accesses to this field must be synchronized on {@link #FACTORIES}.</p>
      */
     private static ServiceLoader<ImplementationDetails> implementationDetails;
 
+    /**
+     * Snapshots of the providers found by {@link #factoryFilter} and {@link #implementationDetails},
+     * or {@code null} if not yet computed. Those lists are unmodifiable, so they can be iterated
+     * concurrently by tests running in parallel without synchronization. They are reset to
+     * {@code null} when the class loader changes or when the service loaders are reloaded.
+     *
+     * @see #getFactoryFilters()
+     * @see #getImplementationDetails()
+     */
+    private static volatile List<FactoryFilter> factoryFilters;
+    private static volatile List<ImplementationDetails> implementationDetailList;
+
     /**
      * The class loader to use for searching implementations, or {@code null} for the default.
      */
@@ -113,6 +123,8 @@ public strictfp abstract class TestCase {
                 classLoader = loader;
                 factoryFilter = null;
                 implementationDetails = null;
+                factoryFilters = null;
+                implementationDetailList = null;
             }
         }
     }
@@ -127,27 +139,72 @@ public strictfp abstract class TestCase {
     }
 
     /**
-     * Returns the current {@link #factoryFilter} instance, creating a new one if needed.
+     * Reloads the {@link FactoryFilter} and {@link ImplementationDetails} services.
+     * The snapshots will be recomputed when first needed.
      */
-    static ServiceLoader<FactoryFilter> getFactoryFilter() {
+    static void reloadServices() {
         synchronized (FACTORIES) {
-            if (factoryFilter == null) {
-                factoryFilter = load(FactoryFilter.class);
+            if (factoryFilter != null) {
+                factoryFilter.reload();
+            }
+            if (implementationDetails != null) {
+                implementationDetails.reload();
             }
-            return factoryFilter;
+            factoryFilters = null;
+            implementationDetailList = null;
         }
     }
 
     /**
-     * Returns the current {@link #implementationDetails} instance, creating a new one if needed.
+     * Copies all providers of the given service loader in an unmodifiable list.
+     * This method must be invoked from a block synchronized on {@link FACTORIES}.
      */
-    static ServiceLoader<ImplementationDetails> getImplementationDetails() {
-        synchronized (FACTORIES) {
-            if (implementationDetails == null) {
-                implementationDetails = load(ImplementationDetails.class);
+    private static <T> List<T> snapshot(final ServiceLoader<T> services) {
+        final List<T> list = new ArrayList<>(4);
+        for (final T provider : services) {
+            list.add(provider);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns all {@link FactoryFilter} instances found on the classpath.
+     * The returned list is unmodifiable and can be iterated without synchronization.
+     */
+    static List<FactoryFilter> getFactoryFilters() {
+        List<FactoryFilter> list = factoryFilters;
+        if (list == null) {
+            synchronized (FACTORIES) {
+                list = factoryFilters;
+                if (list == null) {
+                    if (factoryFilter == null) {
+                        factoryFilter = load(FactoryFilter.class);
+                    }
+                    factoryFilters = list = snapshot(factoryFilter);
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns all {@link ImplementationDetails} instances found on the classpath.
+     * The returned list is unmodifiable and can be iterated without synchronization.
+     */
+    static List<ImplementationDetails> getImplementationDetails() {
+        List<ImplementationDetails> list = implementationDetailList;
+        if (list == null) {
+            synchronized (FACTORIES) {
+                list = implementationDetailList;
+                if (list == null) {
+                    if (implementationDetails == null) {
+                        implementationDetails = load(ImplementationDetails.class);
+                    }
+                    implementationDetailList = list = snapshot(implementationDetails);
+                }
             }
-            return implementationDetails;
         }
+        return list;
     }
 
     /**
@@ -189,6 +246,25 @@ public strictfp abstract class TestCase {
          */
         private final TestListener[] listeners = getTestListeners();
 
+        /**
+         * The resources used by the current thread when the test started,
+         * or {@code null} if the test did not started yet.
+         */
+        private ThreadUsage usage;
+
+        /**
+         * Creates an event for the given test, completed with the resources
+         * used since the test started if this information is available.
+         */
+        private TestEvent createEvent(final Description description) {
+            final TestEvent event = new TestEvent(TestCase.this, description);
+            final ThreadUsage usage = this.usage;
+            if (usage != null) {
+                usage.complete(event);
+            }
+            return event;
+        }
+
         /**
          * Invoked when a test is about to start.
          */
@@ -198,6 +274,7 @@ public strictfp abstract class TestCase {
             for (final TestListener listener : listeners) {
                 listener.starting(event);
             }
+            usage = new ThreadUsage();          // Exclude the time spent in listeners.
         }
 
         /**
@@ -205,7 +282,7 @@ public strictfp abstract class TestCase {
          */
         @Override
         protected void succeeded(final Description description) {
-            final TestEvent event = new TestEvent(TestCase.this, description);
+            final TestEvent event = createEvent(description);
             for (final TestListener listener : listeners) {
                 listener.succeeded(event);
             }
@@ -218,7 +295,7 @@ public strictfp abstract class TestCase {
          */
         @Override
         protected void failed(final Throwable exception, final Description description) {
-            final TestEvent event = new TestEvent(TestCase.this, description);
+            final TestEvent event = createEvent(description);
             final Configuration.Key<Boolean> tip = configurationTip;
             if (tip != null) {
                 event.configurationTip = tip;
@@ -242,7 +319,7 @@ public strictfp abstract class TestCase {
          */
         @Override
         protected void finished(final Description description) {
-            final TestEvent event = new TestEvent(TestCase.this, description);
+            final TestEvent event = createEvent(description);
             for (final TestListener listener : listeners) {
                 listener.finished(event);
             }
@@ -318,20 +395,17 @@ public strictfp abstract class TestCase {
         this.factories = factories;
         Units units = null;
         ValidatorContainer validators = null;
-        final ServiceLoader<ImplementationDetails> services = getImplementationDetails();
-        synchronized (services) {
-            for (final ImplementationDetails impl : services) {
-                final Configuration config = impl.configuration(factories);
-                if (config != null) {
-                    if (units == null) {
-                        units = config.get(Configuration.Key.units);
-                    }
-                    if (validators == null) {
-                        validators = config.get(Configuration.Key.validators);
-                    }
-                    if (units != null && validators != null) {
-                        break;          // We got all information will we looking for, no need to continue.
-                    }
+        for (final ImplementationDetails impl : getImplementationDetails()) {
+            final Configuration config = impl.configuration(factories);
+            if (config != null) {
+                if (units == null) {
+                    units = config.get(Configuration.Key.units);
+                }
+                if (validators == null) {
+                    validators = config.get(Configuration.Key.validators);
+                }
+                if (units != null && validators != null) {
+                    break;          // We got all information will we looking for, no need to continue.
                 }
             }
         }
@@ -500,12 +574,9 @@ public strictfp abstract class TestCase {
         if (filter != null && !filter.filter(category, checked)) {
             return false;
         }
-        final ServiceLoader<FactoryFilter> services = getFactoryFilter();
-        synchronized (services) {
-            for (final FactoryFilter impl : services) {
-                if (!impl.filter(category, checked)) {
-                    return false;
-                }
+        for (final FactoryFilter impl : getFactoryFilters()) {
+            if (!impl.filter(category, checked)) {
+                return false;
             }
         }
         return true;
@@ -528,24 +599,21 @@ public strictfp abstract class TestCase {
     protected final boolean[] getEnabledFlags(final Configuration.Key<Boolean>... properties) {
         final boolean[] isEnabled = new boolean[properties.length];
         Arrays.fill(isEnabled, true);
-        final ServiceLoader<ImplementationDetails> services = getImplementationDetails();
-        synchronized (services) {
-            for (final ImplementationDetails impl : services) {
-                final Configuration config = impl.configuration(factories);
-                if (config != null) {
-                    boolean atLeastOneTestIsEnabled = false;
-                    for (int i=0; i<properties.length; i++) {
-                        if (isEnabled[i]) {
-                            final Boolean value = config.get(properties[i]);
-                            if (value != null && !(isEnabled[i] = value)) {
-                                continue;                       // Leave 'atLeastOneTestIsEnabled' unchanged.
-                            }
-                            atLeastOneTestIsEnabled = true;
+        for (final ImplementationDetails impl : getImplementationDetails()) {
+            final Configuration config = impl.configuration(factories);
+            if (config != null) {
+                boolean atLeastOneTestIsEnabled = false;
+                for (int i=0; i<properties.length; i++) {
+                    if (isEnabled[i]) {
+                        final Boolean value = config.get(properties[i]);
+                        if (value != null && !(isEnabled[i] = value)) {
+                            continue;                       // Leave 'atLeastOneTestIsEnabled' unchanged.
                         }
+                        atLeastOneTestIsEnabled = true;
                     }
-                    if (!atLeastOneTestIsEnabled) {
-                        break;                                  // No need to continue scanning the classpath.
-                    }
+                }
+                if (!atLeastOneTestIsEnabled) {
+                    break;                                  // No need to continue scanning the classpath.
                 }
             }
         }
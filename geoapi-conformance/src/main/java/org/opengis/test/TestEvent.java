@@ -39,7 +39,7 @@ import org.junit.runner.Description;
  * Events provided to {@linkplain TestListener test listeners} when a test begin, complete or fail.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  *
  * @deprecated To be replaced by JUnit 5 listener mechanism.
@@ -67,6 +67,16 @@ public final class TestEvent extends EventObject {
      */
     Configuration.Key<Boolean> configurationTip;
 
+    /**
+     * Resources used by the test, or -1 if unknown. Those values are set by {@link ThreadUsage}
+     * when the test completed, and are unknown in events sent before test completion.
+     *
+     * @see #getElapsedTime()
+     * @see #getCpuTime()
+     * @see #getAllocatedBytes()
+     */
+    long elapsedTime = -1, cpuTime = -1, allocatedBytes = -1;
+
     /**
      * Creates a new event for the given source.
      */
@@ -118,4 +128,45 @@ public final class TestEvent extends EventObject {
     public Configuration.Key<Boolean> getConfigurationTip() {
         return configurationTip;
     }
+
+    /**
+     * Returns the wall-clock time elapsed during the test execution, in nanoseconds.
+     * The measurement includes the methods annotated by {@link org.junit.Before} and
+     * {@link org.junit.After}. This information is available only in the events given
+     * to {@link TestListener#succeeded(TestEvent)} and {@link TestListener#failed(TestEvent, Throwable)}.
+     *
+     * @return the elapsed time in nanoseconds, or -1 if unknown.
+     *
+     * @since 4.0
+     */
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    /**
+     * Returns the CPU time used by the thread which executed the test, in nanoseconds.
+     * This information is available only if the Java Virtual Machine supports thread
+     * CPU time measurement, and only for events sent after test completion.
+     *
+     * @return the CPU time in nanoseconds, or -1 if unknown.
+     *
+     * @since 4.0
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Returns the amount of memory allocated in the heap by the thread which executed the test, in bytes.
+     * This information is available only if the Java Virtual Machine supports thread memory allocation
+     * measurement, and only for events sent after test completion. Memory allocated by other threads
+     * (for example a thread pool used by the implementation) is not included.
+     *
+     * @return the allocated memory in bytes, or -1 if unknown.
+     *
+     * @since 4.0
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
 }
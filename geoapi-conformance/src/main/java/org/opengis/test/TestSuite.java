@@ -137,6 +137,7 @@ import org.opengis.referencing.operation.MathTransform;
   org.opengis.test.referencing.AffineTransformTest.class,
   org.opengis.test.referencing.ParameterizedTransformTest.class,
   org.opengis.test.referencing.AuthorityFactoryTest.class,
+  org.opengis.test.referencing.ConcurrencyTest.class,
   org.opengis.test.referencing.gigs.GIGS2001.class,
   org.opengis.test.referencing.gigs.GIGS2002.class,
   org.opengis.test.referencing.gigs.GIGS2003.class,
@@ -247,14 +248,7 @@ public strictfp class TestSuite {
      */
     public static void clear() {
         synchronized (TestCase.FACTORIES) {
-            ServiceLoader<?> services = TestCase.getFactoryFilter();
-            synchronized (services) {
-                services.reload();
-            }
-            services = TestCase.getImplementationDetails();
-            synchronized (services) {
-                services.reload();
-            }
+            TestCase.reloadServices();
             final Iterator<Iterable<? extends Factory>> it = TestCase.FACTORIES.values().iterator();
             while (it.hasNext()) {
                 final Iterable<? extends Factory> factories = it.next();
@@ -0,0 +1,123 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test;
+
+import java.lang.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * Measures the resources used by the current thread during the execution of a test.
+ * An instance is created when a test starts, and {@link #complete(TestEvent)} is invoked
+ * in the same thread when the test ends. The CPU time and the allocated memory are measured
+ * only if the Java Virtual Machine supports those measurements; otherwise they are reported
+ * as -1 in the {@link TestEvent}.
+ *
+ * <p>This class also provides the {@link #allocatedBytes()} method for benchmarks
+ * which need to measure the memory allocated by a task.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final class ThreadUsage {
+    /**
+     * The bean to use for measuring the CPU time, or {@code null} if not supported.
+     */
+    private static final ThreadMXBean CPU;
+
+    /**
+     * The bean to use for measuring the memory allocation, or {@code null} if not supported.
+     */
+    private static final com.sun.management.ThreadMXBean ALLOCATION;
+    static {
+        ThreadMXBean cpu = null;
+        com.sun.management.ThreadMXBean allocation = null;
+        try {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean.isCurrentThreadCpuTimeSupported() && bean.isThreadCpuTimeEnabled()) {
+                cpu = bean;
+            }
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean ext = (com.sun.management.ThreadMXBean) bean;
+                if (ext.isThreadAllocatedMemorySupported() && ext.isThreadAllocatedMemoryEnabled()) {
+                    allocation = ext;
+                }
+            }
+        } catch (UnsupportedOperationException | SecurityException e) {
+            // Leave the beans to null. Only elapsed time will be measured.
+        }
+        CPU = cpu;
+        ALLOCATION = allocation;
+    }
+
+    /**
+     * Values of {@link System#nanoTime()}, thread CPU time and thread allocated bytes at test start.
+     */
+    private final long startTime, startCpuTime, startAllocation;
+
+    /**
+     * Takes a snapshot of the resources used so far by the current thread.
+     */
+    ThreadUsage() {
+        startCpuTime    = (CPU        != null) ? CPU.getCurrentThreadCpuTime() : -1;
+        startAllocation = allocatedBytes();
+        startTime       = System.nanoTime();
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread, or -1 if the Java Virtual Machine
+     * does not support or has disabled the measurement of thread memory allocation. The value is useful
+     * only when compared with the value returned by a previous invocation in the same thread.
+     *
+     * @return total number of bytes allocated by the current thread, or -1 if unknown.
+     */
+    public static long allocatedBytes() {
+        return (ALLOCATION != null) ? ALLOCATION.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    /**
+     * Stores in the given event the resources used by the current thread since this object creation.
+     * This method shall be invoked in the same thread than the one which created this object.
+     *
+     * @param  event  the event where to store the measurements.
+     */
+    void complete(final TestEvent event) {
+        event.elapsedTime = System.nanoTime() - startTime;
+        if (startCpuTime >= 0) {
+            event.cpuTime = CPU.getCurrentThreadCpuTime() - startCpuTime;
+        }
+        if (startAllocation >= 0) {
+            event.allocatedBytes = allocatedBytes() - startAllocation;
+        }
+    }
+}
@@ -36,7 +36,6 @@ import java.util.Map;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
-import java.util.ServiceLoader;
 import org.opengis.geometry.DirectPosition;
 import org.opengis.referencing.operation.MathTransform;
 
@@ -516,16 +515,13 @@ public strictfp final class ToleranceModifiers {
      */
     public static ToleranceModifier[] getImplementationSpecific(final MathTransform transform) {
         Map<ToleranceModifier,Boolean> modifiers = null;
-        final ServiceLoader<ImplementationDetails> services = TestCase.getImplementationDetails();
-        synchronized (services) {
-            for (final ImplementationDetails impl : services) {
-                final ToleranceModifier modifier = impl.tolerance(transform);
-                if (modifier != null) {
-                    if (modifiers == null) {
-                        modifiers = new LinkedHashMap<>();
-                    }
-                    modifiers.put(modifier, null);
+        for (final ImplementationDetails impl : TestCase.getImplementationDetails()) {
+            final ToleranceModifier modifier = impl.tolerance(transform);
+            if (modifier != null) {
+                if (modifiers == null) {
+                    modifiers = new LinkedHashMap<>();
                 }
+                modifiers.put(modifier, null);
             }
         }
         return (modifiers != null) ? modifiers.keySet().toArray(new ToleranceModifier[modifiers.size()]) : EMPTY_ARRAY;
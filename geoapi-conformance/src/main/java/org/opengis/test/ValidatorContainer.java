@@ -31,8 +31,15 @@
  */
 package org.opengis.test;
 
+import java.util.Set;
 import java.util.List;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.AbstractList;
+import java.util.stream.Stream;
+import java.util.function.Consumer;
+import java.util.function.BiConsumer;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.imageio.spi.ImageReaderSpi;
 import javax.imageio.spi.ImageWriterSpi;
 import javax.imageio.metadata.IIOMetadataFormat;
@@ -78,8 +85,19 @@ import org.opengis.test.coverage.image.*;
  *    }
  *};</pre></blockquote>
  *
+ * <p><b><u>Validation sessions</u></b><br>
+ * Validators recursively validate the objects referenced by the object to validate. When many objects
+ * share the same components (for example all CRS of an authority database referencing the same datum),
+ * those components would be validated again for each object. This can be avoided by validating the
+ * objects inside a {@linkplain #startSession() session}, or with {@link #validateAll(Collection, boolean)}.
+ * During a session, each {@code validate(…)} method of a container returns immediately if it has already
+ * been invoked on the same container with the same object (compared by identity). Objects are considered
+ * validated as soon as their validation started, which avoids infinite recursion in cyclic object graphs.
+ * If the validation of an object fails, that object is not considered validated anymore and will be
+ * validated again if given to the same method.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   2.2
  */
 public class ValidatorContainer implements Cloneable {
@@ -195,6 +213,158 @@ public class ValidatorContainer implements Cloneable {
         }
     };
 
+    /**
+     * The objects validated in the current session, or {@code null} if no session is active in the
+     * current thread. The set is shared by all threads participating in the same parallel validation.
+     *
+     * @see #startSession()
+     * @see #visit(Object, Class, Consumer)
+     */
+    private static final ThreadLocal<Set<Visit>> SESSION = new ThreadLocal<>();
+
+    /**
+     * An object validated by a {@code validate(…)} method during a session. Objects are compared by identity,
+     * since validators may not trust {@code equals(Object)}. The type identifies the {@code validate(…)} method
+     * invoked, since the same object can be given to different methods; for example a CRS is given to
+     * {@code validate(IdentifiedObject)}, which dispatch to {@code validate(CoordinateReferenceSystem)}.
+     * The container is also part of the key, since containers may be configured differently.
+     */
+    private static final class Visit {
+        /** The object given to a {@code validate(…)} method. */
+        private final Object object;
+
+        /** The type of the argument of the {@code validate(…)} method. */
+        private final Class<?> type;
+
+        /** The container on which the {@code validate(…)} method has been invoked. */
+        private final ValidatorContainer container;
+
+        /** Creates a new visit for the given object. */
+        Visit(final Object object, final Class<?> type, final ValidatorContainer container) {
+            this.object    = object;
+            this.type      = type;
+            this.container = container;
+        }
+
+        /** Returns a hash code value based on object identity. */
+        @Override public int hashCode() {
+            return System.identityHashCode(object) + 31 * (type.hashCode() + 31 * System.identityHashCode(container));
+        }
+
+        /** Compares the objects and containers by identity. */
+        @Override public boolean equals(final Object other) {
+            if (other instanceof Visit) {
+                final Visit v = (Visit) other;
+                return v.object == object && v.type == type && v.container == container;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A validation session, during which each object is validated at most once per {@code validate(…)} method.
+     * Sessions are created by {@link ValidatorContainer#startSession()} and shall be closed in the same thread,
+     * preferably in a {@code try}-with-resource block.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     * @since   4.0
+     */
+    public static final class Session implements AutoCloseable {
+        /**
+         * The set of validated objects which was active before this session, or {@code null} if none.
+         */
+        private final Set<Visit> previous;
+
+        /**
+         * Whether this session created a new set of validated objects.
+         */
+        private final boolean isNew;
+
+        /**
+         * Starts a new session in the current thread, or joins the session which is already active.
+         */
+        Session(final Set<Visit> visited) {
+            previous = SESSION.get();
+            isNew = (visited != null) || (previous == null);
+            if (isNew) {
+                SESSION.set(visited != null ? visited : ConcurrentHashMap.newKeySet());
+            }
+        }
+
+        /**
+         * Returns whether this session joined a session which was already active in the current thread.
+         * In such case, closing this session does nothing.
+         */
+        final boolean isJoined() {
+            return !isNew;
+        }
+
+        /**
+         * Ends this session. If this session has been started while another session was already active,
+         * then this method does nothing and the outer session continues.
+         */
+        @Override
+        public void close() {
+            if (isNew) {
+                if (previous != null) {
+                    SESSION.set(previous);
+                } else {
+                    SESSION.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Handlers for the types recognized by {@link #dispatch(Object)}, in the order they shall be invoked.
+     */
+    private static final Object[] HANDLERS = {
+        Metadata.class,              (BiConsumer<ValidatorContainer,Metadata>)              ValidatorContainer::validate,
+        Citation.class,              (BiConsumer<ValidatorContainer,Citation>)              ValidatorContainer::validate,
+        CitationDate.class,          (BiConsumer<ValidatorContainer,CitationDate>)          ValidatorContainer::validate,
+        CitationDate[].class,        (BiConsumer<ValidatorContainer,CitationDate[]>)        ValidatorContainer::validate,
+        Responsibility.class,        (BiConsumer<ValidatorContainer,Responsibility>)        ValidatorContainer::validate,
+        Party.class,                 (BiConsumer<ValidatorContainer,Party>)                 ValidatorContainer::validate,
+        Contact.class,               (BiConsumer<ValidatorContainer,Contact>)               ValidatorContainer::validate,
+        Telephone.class,             (BiConsumer<ValidatorContainer,Telephone>)             ValidatorContainer::validate,
+        Address.class,               (BiConsumer<ValidatorContainer,Address>)               ValidatorContainer::validate,
+        OnlineResource.class,        (BiConsumer<ValidatorContainer,OnlineResource>)        ValidatorContainer::validate,
+        Extent.class,                (BiConsumer<ValidatorContainer,Extent>)                ValidatorContainer::validate,
+        GeographicExtent.class,      (BiConsumer<ValidatorContainer,GeographicExtent>)      ValidatorContainer::validate,
+        VerticalExtent.class,        (BiConsumer<ValidatorContainer,VerticalExtent>)        ValidatorContainer::validate,
+        TemporalExtent.class,        (BiConsumer<ValidatorContainer,TemporalExtent>)        ValidatorContainer::validate,
+        IdentifiedObject.class,      (BiConsumer<ValidatorContainer,IdentifiedObject>)      ValidatorContainer::validate,
+        Identifier.class,            (BiConsumer<ValidatorContainer,Identifier>)            ValidatorContainer::validate,
+        GenericName.class,           (BiConsumer<ValidatorContainer,GenericName>)           ValidatorContainer::validate,
+        NameSpace.class,             (BiConsumer<ValidatorContainer,NameSpace>)             ValidatorContainer::validate,
+        GeneralParameterValue.class, (BiConsumer<ValidatorContainer,GeneralParameterValue>) ValidatorContainer::validate,
+        Envelope.class,              (BiConsumer<ValidatorContainer,Envelope>)              ValidatorContainer::validate,
+        DirectPosition.class,        (BiConsumer<ValidatorContainer,DirectPosition>)        ValidatorContainer::validate,
+        InternationalString.class,   (BiConsumer<ValidatorContainer,InternationalString>)   ValidatorContainer::validate
+    };
+
+    /**
+     * The {@linkplain #HANDLERS handlers} applicable to each class of objects given to {@link #dispatch(Object)}.
+     * Computed when a class is seen for the first time, so the {@code instanceof} checks are not repeated for
+     * every object.
+     */
+    private static final ClassValue<BiConsumer<ValidatorContainer,Object>[]> DISPATCH_TABLE =
+            new ClassValue<BiConsumer<ValidatorContainer,Object>[]>()
+    {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected BiConsumer<ValidatorContainer,Object>[] computeValue(final Class<?> type) {
+            final List<BiConsumer<ValidatorContainer,Object>> handlers = new ArrayList<>();
+            for (int i=0; i<HANDLERS.length; i += 2) {
+                if (((Class<?>) HANDLERS[i]).isAssignableFrom(type)) {
+                    handlers.add((BiConsumer<ValidatorContainer,Object>) HANDLERS[i+1]);
+                }
+            }
+            return handlers.toArray(new BiConsumer[handlers.size()]);
+        }
+    };
+
     /**
      * Creates a new {@code ValidatorContainer} initialized with new {@link Validator} instances.
      * Note that this constructor does not inherit the configuration of the {@link Validators#DEFAULT}
@@ -234,28 +404,105 @@ public class ValidatorContainer implements Cloneable {
      * @param  object The object to dispatch to {@code validate(…)} methods, or {@code null}.
      */
     public final void dispatch(final Object object) {
-        if (object instanceof Metadata)              validate((Metadata)              object);
-        if (object instanceof Citation)              validate((Citation)              object);
-        if (object instanceof CitationDate)          validate((CitationDate)          object);
-        if (object instanceof CitationDate[])        validate((CitationDate[])        object);
-        if (object instanceof Responsibility)        validate((Responsibility)        object);
-        if (object instanceof Party)                 validate((Party)                 object);
-        if (object instanceof Contact)               validate((Contact)               object);
-        if (object instanceof Telephone)             validate((Telephone)             object);
-        if (object instanceof Address)               validate((Address)               object);
-        if (object instanceof OnlineResource)        validate((OnlineResource)        object);
-        if (object instanceof Extent)                validate((Extent)                object);
-        if (object instanceof GeographicExtent)      validate((GeographicExtent)      object);
-        if (object instanceof VerticalExtent)        validate((VerticalExtent)        object);
-        if (object instanceof TemporalExtent)        validate((TemporalExtent)        object);
-        if (object instanceof IdentifiedObject)      validate((IdentifiedObject)      object);
-        if (object instanceof Identifier)            validate((Identifier)            object);
-        if (object instanceof GenericName)           validate((GenericName)           object);
-        if (object instanceof NameSpace)             validate((NameSpace)             object);
-        if (object instanceof GeneralParameterValue) validate((GeneralParameterValue) object);
-        if (object instanceof Envelope)              validate((Envelope)              object);
-        if (object instanceof DirectPosition)        validate((DirectPosition)        object);
-        if (object instanceof InternationalString)   validate((InternationalString)   object);
+        if (object != null) {
+            for (final BiConsumer<ValidatorContainer,Object> handler : DISPATCH_TABLE.get(object.getClass())) {
+                handler.accept(this, object);
+            }
+        }
+    }
+
+    /**
+     * Starts a validation session in the current thread. Until the session is closed, each {@code validate(…)}
+     * method of any container skips the objects that it already validated in this session. Example:
+     *
+     * <blockquote><pre>try (ValidatorContainer.Session session = ValidatorContainer.startSession()) {
+     *    for (CoordinateReferenceSystem crs : allCRS) {
+     *        validators.validate(crs);
+     *    }
+     *}</pre></blockquote>
+     *
+     * If a session is already active in the current thread, then the returned session joins it.
+     *
+     * @return the session to close when the validation is finished.
+     *
+     * @since 4.0
+     */
+    public static Session startSession() {
+        return new Session(null);
+    }
+
+    /**
+     * Validates the given object with the given validator method, unless the object has already been given
+     * to the {@code validate(…)} method of this container for the given type in the current session.
+     * The object is recorded as validated before the validation starts. If the validation fails,
+     * then the object is removed from the session so a new attempt will validate it again.
+     *
+     * @param  <T>        the type of the argument of the {@code validate(…)} method.
+     * @param  object     the object to validate, or {@code null}.
+     * @param  type       the type of the argument of the {@code validate(…)} method.
+     * @param  validator  the validator method to invoke.
+     */
+    private <T> void visit(final T object, final Class<T> type, final Consumer<? super T> validator) {
+        final Set<Visit> visited = (object != null) ? SESSION.get() : null;
+        if (visited == null) {
+            validator.accept(object);
+            return;
+        }
+        final Visit visit = new Visit(object, type, this);
+        if (visited.add(visit)) {
+            boolean success = false;
+            try {
+                validator.accept(object);
+                success = true;
+            } finally {
+                if (!success) {
+                    visited.remove(visit);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@linkplain #dispatch(Object) Dispatches} all given objects to the {@code validate(…)} methods in a single
+     * validation session, so components shared by many objects are validated only once. If {@code parallel} is
+     * {@code true}, then the objects are validated concurrently by the common fork-join pool and the session
+     * is shared by all threads. Validators are thread-safe provided that their configuration is not modified
+     * during the validation.
+     *
+     * <p>If a validation fails, the first {@link AssertionError} is propagated. In parallel mode, it may not be
+     * the error of the first invalid object in iteration order.</p>
+     *
+     * @param  objects   the objects to validate.
+     * @param  parallel  whether to validate the objects in parallel.
+     *
+     * @since 4.0
+     */
+    public final void validateAll(final Collection<?> objects, final boolean parallel) {
+        if (!parallel) {
+            final Session session = startSession();
+            try {
+                for (final Object object : objects) {
+                    dispatch(object);
+                }
+            } finally {
+                session.close();
+            }
+        } else {
+            Set<Visit> visited = SESSION.get();                 // Join the enclosing session, if any.
+            if (visited == null) {
+                visited = ConcurrentHashMap.newKeySet();
+            }
+            final Set<Visit> shared = visited;
+            final Stream<?> stream = objects.parallelStream();
+            stream.forEach((object) -> {
+                final Session session = new Session(shared);
+                try {
+                    dispatch(object);
+                } finally {
+                    session.close();
+                }
+            });
+        }
     }
 
     /**
@@ -268,7 +515,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final Metadata object) {
-        metadata.validate(object);
+        visit(object, Metadata.class, metadata::validate);
     }
 
     /**
@@ -279,7 +526,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CitationValidator#validate(Citation)
      */
     public final void validate(final Citation object) {
-        citation.validate(object);
+        visit(object, Citation.class, citation::validate);
     }
 
     /**
@@ -305,7 +552,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final Responsibility object) {
-        citation.validate(object);
+        visit(object, Responsibility.class, citation::validate);
     }
 
     /**
@@ -318,7 +565,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final Party object) {
-        citation.validate(object);
+        visit(object, Party.class, citation::validate);
     }
 
     /**
@@ -331,7 +578,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final Contact object) {
-        citation.validate(object);
+        visit(object, Contact.class, citation::validate);
     }
 
     /**
@@ -344,7 +591,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final Telephone object) {
-        citation.validate(object);
+        visit(object, Telephone.class, citation::validate);
     }
 
     /**
@@ -357,7 +604,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final Address object) {
-        citation.validate(object);
+        visit(object, Address.class, citation::validate);
     }
 
     /**
@@ -370,7 +617,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final OnlineResource object) {
-        citation.validate(object);
+        visit(object, OnlineResource.class, citation::validate);
     }
 
     /**
@@ -381,7 +628,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ExtentValidator#validate(Extent)
      */
     public final void validate(final Extent object) {
-        extent.validate(object);
+        visit(object, Extent.class, extent::validate);
     }
 
     /**
@@ -392,7 +639,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ExtentValidator#validate(TemporalExtent)
      */
     public final void validate(final TemporalExtent object) {
-        extent.validate(object);
+        visit(object, TemporalExtent.class, extent::validate);
     }
 
     /**
@@ -403,7 +650,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ExtentValidator#validate(VerticalExtent)
      */
     public final void validate(final VerticalExtent object) {
-        extent.validate(object);
+        visit(object, VerticalExtent.class, extent::validate);
     }
 
     /**
@@ -414,7 +661,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ExtentValidator#dispatch(GeographicExtent)
      */
     public final void validate(final GeographicExtent object) {
-        extent.dispatch(object);
+        visit(object, GeographicExtent.class, extent::dispatch);
     }
 
     /**
@@ -425,7 +672,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ExtentValidator#validate(GeographicDescription)
      */
     public final void validate(final GeographicDescription object) {
-        extent.validate(object);
+        visit(object, GeographicDescription.class, extent::validate);
     }
 
     /**
@@ -436,7 +683,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ExtentValidator#validate(BoundingPolygon)
      */
     public final void validate(final BoundingPolygon object) {
-        extent.validate(object);
+        visit(object, BoundingPolygon.class, extent::validate);
     }
 
     /**
@@ -447,7 +694,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ExtentValidator#validate(GeographicBoundingBox)
      */
     public final void validate(final GeographicBoundingBox object) {
-        extent.validate(object);
+        visit(object, GeographicBoundingBox.class, extent::validate);
     }
 
     /**
@@ -458,7 +705,7 @@ public class ValidatorContainer implements Cloneable {
      * @see GeometryValidator#validate(Envelope)
      */
     public final void validate(final Envelope object) {
-        geometry.validate(object);
+        visit(object, Envelope.class, geometry::validate);
     }
 
     /**
@@ -469,7 +716,7 @@ public class ValidatorContainer implements Cloneable {
      * @see GeometryValidator#validate(DirectPosition)
      */
     public final void validate(final DirectPosition object) {
-        geometry.validate(object);
+        visit(object, DirectPosition.class, geometry::validate);
     }
 
     /**
@@ -480,7 +727,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#dispatch(CoordinateReferenceSystem)
      */
     public final void validate(final CoordinateReferenceSystem object) {
-        crs.dispatch(object);
+        visit(object, CoordinateReferenceSystem.class, crs::dispatch);
     }
 
     /**
@@ -491,7 +738,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(GeocentricCRS)
      */
     public final void validate(final GeocentricCRS object) {
-        crs.validate(object);
+        visit(object, GeocentricCRS.class, crs::validate);
     }
 
     /**
@@ -502,7 +749,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(GeographicCRS)
      */
     public final void validate(final GeographicCRS object) {
-        crs.validate(object);
+        visit(object, GeographicCRS.class, crs::validate);
     }
 
     /**
@@ -513,7 +760,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(ProjectedCRS)
      */
     public final void validate(final ProjectedCRS object) {
-        crs.validate(object);
+        visit(object, ProjectedCRS.class, crs::validate);
     }
 
     /**
@@ -524,7 +771,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(DerivedCRS)
      */
     public final void validate(final DerivedCRS object) {
-        crs.validate(object);
+        visit(object, DerivedCRS.class, crs::validate);
     }
 
     /**
@@ -535,7 +782,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(ImageCRS)
      */
     public final void validate(final ImageCRS object) {
-        crs.validate(object);
+        visit(object, ImageCRS.class, crs::validate);
     }
 
     /**
@@ -546,7 +793,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(EngineeringCRS)
      */
     public final void validate(final EngineeringCRS object) {
-        crs.validate(object);
+        visit(object, EngineeringCRS.class, crs::validate);
     }
 
     /**
@@ -557,7 +804,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(VerticalCRS)
      */
     public final void validate(final VerticalCRS object) {
-        crs.validate(object);
+        visit(object, VerticalCRS.class, crs::validate);
     }
 
     /**
@@ -568,7 +815,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(TemporalCRS)
      */
     public final void validate(final TemporalCRS object) {
-        crs.validate(object);
+        visit(object, TemporalCRS.class, crs::validate);
     }
 
     /**
@@ -579,7 +826,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CRSValidator#validate(CompoundCRS)
      */
     public final void validate(final CompoundCRS object) {
-        crs.validate(object);
+        visit(object, CompoundCRS.class, crs::validate);
     }
 
     /**
@@ -590,7 +837,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#dispatch(CoordinateSystem)
      */
     public final void validate(final CoordinateSystem object) {
-        cs.dispatch(object);
+        visit(object, CoordinateSystem.class, cs::dispatch);
     }
 
     /**
@@ -601,7 +848,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(CartesianCS)
      */
     public final void validate(final CartesianCS object) {
-        cs.validate(object);
+        visit(object, CartesianCS.class, cs::validate);
     }
 
     /**
@@ -612,7 +859,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(EllipsoidalCS)
      */
     public final void validate(final EllipsoidalCS object) {
-        cs.validate(object);
+        visit(object, EllipsoidalCS.class, cs::validate);
     }
 
     /**
@@ -623,7 +870,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(SphericalCS)
      */
     public final void validate(final SphericalCS object) {
-        cs.validate(object);
+        visit(object, SphericalCS.class, cs::validate);
     }
 
     /**
@@ -634,7 +881,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(CylindricalCS)
      */
     public final void validate(final CylindricalCS object) {
-        cs.validate(object);
+        visit(object, CylindricalCS.class, cs::validate);
     }
 
     /**
@@ -645,7 +892,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(PolarCS)
      */
     public final void validate(final PolarCS object) {
-        cs.validate(object);
+        visit(object, PolarCS.class, cs::validate);
     }
 
     /**
@@ -656,7 +903,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(LinearCS)
      */
     public final void validate(final LinearCS object) {
-        cs.validate(object);
+        visit(object, LinearCS.class, cs::validate);
     }
 
     /**
@@ -667,7 +914,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(VerticalCS)
      */
     public final void validate(final VerticalCS object) {
-        cs.validate(object);
+        visit(object, VerticalCS.class, cs::validate);
     }
 
     /**
@@ -678,7 +925,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(TimeCS)
      */
     public final void validate(final TimeCS object) {
-        cs.validate(object);
+        visit(object, TimeCS.class, cs::validate);
     }
 
     /**
@@ -689,7 +936,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(UserDefinedCS)
      */
     public final void validate(final UserDefinedCS object) {
-        cs.validate(object);
+        visit(object, UserDefinedCS.class, cs::validate);
     }
 
     /**
@@ -700,7 +947,7 @@ public class ValidatorContainer implements Cloneable {
      * @see CSValidator#validate(CoordinateSystemAxis)
      */
     public final void validate(final CoordinateSystemAxis object) {
-        cs.validate(object);
+        visit(object, CoordinateSystemAxis.class, cs::validate);
     }
 
     /**
@@ -711,7 +958,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#dispatch(Datum)
      */
     public final void validate(final Datum object) {
-        datum.dispatch(object);
+        visit(object, Datum.class, datum::dispatch);
     }
 
     /**
@@ -722,7 +969,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#validate(PrimeMeridian)
      */
     public final void validate(final PrimeMeridian object) {
-        datum.validate(object);
+        visit(object, PrimeMeridian.class, datum::validate);
     }
 
     /**
@@ -733,7 +980,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#validate(Ellipsoid)
      */
     public final void validate(final Ellipsoid object) {
-        datum.validate(object);
+        visit(object, Ellipsoid.class, datum::validate);
     }
 
     /**
@@ -744,7 +991,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#validate(GeodeticDatum)
      */
     public final void validate(final GeodeticDatum object) {
-        datum.validate(object);
+        visit(object, GeodeticDatum.class, datum::validate);
     }
 
     /**
@@ -755,7 +1002,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#validate(VerticalDatum)
      */
     public final void validate(final VerticalDatum object) {
-        datum.validate(object);
+        visit(object, VerticalDatum.class, datum::validate);
     }
 
     /**
@@ -766,7 +1013,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#validate(TemporalDatum)
      */
     public final void validate(final TemporalDatum object) {
-        datum.validate(object);
+        visit(object, TemporalDatum.class, datum::validate);
     }
 
     /**
@@ -777,7 +1024,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#validate(ImageDatum)
      */
     public final void validate(final ImageDatum object) {
-        datum.validate(object);
+        visit(object, ImageDatum.class, datum::validate);
     }
 
     /**
@@ -788,7 +1035,7 @@ public class ValidatorContainer implements Cloneable {
      * @see DatumValidator#validate(EngineeringDatum)
      */
     public final void validate(final EngineeringDatum object) {
-        datum.validate(object);
+        visit(object, EngineeringDatum.class, datum::validate);
     }
 
     /**
@@ -799,7 +1046,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#dispatch(CoordinateOperation)
      */
     public final void validate(final CoordinateOperation object) {
-        coordinateOperation.dispatch(object);
+        visit(object, CoordinateOperation.class, coordinateOperation::dispatch);
     }
 
     /**
@@ -810,7 +1057,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#validate(Conversion)
      */
     public final void validate(final Conversion object) {
-        coordinateOperation.validate(object);
+        visit(object, Conversion.class, coordinateOperation::validate);
     }
 
     /**
@@ -821,7 +1068,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#validate(Transformation)
      */
     public final void validate(final Transformation object) {
-        coordinateOperation.validate(object);
+        visit(object, Transformation.class, coordinateOperation::validate);
     }
 
     /**
@@ -832,7 +1079,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#validate(ConcatenatedOperation)
      */
     public final void validate(final ConcatenatedOperation object) {
-        coordinateOperation.validate(object);
+        visit(object, ConcatenatedOperation.class, coordinateOperation::validate);
     }
 
     /**
@@ -843,7 +1090,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#validate(PassThroughOperation)
      */
     public final void validate(final PassThroughOperation object) {
-        coordinateOperation.validate(object);
+        visit(object, PassThroughOperation.class, coordinateOperation::validate);
     }
 
     /**
@@ -854,7 +1101,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#validate(OperationMethod)
      */
     public final void validate(final OperationMethod object) {
-        coordinateOperation.validate(object);
+        visit(object, OperationMethod.class, coordinateOperation::validate);
     }
 
     /**
@@ -865,7 +1112,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#validate(OperationMethod)
      */
     public final void validate(final Formula object) {
-        coordinateOperation.validate(object);
+        visit(object, Formula.class, coordinateOperation::validate);
     }
 
     /**
@@ -876,7 +1123,7 @@ public class ValidatorContainer implements Cloneable {
      * @see OperationValidator#validate(MathTransform)
      */
     public final void validate(final MathTransform object) {
-        coordinateOperation.validate(object);
+        visit(object, MathTransform.class, coordinateOperation::validate);
     }
 
     /**
@@ -887,7 +1134,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ParameterValidator#dispatch(GeneralParameterDescriptor)
      */
     public final void validate(final GeneralParameterDescriptor object) {
-        parameter.dispatch(object);
+        visit(object, GeneralParameterDescriptor.class, parameter::dispatch);
     }
 
     /**
@@ -898,7 +1145,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ParameterValidator#validate(ParameterDescriptor)
      */
     public final void validate(final ParameterDescriptor<?> object) {
-        parameter.validate(object);
+        visit(object, ParameterDescriptor.class, parameter::validate);
     }
 
     /**
@@ -909,7 +1156,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ParameterValidator#validate(ParameterDescriptorGroup)
      */
     public final void validate(final ParameterDescriptorGroup object) {
-        parameter.validate(object);
+        visit(object, ParameterDescriptorGroup.class, parameter::validate);
     }
 
     /**
@@ -920,7 +1167,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ParameterValidator#dispatch(GeneralParameterValue)
      */
     public final void validate(final GeneralParameterValue object) {
-        parameter.dispatch(object);
+        visit(object, GeneralParameterValue.class, parameter::dispatch);
     }
 
     /**
@@ -931,7 +1178,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ParameterValidator#validate(ParameterValue)
      */
     public final void validate(final ParameterValue<?> object) {
-        parameter.validate(object);
+        visit(object, ParameterValue.class, parameter::validate);
     }
 
     /**
@@ -942,7 +1189,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ParameterValidator#validate(ParameterValueGroup)
      */
     public final void validate(final ParameterValueGroup object) {
-        parameter.validate(object);
+        visit(object, ParameterValueGroup.class, parameter::validate);
     }
 
     /**
@@ -953,7 +1200,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ReferencingValidator#dispatchObject(IdentifiedObject)
      */
     public final void validate(final IdentifiedObject object) {
-        crs.dispatchObject(object);
+        visit(object, IdentifiedObject.class, crs::dispatchObject);
     }
 
     /**
@@ -966,7 +1213,7 @@ public class ValidatorContainer implements Cloneable {
      * @since 3.1
      */
     public final void validate(final Identifier object) {
-        metadata.validate(object);
+        visit(object, Identifier.class, metadata::validate);
     }
 
     /**
@@ -977,7 +1224,7 @@ public class ValidatorContainer implements Cloneable {
      * @see NameValidator#dispatch(GenericName)
      */
     public final void validate(final GenericName object) {
-        naming.dispatch(object);
+        visit(object, GenericName.class, naming::dispatch);
     }
 
     /**
@@ -988,7 +1235,7 @@ public class ValidatorContainer implements Cloneable {
      * @see NameValidator#validate(LocalName)
      */
     public final void validate(final LocalName object) {
-        naming.validate(object);
+        visit(object, LocalName.class, naming::validate);
     }
 
     /**
@@ -999,7 +1246,7 @@ public class ValidatorContainer implements Cloneable {
      * @see NameValidator#validate(ScopedName)
      */
     public final void validate(final ScopedName object) {
-        naming.validate(object);
+        visit(object, ScopedName.class, naming::validate);
     }
 
     /**
@@ -1010,7 +1257,7 @@ public class ValidatorContainer implements Cloneable {
      * @see NameValidator#validate(NameSpace)
      */
     public final void validate(final NameSpace object) {
-        naming.validate(object);
+        visit(object, NameSpace.class, naming::validate);
     }
 
     /**
@@ -1021,7 +1268,7 @@ public class ValidatorContainer implements Cloneable {
      * @see NameValidator#validate(InternationalString)
      */
     public final void validate(final InternationalString object) {
-        naming.validate(object);
+        visit(object, InternationalString.class, naming::validate);
     }
 
     /**
@@ -1032,7 +1279,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ImageValidator#validate(ImageReaderSpi)
      */
     public final void validate(final ImageReaderSpi object) {
-        image.validate(object);
+        visit(object, ImageReaderSpi.class, image::validate);
     }
 
     /**
@@ -1043,7 +1290,7 @@ public class ValidatorContainer implements Cloneable {
      * @see ImageValidator#validate(ImageWriterSpi)
      */
     public final void validate(final ImageWriterSpi object) {
-        image.validate(object);
+        visit(object, ImageWriterSpi.class, image::validate);
     }
 
     /**
@@ -0,0 +1,445 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.coverage.image;
+
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.io.IOException;
+import java.awt.Rectangle;
+import java.awt.image.DataBuffer;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.ImageWriteParam;
+import org.opengis.test.ThreadUsage;
+
+
+/**
+ * Measures the throughput of {@link ImageReader} and {@link ImageWriter} implementations.
+ * This class reuses the {@link ImageReaderTestCase#prepareImageReader(boolean)} and
+ * {@link ImageWriterTestCase#prepareImageWriter(boolean)} methods of existing test cases,
+ * so the plugins can be benchmarked on the same datasets than the ones used for the conformance tests.
+ * For an image reader, the following operations are measured on the first image:
+ *
+ * <ul>
+ *   <li>{@link ImageReader#getStreamMetadata()} on a fresh input, excluding the cost of opening the input;</li>
+ *   <li>{@link ImageReader#read(int, ImageReadParam)} of the full image;</li>
+ *   <li>the same method invoked for each tile (or blocks of 256×256 pixels if the image is not tiled);</li>
+ *   <li>the same method with a {@linkplain ImageReadParam#setSourceSubsampling subsampling}
+ *       of {@value #SUBSAMPLING} pixels along both axes;</li>
+ *   <li>the same method with random {@linkplain ImageReadParam#setSourceRegion source regions}.</li>
+ * </ul>
+ *
+ * For an image writer, the full write of images filled with random values is measured for one and three bands
+ * of type {@code byte}, and for one band of type {@code short} and {@code float}. The preparation of the writer
+ * and of its output is not included in the measurements.
+ * Operations disabled by the {@code isXXXSupported} flags of the test case, or images that the writer can not
+ * encode, are skipped.
+ *
+ * <p>Each operation is repeated during a warmup time, then during a measurement time.
+ * The results provide the number of pixels per second, the mean time per call and, if the
+ * Java Virtual Machine supports thread memory allocation measurement, the number of bytes
+ * allocated per pixel. Those numbers can be compared between plugins or between two versions
+ * of the same plugin. Example:</p>
+ *
+ * <blockquote><pre>ImageIOBenchmark benchmark = new ImageIOBenchmark();
+ *for (ImageIOBenchmark.Row row : benchmark.run(new MyImageReaderTest())) {
+ *    System.out.println(row);
+ *}</pre></blockquote>
+ *
+ * The given test case is {@linkplain ImageReaderTestCase#close() closed} after the benchmark.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class ImageIOBenchmark {
+    /**
+     * The subsampling used for the subsampled read benchmark.
+     */
+    public static final int SUBSAMPLING = 4;
+
+    /**
+     * Size of blocks to read when the image is not tiled.
+     */
+    private static final int BLOCK_SIZE = 256;
+
+    /**
+     * A single measurement result. Instances are returned by the {@code run(…)} methods.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     * @since   4.0
+     */
+    public static class Row {
+        /**
+         * Name of the measured operation.
+         */
+        public final String operation;
+
+        /**
+         * Number of calls during the measurement time.
+         */
+        public final long numCalls;
+
+        /**
+         * Number of pixels read or written during the measurement time,
+         * or 0 if the operation does not read or write pixels.
+         */
+        public final long numPixels;
+
+        /**
+         * Time spent in the measured calls, in nanoseconds. This time excludes
+         * the preparation steps executed before some operations.
+         */
+        public final long elapsedTime;
+
+        /**
+         * Number of bytes allocated during the measurement time, or -1 if unknown.
+         */
+        public final long allocatedBytes;
+
+        /**
+         * The error message if the operation failed, or {@code null} if it succeeded.
+         */
+        public final String error;
+
+        /**
+         * Creates a new row with the given measurement results.
+         *
+         * @param operation       name of the measured operation.
+         * @param numCalls        number of calls during the measurement time.
+         * @param numPixels       number of pixels read or written during the measurement time.
+         * @param elapsedTime     time spent in the measured calls, in nanoseconds.
+         * @param allocatedBytes  number of bytes allocated during the measurement time, or -1 if unknown.
+         * @param error           the error message if the operation failed, or {@code null}.
+         */
+        public Row(final String operation, final long numCalls, final long numPixels,
+                   final long elapsedTime, final long allocatedBytes, final String error)
+        {
+            this.operation      = operation;
+            this.numCalls       = numCalls;
+            this.numPixels      = numPixels;
+            this.elapsedTime    = elapsedTime;
+            this.allocatedBytes = allocatedBytes;
+            this.error          = error;
+        }
+
+        /**
+         * Returns the number of pixels read or written per second.
+         *
+         * @return the throughput in pixels per second, or NaN if not applicable.
+         */
+        public double getPixelsPerSecond() {
+            return (numPixels != 0) ? numPixels / (elapsedTime / 1E9) : Double.NaN;
+        }
+
+        /**
+         * Returns the mean time of a single call in milliseconds.
+         *
+         * @return the mean time per call, or NaN if the operation failed.
+         */
+        public double getMillisecondsPerCall() {
+            return (numCalls != 0) ? elapsedTime / (numCalls * 1E6) : Double.NaN;
+        }
+
+        /**
+         * Returns the number of bytes allocated per pixel, or per call if the operation does not read pixels.
+         *
+         * @return the allocation rate, or NaN if unknown.
+         */
+        public double getBytesPerPixel() {
+            if (allocatedBytes < 0) return Double.NaN;
+            return allocatedBytes / (double) (numPixels != 0 ? numPixels : numCalls);
+        }
+
+        /**
+         * Returns a string representation of this row for debugging purpose.
+         *
+         * @return a string representation of this measurement result.
+         */
+        @Override
+        public String toString() {
+            if (error != null) {
+                return operation + ": " + error;
+            }
+            return String.format("%-24s %,14.0f pixels/s %10.3f ms/call %10.2f bytes/pixel",
+                    operation, getPixelsPerSecond(), getMillisecondsPerCall(), getBytesPerPixel());
+        }
+    }
+
+    /**
+     * An operation to benchmark. Returns the number of pixels read or written.
+     */
+    @FunctionalInterface
+    private interface Operation {
+        long run() throws IOException;
+    }
+
+    /**
+     * Warmup and measurement times in nanoseconds.
+     */
+    private long warmup, measurement;
+
+    /**
+     * Width and height of the images to write.
+     */
+    private int imageSize;
+
+    /**
+     * Creates a new benchmark with a warmup time of 200 milliseconds
+     * and a measurement time of 1 second for each operation.
+     */
+    public ImageIOBenchmark() {
+        warmup      =  200_000_000L;
+        measurement = 1000_000_000L;
+        imageSize   = 512;
+    }
+
+    /**
+     * Sets the warmup and measurement times for each operation.
+     *
+     * @param warmup       time in milliseconds for warming up each operation.
+     * @param measurement  time in milliseconds for measuring each operation.
+     */
+    public void setTimes(final long warmup, final long measurement) {
+        if (warmup < 0 || measurement <= 0) {
+            throw new IllegalArgumentException("Illegal benchmark time.");
+        }
+        this.warmup      = warmup      * 1000000L;
+        this.measurement = measurement * 1000000L;
+    }
+
+    /**
+     * Sets the width and height of the images created for the writer benchmarks. The default value is 512.
+     *
+     * @param size  width and height of the images to write.
+     */
+    public void setImageSize(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Illegal image size: " + size);
+        }
+        imageSize = size;
+    }
+
+    /**
+     * Measures the throughput of the image reader prepared by the given test case.
+     * Subregions and subsamplings are read only if the corresponding {@code isXXXSupported}
+     * flags of the test case are {@code true}. Random regions are generated with the random
+     * number generator of the test case, so they are reproducible if the test case has been
+     * created with a seed.
+     *
+     * @param  test  the test case which prepare the image reader.
+     * @return the measurement results.
+     * @throws IOException if an error occurred while preparing the reader.
+     */
+    public List<Row> run(final ImageReaderTestCase test) throws IOException {
+        final List<Row> rows = new ArrayList<>();
+        try {
+            test.prepareImageReader();
+            final int imageIndex = 0;
+            rows.add(measure("Stream metadata", () -> {
+                test.reopen();
+                return 0;
+            }, () -> {
+                test.reader.getStreamMetadata();
+                return 0;
+            }));
+            final ImageReader reader = test.reader;
+            final int width  = reader.getWidth (imageIndex);
+            final int height = reader.getHeight(imageIndex);
+            rows.add(measure("Full read", () -> {
+                test.reopenIfNeeded(imageIndex);
+                return numPixels(reader.read(imageIndex, reader.getDefaultReadParam()));
+            }));
+            if (test.isSubregionSupported) {
+                final int tileWidth, tileHeight;
+                if (reader.isImageTiled(imageIndex)) {
+                    tileWidth  = reader.getTileWidth (imageIndex);
+                    tileHeight = reader.getTileHeight(imageIndex);
+                } else {
+                    tileWidth  = Math.min(width,  BLOCK_SIZE);
+                    tileHeight = Math.min(height, BLOCK_SIZE);
+                }
+                rows.add(measure("Tiled read", () -> {
+                    long n = 0;
+                    final ImageReadParam param = reader.getDefaultReadParam();
+                    for (int y=0; y<height; y += tileHeight) {
+                        for (int x=0; x<width; x += tileWidth) {
+                            test.reopenIfNeeded(imageIndex);
+                            param.setSourceRegion(new Rectangle(x, y, Math.min(tileWidth, width - x), Math.min(tileHeight, height - y)));
+                            n += numPixels(reader.read(imageIndex, param));
+                        }
+                    }
+                    return n;
+                }));
+            }
+            if (test.isSubsamplingSupported) {
+                rows.add(measure("Subsampled read", () -> {
+                    test.reopenIfNeeded(imageIndex);
+                    final ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceSubsampling(SUBSAMPLING, SUBSAMPLING, 0, 0);
+                    return numPixels(reader.read(imageIndex, param));
+                }));
+            }
+            if (test.isSubregionSupported) {
+                rows.add(measure("Random region read", () -> {
+                    test.reopenIfNeeded(imageIndex);
+                    final int w = test.random.nextInt(width)  + 1;
+                    final int h = test.random.nextInt(height) + 1;
+                    final ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceRegion(new Rectangle(test.random.nextInt(width - w + 1),
+                                                        test.random.nextInt(height - h + 1), w, h));
+                    return numPixels(reader.read(imageIndex, param));
+                }));
+            }
+        } finally {
+            test.close();
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Measures the throughput of the image writer prepared by the given test case.
+     * The images are written to a temporary buffer or file as done by the conformance tests,
+     * unless {@link ImageWriterTestCase#prepareImageWriter(boolean)} set the output itself.
+     *
+     * @param  test  the test case which prepare the image writer.
+     * @return the measurement results.
+     * @throws IOException if an error occurred while preparing the writer.
+     */
+    public List<Row> run(final ImageWriterTestCase test) throws IOException {
+        final List<Row> rows = new ArrayList<>();
+        try {
+            write(test, "Write 1 byte band",   DataBuffer.TYPE_BYTE,  1, rows);
+            write(test, "Write 3 byte bands",  DataBuffer.TYPE_BYTE,  3, rows);
+            write(test, "Write 1 short band",  DataBuffer.TYPE_SHORT, 1, rows);
+            write(test, "Write 1 float band",  DataBuffer.TYPE_FLOAT, 1, rows);
+        } finally {
+            test.close();
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Measures the throughput of writing an image of the given type, if the writer can encode it.
+     */
+    private void write(final ImageWriterTestCase test, final String operation,
+            final int dataType, final int numBands, final List<Row> rows) throws IOException
+    {
+        final BufferedImage image = ImageBackendTestCase.createImage(dataType, imageSize, imageSize, numBands);
+        ImageBackendTestCase.fill(image.getRaster(), test.random);
+        if (test.canEncodeImage(image)) {
+            final long n = (long) imageSize * imageSize;
+            rows.add(measure(operation, () -> {
+                test.prepareImageWriter(true);
+                test.open((int) Math.min(Integer.MAX_VALUE, n * numBands));
+                return 0;
+            }, () -> {
+                final ImageWriter writer = test.writer;
+                try {
+                    test.write(image, writer.getDefaultWriteParam());
+                } finally {
+                    ImageIOTestCase.close(writer.getOutput());
+                    writer.setOutput(null);
+                }
+                return n;
+            }));
+        }
+    }
+
+    /**
+     * Returns the number of pixels in the given image.
+     */
+    private static long numPixels(final RenderedImage image) {
+        return (long) image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Warms up the given operation, then measures its throughput and allocation rate.
+     * Each step executes the operation at least once.
+     *
+     * @param  name       name of the measured operation.
+     * @param  operation  the operation to measure.
+     * @return the measurement result.
+     */
+    private Row measure(final String name, final Operation operation) {
+        return measure(name, null, operation);
+    }
+
+    /**
+     * Warms up the given operation, then measures its throughput and allocation rate.
+     * Each step executes the operation at least once. If a preparation is specified,
+     * it is executed before each call to the operation but is not measured.
+     *
+     * @param  name       name of the measured operation.
+     * @param  prepare    the preparation to execute before each operation, or {@code null} if none.
+     * @param  operation  the operation to measure.
+     * @return the measurement result.
+     */
+    private Row measure(final String name, final Operation prepare, final Operation operation) {
+        try {
+            long start = System.nanoTime();
+            do {
+                if (prepare != null) prepare.run();
+                operation.run();
+            } while (System.nanoTime() - start < warmup);
+
+            long numCalls  = 0;
+            long numPixels = 0;
+            long elapsed   = 0;
+            long allocated = (ThreadUsage.allocatedBytes() >= 0) ? 0 : -1;
+            start = System.nanoTime();
+            do {
+                if (prepare != null) prepare.run();
+                final long allocatedBefore = ThreadUsage.allocatedBytes();
+                final long startCall = System.nanoTime();
+                numPixels += operation.run();
+                elapsed   += System.nanoTime() - startCall;
+                if (allocated >= 0) {
+                    allocated += ThreadUsage.allocatedBytes() - allocatedBefore;
+                }
+                numCalls++;
+            } while (System.nanoTime() - start < measurement);
+            return new Row(name, numCalls, numPixels, elapsed, allocated, null);
+        } catch (IOException | RuntimeException e) {
+            String message = e.getLocalizedMessage();
+            if (message == null) {
+                message = e.getClass().getSimpleName();
+            }
+            return new Row(name, 0, 0, 0, -1, message);
+        }
+    }
+}
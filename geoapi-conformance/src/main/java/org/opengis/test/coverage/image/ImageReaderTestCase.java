@@ -94,8 +94,10 @@ import static org.junit.Assume.*;
  *   <li>{@link #close()} - to modify the policy of {@linkplain #reader} disposal.</li>
  * </ul>
  *
+ * <p>The same subclass can also be given to {@link ImageIOBenchmark} for measuring the read throughput.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 public abstract strictfp class ImageReaderTestCase extends ImageIOTestCase implements Closeable {
@@ -163,12 +165,36 @@ public abstract strictfp class ImageReaderTestCase extends ImageIOTestCase imple
      *
      * @throws IOException if an error occurred while preparing the {@linkplain #reader}.
      */
-    private void prepareImageReader() throws IOException {
+    final void prepareImageReader() throws IOException {
         prepareImageReader(true);
         assertInputSet(reader);
         validators.validate(reader.getOriginatingProvider());
     }
 
+    /**
+     * Gets a fresh input if the {@linkplain #reader} can not seek back to the image at the given index.
+     * This may happen if the reader input was set in seek-forward-only mode.
+     *
+     * @param  imageIndex  index of the image to read.
+     * @throws IOException if an error occurred while closing the old input or preparing the new one.
+     */
+    final void reopenIfNeeded(final int imageIndex) throws IOException {
+        if (reader.getMinIndex() > imageIndex) {
+            reopen();
+        }
+    }
+
+    /**
+     * Closes the {@linkplain #reader} input and asks the subclass for a fresh one.
+     *
+     * @throws IOException if an error occurred while closing the old input or preparing the new one.
+     */
+    final void reopen() throws IOException {
+        close(reader.getInput());
+        reader.setInput(null);
+        prepareImageReader(true);
+    }
+
     /**
      * Invoked when the image {@linkplain #reader} is about to be used for the first time, or when
      * its {@linkplain ImageReader#getInput() input} needs to be reinitialized. Subclasses need to
@@ -402,11 +428,7 @@ public abstract strictfp class ImageReaderTestCase extends ImageIOTestCase imple
         final ImageReader reader = this.reader;                                         // Protect from changes.
         assertInputSet(reader);
         for (int iterationCount=0; iterationCount<numIterations; iterationCount++) {
-            if (reader.getMinIndex() > imageIndex) {
-                close(reader.getInput());
-                reader.setInput(null);
-                prepareImageReader(true);
-            }
+            reopenIfNeeded(imageIndex);
             final ImageReadParam param = reader.getDefaultReadParam();
             final PixelIterator expected = getIteratorOnRandomSubset(completeImage, param);
             final RenderedImage image;
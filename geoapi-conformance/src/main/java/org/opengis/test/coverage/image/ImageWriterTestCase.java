@@ -85,8 +85,10 @@ import static org.junit.Assume.*;
  *       writer is implemented by a native library.</li>
  * </ul>
  *
+ * <p>The same subclass can also be given to {@link ImageIOBenchmark} for measuring the write throughput.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 public abstract strictfp class ImageWriterTestCase extends ImageIOTestCase implements Closeable {
@@ -238,7 +240,7 @@ public abstract strictfp class ImageWriterTestCase extends ImageIOTestCase imple
      *
      * <p>This method also performs an opportunist validation of the image writer provider.</p>
      */
-    private boolean canEncodeImage(final RenderedImage image) throws IOException {
+    final boolean canEncodeImage(final RenderedImage image) throws IOException {
         prepareImageWriter(false);
         if (writer != null) {
             final ImageWriterSpi spi = writer.getOriginatingProvider();
@@ -260,7 +262,7 @@ public abstract strictfp class ImageWriterTestCase extends ImageIOTestCase imple
      * @return the byte buffer, or {@code null} if this method created a temporary file instead.
      * @throws IOException In an error occurred while setting the output.
      */
-    private ByteArrayOutputStream open(final int capacity) throws IOException {
+    final ByteArrayOutputStream open(final int capacity) throws IOException {
         assertNotNull("The 'writer' field shall be set at construction time or in a method annotated by @Before.", writer);
         if (writer.getOutput() != null) {
             return null;                                // The output has been set by the user himself.
@@ -336,6 +338,27 @@ public abstract strictfp class ImageWriterTestCase extends ImageIOTestCase imple
         }
     }
 
+    /**
+     * Writes the given image with default stream and image metadata completed by
+     * {@link #completeImageMetadata(IIOMetadata, RenderedImage)}. The writer output
+     * shall have been set before this method is invoked.
+     *
+     * @param  image  the image to write.
+     * @param  param  the parameters to give to the writer.
+     * @throws IOException if an error occurred while writing the image.
+     */
+    final void write(final RenderedImage image, final ImageWriteParam param) throws IOException {
+        final IIOMetadata streamMetadata = writer.getDefaultStreamMetadata(param);
+        if (streamMetadata != null) {
+            completeImageMetadata(streamMetadata, null);
+        }
+        final IIOMetadata imageMetadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+        if (imageMetadata != null) {
+            completeImageMetadata(imageMetadata, image);
+        }
+        writer.write(streamMetadata, new IIOImage(image, null, imageMetadata), param);
+    }
+
     /**
      * Writes random subsets of the given image, reads back the image and compares the sample
      * values. This method sets the {@link ImageWriteParam} parameters to random sub-regions,
@@ -356,15 +379,7 @@ public abstract strictfp class ImageWriterTestCase extends ImageIOTestCase imple
             final ImageWriteParam param = writer.getDefaultWriteParam();
             final PixelIterator expected = getIteratorOnRandomSubset(image, param);
             final ByteArrayOutputStream buffer = open(1024);
-            final IIOMetadata streamMetadata = writer.getDefaultStreamMetadata(param);
-            if (streamMetadata != null) {
-                completeImageMetadata(streamMetadata, null);
-            }
-            final IIOMetadata imageMetadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
-            if (imageMetadata != null) {
-                completeImageMetadata(imageMetadata, image);
-            }
-            writer.write(streamMetadata, new IIOImage(image, null, imageMetadata), param);
+            write(image, param);
             final RenderedImage actual = closeAndRead(buffer);
             expected.assertSampleValuesEqual(new PixelIteratorForIO(actual, param), sampleToleranceThreshold);
         }
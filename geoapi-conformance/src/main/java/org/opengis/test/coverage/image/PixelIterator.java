@@ -31,8 +31,16 @@
  */
 package org.opengis.test.coverage.image;
 
+import java.util.stream.IntStream;
 import java.awt.Rectangle;
+import java.awt.image.ComponentSampleModel;
 import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferDouble;
+import java.awt.image.DataBufferFloat;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferShort;
+import java.awt.image.DataBufferUShort;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
@@ -60,11 +68,17 @@ import static org.junit.Assert.*;
  *    // Do some processing with the value here...
  *}</pre>
  *
+ * <p>The {@link #assertSampleValuesEqual(PixelIterator, double, boolean) assertSampleValuesEqual(…)}
+ * method does not use the above loop when invoked before the iteration started. Instead it copies
+ * complete rows of sample values in reusable arrays, reading the {@link DataBuffer} directly when the
+ * {@link SampleModel} is a {@link ComponentSampleModel}, then compares those arrays. This is much faster
+ * for large images and allows to compare rows in parallel.</p>
+ *
  * @see org.opengis.test.Assert#assertSampleValuesEqual(String, RenderedImage, RenderedImage, double)
  *
  * @author  Rémi Marechal (Geomatys)
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 public strictfp class PixelIterator {
@@ -97,7 +111,7 @@ public strictfp class PixelIterator {
      * The iteration bounds in the image, in pixel coordinates.
      * This rectangle may span an arbitrary number of tiles.
      */
-    private final int minX, maxX, maxY;
+    private final int minX, minY, maxX, maxY;
 
     /**
      * The iteration bounds in the image, in tile coordinates.
@@ -120,6 +134,12 @@ public strictfp class PixelIterator {
      */
     private int tileX, tileY;
 
+    /**
+     * Whether {@link #next()} has been invoked at least once. The bulk comparison of sample values
+     * can be used only if this flag is {@code false} for both iterators.
+     */
+    private boolean started;
+
     /**
      * Creates an iterator for the whole area of the given raster.
      *
@@ -182,6 +202,7 @@ public strictfp class PixelIterator {
             maxY = min(maxY, subArea.y + subArea.height);
         }
         this.minX = minX;
+        this.minY = minY;
         this.maxX = maxX;
         this.maxY = maxY;
 
@@ -240,15 +261,16 @@ public strictfp class PixelIterator {
      * @return {@code true} if the next sample value exist.
      */
     public boolean next() {
+        started = true;
         if (++band == numBands) {
             if ((x += xSubsampling) >= currentMaxX) {
                 int nextTile = tileX + 1;               // Needed only when the iteration stops before the maxX of the last tile in a row.
                 tileX = divide(x - image.getTileGridXOffset(), image.getTileWidth(), false);
-                if (max(nextTile, tileX) >= maxTileX) {
+                if (x >= maxX || max(nextTile, tileX) >= maxTileX) {
                     if ((y += ySubsampling) >= currentMaxY) {
                         nextTile = tileY + 1;           // Needed only when the iteration stops before the maxY of the last row of tiles.
                         tileY = divide(y - image.getTileGridYOffset(), image.getTileHeight(), false);
-                        if (max(nextTile, tileY) >= maxTileY) {
+                        if (y >= maxY || max(nextTile, tileY) >= maxTileY) {
                             return false;
                         }
                     }
@@ -386,13 +408,66 @@ public strictfp class PixelIterator {
      * If the images have different sizes, then an <cite>"Unexpected end of iteration"</cite>
      * exception will be thrown when the first iterator reaches the iteration end.
      *
+     * <p>This method is equivalent to <code>{@linkplain #assertSampleValuesEqual(PixelIterator, double,
+     * boolean) assertSampleValuesEqual}(actual, tolerance, false)</code>.</p>
+     *
      * @param  actual     the iterator that contains the actual values to be compared with the "expected" sample values.
      * @param  tolerance  the tolerance threshold for floating point comparison. This threshold does not apply to integer types.
      * @throws AssertionError if a value in this iterator is not equals to a value in the given iterator with the given
      *         tolerance threshold.
      */
     public void assertSampleValuesEqual(final PixelIterator actual, final double tolerance) throws AssertionError {
+        assertSampleValuesEqual(actual, tolerance, false);
+    }
+
+    /**
+     * Compares all sample values iterated by this {@code PixelIterator} with the sample values iterated
+     * by the given iterator, optionally using many threads. This method performs the same comparison than
+     * {@link #assertSampleValuesEqual(PixelIterator, double)}, but if the iteration did not yet started in
+     * both iterators and they iterate over the same number of rows and columns, then the comparison is
+     * done on complete rows copied in arrays instead than sample by sample. If {@code parallel} is
+     * {@code true}, then groups of rows are compared concurrently; in such case the images shall
+     * support concurrent calls to {@link RenderedImage#getTile(int, int)}.
+     *
+     * <p>The position of the iterators after this method call is unspecified.</p>
+     *
+     * @param  actual     the iterator that contains the actual values to be compared with the "expected" sample values.
+     * @param  tolerance  the tolerance threshold for floating point comparison. This threshold does not apply to integer types.
+     * @param  parallel   whether to compare rows in parallel.
+     * @throws AssertionError if a value in this iterator is not equals to a value in the given iterator with the given
+     *         tolerance threshold.
+     *
+     * @since 4.0
+     */
+    public void assertSampleValuesEqual(final PixelIterator actual, final double tolerance, final boolean parallel)
+            throws AssertionError
+    {
         final int dataType = Math.max(getDataType(), actual.getDataType());
+        final int rowLength = getRowLength();
+        final int numRows   = getNumRows();
+        if (!started && !actual.started && rowLength > 0 && numRows > 0
+                && rowLength == actual.getRowLength() && numRows == actual.getNumRows())
+        {
+            final long mismatch;
+            if (parallel) {
+                final int rowsPerChunk = Math.max(1, ROWS_CHUNK_LENGTH / rowLength);
+                final int numChunks = (numRows + rowsPerChunk - 1) / rowsPerChunk;
+                mismatch = IntStream.range(0, numChunks).parallel().mapToLong((chunk) -> {
+                    final int lower = chunk * rowsPerChunk;
+                    return compareRows(actual, dataType, tolerance, lower, Math.min(numRows, lower + rowsPerChunk));
+                }).filter((index) -> index >= 0).min().orElse(-1);
+            } else {
+                mismatch = compareRows(actual, dataType, tolerance, 0, numRows);
+            }
+            if (mismatch >= 0) {
+                final int row    = (int) (mismatch / rowLength);
+                final int column = (int) (mismatch % rowLength);
+                this  .moveTo(row, column);
+                actual.moveTo(row, column);
+                mismatch(actual, dataType);
+            }
+            return;
+        }
         while (next()) {
             assertTrue("Unexpected end of pixel iteration.", actual.next());
             switch (dataType) {
@@ -423,26 +498,218 @@ public strictfp class PixelIterator {
                     break;
                 }
             }
-            /*
-             * Remainder of this block is for formatting the error message.
-             */
-            final Number ev, av;
-            switch (dataType) {
-                case DataBuffer.TYPE_DOUBLE: ev = getSampleDouble(); av = actual.getSampleDouble(); break;
-                case DataBuffer.TYPE_FLOAT:  ev = getSampleFloat();  av = actual.getSampleFloat();  break;
-                default:                     ev = getSample();       av = actual.getSample();       break;
-            }
-            final String lineSeparator = System.getProperty("line.separator", "\n");
-            final StringBuilder buffer = new StringBuilder(1024);
-            buffer.append("Mismatched sample value: expected ").append(ev).append(" but got ").append(av).append(lineSeparator);
-            buffer.append("Pixel coordinate in the complete image: "); position(buffer); buffer.append(lineSeparator);
-            buffer.append("Pixel coordinate in the compared image: "); actual.position(buffer); buffer.append(lineSeparator);
-            actual.completeComparisonFailureMessage(buffer, lineSeparator);
-            fail(buffer.toString());
+            mismatch(actual, dataType);
         }
         assertFalse("Expected end of pixel iteration, but found more values.", actual.next());
     }
 
+    /**
+     * Approximative number of sample values to compare in a single task when the comparison is done in parallel.
+     */
+    private static final int ROWS_CHUNK_LENGTH = 1 << 16;
+
+    /**
+     * Returns the number of sample values in a row of the iteration, or 0 if the row is empty.
+     */
+    private int getRowLength() {
+        return Math.max(0, (maxX - minX + xSubsampling - 1) / xSubsampling) * numBands;
+    }
+
+    /**
+     * Returns the number of rows in the iteration, or 0 if none.
+     */
+    private int getNumRows() {
+        return Math.max(0, (maxY - minY + ySubsampling - 1) / ySubsampling);
+    }
+
+    /**
+     * Moves this iterator to the sample value at the given index in the given row,
+     * for formatting an error message after a bulk comparison.
+     */
+    private void moveTo(final int row, final int index) {
+        band  = index % numBands;
+        x     = minX + (index / numBands) * xSubsampling;
+        y     = minY + row * ySubsampling;
+        tileX = divide(x - image.getTileGridXOffset(), image.getTileWidth(),  false);
+        tileY = divide(y - image.getTileGridYOffset(), image.getTileHeight(), false);
+        updateRaster();
+    }
+
+    /**
+     * Compares the rows in the given range of this iterator and the given iterator, which shall have the same
+     * number of rows and columns. Arrays are allocated once for all rows in the range, so this method can be
+     * invoked concurrently by different threads on different ranges.
+     *
+     * @param  actual     the iterator that contains the actual values.
+     * @param  dataType   the widest datatype of the two iterators.
+     * @param  tolerance  the tolerance threshold for floating point comparison.
+     * @param  lower      index of the first row to compare, inclusive.
+     * @param  upper      index of the last row to compare, exclusive.
+     * @return index of the first mismatched sample, counting from the first sample of row 0, or -1 if none.
+     */
+    private long compareRows(final PixelIterator actual, final int dataType, final double tolerance,
+            final int lower, final int upper)
+    {
+        final int rowLength = getRowLength();
+        final double[] expectedRow = new double[rowLength];
+        final double[] actualRow   = new double[rowLength];
+        final double[][] scratch   = new double[1][];
+        for (int row=lower; row<upper; row++) {
+            this  .readRow(row, expectedRow, scratch);
+            actual.readRow(row, actualRow,   scratch);
+            final int i = compare(expectedRow, actualRow, dataType, tolerance);
+            if (i >= 0) {
+                return row * (long) rowLength + i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the given rows of sample values and returns the index of the first mismatch, or -1 if none.
+     * The fast path compares values with the {@code !=} operator, which vectorizes well. Only values which
+     * are not identical are compared again using the tolerance threshold and the NaN rules documented in
+     * {@link #assertSampleValuesEqual(PixelIterator, double)}.
+     */
+    private static int compare(final double[] expected, final double[] actual, final int dataType, final double tolerance) {
+        for (int i=0; i<expected.length; i++) {
+            final double e = expected[i];
+            final double a = actual  [i];
+            if (e != a) {
+                switch (dataType) {
+                    case DataBuffer.TYPE_DOUBLE: {
+                        if (doubleToLongBits(a) == doubleToLongBits(e) || abs(a-e) <= tolerance) continue;
+                        break;
+                    }
+                    case DataBuffer.TYPE_FLOAT: {
+                        final float fa = (float) a;     // Values were stored from float or int values.
+                        final float fe = (float) e;
+                        if (floatToIntBits(fa) == floatToIntBits(fe) || abs(fa-fe) <= tolerance) continue;
+                        break;
+                    }
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Copies all sample values of the given row of this iteration in the given array.
+     * Values are stored in the same order than this iterator: bands first, then columns.
+     *
+     * @param row      index of the row to copy, from 0 inclusive to {@link #getNumRows()} exclusive.
+     * @param target   where to store the sample values. Length shall be {@link #getRowLength()}.
+     * @param scratch  a single-element array for a temporary buffer, allocated when first needed.
+     */
+    private void readRow(final int row, final double[] target, final double[][] scratch) {
+        final int y = minY + row * ySubsampling;
+        final int tileY = divide(y - image.getTileGridYOffset(), image.getTileHeight(), false);
+        int x = minX;
+        int offset = 0;
+        while (x < maxX) {
+            final int tileX = divide(x - image.getTileGridXOffset(), image.getTileWidth(), false);
+            final Raster tile = image.getTile(tileX, tileY);
+            final int end = min(maxX, tile.getMinX() + tile.getWidth());
+            final int n = (end - x + xSubsampling - 1) / xSubsampling;
+            if (!readDirect(tile, x, y, n, target, offset)) {
+                final int width = (n - 1) * xSubsampling + 1;
+                final int numSourceBands = tile.getNumBands();
+                double[] buffer = scratch[0];
+                if (buffer == null || buffer.length < width * numSourceBands) {
+                    scratch[0] = buffer = new double[width * numSourceBands];
+                }
+                tile.getPixels(x, y, width, 1, buffer);
+                for (int j=0; j<n; j++) {
+                    final int base = j * xSubsampling * numSourceBands;
+                    for (int k=0; k<numBands; k++) {
+                        target[offset + j*numBands + k] = buffer[base + (sourceBands != null ? sourceBands[k] : k)];
+                    }
+                }
+            }
+            offset += n * numBands;
+            x += n * xSubsampling;
+        }
+    }
+
+    /**
+     * Copies sample values directly from the data buffer of the given tile, if its sample model allows that.
+     * This method handles the {@link ComponentSampleModel} case, which includes the pixel interleaved
+     * and banded sample models used by most images.
+     *
+     * @param  tile    the tile from which to read sample values.
+     * @param  x       <var>x</var> coordinate of the first pixel to read.
+     * @param  y       <var>y</var> coordinate of the row to read.
+     * @param  n       number of pixels to read, with {@link #xSubsampling} pixels between each of them.
+     * @param  target  where to store the sample values.
+     * @param  offset  index of the first element to write in the target array.
+     * @return {@code true} on success, or {@code false} if the caller shall use the generic path instead.
+     */
+    private boolean readDirect(final Raster tile, final int x, final int y, final int n, final double[] target, final int offset) {
+        final SampleModel model = tile.getSampleModel();
+        if (!(model instanceof ComponentSampleModel)) {
+            return false;
+        }
+        final ComponentSampleModel sm = (ComponentSampleModel) model;
+        final DataBuffer buffer = tile.getDataBuffer();
+        if (sm.getDataType() != buffer.getDataType()) {
+            return false;
+        }
+        final int[] bankIndices = sm.getBankIndices();
+        final int[] bandOffsets = sm.getBandOffsets();
+        final int   step        = sm.getPixelStride() * xSubsampling;
+        final int   base        = (y - tile.getSampleModelTranslateY()) * sm.getScanlineStride()
+                                + (x - tile.getSampleModelTranslateX()) * sm.getPixelStride();
+        for (int k=0; k<numBands; k++) {
+            final int b    = (sourceBands != null) ? sourceBands[k] : k;
+            final int bank = bankIndices[b];
+            int i = buffer.getOffsets()[bank] + base + bandOffsets[b];
+            int t = offset + k;
+            if (buffer instanceof DataBufferByte) {
+                final byte[] data = ((DataBufferByte) buffer).getData(bank);
+                for (int j=0; j<n; j++, i += step, t += numBands) target[t] = data[i] & 0xFF;
+            } else if (buffer instanceof DataBufferUShort) {
+                final short[] data = ((DataBufferUShort) buffer).getData(bank);
+                for (int j=0; j<n; j++, i += step, t += numBands) target[t] = data[i] & 0xFFFF;
+            } else if (buffer instanceof DataBufferShort) {
+                final short[] data = ((DataBufferShort) buffer).getData(bank);
+                for (int j=0; j<n; j++, i += step, t += numBands) target[t] = data[i];
+            } else if (buffer instanceof DataBufferInt) {
+                final int[] data = ((DataBufferInt) buffer).getData(bank);
+                for (int j=0; j<n; j++, i += step, t += numBands) target[t] = data[i];
+            } else if (buffer instanceof DataBufferFloat) {
+                final float[] data = ((DataBufferFloat) buffer).getData(bank);
+                for (int j=0; j<n; j++, i += step, t += numBands) target[t] = data[i];
+            } else if (buffer instanceof DataBufferDouble) {
+                final double[] data = ((DataBufferDouble) buffer).getData(bank);
+                for (int j=0; j<n; j++, i += step, t += numBands) target[t] = data[i];
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Throws an {@link AssertionError} for a mismatch between the sample values at the current
+     * position of this iterator and the given iterator.
+     */
+    private void mismatch(final PixelIterator actual, final int dataType) {
+        final Number ev, av;
+        switch (dataType) {
+            case DataBuffer.TYPE_DOUBLE: ev = getSampleDouble(); av = actual.getSampleDouble(); break;
+            case DataBuffer.TYPE_FLOAT:  ev = getSampleFloat();  av = actual.getSampleFloat();  break;
+            default:                     ev = getSample();       av = actual.getSample();       break;
+        }
+        final String lineSeparator = System.getProperty("line.separator", "\n");
+        final StringBuilder buffer = new StringBuilder(1024);
+        buffer.append("Mismatched sample value: expected ").append(ev).append(" but got ").append(av).append(lineSeparator);
+        buffer.append("Pixel coordinate in the complete image: "); position(buffer); buffer.append(lineSeparator);
+        buffer.append("Pixel coordinate in the compared image: "); actual.position(buffer); buffer.append(lineSeparator);
+        actual.completeComparisonFailureMessage(buffer, lineSeparator);
+        fail(buffer.toString());
+    }
+
     /**
      * Invoked when a sample value mismatch has been found, for allowing {@link PixelIteratorForIO}
      * to append to the error message the I/O parameters used for the reading or writing process.
@@ -44,7 +44,11 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
-import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -64,6 +68,14 @@ import org.junit.Assert;
  * of the {@code addMetadataToVerify(…)} methods. After the actual values have been specified,
  * they can be compared against the expected value by a call to {@code assertMetadataEquals(…)}.
  *
+ * <p>Alternatively, the {@code compareMetadata(…, DifferenceListener)} methods compare an object
+ * against the expected values while walking through its properties, and report differences as they
+ * are found. This mode does not keep the actual values in memory, which is more suitable when
+ * comparing the metadata of a large number of datasets.</p>
+ *
+ * <p>The properties of each GeoAPI interface are found by reflection only once and cached,
+ * so the same verifier (or different verifiers) can walk through many objects efficiently.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 4.0
  * @since   3.1
@@ -113,6 +125,130 @@ public class ContentVerifier {
         }
     }
 
+    /**
+     * A property of a GeoAPI interface, as a getter method annotated by {@link UML}.
+     * Instances are computed once per interface and cached in {@link #PROPERTIES}.
+     */
+    private static final class Property {
+        /** The getter method, with type changed to {@code (Object)Object}. */
+        final MethodHandle getter;
+
+        /** The UML identifier of the property. */
+        final String identifier;
+
+        /** The type of property values, or of elements if the property is a collection. */
+        final Class<?> valueType;
+
+        /** Whether the property is a collection. */
+        final boolean isCollection;
+
+        /** Creates a new property for the given getter method. */
+        Property(final Method method, final UML spec) {
+            final Class<?> returnType = method.getReturnType();
+            isCollection = Iterable.class.isAssignableFrom(returnType);
+            valueType    = isCollection ? boundOfParameterizedProperty(method.getGenericReturnType()) : returnType;
+            identifier   = spec.identifier();
+            try {
+                getter = MethodHandles.publicLookup().unreflect(method)
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);            // Should never happen since we use only public methods.
+            }
+        }
+
+        /** Returns the value of this property in the given object. */
+        final Object getValue(final Object obj) {
+            try {
+                return getter.invokeExact(obj);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);          // Checked exception thrown by client code.
+            }
+        }
+    }
+
+    /**
+     * The properties of each GeoAPI interface, or {@code null} for types which shall be handled as leaf values.
+     * Leaf types are standard Java classes, international strings, code lists and generic names.
+     */
+    private static final ClassValue<Property[]> PROPERTIES = new ClassValue<Property[]>() {
+        @Override protected Property[] computeValue(final Class<?> type) {
+            if (InternationalString.class.isAssignableFrom(type) ||
+               ControlledVocabulary.class.isAssignableFrom(type) ||
+                        GenericName.class.isAssignableFrom(type) ||
+                           !type.isAnnotationPresent(UML.class))
+            {
+                return null;
+            }
+            final List<Property> properties = new ArrayList<>();
+            for (final Method getter : type.getMethods()) {
+                if (getter.getParameterCount() != 0) {
+                    continue;
+                }
+                if (getter.isAnnotationPresent(Deprecated.class)) {
+                    continue;
+                }
+                final UML spec = getter.getAnnotation(UML.class);
+                if (spec == null || Void.TYPE.equals(getter.getReturnType())) {
+                    continue;
+                }
+                properties.add(new Property(getter, spec));
+            }
+            return properties.toArray(new Property[properties.size()]);
+        }
+    };
+
+    /**
+     * The specialized interfaces implemented by each implementation class, for a given base interface.
+     * For example {@code SPECIALIZED.get(impl).get(CoordinateReferenceSystem.class)} may be {@code GeographicCRS}.
+     *
+     * @see #specialized(Class, Class)
+     */
+    private static final ClassValue<ConcurrentMap<Class<?>,Class<?>>> SPECIALIZED =
+            new ClassValue<ConcurrentMap<Class<?>,Class<?>>>()
+    {
+        @Override protected ConcurrentMap<Class<?>,Class<?>> computeValue(final Class<?> implementation) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Receives the leaf values found while walking through the properties of a metadata object.
+     */
+    @FunctionalInterface
+    private interface ValueConsumer {
+        /** Invoked for each non-null leaf value found at the given path. */
+        void accept(String path, Object value);
+    }
+
+    /**
+     * Receives the differences found by {@code compareMetadata(…, DifferenceListener)} methods.
+     * Differences are reported as soon as they are found, while walking through the actual object.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     * @since   4.0
+     */
+    @FunctionalInterface
+    public interface DifferenceListener {
+        /**
+         * Invoked when a difference is found. Exactly one of the {@code expected} and {@code actual}
+         * arguments may be {@code null}:
+         *
+         * <ul>
+         *   <li>If {@code expected} is null, then the actual value was unexpected.</li>
+         *   <li>If {@code actual} is null, then the expected value is missing.</li>
+         *   <li>Otherwise the actual value does not match the expected value.</li>
+         * </ul>
+         *
+         * @param path      path of the property, like {@code "identificationInfo[0].citation.title"}.
+         * @param expected  the expected value, or {@code null} if the actual value was unexpected.
+         * @param actual    the actual value, or {@code null} if the expected value is missing.
+         */
+        void difference(String path, Object expected, Object actual);
+    }
+
     /**
      * All non-null metadata values found by the {@link #addPropertyValue(Class, Object)} method.
      */
@@ -203,9 +339,9 @@ public class ContentVerifier {
     /**
      * Returns {@code true} if the given property shall be ignored.
      */
-    private boolean isIgnored(final Class<?> type, final UML property) {
+    private boolean isIgnored(final Class<?> type, final Property property) {
         final Set<String> properties = ignore.get(type);
-        return (properties != null) && properties.contains(property.identifier());
+        return (properties != null) && properties.contains(property.identifier);
     }
 
     /**
@@ -243,19 +379,21 @@ public class ContentVerifier {
      *         call to this method, and the values found in those two invocations are not equal.
      */
     private <T> void explode(final Class<T> type, final T actual) {
-        if (actual != null) try {
-            addPropertyValue(type, actual);
-        } catch (InvocationTargetException e) {
-            Throwable cause = e.getTargetException();
-            if (cause instanceof RuntimeException) {
-                throw (RuntimeException) cause;
-            } else if (cause instanceof Error) {
-                throw (Error) cause;
-            } else {
-                throw new RuntimeException(cause);
+        explode(type, actual, (key, obj) -> {
+            final Object previous = metadataValues.put(key, obj);
+            if (previous != null && !previous.equals(obj)) {
+                throw new IllegalStateException(String.format("Metadata element \"%s\" is specified twice "
+                        + "with two different values:%nValue 1: %s%nValue 2: %s%n", key, previous, obj));
             }
-        } catch (IllegalAccessException e) {
-            throw new AssertionError(e);                    // Should never happen since we invoked only public methods.
+        });
+    }
+
+    /**
+     * Walks through all properties of the given object and gives the leaf values to the given consumer.
+     */
+    private <T> void explode(final Class<T> type, final T actual, final ValueConsumer consumer) {
+        if (actual != null) try {
+            addPropertyValue(type, actual, consumer);
         } finally {
             path.setLength(0);
             visited.clear();
@@ -265,72 +403,55 @@ public class ContentVerifier {
     /**
      * Returns the sub-interfaces implemented by the given implementation class. For example is a property type
      * is {@code CoordinateReferenceSystem}, a given instance could implement the {@code GeographicCRS} subtype.
+     * Results are cached for each pair of classes.
      *
      * @param  baseType        the property type.
      * @param  implementation  the class which may implement a specialized type.
      * @return the given type or one of its subtypes implemented by the given class.
      */
-    private static Class<?> specialized(final Class<?> baseType, Class<?> implementation) {
-        do {
-            for (final Class<?> s : implementation.getInterfaces()) {
-                if (baseType.isAssignableFrom(s) && s.isAnnotationPresent(UML.class)) {
-                    return s;
+    private static Class<?> specialized(final Class<?> baseType, final Class<?> implementation) {
+        return SPECIALIZED.get(implementation).computeIfAbsent(baseType, (k) -> {
+            Class<?> c = implementation;
+            do {
+                for (final Class<?> s : c.getInterfaces()) {
+                    if (baseType.isAssignableFrom(s) && s.isAnnotationPresent(UML.class)) {
+                        return s;
+                    }
                 }
-            }
-            implementation = implementation.getSuperclass();
-        } while (implementation != null);
-        return baseType;
+                c = c.getSuperclass();
+            } while (c != null);
+            return baseType;
+        });
     }
 
     /**
-     * Adds the given value in the {@link #metadataValues} map. If the given value is another metadata object,
-     * then this method iterates recursively over all elements in that metadata. The key is the current value
-     * of {@link #path}.
+     * Gives the given value to the given consumer. If the given value is another metadata object, then this method
+     * iterates recursively over all elements in that metadata. The key is the current value of {@link #path}.
      *
-     * @param  type  the GeoAPI interface implemented by the given object, or the standard Java class if not a metadata type.
-     * @param  obj   non-null instance of {@code type} to add in the map.
-     * @throws InvocationTargetException if an error occurred while invoking client code.
+     * @param  type      the GeoAPI interface implemented by the given object, or the standard Java class if not a metadata type.
+     * @param  obj       non-null instance of {@code type} to add in the map.
+     * @param  consumer  where to send the leaf values.
      * @throws IllegalStateException if a different metadata value is already presents for the current {@link #path} key.
      */
-    private void addPropertyValue(Class<?> type, final Object obj) throws InvocationTargetException, IllegalAccessException {
-        if (InternationalString.class.isAssignableFrom(type) ||        // Most common case first.
-           ControlledVocabulary.class.isAssignableFrom(type) ||
-                    GenericName.class.isAssignableFrom(type) ||
-                       !type.isAnnotationPresent(UML.class))
-        {
-            final String key = path.toString();
-            final Object previous = metadataValues.put(key, obj);
-            if (previous != null && !previous.equals(obj)) {
-                throw new IllegalStateException(String.format("Metadata element \"%s\" is specified twice "
-                        + "with two different values:%nValue 1: %s%nValue 2: %s%n", key, previous, obj));
-            }
+    private void addPropertyValue(Class<?> type, final Object obj, final ValueConsumer consumer) {
+        if (PROPERTIES.get(type) == null) {
+            consumer.accept(path.toString(), obj);
         } else {
             final Element recursivityGuard = new Element(type, obj);
             if (visited.add(recursivityGuard)) {
                 final int pathElementPosition = path.length();
                 type = specialized(type, obj.getClass());               // Example: Identification may actually be DataIdentification
-                for (final Method getter : type.getMethods()) {
-                    if (getter.getParameterCount() != 0) {
+                for (final Property property : PROPERTIES.get(type)) {
+                    if (isIgnored(type, property)) {
                         continue;
                     }
-                    if (getter.isAnnotationPresent(Deprecated.class)) {
-                        continue;
-                    }
-                    final UML spec = getter.getAnnotation(UML.class);
-                    if (spec == null || isIgnored(type, spec)) {
-                        continue;
-                    }
-                    Class<?> valueType = getter.getReturnType();
-                    if (Void.TYPE.equals(valueType)) {
-                        continue;
-                    }
-                    final Object value = getter.invoke(obj, (Object[]) null);
+                    final Object value = property.getValue(obj);
                     if (value == null) {
                         continue;
                     }
                     final Iterator<?> values;
-                    if (Iterable.class.isAssignableFrom(valueType)) {
-                        values = ((Collection<?>) value).iterator();
+                    if (property.isCollection) {
+                        values = ((Iterable<?>) value).iterator();
                         if (!values.hasNext()) continue;
                     } else {
                         values = null;
@@ -338,16 +459,15 @@ public class ContentVerifier {
                     if (pathElementPosition != 0) {
                         path.append('.');
                     }
-                    path.append(spec.identifier());
+                    path.append(property.identifier);
                     if (values == null) {
-                        addPropertyValue(valueType, value);
+                        addPropertyValue(property.valueType, value, consumer);
                     } else {
-                        valueType = boundOfParameterizedProperty(getter.getGenericReturnType());
                         final int indexPosition = path.append('[').length();
                         int i = 0;
                         do {
                             path.append(i++).append(']');
-                            addPropertyValue(valueType, values.next());
+                            addPropertyValue(property.valueType, values.next(), consumer);
                             path.setLength(indexPosition);
                         } while (values.hasNext());
                     }
@@ -395,6 +515,26 @@ public class ContentVerifier {
                 || (value instanceof Number) || (value instanceof Boolean);
     }
 
+    /**
+     * Returns {@code true} if the given actual value is equal to the expected value. Floating point numbers
+     * are compared with the precision of the expected value, and character sequences by their string value.
+     */
+    private static boolean isEqual(final Object expected, final Object actual) {
+        if (Objects.equals(expected, actual)) {
+            return true;
+        } else if (expected instanceof Number && actual instanceof Number) {
+            if (expected instanceof Float) {
+                return Float.floatToIntBits((Float) expected) == Float.floatToIntBits(((Number) actual).floatValue());
+            } else if (expected instanceof Double) {
+                return Double.doubleToLongBits((Double) expected) == Double.doubleToLongBits(((Number) actual).doubleValue());
+            }
+        } else if (expected instanceof CharSequence) {
+            // The main intent is to convert InternationalString.
+            return Objects.equals(expected.toString(), actual.toString());
+        }
+        return false;
+    }
+
     /**
      * Implementation of {@code compareMetadata(…)} public methods. This implementation removes properties
      * from the given map as they are found. After this method completed, the remaining entries in the given
@@ -409,27 +549,8 @@ public class ContentVerifier {
             if (actual != null) {
                 it.remove();
                 final Object expected = entry.getValue();
-                if (Objects.equals(expected, actual)) {
+                if (isEqual(expected, actual)) {
                     continue;
-                } else if (expected instanceof Number && actual instanceof Number) {
-                    if (expected instanceof Float) {
-                        if (Float.floatToIntBits((Float) expected) ==
-                            Float.floatToIntBits(((Number) actual).floatValue()))
-                        {
-                            continue;
-                        }
-                    } else if (expected instanceof Double) {
-                        if (Double.doubleToLongBits((Double) expected) ==
-                            Double.doubleToLongBits(((Number) actual).doubleValue()))
-                        {
-                            continue;
-                        }
-                    }
-                } else if (expected instanceof CharSequence) {
-                    // The main intent is to convert InternationalString.
-                    if (Objects.equals(expected.toString(), actual.toString())) {
-                        continue;
-                    }
                 }
                 mismatches.add(new AbstractMap.SimpleEntry<>(key, new Mismatch(expected, actual)));
             }
@@ -496,6 +617,76 @@ public class ContentVerifier {
         return filterProperties(m.entrySet());
     }
 
+    /**
+     * Compares the properties of the given metadata against the expected values, reporting differences
+     * to the given listener as they are found. Keys in the {@code expected} map are paths as documented in
+     * {@link #compareMetadata(Map)}. Contrarily to {@code addMetadataToVerify(…)}, this method does not store
+     * the actual values in this verifier; only the keys of the expected values found so far are retained.
+     * Consequently this method does not detect properties specified twice with different values,
+     * and the comparison results are not included in {@link #toString()}.
+     *
+     * <p>Properties declared by {@link #addPropertyToIgnore(Class, String)} are ignored.
+     * Missing values are reported after all actual values have been compared.</p>
+     *
+     * @param  actual    the metadata read from a dataset, or {@code null} if none.
+     * @param  expected  the expected values of properties identified by the keys.
+     * @param  listener  the listener to notify about each difference.
+     * @return {@code true} if all properties match, with no missing property and no unexpected property.
+     *
+     * @since 4.0
+     */
+    public boolean compareMetadata(final Metadata actual, final Map<String,?> expected, final DifferenceListener listener) {
+        return compare(Metadata.class, actual, expected, listener);
+    }
+
+    /**
+     * Compares the properties of the given CRS against the expected values, reporting differences
+     * to the given listener as they are found. This method performs the same work than
+     * {@link #compareMetadata(Metadata, Map, DifferenceListener)} for a CRS.
+     *
+     * @param  actual    the CRS read from a dataset, or {@code null} if none.
+     * @param  expected  the expected values of properties identified by the keys.
+     * @param  listener  the listener to notify about each difference.
+     * @return {@code true} if all properties match, with no missing property and no unexpected property.
+     *
+     * @since 4.0
+     */
+    public boolean compareMetadata(final CoordinateReferenceSystem actual, final Map<String,?> expected,
+            final DifferenceListener listener)
+    {
+        return compare(CoordinateReferenceSystem.class, actual, expected, listener);
+    }
+
+    /**
+     * Implementation of the {@code compareMetadata(…, DifferenceListener)} methods.
+     */
+    private <T> boolean compare(final Class<T> type, final T actual, final Map<String,?> expected,
+            final DifferenceListener listener)
+    {
+        Objects.requireNonNull(listener);
+        final Set<String> found = new HashSet<>();
+        final boolean[] same = {true};
+        explode(type, actual, (key, value) -> {
+            final Object e = expected.get(key);
+            if (e == null || !isEqual(e, value)) {
+                listener.difference(key, e, value);
+                same[0] = false;
+            }
+            if (e != null) {
+                found.add(key);
+            }
+        });
+        if (found.size() != expected.size()) {
+            for (final Map.Entry<String,?> entry : expected.entrySet()) {
+                if (!found.contains(entry.getKey())) {
+                    listener.difference(entry.getKey(), entry.getValue(), null);
+                    same[0] = false;
+                }
+            }
+        }
+        return same[0];
+    }
+
     /**
      * Asserts that actual metadata properties are equal to the expected values.
      * The {@code path} argument identifies a metadata element like the following examples
@@ -49,7 +49,7 @@ import static org.opengis.test.referencing.Utilities.*;
  * convenient way to validate various kinds of objects.</p>
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   2.2
  *
  * @todo Add checks for Unit of Measurement depending on the coordinate system type.
@@ -314,7 +314,7 @@ public class CSValidator extends ReferencingValidator {
         for (int i=0; i<dimension; i++) {
             final CoordinateSystemAxis axis = object.getAxis(i);
             mandatory("CoordinateSystem: axis can't be null.", axis);
-            validate(axis);
+            container.validate(axis);
         }
     }
 
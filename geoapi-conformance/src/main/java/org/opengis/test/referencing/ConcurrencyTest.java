@@ -0,0 +1,520 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.referencing;
+
+import java.util.List;
+import java.util.Random;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.opengis.util.Factory;
+import org.opengis.util.FactoryException;
+import org.opengis.util.NoSuchIdentifierException;
+import org.opengis.referencing.cs.CoordinateSystem;
+import org.opengis.referencing.crs.CRSAuthorityFactory;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransformFactory;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.test.Configuration;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static java.lang.StrictMath.*;
+import static org.junit.Assume.*;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the use of the same factories and math transforms by many threads concurrently.
+ * Each test runs the same operations on the same instances from {@link #numThreads} threads
+ * started together, then compares the results with a single-threaded run. Any difference is
+ * a symptom of a data race, for example in a lazily computed field which is not properly
+ * published.
+ *
+ * <p>The concurrent executions are performed <em>before</em> the single-threaded reference run,
+ * in order to exercise the lazy initializations (for example of inverse transforms or of factory
+ * caches) in the concurrent context. Implementations which are not thread-safe can declare it by
+ * setting the {@link org.opengis.test.Configuration.Key#isConcurrentTransformSupported} or
+ * {@link org.opengis.test.Configuration.Key#isConcurrentFactorySupported} flags to {@code false}
+ * in their {@link org.opengis.test.ImplementationDetails}.</p>
+ *
+ * <p>In addition to the correctness tests, {@link #testScalability()} measures the throughput of
+ * the {@code transform(double[], …)} method for increasing numbers of threads. The measurements
+ * are stored in the {@link #threadCounts} and {@link #throughputs} fields for inspection by
+ * subclasses, since the expected scaling depends on the hardware. Because this measurement is
+ * a benchmark rather than a conformance test, it is skipped unless the {@value #SCALABILITY_KEY}
+ * system property is {@code true} or a subclass sets {@link #isScalabilityMeasured} to {@code true}.</p>
+ *
+ * <div class="note"><b>Usage example:</b>
+ * in order to specify their factories and run the tests in a JUnit framework, implementors can
+ * define a subclass in their own test suite as in the example below:
+ *
+ * <blockquote><pre>import org.junit.runner.RunWith;
+ *import org.junit.runners.JUnit4;
+ *import org.opengis.test.referencing.ConcurrencyTest;
+ *
+ *&#64;RunWith(JUnit4.class)
+ *public class MyTest extends ConcurrencyTest {
+ *    public MyTest() {
+ *        super(new MyMathTransformFactory(), new MyCRSAuthorityFactory());
+ *    }
+ *}</pre></blockquote>
+ * </div>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+@RunWith(Parameterized.class)
+public strictfp class ConcurrencyTest extends TransformTestCase {
+    /**
+     * Number of points to transform in each task.
+     */
+    private static final int NUM_POINTS = 1000;
+
+    /**
+     * The system property for enabling {@link #testScalability()} by default.
+     */
+    public static final String SCALABILITY_KEY = "org.opengis.test.scalability";
+
+    /**
+     * Number of times that each thread repeats the same operation.
+     */
+    private static final int NUM_ITERATIONS = 50;
+
+    /**
+     * The EPSG codes of the CRS to create concurrently. Codes not supported by
+     * the authority factory are ignored.
+     */
+    private static final String[] CODES = {
+        "EPSG:4326", "EPSG:4979", "EPSG:4267", "EPSG:4807", "EPSG:3395",
+        "EPSG:32632", "EPSG:27700", "EPSG:2154", "EPSG:3857", "EPSG:5041"
+    };
+
+    /**
+     * The factory for creating {@link MathTransform} objects, or {@code null} if none.
+     */
+    protected final MathTransformFactory mtFactory;
+
+    /**
+     * The factory for creating {@link CoordinateReferenceSystem} objects, or {@code null} if none.
+     */
+    protected final CRSAuthorityFactory crsAuthorityFactory;
+
+    /**
+     * {@code true} if the same {@link MathTransform} instance can be used concurrently.
+     * If {@code false}, the tests on math transforms are skipped.
+     */
+    protected boolean isConcurrentTransformSupported;
+
+    /**
+     * {@code true} if the same factory instance can be used concurrently.
+     * If {@code false}, the tests on authority factories are skipped.
+     */
+    protected boolean isConcurrentFactorySupported;
+
+    /**
+     * Number of threads to use for the concurrent executions.
+     * The default value is the number of available processors, with a minimum of 4.
+     */
+    protected int numThreads;
+
+    /**
+     * {@code true} if {@link #testScalability()} shall be run. The default value is {@code true}
+     * only if the {@value #SCALABILITY_KEY} system property is {@code "true"}.
+     */
+    protected boolean isScalabilityMeasured;
+
+    /**
+     * Numbers of threads used by {@link #testScalability()}, or {@code null} if that test has not been run.
+     * Values are 1, 2, 4, 8 … up to {@link #numThreads} inclusive.
+     */
+    protected int[] threadCounts;
+
+    /**
+     * Numbers of points transformed per second for each number of threads in {@link #threadCounts},
+     * or {@code null} if {@link #testScalability()} has not been run.
+     */
+    protected double[] throughputs;
+
+    /**
+     * Returns a default set of factories to use for running the tests. Those factories are given
+     * in arguments to the constructor when this test class is instantiated directly by JUnit (for
+     * example as a {@linkplain org.junit.runners.Suite.SuiteClasses suite} element), instead than
+     * sub-classed by the implementor. The factories are fetched as documented in the
+     * {@link #factories(Class[])} javadoc.
+     *
+     * @return the default set of arguments to be given to the {@code ConcurrencyTest} constructor.
+     */
+    @Parameterized.Parameters
+    @SuppressWarnings("unchecked")
+    public static List<Factory[]> factories() {
+        return factories(MathTransformFactory.class, CRSAuthorityFactory.class);
+    }
+
+    /**
+     * Creates a new test using the given factories. If a given factory is {@code null},
+     * then the tests which depend on it will be skipped.
+     *
+     * @param mtFactory   factory for creating {@link MathTransform} instances.
+     * @param crsFactory  factory for creating {@link CoordinateReferenceSystem} instances.
+     */
+    public ConcurrencyTest(final MathTransformFactory mtFactory, final CRSAuthorityFactory crsFactory) {
+        super(mtFactory, crsFactory);
+        this.mtFactory      = mtFactory;
+        crsAuthorityFactory = crsFactory;
+        @SuppressWarnings("unchecked")
+        final boolean[] isEnabled = getEnabledFlags(
+                Configuration.Key.isConcurrentTransformSupported,
+                Configuration.Key.isConcurrentFactorySupported);
+        isConcurrentTransformSupported = isEnabled[0];
+        isConcurrentFactorySupported   = isEnabled[1];
+        numThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        isScalabilityMeasured = Boolean.getBoolean(SCALABILITY_KEY);
+    }
+
+    /**
+     * Returns information about the configuration of the test which has been run.
+     * This method returns a map containing:
+     *
+     * <ul>
+     *   <li>All the entries defined in the {@linkplain TransformTestCase#configuration() parent class}.</li>
+     *   <li>All the following values associated to the {@link org.opengis.test.Configuration.Key} of the same name:
+     *     <ul>
+     *       <li>{@link #isConcurrentTransformSupported}</li>
+     *       <li>{@link #isConcurrentFactorySupported}</li>
+     *       <li>{@link #mtFactory}</li>
+     *       <li>{@link #crsAuthorityFactory}</li>
+     *     </ul>
+     *   </li>
+     * </ul>
+     *
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Configuration configuration() {
+        final Configuration op = super.configuration();
+        assertNull(op.put(Configuration.Key.isConcurrentTransformSupported, isConcurrentTransformSupported));
+        assertNull(op.put(Configuration.Key.isConcurrentFactorySupported,   isConcurrentFactorySupported));
+        assertNull(op.put(Configuration.Key.mtFactory,                      mtFactory));
+        assertNull(op.put(Configuration.Key.crsAuthorityFactory,            crsAuthorityFactory));
+        return op;
+    }
+
+    /**
+     * Returns the transform to test, creating a two-dimensional affine transform if needed.
+     * If the {@link #transform} field has been set before the test is run, then that transform
+     * is used directly. This allow implementors to test their own transforms.
+     */
+    private MathTransform createTransform() throws FactoryException {
+        if (transform == null) {
+            assumeNotNull(mtFactory);
+            final double θ = toRadians(30);
+            transform = mtFactory.createAffineTransform(new SimpleMatrix(3, 3,
+                    2*cos(θ), -2*sin(θ),  1000,
+                    2*sin(θ),  2*cos(θ),  -500,
+                    0,         0,            1));
+            assertNotNull(transform);
+        }
+        return transform;
+    }
+
+    /**
+     * Returns random source coordinates for the transform to test.
+     */
+    private static double[] createSourcePoints(final int dimension) {
+        final Random random = new Random(4217903625810443521L);
+        final double[] source = new double[NUM_POINTS * dimension];
+        for (int i=0; i<source.length; i++) {
+            source[i] = random.nextDouble() * 2000 - 1000;
+        }
+        return source;
+    }
+
+    /**
+     * Executes the given task in {@code n} threads started together, and returns the results of all threads.
+     * Checked exceptions thrown by a task are rethrown in the calling thread.
+     *
+     * @param  n     number of threads.
+     * @param  task  the task to execute in each thread. The argument is the thread index.
+     * @return the results of each thread, in thread index order.
+     */
+    private static <T> List<T> runConcurrently(final int n, final Task<T> task)
+            throws FactoryException, TransformException, InterruptedException
+    {
+        final CountDownLatch ready = new CountDownLatch(n);
+        final ExecutorService executor = Executors.newFixedThreadPool(n);
+        try {
+            final List<Future<T>> futures = new ArrayList<>(n);
+            for (int i=0; i<n; i++) {
+                final int index = i;
+                futures.add(executor.submit((Callable<T>) () -> {
+                    ready.countDown();
+                    ready.await();              // Start all threads together for maximizing contention.
+                    return task.run(index);
+                }));
+            }
+            final List<T> results = new ArrayList<>(n);
+            for (final Future<T> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof Error)              throw (Error)              cause;
+                    if (cause instanceof RuntimeException)   throw (RuntimeException)   cause;
+                    if (cause instanceof FactoryException)   throw (FactoryException)   cause;
+                    if (cause instanceof TransformException) throw (TransformException) cause;
+                    throw new AssertionError(cause);
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A task to execute in each thread.
+     *
+     * @param <T>  the type of result.
+     */
+    @FunctionalInterface
+    private interface Task<T> {
+        T run(int threadIndex) throws Exception;
+    }
+
+    /**
+     * The results of operations on a math transform, computed by a single thread.
+     */
+    private static final class Results {
+        /** Results of {@code transform(double[], …)}. */
+        final double[] forward;
+
+        /** Results of {@code transform(DirectPosition, DirectPosition)} for the first points. */
+        final double[] positions;
+
+        /** Results of {@code inverse().transform(double[], …)}, or {@code null} if not tested. */
+        final double[] inverse;
+
+        /** Derivative at the first point, or {@code null} if not tested. */
+        final double[] derivative;
+
+        /**
+         * Applies all operations on the given transform.
+         */
+        Results(final MathTransform tr, final double[] source,
+                final boolean isInverseSupported, final boolean isDerivativeSupported) throws TransformException
+        {
+            final int srcDim = tr.getSourceDimensions();
+            final int tgtDim = tr.getTargetDimensions();
+            forward = new double[NUM_POINTS * tgtDim];
+            tr.transform(source, 0, forward, 0, NUM_POINTS);
+            final int numPositions = NUM_POINTS / 10;
+            positions = new double[numPositions * tgtDim];
+            final SimpleDirectPosition ptSrc = new SimpleDirectPosition(srcDim);
+            final SimpleDirectPosition ptDst = new SimpleDirectPosition(tgtDim);
+            for (int i=0; i<numPositions; i++) {
+                System.arraycopy(source, i*srcDim, ptSrc.ordinates, 0, srcDim);
+                assertSame("MathTransform.transform(DirectPosition, DirectPosition)", ptDst, tr.transform(ptSrc, ptDst));
+                System.arraycopy(ptDst.ordinates, 0, positions, i*tgtDim, tgtDim);
+            }
+            if (isInverseSupported) {
+                inverse = new double[NUM_POINTS * srcDim];
+                tr.inverse().transform(forward, 0, inverse, 0, NUM_POINTS);
+            } else {
+                inverse = null;
+            }
+            if (isDerivativeSupported) {
+                System.arraycopy(source, 0, ptSrc.ordinates, 0, srcDim);
+                final Matrix m = tr.derivative(ptSrc);
+                derivative = new double[m.getNumRow() * m.getNumCol()];
+                for (int k=0,j=0; j<m.getNumRow(); j++) {
+                    for (int i=0; i<m.getNumCol(); i++) {
+                        derivative[k++] = m.getElement(j, i);
+                    }
+                }
+            } else {
+                derivative = null;
+            }
+        }
+
+        /**
+         * Verifies that the given results are identical to this result.
+         */
+        void assertSameResults(final String message, final Results other) {
+            assertArrayEquals(message + ": transform(double[])",       forward,    other.forward,    0);
+            assertArrayEquals(message + ": transform(DirectPosition)", positions,  other.positions,  0);
+            assertArrayEquals(message + ": inverse()",                 inverse,    other.inverse,    0);
+            assertArrayEquals(message + ": derivative(DirectPosition)", derivative, other.derivative, 0);
+        }
+    }
+
+    /**
+     * Tests the concurrent use of the same math transform instance. Each thread transforms the same
+     * points many times using the {@code transform(double[], …)} and {@code transform(DirectPosition,
+     * DirectPosition)} methods, gets the inverse transform and computes the derivative. The results
+     * shall be identical between all threads and all iterations, and identical to a single-threaded
+     * run executed after the concurrent runs.
+     *
+     * @throws FactoryException if the math transform can not be created.
+     * @throws TransformException if a coordinate can not be transformed.
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testTransform() throws FactoryException, TransformException, InterruptedException {
+        assumeTrue(isConcurrentTransformSupported);
+        final MathTransform tr = createTransform();
+        final double[] source = createSourcePoints(tr.getSourceDimensions());
+        final List<Results> concurrent = runConcurrently(numThreads, (threadIndex) -> {
+            final Results first = new Results(tr, source, isInverseTransformSupported, isDerivativeSupported);
+            for (int i=1; i<NUM_ITERATIONS; i++) {
+                first.assertSameResults("Thread " + threadIndex + ", iteration " + i,
+                        new Results(tr, source, isInverseTransformSupported, isDerivativeSupported));
+            }
+            return first;
+        });
+        final Results expected = new Results(tr, source, isInverseTransformSupported, isDerivativeSupported);
+        for (int i=0; i<concurrent.size(); i++) {
+            expected.assertSameResults("Thread " + i, concurrent.get(i));
+        }
+    }
+
+    /**
+     * Tests the concurrent creation of Coordinate Reference Systems from the same authority factory.
+     * Each thread creates the same CRS in a different order. The CRS shall have the same name, number
+     * of dimensions and axis directions than the CRS created by a single-threaded run executed after
+     * the concurrent runs. Codes not supported by the factory are ignored.
+     *
+     * @throws FactoryException if an error occurred while creating a CRS.
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testAuthorityFactory() throws FactoryException, InterruptedException {
+        assumeTrue(isConcurrentFactorySupported);
+        assumeNotNull(crsAuthorityFactory);
+        final List<CoordinateReferenceSystem[]> concurrent;
+        try {
+            concurrent = runConcurrently(numThreads, (threadIndex) -> {
+                final CoordinateReferenceSystem[] crs = new CoordinateReferenceSystem[CODES.length];
+                for (int i=0; i<CODES.length; i++) {
+                    final int k = (i + threadIndex) % CODES.length;
+                    crs[k] = create(CODES[k]);
+                }
+                return crs;
+            });
+        } catch (TransformException e) {
+            throw new AssertionError(e);                // Should never happen.
+        }
+        for (int k=0; k<CODES.length; k++) {
+            final String code = CODES[k];
+            final CoordinateReferenceSystem expected = create(code);
+            for (int i=0; i<concurrent.size(); i++) {
+                final CoordinateReferenceSystem actual = concurrent.get(i)[k];
+                final String message = code + " created by thread " + i;
+                if (expected == null) {
+                    assertNull(message, actual);
+                    continue;
+                }
+                assertNotNull(message, actual);
+                assertEquals(message + ": name", expected.getName().getCode(), actual.getName().getCode());
+                final CoordinateSystem cs = expected.getCoordinateSystem();
+                final CoordinateSystem ca = actual.getCoordinateSystem();
+                assertEquals(message + ": dimension", cs.getDimension(), ca.getDimension());
+                for (int d=cs.getDimension(); --d >= 0;) {
+                    assertEquals(message + ": axis direction", cs.getAxis(d).getDirection(), ca.getAxis(d).getDirection());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the CRS for the given code, or returns {@code null} if the code is not supported.
+     */
+    private CoordinateReferenceSystem create(final String code) throws FactoryException {
+        try {
+            return crsAuthorityFactory.createCoordinateReferenceSystem(code);
+        } catch (NoSuchIdentifierException e) {       // Include NoSuchAuthorityCodeException.
+            return null;
+        }
+    }
+
+    /**
+     * Measures the throughput of the {@code transform(double[], …)} method for 1, 2, 4 … {@link #numThreads}
+     * threads using the same transform instance. The results are stored in the {@link #threadCounts} and
+     * {@link #throughputs} fields. This test verifies only that all measurements succeeded, since the
+     * expected scaling depends on the hardware. This test is skipped unless {@link #isScalabilityMeasured}
+     * is {@code true}.
+     *
+     * @throws FactoryException if the math transform can not be created.
+     * @throws TransformException if a coordinate can not be transformed.
+     * @throws InterruptedException if the test has been interrupted.
+     */
+    @Test
+    public void testScalability() throws FactoryException, TransformException, InterruptedException {
+        assumeTrue(isScalabilityMeasured);
+        assumeTrue(isConcurrentTransformSupported);
+        final MathTransform tr = createTransform();
+        final double[] source = createSourcePoints(tr.getSourceDimensions());
+        final int tgtDim = tr.getTargetDimensions();
+        final int repetitions = NUM_ITERATIONS * 10;
+        final Task<Void> task = (threadIndex) -> {
+            final double[] target = new double[NUM_POINTS * tgtDim];
+            for (int i=0; i<repetitions; i++) {
+                tr.transform(source, 0, target, 0, NUM_POINTS);
+            }
+            return null;
+        };
+        runConcurrently(1, task);                               // Warmup.
+        int count = 0;
+        for (int n=1; n < numThreads; n <<= 1) count++;
+        threadCounts = new int[count + 1];
+        throughputs  = new double[count + 1];
+        for (int i=0, n=1; i <= count; i++, n <<= 1) {
+            n = Math.min(n, numThreads);
+            final long start = System.nanoTime();
+            runConcurrently(n, task);
+            final double elapsed = (System.nanoTime() - start) / 1E9;
+            threadCounts[i] = n;
+            throughputs [i] = (double) n * repetitions * NUM_POINTS / elapsed;
+            assertTrue("Throughput shall be positive.", throughputs[i] > 0 && !Double.isInfinite(throughputs[i]));
+        }
+    }
+}
@@ -49,7 +49,7 @@ import static org.opengis.test.Assert.*;
  * convenient way to validate various kinds of objects.</p>
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   2.2
  */
 public class DatumValidator extends ReferencingValidator {
@@ -156,11 +156,11 @@ public class DatumValidator extends ReferencingValidator {
         validateIdentifiedObject(object);
         final PrimeMeridian meridian = object.getPrimeMeridian();
         mandatory("GeodeticDatum: shall have a prime meridian.", meridian);
-        validate(meridian);
+        container.validate(meridian);
 
         final Ellipsoid ellipsoid = object.getEllipsoid();
         mandatory("GeodeticDatum: shall have an ellipsoid.", ellipsoid);
-        validate(ellipsoid);
+        container.validate(ellipsoid);
     }
 
     /**
@@ -0,0 +1,571 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.referencing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.test.CalculationType;
+import org.opengis.test.ToleranceModifier;
+
+import static java.lang.StrictMath.*;
+
+
+/**
+ * Streams a large number of random points through a {@link MathTransform} and collects error statistics.
+ * This class is a high-volume complement to {@link TransformTestCase#verifyInDomain(double[], double[], int[],
+ * java.util.Random) verifyInDomain(…)}, intended for validating optimized transform implementations with
+ * hundreds of millions of points. For each point, this class verifies that:
+ *
+ * <ul>
+ *   <li>the result of {@link MathTransform#transform(double[], int, double[], int, int)} is equal to the
+ *       result of {@link MathTransform#transform(DirectPosition, DirectPosition)} within the tolerance threshold;</li>
+ *   <li>if the inverse transform is verified, transforming the result back with the inverse transform gives
+ *       the source point within the tolerance threshold.</li>
+ * </ul>
+ *
+ * Points are generated in batches in buffers allocated once per thread, so memory usage does not depend on
+ * the number of points. The domain is divided in regions along the first two source dimensions, and the
+ * statistics (maximal error, number of failures, histogram of errors by power of 10) are collected for each
+ * region. Those statistics show in which parts of the domain an implementation is less accurate.
+ *
+ * <p>Contrarily to the {@code verify…} methods in {@link TransformTestCase}, this class does not stop at the
+ * first error. Callers decide what to do with the {@link Result}. The {@link TransformTestCase#fuzzInDomain
+ * TransformTestCase.fuzzInDomain(…)} method fails the test if any point exceeded the tolerance threshold.</p>
+ *
+ * <p>The transform must be thread-safe if more than one thread is used. The random points are reproducible
+ * for a given seed and batch size regardless the number of threads, because the random number generator of
+ * each batch is seeded from the given seed and the batch index. However the assignment of batches to threads
+ * is not reproducible; consequently the worst point of a region may differ between runs when many points
+ * have the same error.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class TransformFuzzer {
+    /**
+     * Number of buckets in the error histograms. Bucket 0 counts errors smaller than 1E-15
+     * (including exact results). Buckets 1 to 15 count errors in the [10<sup>i-16</sup> … 10<sup>i-15</sup>)
+     * range. The last bucket counts errors equal or greater than 1, including NaN.
+     */
+    public static final int NUM_BUCKETS = 17;
+
+    /**
+     * Statistics about the points generated in a sub-area of the domain.
+     * Instances are created by {@link TransformFuzzer#run(double[], double[], long, long)}.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     * @since   4.0
+     */
+    public static class Region {
+        /**
+         * The minimal and maximal source coordinates of this region along the first two dimensions
+         * (or only one if the source is one-dimensional).
+         */
+        public final double[] lower, upper;
+
+        /**
+         * Number of points generated in this region.
+         */
+        public long numPoints;
+
+        /**
+         * Number of points for which the bulk and the per-point transform results differ by more than
+         * the tolerance threshold, or for which the inverse transform does not give back the source point.
+         */
+        public long numFailures, numRoundTripFailures;
+
+        /**
+         * Maximal difference found between the bulk and the per-point transform results,
+         * or between a source point and the result of its round-trip.
+         */
+        public double maxError, maxRoundTripError;
+
+        /**
+         * Source coordinates of the point having the {@link #maxError} or the {@link #maxRoundTripError},
+         * or {@code null} if none.
+         */
+        public double[] worstPoint, worstRoundTripPoint;
+
+        /**
+         * Number of points in each error range. See {@link TransformFuzzer#NUM_BUCKETS} for the ranges.
+         */
+        public final long[] errorHistogram, roundTripHistogram;
+
+        /**
+         * Creates a new region with the given bounds.
+         *
+         * @param lower  the minimal source coordinates of the region.
+         * @param upper  the maximal source coordinates of the region.
+         */
+        public Region(final double[] lower, final double[] upper) {
+            this.lower = lower;
+            this.upper = upper;
+            errorHistogram     = new long[NUM_BUCKETS];
+            roundTripHistogram = new long[NUM_BUCKETS];
+        }
+
+        /**
+         * Records the result of a comparison between two transforms of the same point.
+         */
+        final void addError(final double error, final boolean failed, final double[] source, final int offset, final int dimension) {
+            errorHistogram[bucket(error)]++;
+            if (failed) numFailures++;
+            if (!(error <= maxError)) {
+                maxError = error;
+                worstPoint = Arrays.copyOfRange(source, offset, offset + dimension);
+            }
+        }
+
+        /**
+         * Records the result of a round-trip of a point.
+         */
+        final void addRoundTripError(final double error, final boolean failed, final double[] source, final int offset, final int dimension) {
+            roundTripHistogram[bucket(error)]++;
+            if (failed) numRoundTripFailures++;
+            if (!(error <= maxRoundTripError)) {
+                maxRoundTripError = error;
+                worstRoundTripPoint = Arrays.copyOfRange(source, offset, offset + dimension);
+            }
+        }
+
+        /**
+         * Adds the statistics of the given region (computed by another thread) to this region.
+         */
+        final void merge(final Region other) {
+            numPoints            += other.numPoints;
+            numFailures          += other.numFailures;
+            numRoundTripFailures += other.numRoundTripFailures;
+            if (!(other.maxError <= maxError)) {
+                maxError   = other.maxError;
+                worstPoint = other.worstPoint;
+            }
+            if (!(other.maxRoundTripError <= maxRoundTripError)) {
+                maxRoundTripError   = other.maxRoundTripError;
+                worstRoundTripPoint = other.worstRoundTripPoint;
+            }
+            for (int i=0; i<NUM_BUCKETS; i++) {
+                errorHistogram[i]     += other.errorHistogram[i];
+                roundTripHistogram[i] += other.roundTripHistogram[i];
+            }
+        }
+
+        /**
+         * Returns a string representation of this region statistics on a single line.
+         *
+         * @return a string representation of this region.
+         */
+        @Override
+        public String toString() {
+            return String.format("%s … %s: %,d points, max error %.3g (%,d failures), max round-trip error %.3g (%,d failures)",
+                    Arrays.toString(lower), Arrays.toString(upper), numPoints,
+                    maxError, numFailures, maxRoundTripError, numRoundTripFailures);
+        }
+    }
+
+    /**
+     * The statistics collected by a call to {@link TransformFuzzer#run(double[], double[], long, long)}.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     * @since   4.0
+     */
+    public static class Result {
+        /**
+         * Statistics for each region of the domain.
+         */
+        public final Region[] regions;
+
+        /**
+         * Statistics for the whole domain.
+         */
+        public final Region total;
+
+        /**
+         * Creates a new result for the given regions.
+         *
+         * @param regions  statistics for each region of the domain.
+         * @param total    statistics for the whole domain.
+         */
+        public Result(final Region[] regions, final Region total) {
+            this.regions = regions;
+            this.total   = total;
+        }
+
+        /**
+         * Returns the total number of failures, including round-trip failures.
+         *
+         * @return total number of points that exceeded the tolerance threshold.
+         */
+        public long getNumFailures() {
+            return total.numFailures + total.numRoundTripFailures;
+        }
+
+        /**
+         * Returns a multi-lines string with the statistics of each region
+         * followed by the error histograms for the whole domain.
+         *
+         * @return a string representation of the statistics.
+         */
+        @Override
+        public String toString() {
+            final String lineSeparator = System.getProperty("line.separator", "\n");
+            final StringBuilder buffer = new StringBuilder(2000);
+            for (final Region region : regions) {
+                if (region.numPoints != 0) {
+                    buffer.append("• ").append(region).append(lineSeparator);
+                }
+            }
+            buffer.append(String.format("%-10s%16s%16s", "Error", "Transform", "Round-trip")).append(lineSeparator);
+            for (int i=0; i<NUM_BUCKETS; i++) {
+                final long n1 = total.errorHistogram[i];
+                final long n2 = total.roundTripHistogram[i];
+                if (n1 != 0 || n2 != 0) {
+                    final String label = (i == 0) ? "< 1E-15" : (i == NUM_BUCKETS - 1) ? "≥ 1" : "< 1E" + (i - 15);
+                    buffer.append(String.format("%-10s%,16d%,16d", label, n1, n2)).append(lineSeparator);
+                }
+            }
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * The transform to verify.
+     */
+    protected final MathTransform transform;
+
+    /**
+     * Maximal difference allowed between the bulk and per-point results, or between a source point
+     * and its round-trip, before the {@linkplain #toleranceModifier modifier} is applied.
+     */
+    protected final double tolerance;
+
+    /**
+     * Optional modifier of the tolerance threshold for each point, or {@code null} if none.
+     */
+    protected final ToleranceModifier toleranceModifier;
+
+    /**
+     * Number of threads to use. The default is the number of available processors.
+     */
+    private int numThreads;
+
+    /**
+     * Number of points transformed by each call to the bulk transform method.
+     */
+    private int batchSize;
+
+    /**
+     * Number of regions along each of the first two source dimensions.
+     */
+    private int regionsPerDimension;
+
+    /**
+     * Whether to verify the round-trips with the inverse transform.
+     */
+    private boolean isInverseVerified;
+
+    /**
+     * Creates a new fuzzer for the given transform.
+     *
+     * @param transform          the transform to verify.
+     * @param tolerance          the maximal difference allowed between transform results.
+     * @param toleranceModifier  optional modifier of the tolerance threshold, or {@code null} if none.
+     */
+    public TransformFuzzer(final MathTransform transform, final double tolerance, final ToleranceModifier toleranceModifier) {
+        this.transform         = transform;
+        this.tolerance         = tolerance;
+        this.toleranceModifier = toleranceModifier;
+        numThreads             = Runtime.getRuntime().availableProcessors();
+        batchSize              = 4096;
+        regionsPerDimension    = 8;
+        isInverseVerified      = true;
+    }
+
+    /**
+     * Sets the number of threads to use. The transform must be thread-safe if this value is greater than 1.
+     *
+     * @param n  the number of threads.
+     */
+    public void setThreadCount(final int n) {
+        if (n < 1) throw new IllegalArgumentException("Illegal number of threads: " + n);
+        numThreads = n;
+    }
+
+    /**
+     * Sets the number of points given to each call of the bulk transform method.
+     *
+     * @param n  the number of points per batch.
+     */
+    public void setBatchSize(final int n) {
+        if (n < 1) throw new IllegalArgumentException("Illegal batch size: " + n);
+        batchSize = n;
+    }
+
+    /**
+     * Sets the number of regions along each of the first two source dimensions.
+     *
+     * @param n  the number of regions along each dimension.
+     */
+    public void setRegionsPerDimension(final int n) {
+        if (n < 1) throw new IllegalArgumentException("Illegal number of regions: " + n);
+        regionsPerDimension = n;
+    }
+
+    /**
+     * Sets whether to verify the round-trip with the inverse transform. The default is {@code true}.
+     *
+     * @param verify  whether to verify the inverse transform.
+     */
+    public void setInverseVerified(final boolean verify) {
+        isInverseVerified = verify;
+    }
+
+    /**
+     * Transforms the given number of random points in the given domain and returns the error statistics.
+     *
+     * @param  minOrdinates  the minimal source coordinate values of the domain.
+     * @param  maxOrdinates  the maximal source coordinate values of the domain.
+     * @param  numPoints     the number of points to generate.
+     * @param  seed          the seed of the random number generator.
+     * @return the error statistics.
+     * @throws TransformException if a point can not be transformed.
+     */
+    public Result run(final double[] minOrdinates, final double[] maxOrdinates, final long numPoints, final long seed)
+            throws TransformException
+    {
+        final int dimension = transform.getSourceDimensions();
+        if (minOrdinates.length != dimension || maxOrdinates.length != dimension) {
+            throw new IllegalArgumentException("The domain dimension shall be " + dimension + '.');
+        }
+        final MathTransform inverse = isInverseVerified ? transform.inverse() : null;
+        final AtomicLong remaining = new AtomicLong(numPoints);
+        final List<Worker> workers = new ArrayList<>(numThreads);
+        for (int i=0; i<numThreads; i++) {
+            workers.add(new Worker(minOrdinates.clone(), maxOrdinates.clone(), inverse, numPoints, remaining, seed));
+        }
+        final Region[] regions;
+        if (numThreads == 1) {
+            regions = workers.get(0).call();
+        } else {
+            final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                regions = workers.get(0).newRegions();
+                for (final Future<Region[]> task : executor.invokeAll(workers)) {
+                    final Region[] partial = task.get();
+                    for (int i=0; i<regions.length; i++) {
+                        regions[i].merge(partial[i]);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransformException("Interrupted while transforming points.", e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof TransformException) throw (TransformException) cause;
+                if (cause instanceof RuntimeException)   throw (RuntimeException)   cause;
+                if (cause instanceof Error)              throw (Error)              cause;
+                throw new TransformException(cause.toString(), cause);
+            } finally {
+                executor.shutdown();
+            }
+        }
+        final Region total = new Region(minOrdinates.clone(), maxOrdinates.clone());
+        for (final Region region : regions) {
+            total.merge(region);
+        }
+        return new Result(regions, total);
+    }
+
+    /**
+     * Returns the index of the bucket where to count the given error.
+     */
+    static int bucket(final double error) {
+        if (error < 1E-15) return 0;
+        if (!(error < 1))  return NUM_BUCKETS - 1;
+        return max(1, min(NUM_BUCKETS - 2, (int) floor(log10(error)) + 16));
+    }
+
+    /**
+     * Generates and verifies points in a background thread. Each worker has its own buffers
+     * and regions statistics, so no synchronization is needed except for claiming the batches.
+     * The random number generator is created for each batch from the seed and the batch index.
+     */
+    private final class Worker implements Callable<Region[]> {
+        /** The domain where to generate points. */
+        private final double[] minOrdinates, maxOrdinates;
+
+        /** The inverse of the transform to verify, or {@code null} if the inverse is not verified. */
+        private final MathTransform inverse;
+
+        /** Number of points to generate by all workers. */
+        private final long numPoints;
+
+        /** Number of points remaining to generate by all workers. */
+        private final AtomicLong remaining;
+
+        /** The seed from which the random number generator of each batch is derived. */
+        private final long seed;
+
+        /** Creates a new worker. */
+        Worker(final double[] minOrdinates, final double[] maxOrdinates, final MathTransform inverse,
+               final long numPoints, final AtomicLong remaining, final long seed)
+        {
+            this.minOrdinates = minOrdinates;
+            this.maxOrdinates = maxOrdinates;
+            this.inverse      = inverse;
+            this.numPoints    = numPoints;
+            this.remaining    = remaining;
+            this.seed         = seed;
+        }
+
+        /** Creates the initially empty statistics for all regions. */
+        Region[] newRegions() {
+            final int n = min(2, minOrdinates.length);
+            int count = 1;
+            for (int i=0; i<n; i++) count *= regionsPerDimension;
+            final Region[] regions = new Region[count];
+            for (int r=0; r<count; r++) {
+                final double[] lower = new double[n];
+                final double[] upper = new double[n];
+                for (int i=0, k=r; i<n; i++, k /= regionsPerDimension) {
+                    final double span = (maxOrdinates[i] - minOrdinates[i]) / regionsPerDimension;
+                    lower[i] = minOrdinates[i] + span * (k % regionsPerDimension);
+                    upper[i] = lower[i] + span;
+                }
+                regions[r] = new Region(lower, upper);
+            }
+            return regions;
+        }
+
+        /** Returns the index of the region containing the point at the given offset. */
+        private int regionIndex(final double[] points, final int offset) {
+            int index = 0, stride = 1;
+            for (int i=0; i < min(2, minOrdinates.length); i++) {
+                final double f = (points[offset + i] - minOrdinates[i]) / (maxOrdinates[i] - minOrdinates[i]);
+                index += max(0, min(regionsPerDimension - 1, (int) (f * regionsPerDimension))) * stride;
+                stride *= regionsPerDimension;
+            }
+            return index;
+        }
+
+        /**
+         * Returns the largest difference between the given arrays, and whether that difference
+         * exceeds the tolerance threshold. The tolerance is computed in the {@code tolerances}
+         * array, which must have the same length than {@code expected}.
+         */
+        private boolean compare(final SimpleDirectPosition expected, final double[] actual, final int offset,
+                final double[] tolerances, final CalculationType mode, final double[] error)
+        {
+            Arrays.fill(tolerances, tolerance);
+            if (toleranceModifier != null) {
+                toleranceModifier.adjust(tolerances, expected, mode);
+            }
+            boolean failed = false;
+            double max = 0;
+            for (int j=0; j<tolerances.length; j++) {
+                final double e = expected.ordinates[j];
+                final double a = actual[offset + j];
+                double delta = abs(e - a);
+                if (Double.doubleToLongBits(a) == Double.doubleToLongBits(e)) {
+                    delta = 0;                                  // Same NaN or infinity.
+                } else if (!(delta <= tolerances[j])) {
+                    failed = true;
+                }
+                if (!(delta <= max)) max = delta;               // Propagate NaN.
+            }
+            error[0] = max;
+            return failed;
+        }
+
+        /** Generates and verifies points until there is no more points to generate. */
+        @Override
+        public Region[] call() throws TransformException {
+            final Region[] regions = newRegions();
+            final int srcDim = transform.getSourceDimensions();
+            final int tgtDim = transform.getTargetDimensions();
+            final double[] sources  = new double[batchSize * srcDim];
+            final double[] targets  = new double[batchSize * tgtDim];
+            final double[] inverses = (inverse != null) ? new double[batchSize * srcDim] : null;
+            final double[] srcTolerances = new double[srcDim];
+            final double[] tgtTolerances = new double[tgtDim];
+            final double[] error = new double[1];
+            final SimpleDirectPosition source   = new SimpleDirectPosition(srcDim);
+            final SimpleDirectPosition expected = new SimpleDirectPosition(tgtDim);
+            DirectPosition target = null;
+            long start;
+            while ((start = remaining.getAndAdd(-batchSize)) > 0) {
+                final int n = (int) min(batchSize, start);
+                final long batch = (numPoints - start) / batchSize;
+                final SplittableRandom random = new SplittableRandom(seed + batch * 0x9E3779B97F4A7C15L);
+                for (int i=0; i < n*srcDim; i++) {
+                    final int d = i % srcDim;
+                    sources[i] = minOrdinates[d] + random.nextDouble() * (maxOrdinates[d] - minOrdinates[d]);
+                }
+                transform.transform(sources, 0, targets, 0, n);
+                if (inverse != null) {
+                    inverse.transform(targets, 0, inverses, 0, n);
+                }
+                for (int i=0; i<n; i++) {
+                    final int srcOff = i * srcDim;
+                    final Region region = regions[regionIndex(sources, srcOff)];
+                    region.numPoints++;
+                    System.arraycopy(sources, srcOff, source.ordinates, 0, srcDim);
+                    target = transform.transform(source, target);
+                    for (int j=0; j<tgtDim; j++) {
+                        expected.ordinates[j] = target.getOrdinate(j);
+                    }
+                    boolean failed = compare(expected, targets, i * tgtDim, tgtTolerances, CalculationType.DIRECT_TRANSFORM, error);
+                    region.addError(error[0], failed, sources, srcOff, srcDim);
+                    if (inverses != null) {
+                        failed = compare(source, inverses, srcOff, srcTolerances, CalculationType.INVERSE_TRANSFORM, error);
+                        region.addRoundTripError(error[0], failed, sources, srcOff, srcDim);
+                    }
+                }
+            }
+            return regions;
+        }
+    }
+}
@@ -998,6 +998,41 @@ public strictfp abstract class TransformTestCase extends TestCase {
         return coordinates;
     }
 
+    /**
+     * Verifies the transform on a large number of random points in the given domain. This method is a
+     * complement to {@link #verifyInDomain verifyInDomain(…)} for cases where the number of points is too
+     * large for being stored in memory. Points are generated and verified in batches by a {@link TransformFuzzer}
+     * using all available processors, so the {@linkplain #transform} must be thread-safe. For each point,
+     * the result of the bulk transform method is compared with the result of the per-point method and,
+     * if {@link #isInverseTransformSupported} is {@code true}, with the result of the inverse transform.
+     *
+     * <p>This method does not stop at the first error. Instead it collects error statistics in regions of the
+     * domain, then fails with a summary of those statistics if at least one point exceeded the tolerance.</p>
+     *
+     * @param  minOrdinates  the minimal ordinate values of the domain where to test the transform.
+     * @param  maxOrdinates  the maximal ordinate values of the domain where to test the transform.
+     * @param  numPoints     the number of random points to verify.
+     * @param  seed          the seed of the random number generator.
+     * @return the error statistics, in case callers want to perform more verifications.
+     * @throws TransformException if a point can not be transformed.
+     *
+     * @since 4.0
+     */
+    protected TransformFuzzer.Result fuzzInDomain(final double[] minOrdinates, final double[] maxOrdinates,
+            final long numPoints, final long seed) throws TransformException
+    {
+        final MathTransform transform = this.transform;             // Protect from changes.
+        assertNotNull("TransformTestCase.transform shall be assigned a value.", transform);
+        final TransformFuzzer fuzzer = new TransformFuzzer(transform, tolerance, getToleranceModifier());
+        fuzzer.setInverseVerified(isInverseTransformSupported);
+        final TransformFuzzer.Result result = fuzzer.run(minOrdinates, maxOrdinates, numPoints, seed);
+        if (result.getNumFailures() != 0) {
+            throw new TransformFailure(String.format("%,d points exceeded the tolerance threshold.%n%s",
+                    result.getNumFailures(), result));
+        }
+        return result;
+    }
+
     /**
      * Asserts that a single coordinate is equal to the expected one within a positive delta.
      * If the comparison fails, the given message is completed with the expected and actual
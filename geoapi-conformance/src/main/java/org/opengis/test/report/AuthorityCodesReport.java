@@ -33,10 +33,24 @@ package org.opengis.test.report;
 
 import java.io.*;
 import java.util.List;
+import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.opengis.util.FactoryException;
 import org.opengis.referencing.IdentifiedObject;
@@ -72,6 +86,9 @@ import org.opengis.referencing.crs.CRSAuthorityFactory;
  *   <tr><td>{@code PERCENT.VALIDS}</td>         <td align="center">automatic</td> <td>Percentage of objects successfully created (i.e. having no {@linkplain Row#hasError error}).</td></tr>
  *   <tr><td>{@code PERCENT.ANNOTATED}</td>      <td align="center">automatic</td> <td>Percentage of objects having an {@linkplain Row#annotation annotation}.</td></tr>
  *   <tr><td>{@code PERCENT.DEPRECATED}</td>     <td align="center">automatic</td> <td>Percentage of {@linkplain Row#isDeprecated deprecated} objects.</td></tr>
+ *   <tr><td>{@code LATENCY}</td>                <td align="center">automatic</td> <td>Paragraph summarizing the distribution of object creation times, with the slowest codes.</td></tr>
+ *   <tr><td>{@code PARALLELISM}</td>            <td align="center">optional</td>  <td>Maximal number of objects to create in parallel (default is 1).</td></tr>
+ *   <tr><td>{@code TIMEOUT}</td>                <td align="center">optional</td>  <td>Maximal time in milliseconds for creating a single object (default is no limit).</td></tr>
  *   <tr><td>{@code FILENAME}</td>               <td align="center">predefined</td><td>Name of the file to create if the {@link #write(File)} argument is a directory.</td></tr>
  * </table>
  *
@@ -86,8 +103,18 @@ import org.opengis.referencing.crs.CRSAuthorityFactory;
  *   <li>Invoke {@link #write(File)}.</li>
  * </ol>
  *
+ * <p>By default objects are created sequentially in the thread invoking the {@code add(…)} method.
+ * If the {@code PARALLELISM} property is greater than 1, then objects are created concurrently by
+ * that number of threads. This should be done only if the factory is thread-safe.
+ * Regardless the parallelism, the {@link #createRow(String, IdentifiedObject) createRow(…)} methods
+ * are always invoked in the calling thread and in the iteration order of authority codes.
+ * If the {@code TIMEOUT} property is specified, then the creation of an object taking more time
+ * than that limit is abandoned and reported as an error. The thread blocked in the factory is
+ * interrupted, but the factory may ignore the interruption. In the latter case the blocked thread
+ * is abandoned and the creation of other objects continues in new threads.</p>
+ *
  * @author Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  *
  * @since 3.1
  */
@@ -243,6 +270,29 @@ public class AuthorityCodesReport extends Report {
      */
     protected final List<Row> rows;
 
+    /**
+     * Number of slowest codes to list in the {@code LATENCY} paragraph.
+     */
+    private static final int NUM_SLOWEST = 10;
+
+    /**
+     * The time in nanoseconds taken for creating each object. Only the first {@link #numCreations}
+     * elements are valid. Times are not associated to codes, except for the slowest ones which are
+     * retained in {@link #slowest}.
+     */
+    private long[] creationTimes;
+
+    /**
+     * Number of valid elements in the {@link #creationTimes} array.
+     */
+    private int numCreations;
+
+    /**
+     * The slowest creations, with the fastest of them at the head of the queue.
+     * This queue contains at most {@value #NUM_SLOWEST} elements.
+     */
+    private final PriorityQueue<Creation> slowest;
+
     /**
      * Creates a new report generator using the given property values.
      * See the class javadoc for a list of expected values.
@@ -252,7 +302,11 @@ public class AuthorityCodesReport extends Report {
     public AuthorityCodesReport(final Properties properties) {
         super(properties);
         rows = new ArrayList<>(1024);
+        creationTimes = new long[1024];
+        slowest = new PriorityQueue<>(NUM_SLOWEST + 1, (c1, c2) -> Long.compare(c1.recordedTime, c2.recordedTime));
         defaultProperties.setProperty("TITLE", "Authority codes for ${OBJECTS.KIND}");
+        defaultProperties.setProperty("LATENCY", "");
+        defaultProperties.setProperty("PARALLELISM", "1");
         defaultProperties.setProperty("OBJECTS.KIND", "Identified Objects");
         defaultProperties.setProperty("FACTORY.VERSION.SUFFIX", "");
         defaultProperties.setProperty("PRODUCT.VERSION.SUFFIX", "");
@@ -304,17 +358,7 @@ public class AuthorityCodesReport extends Report {
         defaultProperties.setProperty("TITLE", "Authority codes for Coordinate Reference Systems");
         defaultProperties.setProperty("OBJECTS.KIND", "Coordinate Reference Systems (CRS)");
         defaultProperties.setProperty("FILENAME", "CRS-Codes.html");
-        final Collection<String> codes = factory.getAuthorityCodes(CoordinateReferenceSystem.class);
-        final int previousCount = rows.size();
-        for (final String code : codes) {
-            try {
-                add(createRow(code, factory.createCoordinateReferenceSystem(code)));
-            } catch (FactoryException exception) {
-                add(createRow(code, exception));
-            }
-            progress(previousCount + rows.size(),
-                     previousCount + codes.size());
-        }
+        add(factory.getAuthorityCodes(CoordinateReferenceSystem.class), factory::createCoordinateReferenceSystem);
     }
 
     /**
@@ -342,18 +386,260 @@ public class AuthorityCodesReport extends Report {
      */
     public void add(final AuthorityFactory factory, final Collection<String> codes) throws FactoryException {
         setDefault(factory);
-        final int previousCount = rows.size();
-        for (final String code : codes) {
+        add(codes, factory::createObject);
+    }
+
+    /**
+     * A function creating an object from an authority code.
+     * This is a {@link AuthorityFactory} method like {@code createObject(String)}.
+     */
+    @FunctionalInterface
+    private interface Creator {
+        /** Creates the object for the given code. */
+        IdentifiedObject create(String code) throws FactoryException;
+    }
+
+    /**
+     * The creation of the object identified by a single authority code. Instances of this class
+     * are executed in a background thread if the {@code PARALLELISM} or {@code TIMEOUT} property
+     * is set, or directly in the calling thread otherwise.
+     */
+    private static final class Creation implements Callable<IdentifiedObject> {
+        /** The authority code of the object to create. */
+        final String code;
+
+        /** The function creating the object. */
+        private final Creator creator;
+
+        /** The permit to release when the creation is completed or abandoned, or {@code null} if none. */
+        private final Semaphore permits;
+
+        /** Whether the permit has been released. Used for releasing it only once. */
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        /** Value of {@link System#nanoTime()} when the creation has been submitted for execution. */
+        long submitTime;
+
+        /** Time elapsed in nanoseconds for creating the object, or -1 if not completed. */
+        volatile long elapsedTime = -1;
+
+        /** The elapsed time retained for the report. Does not change after the creation has been recorded. */
+        long recordedTime;
+
+        /** The task executing this creation in a background thread, or {@code null} if none. */
+        Future<IdentifiedObject> task;
+
+        /** Prepares the creation of the object identified by the given code. */
+        Creation(final String code, final Creator creator, final Semaphore permits) {
+            this.code    = code;
+            this.creator = creator;
+            this.permits = permits;
+        }
+
+        /** Creates the object and measures the time elapsed. */
+        @Override
+        public IdentifiedObject call() throws FactoryException {
+            final long start = System.nanoTime();
+            try {
+                return creator.create(code);
+            } finally {
+                elapsedTime = System.nanoTime() - start;
+                release();
+            }
+        }
+
+        /**
+         * Releases the permit acquired for this creation, if not already done.
+         * This is invoked when the creation completed or when it has been abandoned.
+         */
+        void release() {
+            if (permits != null && released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        /**
+         * Waits for the result of the task executed in background, up to the given timeout
+         * measured from the submission of the task. Since a permit is acquired before submission
+         * and the executor creates threads as needed, the task starts immediately after submission.
+         * If the timeout is reached, the task is abandoned and its permit is released, so that the
+         * next tasks can be executed in new threads even if the factory ignores the interruption.
+         */
+        IdentifiedObject get(final long timeout) throws FactoryException, InterruptedException {
             try {
-                add(createRow(code, factory.createObject(code)));
-            } catch (FactoryException exception) {
-                add(createRow(code, exception));
+                if (timeout <= 0) {
+                    return task.get();
+                }
+                try {
+                    return task.get(Math.max(timeout - (System.nanoTime() - submitTime), 0), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    task.cancel(true);
+                    release();
+                    elapsedTime = System.nanoTime() - submitTime;
+                    throw new FactoryException("Creation of \"" + code + "\" took more than "
+                            + TimeUnit.NANOSECONDS.toMillis(timeout) + " ms.", e);
+                }
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof FactoryException) throw (FactoryException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error)            throw (Error) cause;
+                throw new FactoryException(cause);
+            }
+        }
+    }
+
+    /**
+     * Creates the objects for all given codes and adds the corresponding rows.
+     * Objects are created in background threads if the {@code PARALLELISM} or
+     * {@code TIMEOUT} property is set, but rows are always created in this thread
+     * in the iteration order of the given codes.
+     *
+     * @param  codes    the authority codes of the objects to create.
+     * @param  creator  the function creating an object from an authority code.
+     * @throws FactoryException if a non-recoverable error occurred while querying the factory.
+     */
+    private void add(final Collection<String> codes, final Creator creator) throws FactoryException {
+        final int  parallelism   = (int) getNonNegative("PARALLELISM", Integer.MAX_VALUE);
+        final long timeout       = TimeUnit.MILLISECONDS.toNanos(getNonNegative("TIMEOUT", Long.MAX_VALUE));
+        final int  previousCount = rows.size();
+        final int  count         = codes.size();
+        if (parallelism <= 1 && timeout <= 0) {
+            for (final String code : codes) {
+                final Creation c = new Creation(code, creator, null);
+                try {
+                    add(createRow(code, c.call()));
+                } catch (FactoryException exception) {
+                    add(createRow(code, exception));
+                }
+                addCreationTime(c);
+                progress(previousCount + rows.size(), previousCount + count);
+            }
+            return;
+        }
+        /*
+         * Parallel execution. The number of running creations is bounded by the permits rather than
+         * by the number of threads, because a thread blocked in a factory ignoring interruptions is
+         * abandoned after the timeout and replaced by a new thread. We also keep a bounded number of
+         * tasks in progress for avoiding to hold too many created objects in memory when the rows
+         * are created slower than the objects.
+         */
+        final int permitCount = Math.max(parallelism, 1);
+        final Semaphore permits = new Semaphore(permitCount);
+        final ExecutorService executor = Executors.newCachedThreadPool((task) -> {
+            final Thread thread = new Thread(task, "AuthorityCodesReport worker");
+            thread.setDaemon(true);                     // For not blocking JVM exit if a factory never returns.
+            return thread;
+        });
+        try {
+            final ArrayDeque<Creation> pending = new ArrayDeque<>();
+            final Iterator<String> it = codes.iterator();
+            while (it.hasNext() || !pending.isEmpty()) {
+                while (it.hasNext() && pending.size() < 4 * permitCount) {
+                    if (pending.isEmpty()) {
+                        permits.acquire();                  // Wait for a completed or abandoned creation.
+                    } else if (!permits.tryAcquire()) {
+                        break;                              // Consume the oldest pending creation first.
+                    }
+                    final Creation c = new Creation(it.next(), creator, permits);
+                    c.submitTime = System.nanoTime();
+                    c.task = executor.submit(c);
+                    pending.add(c);
+                }
+                final Creation c = pending.removeFirst();
+                try {
+                    add(createRow(c.code, c.get(timeout)));
+                } catch (FactoryException exception) {
+                    add(createRow(c.code, exception));
+                }
+                addCreationTime(c);
+                progress(previousCount + rows.size(), previousCount + count);
             }
-            progress(previousCount + rows.size(),
-                     previousCount + codes.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FactoryException("Report creation has been interrupted.", e);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
+    /**
+     * Returns the value of the given property as a non-negative integer, or 0 if the property is not set.
+     *
+     * @param  key      the key of the property to get.
+     * @param  maximum  the maximal value allowed for the property.
+     *
+     * @throws IllegalArgumentException if the property value is not a non-negative integer.
+     */
+    private long getNonNegative(final String key, final long maximum) {
+        String value = properties.getProperty(key);
+        if (value == null || (value = value.trim()).isEmpty()) {
+            return 0;
+        }
+        final long n;
+        try {
+            n = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value for property " + key + ": " + value, e);
+        }
+        if (n < 0 || n > maximum) {
+            throw new IllegalArgumentException("Illegal value for property " + key + ": " + value);
+        }
+        return n;
+    }
+
+    /**
+     * Records the time elapsed for the given object creation, if it has been measured.
+     */
+    private void addCreationTime(final Creation c) {
+        final long time = c.elapsedTime;
+        if (time >= 0) {
+            c.recordedTime = time;
+            if (numCreations == creationTimes.length) {
+                creationTimes = Arrays.copyOf(creationTimes, numCreations * 2);
+            }
+            creationTimes[numCreations++] = time;
+            slowest.add(c);
+            if (slowest.size() > NUM_SLOWEST) {
+                slowest.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns a HTML paragraph summarizing the distribution of object creation times,
+     * or an empty string if no time has been measured.
+     */
+    private String latencySummary() {
+        if (numCreations == 0) {
+            return "";
+        }
+        final long[] times = Arrays.copyOf(creationTimes, numCreations);
+        Arrays.sort(times);
+        final StringBuilder buffer = new StringBuilder(400)
+                .append("<p>Object creation time: median ").append(millis(times[times.length / 2]))
+                .append(", 90th percentile ").append(millis(times[(int) (times.length * 0.90)]))
+                .append(", 99th percentile ").append(millis(times[(int) (times.length * 0.99)]))
+                .append(", maximum ").append(millis(times[times.length - 1]))
+                .append(". Slowest codes:");
+        final Creation[] ordered = slowest.toArray(new Creation[slowest.size()]);
+        Arrays.sort(ordered, (c1, c2) -> Long.compare(c2.recordedTime, c1.recordedTime));
+        String separator = " ";
+        for (final Creation c : ordered) {
+            buffer.append(separator).append("<code>").append(escape(c.code)).append("</code> (")
+                  .append(millis(c.recordedTime)).append(')');
+            separator = ", ";
+        }
+        return buffer.append(".</p>").toString();
+    }
+
+    /**
+     * Formats the given time in nanoseconds as milliseconds.
+     */
+    private static String millis(final long nanos) {
+        return String.format(Locale.US, "%.1f ms", nanos / 1E6);
+    }
+
     /**
      * Returns a new {@link Row} instance. Subclasses can override this method if they wish to
      * instantiate a subclass of {@code Row}.
@@ -436,6 +722,7 @@ public class AuthorityCodesReport extends Report {
         defaultProperties.setProperty("PERCENT.VALIDS",     Integer.toString(100 * numValids / numRows) + '%');     // Really want rounding toward 0.
         defaultProperties.setProperty("PERCENT.ANNOTATED",  Integer.toString(Math.round(100f * numAnnotations / numRows)) + '%');
         defaultProperties.setProperty("PERCENT.DEPRECATED", Integer.toString(Math.round(100f * numDeprecated  / numRows)) + '%');
+        defaultProperties.setProperty("LATENCY",            latencySummary());
         sortRows();
         /*
          * The above initialization needs to be done before to start
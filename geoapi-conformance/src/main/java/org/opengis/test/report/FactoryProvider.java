@@ -35,6 +35,8 @@ import java.util.List;
 import java.util.Arrays;
 import java.lang.reflect.Array;
 import org.opengis.test.TestCase;
+import org.opengis.test.Configuration;
+import org.opengis.test.ImplementationDetails;
 import org.opengis.util.Factory;
 
 
@@ -47,9 +49,22 @@ import org.opengis.util.Factory;
  */
 final class FactoryProvider extends TestCase {
     /**
-     * Do not allow instantiation of this class.
+     * Creates a provider for the given factories. Instances are created only by
+     * {@link #getEnabledFlags(Factory, Configuration.Key[])}.
      */
-    private FactoryProvider() {
+    private FactoryProvider(final Factory... factories) {
+        super(factories);
+    }
+
+    /**
+     * Returns booleans indicating whether the given operations are enabled for the given factory,
+     * as declared by the {@link ImplementationDetails} found on the classpath. This method delegates
+     * to {@link TestCase#getEnabledFlags(Configuration.Key[])}, which is not accessible from outside
+     * {@code TestCase} subclasses.
+     */
+    @SafeVarargs
+    static boolean[] getEnabledFlags(final Factory factory, final Configuration.Key<Boolean>... properties) {
+        return new FactoryProvider(factory).getEnabledFlags(properties);
     }
 
     /**
@@ -100,9 +100,13 @@ public class Reports extends Report {
      *
      * <ul>
      *   <li>{@link CRSAuthorityFactory},  given to {@link AuthorityCodesReport}</li>
-     *   <li>{@link MathTransformFactory}, given to {@link OperationParametersReport}</li>
+     *   <li>{@link MathTransformFactory}, given to {@link OperationParametersReport}, and also to
+     *       {@link TransformBenchmarkReport} if the {@code BENCHMARK} property is {@code "true"}.</li>
      * </ul>
      *
+     * Benchmarks are disabled by default since they take time and their results
+     * depend on the machine where the reports are generated.
+     *
      * @param  factory  the factory for which to generate a report.
      * @param  type     the factory type, usually {@code factory.getClass()}.
      * @return {@code true} if this method will generate a report for the given factory,
@@ -128,6 +132,13 @@ public class Reports extends Report {
                 report.add((MathTransformFactory) factory);
                 modified = true;
             }
+            if (Boolean.parseBoolean(properties.getProperty("BENCHMARK"))) {
+                final TransformBenchmarkReport benchmark = getReport(TransformBenchmarkReport.class);
+                if (benchmark != null) {
+                    benchmark.add((MathTransformFactory) factory);
+                    modified = true;
+                }
+            }
         }
         return modified;
     }
@@ -0,0 +1,367 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.BufferedWriter;
+import java.util.List;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.opengis.test.TestEvent;
+import org.opengis.test.TestListener;
+
+
+/**
+ * Collects the resources used by each test of the conformance suite and generates a HTML page
+ * with the results. This report is a {@link TestListener} which records the elapsed time, the CPU
+ * time and the memory allocated by each test method that completed, successfully or not. Tests that
+ * exceed the thresholds specified in the properties are flagged, which allows to detect performance
+ * regressions even when the conformance tests still pass.
+ *
+ * <p>This class recognizes the following property values:</p>
+ *
+ * <table class="ogc">
+ *   <caption>Report properties</caption>
+ *   <tr><th>Key</th>                         <th align="center">Remarks</th>   <th>Meaning</th></tr>
+ *   <tr><td>{@code TITLE}</td>               <td align="center">&nbsp;</td>    <td>Title of the web page to produce.</td></tr>
+ *   <tr><td>{@code DESCRIPTION}</td>         <td align="center">optional</td>  <td>Description to write after the introductory paragraph.</td></tr>
+ *   <tr><td>{@code PRODUCT.NAME}</td>        <td align="center">&nbsp;</td>    <td>Name of the product for which the report is generated.</td></tr>
+ *   <tr><td>{@code PRODUCT.VERSION}</td>     <td align="center">&nbsp;</td>    <td>Version of the product for which the report is generated.</td></tr>
+ *   <tr><td>{@code PRODUCT.URL}</td>         <td align="center">&nbsp;</td>    <td>URL where more information is available about the product.</td></tr>
+ *   <tr><td>{@code THRESHOLD.TIME}</td>      <td align="center">optional</td>  <td>Elapsed time in milliseconds above which a test is flagged.</td></tr>
+ *   <tr><td>{@code THRESHOLD.ALLOCATION}</td><td align="center">optional</td>  <td>Allocated memory in bytes above which a test is flagged.</td></tr>
+ *   <tr><td>{@code FILENAME}</td>            <td align="center">predefined</td><td>Name of the file to create if the {@link #write(File)} argument is a directory.</td></tr>
+ * </table>
+ *
+ * <p><b>How to use this class:</b></p>
+ * <ul>
+ *   <li>Create a {@link Properties} map with the values documented in the above table.</li>
+ *   <li>Create a new {@code TestPerformanceReport} with the above properties map given to the constructor.</li>
+ *   <li>Register the report with {@link org.opengis.test.TestSuite#addTestListener(TestListener)}.</li>
+ *   <li>Run the tests, then unregister the report.</li>
+ *   <li>Invoke {@link #write(File)}.</li>
+ * </ul>
+ *
+ * This class is thread-safe; tests can be run in parallel.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ *
+ * @since 4.0
+ */
+@SuppressWarnings("deprecation")
+public class TestPerformanceReport extends Report implements TestListener {
+    /**
+     * A single row in the table produced by {@link TestPerformanceReport}.
+     * Rows are created when tests complete and can be obtained by {@link #getResults()}.
+     *
+     * @author Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     *
+     * @since 4.0
+     */
+    public static class Row implements Comparable<Row> {
+        /**
+         * The fully qualified name of the class containing the test.
+         */
+        public final String className;
+
+        /**
+         * The name of the test method, including the parameters index if any.
+         */
+        public final String methodName;
+
+        /**
+         * Wall-clock time elapsed during the test, in nanoseconds, or -1 if unknown.
+         */
+        public final long elapsedTime;
+
+        /**
+         * CPU time used by the test thread, in nanoseconds, or -1 if unknown.
+         */
+        public final long cpuTime;
+
+        /**
+         * Memory allocated by the test thread, in bytes, or -1 if unknown.
+         */
+        public final long allocatedBytes;
+
+        /**
+         * Whether the test failed.
+         */
+        public final boolean failed;
+
+        /**
+         * A message saying which threshold has been exceeded, or {@code null} if none.
+         */
+        public final String warning;
+
+        /**
+         * Creates a new row with the given measurement results.
+         *
+         * @param className       the fully qualified name of the class containing the test.
+         * @param methodName      the name of the test method.
+         * @param elapsedTime     wall-clock time elapsed during the test in nanoseconds, or -1 if unknown.
+         * @param cpuTime         CPU time used by the test thread in nanoseconds, or -1 if unknown.
+         * @param allocatedBytes  memory allocated by the test thread in bytes, or -1 if unknown.
+         * @param failed          whether the test failed.
+         * @param warning         a message saying which threshold has been exceeded, or {@code null} if none.
+         */
+        public Row(final String className, final String methodName, final long elapsedTime,
+                   final long cpuTime, final long allocatedBytes, final boolean failed, final String warning)
+        {
+            this.className      = className;
+            this.methodName     = methodName;
+            this.elapsedTime    = elapsedTime;
+            this.cpuTime        = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+            this.failed         = failed;
+            this.warning        = warning;
+        }
+
+        /**
+         * Compares this row with the given one for order. Slowest tests are sorted first.
+         *
+         * @param  other  the other row to compare with this row.
+         * @return -1 if this row is slower than the given row, +1 if faster, 0 if equal.
+         */
+        @Override
+        public int compareTo(final Row other) {
+            return Long.compare(other.elapsedTime, elapsedTime);
+        }
+
+        /**
+         * Writes this row to the given stream.
+         */
+        final void write(final Appendable out) throws IOException {
+            final String classe = failed ? "error" : (warning != null) ? "warning" : null;
+            out.append("<tr><td>").append(className.substring(className.lastIndexOf('.') + 1))
+               .append("</td><td>").append(escape(methodName)).append("</td>");
+            for (final String value : new String[] {
+                    toMillis(elapsedTime), toMillis(cpuTime),
+                    (allocatedBytes >= 0) ? String.format("%,d", allocatedBytes / 1024) : ""})
+            {
+                out.append("<td");
+                writeClassAttribute(out, classe);
+                out.append('>').append(value).append("</td>");
+            }
+            out.append("<td");
+            writeClassAttribute(out, classe);
+            out.append('>');
+            if (warning != null) {
+                out.append(warning);
+            } else if (failed) {
+                out.append("Failed");
+            }
+            out.append("</td></tr>");
+        }
+
+        /**
+         * Formats the given time in nanoseconds as milliseconds, or returns an empty string if unknown.
+         */
+        private static String toMillis(final long nanos) {
+            return (nanos >= 0) ? String.format("%,d", TimeUnit.NANOSECONDS.toMillis(nanos)) : "";
+        }
+
+        /**
+         * Returns a string representation of this row, for debugging purpose only.
+         *
+         * @return an arbitrary string representation of this row.
+         */
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder(80);
+            try {
+                write(buffer);
+            } catch (IOException e) {
+                throw new AssertionError(e);        // Should never happen.
+            }
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * The measurement results. Elements are added in this list when tests complete.
+     * All accesses to this list shall be synchronized on {@code rows}.
+     */
+    protected final List<Row> rows;
+
+    /**
+     * The {@code THRESHOLD.TIME} and {@code THRESHOLD.ALLOCATION} property values,
+     * or {@link Long#MAX_VALUE} if none. Parsed once at construction time.
+     */
+    private final long maxTime, maxBytes;
+
+    /**
+     * Creates a new report generator using the given property values.
+     * See the class javadoc for a list of expected values.
+     *
+     * @param properties  the property values, or {@code null} for the default values.
+     */
+    public TestPerformanceReport(final Properties properties) {
+        super(properties);
+        rows = new ArrayList<>();
+        defaultProperties.setProperty("TITLE", "Conformance tests performance");
+        defaultProperties.setProperty("FILENAME", "TestPerformance.html");
+        maxTime  = getThreshold("THRESHOLD.TIME");
+        maxBytes = getThreshold("THRESHOLD.ALLOCATION");
+    }
+
+    /**
+     * Returns the value of the given property as a number, or {@link Long#MAX_VALUE} if none.
+     * An unparseable value is logged and ignored, since an exception in a test listener
+     * would interrupt the tests for a reporting issue.
+     */
+    private long getThreshold(final String key) {
+        final String value = properties.getProperty(key);
+        if (value != null) try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            Logger.getLogger("org.opengis.test.report").warning("Ignored illegal value for property " + key + ": " + value);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Adds a row for the given event, checking the thresholds in the process.
+     * Events without measurement (for example because the test did not run) are ignored.
+     */
+    private void add(final TestEvent event, final boolean failed) {
+        final long elapsedTime = event.getElapsedTime();
+        if (elapsedTime < 0) {
+            return;
+        }
+        final long allocatedBytes = event.getAllocatedBytes();
+        String warning = null;
+        if (TimeUnit.NANOSECONDS.toMillis(elapsedTime) > maxTime) {
+            warning = "Slower than " + maxTime + " ms.";
+        } else if (allocatedBytes > maxBytes) {
+            warning = "Allocated more than " + maxBytes + " bytes.";
+        }
+        final Row row = new Row(event.getClassName(), event.getMethodName(),
+                elapsedTime, event.getCpuTime(), allocatedBytes, failed, warning);
+        synchronized (rows) {
+            rows.add(row);
+        }
+    }
+
+    /**
+     * Invoked when a test is about to start. This method does nothing.
+     *
+     * @param event  a description of the test which is about to be run.
+     */
+    @Override
+    public void starting(final TestEvent event) {
+    }
+
+    /**
+     * Invoked when a test succeeds. This method records the resources used by the test.
+     *
+     * @param event  a description of the test which has been run.
+     */
+    @Override
+    public void succeeded(final TestEvent event) {
+        add(event, false);
+    }
+
+    /**
+     * Invoked when a test fails. This method records the resources used by the test.
+     *
+     * @param event      a description of the test which has been run.
+     * @param exception  the exception that occurred during the execution.
+     */
+    @Override
+    public void failed(final TestEvent event, final Throwable exception) {
+        add(event, true);
+    }
+
+    /**
+     * Invoked when a test method finishes. This method does nothing,
+     * since the results have been recorded by {@code succeeded(…)} or {@code failed(…)}.
+     *
+     * @param event  a description of the test which has been run.
+     */
+    @Override
+    public void finished(final TestEvent event) {
+    }
+
+    /**
+     * Returns all measurement results recorded so far, sorted from the slowest to the fastest test.
+     *
+     * @return the measurement results (never {@code null}).
+     */
+    public List<Row> getResults() {
+        final Row[] results;
+        synchronized (rows) {
+            results = rows.toArray(new Row[rows.size()]);
+        }
+        Arrays.sort(results);
+        return Collections.unmodifiableList(Arrays.asList(results));
+    }
+
+    /**
+     * Generates the HTML report in the given file or directory.
+     *
+     * @param  destination  the destination file or directory.
+     *         If this file already exists, then its content will be overwritten without warning.
+     * @return the file to the HTML page generated by this report.
+     * @throws IOException if an error occurred while writing the report.
+     */
+    @Override
+    public File write(File destination) throws IOException {
+        destination = toFile(destination);
+        filter("TestPerformance.html", destination);
+        return destination;
+    }
+
+    /**
+     * Invoked by {@link Report} every time a {@code ${FOO}} occurrence is found.
+     */
+    @Override
+    final void writeContent(final BufferedWriter out, final String key) throws IOException {
+        if (!"CONTENT".equals(key)) {
+            super.writeContent(out, key);
+            return;
+        }
+        for (final Row row : getResults()) {
+            writeIndentation(out, 8);
+            row.write(out);
+            out.newLine();
+        }
+    }
+}
@@ -0,0 +1,544 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.report;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.BufferedWriter;
+import java.util.List;
+import java.util.Random;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Properties;
+
+import org.opengis.geometry.DirectPosition;
+import org.opengis.util.FactoryException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.MathTransformFactory;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.test.Configuration;
+import org.opengis.test.ThreadUsage;
+
+
+/**
+ * Measures the throughput of {@link MathTransform} methods and generates a HTML page with the results.
+ * For each transform {@linkplain #add(String, MathTransform, double[], double[]) added} to this report,
+ * the following methods are measured for various numbers of points per call:
+ *
+ * <ul>
+ *   <li>{@link MathTransform#transform(DirectPosition, DirectPosition)}, invoked once per point;</li>
+ *   <li>{@link MathTransform#transform(double[], int, double[], int, int)} with distinct arrays;</li>
+ *   <li>{@link MathTransform#transform(float[], int, float[], int, int)} with distinct arrays;</li>
+ *   <li>{@link MathTransform#transform(double[], int, double[], int, int)} with overlapping ranges
+ *       in the same array, if the number of source and target dimensions are equal.</li>
+ * </ul>
+ *
+ * The purpose of this report is to verify whether the bulk methods working on arrays are actually
+ * faster than the per-point method, and to detect performance regressions between two versions of
+ * an implementation. The results are available both as an HTML page and programmatically by
+ * {@link #getResults()}, for example for comparison with a previous run. If the Java Virtual Machine
+ * supports the measurement of thread memory allocation, then the number of bytes allocated per point
+ * is also reported.
+ *
+ * <p>This class recognizes the following property values:</p>
+ *
+ * <table class="ogc">
+ *   <caption>Report properties</caption>
+ *   <tr><th>Key</th>                     <th align="center">Remarks</th>   <th>Meaning</th></tr>
+ *   <tr><td>{@code TITLE}</td>           <td align="center">&nbsp;</td>    <td>Title of the web page to produce.</td></tr>
+ *   <tr><td>{@code DESCRIPTION}</td>     <td align="center">optional</td>  <td>Description to write after the introductory paragraph.</td></tr>
+ *   <tr><td>{@code PRODUCT.NAME}</td>    <td align="center">&nbsp;</td>    <td>Name of the product for which the report is generated.</td></tr>
+ *   <tr><td>{@code PRODUCT.VERSION}</td> <td align="center">&nbsp;</td>    <td>Version of the product for which the report is generated.</td></tr>
+ *   <tr><td>{@code PRODUCT.URL}</td>     <td align="center">&nbsp;</td>    <td>URL where more information is available about the product.</td></tr>
+ *   <tr><td>{@code WARMUP.TIME}</td>     <td align="center">optional</td>  <td>Time in milliseconds for warming up each method before measurement.</td></tr>
+ *   <tr><td>{@code MEASUREMENT.TIME}</td><td align="center">optional</td>  <td>Time in milliseconds for measuring each method.</td></tr>
+ *   <tr><td>{@code BATCH.SIZES}</td>     <td align="center">optional</td>  <td>Comma-separated list of numbers of points per call.</td></tr>
+ *   <tr><td>{@code JAVADOC.GEOAPI}</td>  <td align="center">predefined</td><td>Base URL of GeoAPI javadoc.</td></tr>
+ *   <tr><td>{@code FILENAME}</td>        <td align="center">predefined</td><td>Name of the file to create if the {@link #write(File)} argument is a directory.</td></tr>
+ * </table>
+ *
+ * <p><b>How to use this class:</b></p>
+ * <ul>
+ *   <li>Create a {@link Properties} map with the values documented in the above table.</li>
+ *   <li>Create a new {@code TransformBenchmarkReport} with the above properties map given to the constructor.</li>
+ *   <li>Invoke {@link #add(MathTransformFactory)} for benchmarking affine transforms created by a factory,
+ *       or {@link #add(String, MathTransform, double[], double[])} for each transform to benchmark.</li>
+ *   <li>Invoke {@link #write(File)}.</li>
+ * </ul>
+ *
+ * Benchmarks are executed by the {@code add(…)} methods, in the calling thread. This class uses only
+ * the standard library; it does not try to replicate all the precautions taken by dedicated benchmark
+ * harnesses, but is sufficient for comparing the bulk methods with the per-point method.
+ *
+ * @author Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ *
+ * @since 4.0
+ */
+public class TransformBenchmarkReport extends Report {
+    /**
+     * The methods measured by this report.
+     */
+    private static final String DIRECT_POSITION = "DirectPosition",
+                                DOUBLE_ARRAYS   = "double[]",
+                                FLOAT_ARRAYS    = "float[]",
+                                OVERLAPPING     = "double[] (overlapping)";
+
+    /**
+     * Seed of the random number generator used for creating the source points,
+     * fixed for allowing comparisons between different runs.
+     */
+    private static final long SEED = 7268375421650729349L;
+
+    /**
+     * A single row in the table produced by {@link TransformBenchmarkReport}.
+     * Rows are created by the {@code add(…)} methods and can be obtained by {@link #getResults()}.
+     *
+     * @author Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     *
+     * @since 4.0
+     */
+    public static class Row {
+        /**
+         * The name of the benchmarked transform.
+         */
+        public final String transform;
+
+        /**
+         * The benchmarked method, for example {@code "double[]"} or {@code "DirectPosition"}.
+         */
+        public final String method;
+
+        /**
+         * Number of points given to each call of the transform method.
+         */
+        public final int batchSize;
+
+        /**
+         * Number of points transformed per second, or {@link Double#NaN} if the method failed.
+         */
+        public final double pointsPerSecond;
+
+        /**
+         * Number of bytes allocated per transformed point, or {@link Double#NaN} if unknown.
+         */
+        public final double bytesPerPoint;
+
+        /**
+         * Ratio of {@link #pointsPerSecond} to the throughput of the per-point method
+         * for the same transform and batch size, or {@link Double#NaN} if unknown.
+         */
+        public double speedup;
+
+        /**
+         * The error message if the method failed, or {@code null} on success.
+         */
+        public final String error;
+
+        /**
+         * Creates a new row with the given measurement results.
+         *
+         * @param transform        the name of the benchmarked transform.
+         * @param method           the benchmarked method.
+         * @param batchSize        number of points given to each call of the transform method.
+         * @param pointsPerSecond  number of points transformed per second.
+         * @param bytesPerPoint    number of bytes allocated per point, or {@link Double#NaN} if unknown.
+         * @param error            the error message if the method failed, or {@code null} on success.
+         */
+        public Row(final String transform, final String method, final int batchSize,
+                   final double pointsPerSecond, final double bytesPerPoint, final String error)
+        {
+            this.transform       = transform;
+            this.method          = method;
+            this.batchSize       = batchSize;
+            this.pointsPerSecond = pointsPerSecond;
+            this.bytesPerPoint   = bytesPerPoint;
+            this.speedup         = Double.NaN;
+            this.error           = error;
+        }
+
+        /**
+         * Writes this row to the given stream.
+         */
+        final void write(final Appendable out) throws IOException {
+            out.append("<tr><td>").append(escape(transform))
+               .append("</td><td><code>").append(method).append("</code></td><td>").append(Integer.toString(batchSize));
+            if (error != null) {
+                out.append("</td><td class=\"error\" colspan=\"3\">").append(escape(error));
+            } else {
+                out.append("</td><td>").append(format(pointsPerSecond, 0))
+                   .append("</td><td>").append(format(bytesPerPoint, 1))
+                   .append("</td><td>").append(format(speedup, 2));
+            }
+            out.append("</td></tr>");
+        }
+
+        /**
+         * Formats the given number with the given number of fraction digits, or returns an empty string for NaN.
+         */
+        private static String format(final double value, final int fractionDigits) {
+            return Double.isNaN(value) ? "" : String.format("%,." + fractionDigits + 'f', value);
+        }
+
+        /**
+         * Returns a string representation of this row, for debugging purpose only.
+         *
+         * @return an arbitrary string representation of this row.
+         */
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder(80);
+            try {
+                write(buffer);
+            } catch (IOException e) {
+                throw new AssertionError(e);        // Should never happen.
+            }
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * The measurement results. Elements are added in this list by the {@code add(…)} methods.
+     */
+    protected final List<Row> rows;
+
+    /**
+     * A value updated with the transformation results, for preventing the JVM to optimize away the
+     * transform calls. This value has no meaning.
+     */
+    private volatile double sink;
+
+    /**
+     * Creates a new report generator using the given property values.
+     * See the class javadoc for a list of expected values.
+     *
+     * @param properties  the property values, or {@code null} for the default values.
+     */
+    public TransformBenchmarkReport(final Properties properties) {
+        super(properties);
+        rows = new ArrayList<>();
+        defaultProperties.setProperty("TITLE", "Math transform performance");
+        defaultProperties.setProperty("FILENAME", "TransformBenchmark.html");
+        defaultProperties.setProperty("WARMUP.TIME", "200");
+        defaultProperties.setProperty("MEASUREMENT.TIME", "500");
+        defaultProperties.setProperty("BATCH.SIZES", "1, 16, 256, 4096");
+    }
+
+    /**
+     * Returns the value of the given property as a positive integer.
+     */
+    private int getPositiveInteger(final String key, final String value) {
+        final int n;
+        try {
+            n = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Illegal value for property " + key + ": " + value, e);
+        }
+        if (n <= 0) {
+            throw new IllegalArgumentException("Property " + key + " shall be positive.");
+        }
+        return n;
+    }
+
+    /**
+     * Benchmarks affine transforms created by the given factory, in two and three dimensions.
+     * If an {@link org.opengis.test.ImplementationDetails} found on the classpath declares
+     * some array methods as unsupported for the given factory, then those methods are not measured.
+     *
+     * @param  factory  the factory to use for creating the transforms to benchmark.
+     * @throws FactoryException if the factory can not create an affine transform.
+     */
+    public void add(final MathTransformFactory factory) throws FactoryException {
+        setVendor("PRODUCT", factory.getVendor());
+        final boolean[] isEnabled = FactoryProvider.getEnabledFlags(factory,
+                Configuration.Key.isDoubleToDoubleSupported,
+                Configuration.Key.isFloatToFloatSupported,
+                Configuration.Key.isOverlappingArraySupported);
+        for (int dimension = 2; dimension <= 3; dimension++) {
+            final int size = dimension + 1;
+            final double[] elements = new double[size * size];
+            final Random random = new Random(SEED + dimension);
+            for (int j=0; j<dimension; j++) {
+                for (int i=0; i<size; i++) {
+                    elements[j*size + i] = (i == j) ? 0.5 + random.nextDouble() : random.nextDouble() - 0.5;
+                }
+            }
+            elements[elements.length - 1] = 1;
+            final MathTransform transform = factory.createAffineTransform(new AffineMatrix(size, elements));
+            final double[] minimum = new double[dimension];
+            final double[] maximum = new double[dimension];
+            Arrays.fill(minimum, -1000);
+            Arrays.fill(maximum, +1000);
+            run("Affine " + dimension + "D", transform, minimum, maximum, isEnabled[0], isEnabled[1], isEnabled[2]);
+        }
+    }
+
+    /**
+     * Benchmarks the given transform using random points in the given domain of validity.
+     *
+     * @param name       the name of the transform, to be written in the report.
+     * @param transform  the transform to benchmark.
+     * @param minimum    the minimal coordinate values of the source points, in each source dimension.
+     * @param maximum    the maximal coordinate values of the source points, in each source dimension.
+     */
+    public void add(final String name, final MathTransform transform, final double[] minimum, final double[] maximum) {
+        final int dimension = transform.getSourceDimensions();
+        if (minimum.length != dimension || maximum.length != dimension) {
+            throw new IllegalArgumentException("Domain dimension shall be " + dimension + '.');
+        }
+        run(name, transform, minimum, maximum, true, true, true);
+    }
+
+    /**
+     * Runs the benchmarks for the given transform.
+     */
+    private void run(final String name, final MathTransform transform, final double[] minimum, final double[] maximum,
+                     final boolean isDoubleSupported, final boolean isFloatSupported, final boolean isOverlappingSupported)
+    {
+        final long warmup      = getPositiveInteger("WARMUP.TIME",      getProperty("WARMUP.TIME"))      * 1000000L;
+        final long measurement = getPositiveInteger("MEASUREMENT.TIME", getProperty("MEASUREMENT.TIME")) * 1000000L;
+        final String[] sizes   = getProperty("BATCH.SIZES").split(",");
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        final int previousCount = rows.size();
+        final int count = sizes.length * 4;
+        for (int s=0; s<sizes.length; s++) {
+            final int batchSize = getPositiveInteger("BATCH.SIZES", sizes[s]);
+            final double[] source = new double[(batchSize + 1) * Math.max(srcDim, tgtDim)];
+            final Random random = new Random(SEED);
+            for (int i=0; i < batchSize * srcDim; i++) {
+                final int d = i % srcDim;
+                source[i] = minimum[d] + (maximum[d] - minimum[d]) * random.nextDouble();
+            }
+            final float[] sourceAsFloats = new float[source.length];
+            for (int i=0; i<source.length; i++) {
+                sourceAsFloats[i] = (float) source[i];
+            }
+            final Row reference = measure(name, DIRECT_POSITION, batchSize, warmup, measurement, new Benchmark() {
+                private final Position ptSrc = new Position(srcDim);
+                private final Position ptDst = new Position(tgtDim);
+                @Override public double run() throws TransformException {
+                    double check = 0;
+                    for (int i=0; i < batchSize * srcDim; i += srcDim) {
+                        System.arraycopy(source, i, ptSrc.ordinates, 0, srcDim);
+                        check += transform.transform(ptSrc, ptDst).getOrdinate(0);
+                    }
+                    return check;
+                }
+            });
+            final List<Row> results = new ArrayList<>(4);
+            if (isDoubleSupported) {
+                final double[] target = new double[batchSize * tgtDim];
+                results.add(measure(name, DOUBLE_ARRAYS, batchSize, warmup, measurement, () -> {
+                    transform.transform(source, 0, target, 0, batchSize);
+                    return target[0];
+                }));
+            }
+            if (isFloatSupported) {
+                final float[] target = new float[batchSize * tgtDim];
+                results.add(measure(name, FLOAT_ARRAYS, batchSize, warmup, measurement, () -> {
+                    transform.transform(sourceAsFloats, 0, target, 0, batchSize);
+                    return target[0];
+                }));
+            }
+            if (isDoubleSupported && isOverlappingSupported && srcDim == tgtDim) {
+                /*
+                 * Target range starts one point after the source range in the same array.
+                 * The source points need to be restored before each call, since they are
+                 * overwritten. The copy time is included in the measurement.
+                 */
+                final double[] buffer = new double[source.length];
+                results.add(measure(name, OVERLAPPING, batchSize, warmup, measurement, () -> {
+                    System.arraycopy(source, 0, buffer, 0, batchSize * srcDim);
+                    transform.transform(buffer, 0, buffer, srcDim, batchSize);
+                    return buffer[srcDim];
+                }));
+            }
+            rows.add(reference);
+            reference.speedup = (reference.error == null) ? 1 : Double.NaN;
+            for (final Row row : results) {
+                row.speedup = row.pointsPerSecond / reference.pointsPerSecond;
+                rows.add(row);
+            }
+            progress(previousCount + rows.size(), previousCount + count);
+        }
+    }
+
+    /**
+     * A task to benchmark. Returns an arbitrary value computed from the transformation results.
+     */
+    @FunctionalInterface
+    private interface Benchmark {
+        double run() throws TransformException;
+    }
+
+    /**
+     * Warms up the given task, then measures its throughput and allocation rate.
+     *
+     * @param  name         name of the transform.
+     * @param  method       name of the benchmarked method.
+     * @param  batchSize    number of points per call.
+     * @param  warmup       warmup time in nanoseconds.
+     * @param  measurement  measurement time in nanoseconds.
+     * @param  task         the task to benchmark.
+     * @return the measurement result.
+     */
+    private Row measure(final String name, final String method, final int batchSize,
+            final long warmup, final long measurement, final Benchmark task)
+    {
+        double check = 0;
+        try {
+            long start = System.nanoTime();
+            do check += task.run();
+            while (System.nanoTime() - start < warmup);
+
+            final long allocatedBefore = ThreadUsage.allocatedBytes();
+            long iterations = 0;
+            long elapsed;
+            start = System.nanoTime();
+            do {
+                check += task.run();
+                iterations++;
+            } while ((elapsed = System.nanoTime() - start) < measurement);
+            final double points = (double) iterations * batchSize;
+            double bytesPerPoint = Double.NaN;
+            if (allocatedBefore >= 0) {
+                bytesPerPoint = (ThreadUsage.allocatedBytes() - allocatedBefore) / points;
+            }
+            return new Row(name, method, batchSize, points / (elapsed / 1E9), bytesPerPoint, null);
+        } catch (TransformException | RuntimeException e) {
+            String message = e.getLocalizedMessage();
+            if (message == null) {
+                message = e.getClass().getSimpleName();
+            }
+            return new Row(name, method, batchSize, Double.NaN, Double.NaN, message);
+        } finally {
+            sink += check;
+        }
+    }
+
+    /**
+     * Returns all measurement results added so far.
+     *
+     * @return the measurement results (never {@code null}).
+     */
+    public List<Row> getResults() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Generates the HTML report in the given file or directory.
+     *
+     * @param  destination  the destination file or directory.
+     *         If this file already exists, then its content will be overwritten without warning.
+     * @return the file to the HTML page generated by this report.
+     * @throws IOException if an error occurred while writing the report.
+     */
+    @Override
+    public File write(File destination) throws IOException {
+        destination = toFile(destination);
+        filter("TransformBenchmark.html", destination);
+        return destination;
+    }
+
+    /**
+     * Invoked by {@link Report} every time a {@code ${FOO}} occurrence is found.
+     */
+    @Override
+    final void writeContent(final BufferedWriter out, final String key) throws IOException {
+        if (!"CONTENT".equals(key)) {
+            super.writeContent(out, key);
+            return;
+        }
+        for (final Row row : rows) {
+            writeIndentation(out, 8);
+            row.write(out);
+            out.newLine();
+        }
+    }
+
+    /**
+     * A direct position backed by an array which is modified in-place by the benchmark.
+     * Used for measuring the per-point method without allocation in the benchmark itself.
+     */
+    private static final class Position implements DirectPosition {
+        /** The coordinate values. */
+        final double[] ordinates;
+
+        /** Creates a new position of the given dimension. */
+        Position(final int dimension) {
+            ordinates = new double[dimension];
+        }
+
+        @Override public CoordinateReferenceSystem getCoordinateReferenceSystem() {return null;}
+        @Override public DirectPosition getDirectPosition() {return this;}
+        @Override public int      getDimension()          {return ordinates.length;}
+        @Override public double[] getCoordinate()         {return ordinates.clone();}
+        @Override public double   getOrdinate(int i)      {return ordinates[i];}
+        @Override public void     setOrdinate(int i, double value) {ordinates[i] = value;}
+    }
+
+    /**
+     * A square matrix given to {@link MathTransformFactory#createAffineTransform(Matrix)}.
+     */
+    private static final class AffineMatrix implements Matrix {
+        /** Number of rows and columns. */
+        private final int size;
+
+        /** The elements in row-major order. */
+        private final double[] elements;
+
+        /** Creates a matrix of the given size wrapping the given elements. */
+        AffineMatrix(final int size, final double[] elements) {
+            this.size     = size;
+            this.elements = elements;
+        }
+
+        @Override public int    getNumRow()                 {return size;}
+        @Override public int    getNumCol()                 {return size;}
+        @Override public double getElement(int j, int i)    {return elements[j*size + i];}
+        @Override public void   setElement(int j, int i, double value) {elements[j*size + i] = value;}
+        @Override public Matrix clone()                     {return new AffineMatrix(size, elements.clone());}
+        @Override public boolean isIdentity() {
+            for (int j=0; j<size; j++) {
+                for (int i=0; i<size; i++) {
+                    if (elements[j*size + i] != (i == j ? 1 : 0)) return false;
+                }
+            }
+            return true;
+        }
+    }
+}
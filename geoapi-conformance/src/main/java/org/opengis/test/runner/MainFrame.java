@@ -188,6 +188,9 @@ final class MainFrame extends JFrame implements Runnable, ActionListener, ListSe
             columns.getColumn(ResultTableModel.CLASS_COLUMN)  .setPreferredWidth(125);
             columns.getColumn(ResultTableModel.METHOD_COLUMN) .setPreferredWidth(175);
             columns.getColumn(ResultTableModel.RESULT_COLUMN) .setPreferredWidth( 40);
+            columns.getColumn(ResultTableModel.TIME_COLUMN)   .setPreferredWidth( 40);
+            columns.getColumn(ResultTableModel.CPU_COLUMN)    .setPreferredWidth( 40);
+            columns.getColumn(ResultTableModel.MEMORY_COLUMN) .setPreferredWidth( 50);
             columns.getColumn(ResultTableModel.MESSAGE_COLUMN).setPreferredWidth(250);      // Take all remaining space.
             tabs.addTab("Tests", new JScrollPane(table));
         }
@@ -46,7 +46,7 @@ import javax.swing.table.DefaultTableCellRenderer;
  * cells in different color depending the test status.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 @SuppressWarnings("serial")
@@ -59,7 +59,7 @@ final class ResultCellRenderer extends DefaultTableCellRenderer {
     /**
      * The color to use for successful tests.
      */
-    private final Color ignoreColor, failureColor;
+    private final Color ignoreColor, failureColor, warningColor;
 
     /**
      * The cell renderer for test coverage.
@@ -75,6 +75,7 @@ final class ResultCellRenderer extends DefaultTableCellRenderer {
         background   = super.getBackground();
         ignoreColor  = Color.GRAY;
         failureColor = Color.RED;
+        warningColor = Color.ORANGE.darker();
         coverage     = new Coverage();
     }
 
@@ -120,6 +121,12 @@ final class ResultCellRenderer extends DefaultTableCellRenderer {
                     foreground = failureColor;
                     break;
                 }
+                case SUCCESS: {
+                    if (entry.getWarning() != null) {
+                        foreground = warningColor;
+                    }
+                    break;
+                }
             }
         }
         if (!isIgnore && column == ResultTableModel.RESULT_COLUMN) {
@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.AbstractMap;
+import java.util.concurrent.TimeUnit;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
@@ -58,7 +59,7 @@ import org.opengis.metadata.citation.Citation;
  * some information about the configuration and the stack trace if an error occurred.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 final class ResultEntry {
@@ -137,6 +138,26 @@ final class ResultEntry {
      */
     final Throwable exception;
 
+    /**
+     * Wall-clock time and CPU time elapsed during the test execution, in nanoseconds,
+     * or -1 if unknown. Those values are always taken from the {@link TestEvent}.
+     * They are unknown if the test did not run, and the CPU time is also unknown
+     * if the JVM does not support its measurement.
+     */
+    final long elapsedTime, cpuTime;
+
+    /**
+     * Amount of memory allocated by the thread executing the test, in bytes, or -1 if unknown.
+     */
+    final long allocatedBytes;
+
+    /**
+     * A message saying that the test exceeded a resource threshold, or {@code null} if none.
+     *
+     * @see #checkThresholds(long, long)
+     */
+    private String warning;
+
     /**
      * An estimation of the test coverage, as a floating point value between 0 and 1.
      */
@@ -157,6 +178,9 @@ final class ResultEntry {
         this.simpleMethodName = createSimpleMethodName(methodName);
         this.status           = status;
         this.exception        = exception;
+        this.elapsedTime      = event.getElapsedTime();
+        this.cpuTime          = event.getCpuTime();
+        this.allocatedBytes   = event.getAllocatedBytes();
         trimStackTrace(exception);
         /*
          * Extract information from the configuration:
@@ -221,20 +245,56 @@ final class ResultEntry {
 
     /**
      * Creates a new entry for the given description.
-     * This constructor is used only for ignored tests.
+     * This constructor is used only for ignored tests or tests for which an assumption is not met.
+     * The resources used by the test are taken from the given event if non-null.
      */
-    ResultEntry(final Description description, final Status status, final Throwable exception) {
+    ResultEntry(final Description description, final Status status, final Throwable exception, final TestEvent measured) {
         this.className        = description.getClassName();
         this.methodName       = description.getMethodName();
         this.simpleClassName  = createSimpleClassName(className);
         this.simpleMethodName = createSimpleMethodName(methodName);
         this.status           = status;
         this.exception        = exception;
+        if (measured != null) {
+            this.elapsedTime    = measured.getElapsedTime();
+            this.cpuTime        = measured.getCpuTime();
+            this.allocatedBytes = measured.getAllocatedBytes();
+        } else {
+            this.elapsedTime    = -1;
+            this.cpuTime        = -1;
+            this.allocatedBytes = -1;
+        }
         this.factories        = Collections.emptyList();
         this.configuration    = Collections.emptyList();
         trimStackTrace(exception);
     }
 
+    /**
+     * Verifies if the test exceeded the given thresholds. If it did, then a warning message
+     * is stored in this entry. Only tests that completed (successfully or not) are checked.
+     *
+     * @param maxTime   maximal elapsed time in nanoseconds.
+     * @param maxBytes  maximal amount of memory allocated in bytes.
+     */
+    void checkThresholds(final long maxTime, final long maxBytes) {
+        if (status == Status.SUCCESS || status == Status.FAILURE) {
+            if (elapsedTime > maxTime) {
+                warning = "Slow test: " + TimeUnit.NANOSECONDS.toMillis(elapsedTime)
+                        + " ms (threshold is " + TimeUnit.NANOSECONDS.toMillis(maxTime) + " ms).";
+            } else if (allocatedBytes > maxBytes) {
+                warning = "High memory allocation: " + allocatedBytes / 1024
+                        + " kB (threshold is " + maxBytes / 1024 + " kB).";
+            }
+        }
+    }
+
+    /**
+     * Returns a message saying that the test exceeded a resource threshold, or {@code null} if none.
+     */
+    final String getWarning() {
+        return warning;
+    }
+
     /**
      * Creates a simple name from the given class name.
      */
@@ -372,7 +432,7 @@ final class ResultEntry {
         final Color color;
         switch (status) {
             case SUCCESS: {
-                color = isToleranceRelaxed ? Color.ORANGE : Color.GREEN;
+                color = (isToleranceRelaxed || warning != null) ? Color.ORANGE : Color.GREEN;
                 break;
             }
             case FAILURE: {
@@ -31,6 +31,10 @@
  */
 package org.opengis.test.runner;
 
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.awt.EventQueue;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -41,7 +45,7 @@ import javax.swing.table.AbstractTableModel;
  * The table model for the {@link ResultEntry} instances to be displayed.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 @SuppressWarnings("serial")
@@ -52,17 +56,23 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
     static final int CLASS_COLUMN   = 0,
                      METHOD_COLUMN  = 1,
                      RESULT_COLUMN  = 2,
-                     MESSAGE_COLUMN = 3;
+                     TIME_COLUMN    = 3,
+                     CPU_COLUMN     = 4,
+                     MEMORY_COLUMN  = 5,
+                     MESSAGE_COLUMN = 6;
 
     /**
      * The titles of all columns.
      */
     private static final String[] COLUMN_TITLES;
     static {
-        COLUMN_TITLES = new String[4];
+        COLUMN_TITLES = new String[7];
         COLUMN_TITLES[CLASS_COLUMN]   = "Class";
         COLUMN_TITLES[METHOD_COLUMN]  = "Method";
         COLUMN_TITLES[RESULT_COLUMN]  = "Result";
+        COLUMN_TITLES[TIME_COLUMN]    = "Time (ms)";
+        COLUMN_TITLES[CPU_COLUMN]     = "CPU (ms)";
+        COLUMN_TITLES[MEMORY_COLUMN]  = "Memory (kB)";
         COLUMN_TITLES[MESSAGE_COLUMN] = "Message";
     };
 
@@ -72,9 +82,16 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
     private final Runner data;
 
     /**
-     * The result of each tests.
+     * The result of each tests. New entries are appended at the end of this list
+     * in the Swing thread; previous entries are never modified.
      */
-    private ResultEntry[] entries;
+    private final List<ResultEntry> entries;
+
+    /**
+     * Whether a task for fetching new entries is already pending in the Swing events queue.
+     * Used for coalescing the notifications when many tests complete in a short time.
+     */
+    private final AtomicBoolean pending;
 
     /**
      * Creates a table model for the given data.
@@ -82,7 +99,8 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
     @SuppressWarnings("ThisEscapedInObjectConstruction")
     ResultTableModel(final Runner data) {
         this.data = data;
-        entries = data.getEntries();
+        entries = new ArrayList<>(data.getEntries(0));
+        pending = new AtomicBoolean();
         data.addChangeListener(this);
     }
 
@@ -115,14 +133,14 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
      */
     @Override
     public int getRowCount() {
-        return entries.length;
+        return entries.size();
     }
 
     /**
      * Returns the values in the given row.
      */
     final ResultEntry getValueAt(final int row) {
-        return entries[row];
+        return entries.get(row);
     }
 
     /**
@@ -130,7 +148,7 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
      */
     @Override
     public String getValueAt(final int row, final int column) {
-        final ResultEntry entry = entries[row];
+        final ResultEntry entry = entries.get(row);
         switch (column) {
             case CLASS_COLUMN:  return entry.simpleClassName;
             case METHOD_COLUMN: return entry.simpleMethodName;
@@ -139,6 +157,9 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
                 case FAILURE: return "failure";
                 default:      return null;
             }
+            case TIME_COLUMN:   return toMillis(entry.elapsedTime);
+            case CPU_COLUMN:    return toMillis(entry.cpuTime);
+            case MEMORY_COLUMN: return (entry.allocatedBytes >= 0) ? String.valueOf(entry.allocatedBytes / 1024) : null;
             case MESSAGE_COLUMN: {
                 if (entry.status != ResultEntry.Status.ASSUMPTION_NOT_MET) {
                     final Throwable exception = entry.exception;
@@ -156,32 +177,44 @@ final class ResultTableModel extends AbstractTableModel implements ChangeListene
                         }
                     }
                 }
-                return null;
+                return entry.getWarning();
             }
             default: throw new IndexOutOfBoundsException(String.valueOf(column));
         }
     }
 
     /**
-     * Invoked every time a new entry has been added in {@link ReportData}.
+     * Formats the given time in nanoseconds as a number of milliseconds,
+     * or returns {@code null} if the time is unknown.
+     */
+    private static String toMillis(final long nanos) {
+        return (nanos >= 0) ? String.valueOf(TimeUnit.NANOSECONDS.toMillis(nanos)) : null;
+    }
+
+    /**
+     * Invoked every time a new entry has been added in {@link Runner}.
      * This method may be invoked from any thread, so we just report the event
-     * in the Swing thread.
+     * in the Swing thread. If a report is already pending, it will take the
+     * new entry in account, so no new task is queued.
      */
     @Override
     public void stateChanged(final ChangeEvent event) {
-        EventQueue.invokeLater(this);
+        if (pending.compareAndSet(false, true)) {
+            EventQueue.invokeLater(this);
+        }
     }
 
     /**
-     * Invoked in the Swing thread after a new entry has been added in {@link ReportData}.
-     * This method fires a table event with the range of row index for the new entries.
-     * We presume that the previous entries has not been modified.
+     * Invoked in the Swing thread after new entries have been added in {@link Runner}.
+     * This method fetches only the new entries and fires a table event with the range
+     * of row index for those entries. Previous entries are never modified.
      */
     @Override
     public void run() {
-        final int lower = entries.length;
-        entries = data.getEntries();
-        final int upper = entries.length;
+        pending.set(false);
+        final int lower = entries.size();
+        entries.addAll(data.getEntries(lower));
+        final int upper = entries.size();
         if (lower != upper) {
             fireTableRowsInserted(lower, upper-1);
         }
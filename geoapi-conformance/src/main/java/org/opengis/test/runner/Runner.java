@@ -31,9 +31,14 @@
  */
 package org.opengis.test.runner;
 
-import java.util.Set;
+import java.util.List;
 import java.util.Arrays;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -46,10 +51,13 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 import org.junit.runner.Result;
+import org.junit.runner.Request;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
+import org.junit.runners.Suite;
 
 import org.opengis.test.TestSuite;
 import org.opengis.test.TestEvent;
@@ -62,8 +70,17 @@ import static org.opengis.test.runner.ResultEntry.Status.*;
  * Provides methods for running the tests. This class does not depend on Swing widgets
  * or on console program.
  *
+ * <p>Tests are run sequentially by default. If the {@value #PARALLELISM_KEY} system property
+ * is set to a value greater than 1, then each test method (or each set of factories for
+ * parameterized tests) is submitted as a separated task to a thread pool of that size.
+ * Results are recorded as they arrive, so the order of entries may differ between
+ * two runs in parallel mode.</p>
+ *
+ * <p>Tests exceeding the time or memory allocation thresholds given by the {@value #TIME_THRESHOLD_KEY}
+ * and {@value #ALLOCATION_THRESHOLD_KEY} system properties are reported with a warning.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 final class Runner extends RunListener implements TestListener {
@@ -78,9 +95,57 @@ final class Runner extends RunListener implements TestListener {
     static final String LINE_SEPARATOR = System.getProperty("line.separator", "\n");
 
     /**
-     * The result of each tests. All a access to this list must be synchronized.
+     * The system property for the maximal number of tests to run in parallel.
+     * A value of 1 or less (the default) runs the tests sequentially.
+     *
+     * @since 4.0
+     */
+    static final String PARALLELISM_KEY = "org.opengis.test.runner.parallelism";
+
+    /**
+     * The system property for the elapsed time threshold, in milliseconds. Tests slower than
+     * this threshold are reported with a warning. The default is to not check elapsed time.
+     *
+     * @since 4.0
      */
-    private final Set<ResultEntry> entries;
+    static final String TIME_THRESHOLD_KEY = "org.opengis.test.runner.timeThreshold";
+
+    /**
+     * The system property for the memory allocation threshold, in bytes. Tests allocating more
+     * memory than this threshold are reported with a warning. The default is to not check allocations.
+     *
+     * @since 4.0
+     */
+    static final String ALLOCATION_THRESHOLD_KEY = "org.opengis.test.runner.allocationThreshold";
+
+    /**
+     * The method name given by JUnit to the pseudo-test reporting a failure to initialize a test class.
+     */
+    private static final String INITIALIZATION_ERROR = "initializationError";
+
+    /**
+     * The result of each tests, in the order they were received. All accesses to this list must
+     * be synchronized. Entries are only appended; they are never removed or reordered.
+     */
+    private final List<ResultEntry> entries;
+
+    /**
+     * The event of the last test finished by the current thread, or {@code null} if none.
+     * Used for getting the resources measured by {@link org.opengis.test.TestCase} for tests
+     * which neither succeeded nor failed, since JUnit reports assumption failures only
+     * after {@link #finished(TestEvent)}. JUnit notifies the start, the end and the result of
+     * a test in the thread executing that test, so a thread-local value is sufficient in parallel mode.
+     */
+    private final ThreadLocal<TestEvent> lastFinished;
+
+    /**
+     * Thresholds above which a test is reported with a warning. The time is in nanoseconds
+     * and the memory allocation in bytes.
+     *
+     * @see #TIME_THRESHOLD_KEY
+     * @see #ALLOCATION_THRESHOLD_KEY
+     */
+    private final long timeThreshold, allocationThreshold;
 
     /**
      * The listeners to inform of any new entry. Note that those listeners will
@@ -98,8 +163,11 @@ final class Runner extends RunListener implements TestListener {
      * Creates a new, initially empty, runner.
      */
     Runner() {
-        entries   = new LinkedHashSet<>();
+        entries   = new ArrayList<>();
         listeners = new ChangeListener[0];
+        lastFinished = new ThreadLocal<>();
+        timeThreshold       = TimeUnit.MILLISECONDS.toNanos(Long.getLong(TIME_THRESHOLD_KEY, Long.MAX_VALUE));
+        allocationThreshold = Long.getLong(ALLOCATION_THRESHOLD_KEY, Long.MAX_VALUE);
         event     = new ChangeEvent(this);
     }
 
@@ -117,9 +185,15 @@ final class Runner extends RunListener implements TestListener {
     }
 
     /**
-     * Runs the JUnit tests.
+     * Runs the JUnit tests, in parallel if the {@value #PARALLELISM_KEY} system property
+     * is greater than 1.
      */
     void run() {
+        final int parallelism = Integer.getInteger(PARALLELISM_KEY, 1);
+        if (parallelism > 1) {
+            run(parallelism);
+            return;
+        }
         final JUnitCore junit = new JUnitCore();
         junit.addListener(this);
         final Result result;
@@ -139,22 +213,113 @@ final class Runner extends RunListener implements TestListener {
     }
 
     /**
-     * Returns all entries. This method returns a copy of the internal array.
-     * Changes to this {@code ReportData} object will not be reflected in that array.
+     * Runs the JUnit tests using a pool of the given number of threads. Each test class declared
+     * in {@link TestSuite} is split in shards (one per test method, or one per set of factories for
+     * parameterized tests), and each shard is run as a separated JUnit request. Consequently tests
+     * of the same class may be executed concurrently.
+     *
+     * @param parallelism  maximal number of tests to run in parallel.
+     */
+    void run(final int parallelism) {
+        final Suite.SuiteClasses suite = TestSuite.class.getAnnotation(Suite.SuiteClasses.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            TestSuite.addTestListener(this);
+            final List<Future<Result>> tasks = new ArrayList<>();
+            for (final Class<?> testClass : suite.value()) {
+                /*
+                 * Shard the class by its direct children: the test methods for an ordinary class,
+                 * or the set of factories for a parameterized class. The latter case keeps all
+                 * methods using the same factories in the same task.
+                 */
+                for (final Description child : Request.aClass(testClass).getRunner().getDescription().getChildren()) {
+                    final Request request = Request.aClass(testClass).filterWith(new Shard(child));
+                    tasks.add(executor.submit(() -> {
+                        final JUnitCore junit = new JUnitCore();
+                        junit.addListener(this);
+                        return junit.run(request);
+                    }));
+                }
+            }
+            for (final Future<Result> task : tasks) {
+                for (final Failure failure : task.get().getFailures()) {
+                    // Failures in class initialization are not reported to TestListener.
+                    final String method = failure.getDescription().getMethodName();
+                    if (method == null || method.equals(INITIALIZATION_ERROR)) {
+                        final Throwable exception = failure.getException();
+                        LOGGER.log(Level.WARNING, exception.toString(), exception);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            LOGGER.log(Level.WARNING, cause.toString(), cause);
+        } finally {
+            executor.shutdownNow();
+            TestSuite.removeTestListener(this);
+        }
+    }
+
+    /**
+     * A filter accepting only the tests in a given branch of the description tree.
+     * Parents of that branch are also accepted, since JUnit needs them for reaching the tests.
      */
-    ResultEntry[] getEntries() {
+    private static final class Shard extends Filter {
+        /** The root of the branch to accept. */
+        private final Description branch;
+
+        /** Creates a filter for the given branch. */
+        Shard(final Description branch) {
+            this.branch = branch;
+        }
+
+        /** Returns whether the given test or suite is in the branch or is an ancestor of it. */
+        @Override
+        public boolean shouldRun(final Description description) {
+            return contains(description, branch) || contains(branch, description);
+        }
+
+        /** Returns whether the given node is the given root or one of its descendants. */
+        private static boolean contains(final Description root, final Description node) {
+            if (root.equals(node)) {
+                return true;
+            }
+            for (final Description child : root.getChildren()) {
+                if (contains(child, node)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Returns a description of this filter. */
+        @Override
+        public String describe() {
+            return "branch " + branch.getDisplayName();
+        }
+    }
+
+    /**
+     * Returns the entries added after the given number of entries. This method returns a copy
+     * of the internal list. Since entries are only appended, callers can invoke this method
+     * with the number of entries they already have for fetching only the new ones.
+     *
+     * @param  from  number of entries to skip.
+     * @return entries at index {@code from} and after.
+     */
+    List<ResultEntry> getEntries(final int from) {
         synchronized (entries) {
-            return entries.toArray(new ResultEntry[entries.size()]);
+            return new ArrayList<>(entries.subList(Math.min(from, entries.size()), entries.size()));
         }
     }
 
     /**
-     * Adds a new test result. If we already have an entry for the same test method,
-     * silently discards the new entry. We do that because test failure cause two
-     * entries to be emitted: first an entry for the test failure, then another
-     * entry because the test finished.
+     * Adds a new test result and notifies the listeners.
      */
     private void addEntry(final ResultEntry entry) {
+        entry.checkThresholds(timeThreshold, allocationThreshold);
         final ChangeListener[] list;
         synchronized (entries) {
             entries.add(entry);
@@ -165,6 +330,24 @@ final class Runner extends RunListener implements TestListener {
         }
     }
 
+    /**
+     * Called when an atomic test is about to start.
+     * This method forgets the event of the previous test executed by the current thread.
+     */
+    @Override
+    public void testStarted(final Description description) {
+        lastFinished.remove();
+    }
+
+    /**
+     * Called when an atomic test has finished.
+     * This method forgets the event of the test executed by the current thread.
+     */
+    @Override
+    public void testFinished(final Description description) {
+        lastFinished.remove();
+    }
+
     /**
      * Called when a test is about to start.
      * Current implementation does nothing.
@@ -175,11 +358,12 @@ final class Runner extends RunListener implements TestListener {
 
     /**
      * Called when an atomic test has finished, whether the test succeeds or fails.
-     * Current implementation does nothing - we will rely instead on the more specific
-     * methods below.
+     * This method only remembers the event, for the resources measured if an assumption
+     * failure is reported next. We rely on the more specific methods below for other results.
      */
     @Override
     public void finished(final TestEvent event) {
+        lastFinished.set(event);
     }
 
     /**
@@ -205,7 +389,7 @@ final class Runner extends RunListener implements TestListener {
      */
     @Override
     public void testAssumptionFailure(final Failure failure) {
-        addEntry(new ResultEntry(failure.getDescription(), ASSUMPTION_NOT_MET, failure.getException()));
+        addEntry(new ResultEntry(failure.getDescription(), ASSUMPTION_NOT_MET, failure.getException(), lastFinished.get()));
         super.testAssumptionFailure(failure);
     }
 
@@ -215,7 +399,7 @@ final class Runner extends RunListener implements TestListener {
      */
     @Override
     public void testIgnored(final Description description) throws Exception {
-        addEntry(new ResultEntry(description, IGNORED, null));
+        addEntry(new ResultEntry(description, IGNORED, null, null));
         super.testIgnored(description);
     }
 
@@ -32,7 +32,13 @@
 package org.opengis.test;
 
 import java.util.Set;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.opengis.util.InternationalString;
+import org.opengis.test.util.NameValidator;
 
 import org.junit.*;
 import static org.junit.Assert.*;
@@ -42,7 +48,7 @@ import static org.junit.Assert.*;
  * Tests {@link ValidatorContainer}.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.0
+ * @version 4.0
  * @since   2.2
  */
 public strictfp class ValidatorContainerTest {
@@ -60,4 +66,149 @@ public strictfp class ValidatorContainerTest {
         assertFalse("Found a null value.", previous.remove(null));
         assertEquals("Declared size is wrong.", previous.size(), container.all.size());
     }
+
+    /**
+     * A trivial international string for testing purpose.
+     */
+    private static final class SimpleString implements InternationalString {
+        private final String text;
+        SimpleString(final String text)                          {this.text = text;}
+        @Override public String       toString(Locale locale)    {return text;}
+        @Override public String       toString()                 {return text;}
+        @Override public int          length()                   {return text.length();}
+        @Override public char         charAt(int index)          {return text.charAt(index);}
+        @Override public CharSequence subSequence(int s, int e)  {return text.subSequence(s, e);}
+        @Override public int compareTo(InternationalString o)    {return text.compareTo(o.toString());}
+    }
+
+    /**
+     * Creates a container which counts the number of international strings validated.
+     */
+    private static ValidatorContainer createCountingContainer(final AtomicInteger count) {
+        final ValidatorContainer container = new ValidatorContainer();
+        container.naming = new NameValidator(container) {
+            @Override public void validate(final InternationalString object) {
+                count.incrementAndGet();
+                super.validate(object);
+            }
+        };
+        return container;
+    }
+
+    /**
+     * Tests {@link ValidatorContainer#startSession()}. Objects validated many times in the same
+     * session shall be validated only once, while objects outside a session are always validated.
+     */
+    @Test
+    public void testSession() {
+        final AtomicInteger count = new AtomicInteger();
+        final ValidatorContainer container = createCountingContainer(count);
+        final InternationalString text = new SimpleString("Some text");
+        container.dispatch(text);
+        container.dispatch(text);
+        assertEquals("Without session.", 2, count.get());
+        try (ValidatorContainer.Session session = ValidatorContainer.startSession()) {
+            assertFalse("New session.", session.isJoined());
+            container.dispatch(text);
+            container.validate(text);
+            try (ValidatorContainer.Session nested = ValidatorContainer.startSession()) {
+                assertTrue("Nested session.", nested.isJoined());
+                container.validate(text);
+            }
+            container.dispatch(new SimpleString("Some text"));     // Equal but not identical.
+        }
+        assertEquals("With session.", 4, count.get());
+        container.validate(text);
+        assertEquals("After session.", 5, count.get());
+    }
+
+    /**
+     * Tests {@link ValidatorContainer#validateAll(java.util.Collection, boolean)}
+     * in sequential and parallel modes.
+     */
+    @Test
+    public void testValidateAll() {
+        final InternationalString[] texts = new InternationalString[10];
+        for (int i=0; i<texts.length; i++) {
+            texts[i] = new SimpleString("Text " + i);
+        }
+        final List<InternationalString> objects = Arrays.asList(texts);
+        for (final boolean parallel : new boolean[] {false, true}) {
+            final AtomicInteger count = new AtomicInteger();
+            final ValidatorContainer container = createCountingContainer(count);
+            container.validateAll(objects, parallel);
+            container.validateAll(Arrays.asList(texts[3], texts[3], texts[5]), parallel);
+            assertEquals(texts.length + 2, count.get());
+        }
+    }
+
+    /**
+     * Tests a session shared by two containers. Each container shall validate the object,
+     * since containers may be configured differently.
+     */
+    @Test
+    public void testSessionWithManyContainers() {
+        final AtomicInteger count = new AtomicInteger();
+        final ValidatorContainer strict  = createCountingContainer(count);
+        final ValidatorContainer lenient = createCountingContainer(count);
+        final InternationalString text = new SimpleString("Some text");
+        try (ValidatorContainer.Session session = ValidatorContainer.startSession()) {
+            assertFalse(session.isJoined());
+            strict .validate(text);
+            lenient.validate(text);
+            strict .validate(text);
+        }
+        assertEquals(2, count.get());
+    }
+
+    /**
+     * Tests that an object which failed validation is validated again in the same session.
+     */
+    @Test
+    public void testSessionAfterFailure() {
+        final AtomicInteger count = new AtomicInteger();
+        final ValidatorContainer container = new ValidatorContainer();
+        container.naming = new NameValidator(container) {
+            @Override public void validate(final InternationalString object) {
+                if (count.incrementAndGet() == 1) {
+                    throw new AssertionError("Simulated failure.");
+                }
+            }
+        };
+        final InternationalString text = new SimpleString("Some text");
+        try (ValidatorContainer.Session session = ValidatorContainer.startSession()) {
+            assertFalse(session.isJoined());
+            try {
+                container.validate(text);
+                fail("Expected a validation failure.");
+            } catch (AssertionError e) {
+                assertEquals("Simulated failure.", e.getMessage());
+            }
+            container.validate(text);
+            container.validate(text);
+        }
+        assertEquals(2, count.get());
+    }
+
+    /**
+     * Tests {@link ValidatorContainer#validateAll(java.util.Collection, boolean)} in parallel mode
+     * inside an enclosing session. Objects validated before shall not be validated again.
+     */
+    @Test
+    public void testParallelValidateAllInSession() {
+        final AtomicInteger count = new AtomicInteger();
+        final ValidatorContainer container = createCountingContainer(count);
+        final InternationalString[] texts = new InternationalString[10];
+        for (int i=0; i<texts.length; i++) {
+            texts[i] = new SimpleString("Text " + i);
+        }
+        try (ValidatorContainer.Session session = ValidatorContainer.startSession()) {
+            assertFalse(session.isJoined());
+            container.validate(texts[2]);
+            container.validate(texts[7]);
+            container.validateAll(Arrays.asList(texts), true);
+            container.validate(texts[4]);
+        }
+        assertEquals(texts.length, count.get());
+    }
 }
@@ -0,0 +1,114 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.coverage.image;
+
+import java.util.List;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+import org.junit.BeforeClass;
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link ImageIOBenchmark} using the standard PNG reader and writer bundled in the JDK.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class ImageIOBenchmarkTest {
+    /**
+     * Disables the creation of temporary caches on disk - use the memory instead.
+     */
+    @BeforeClass
+    public static void configureImageIO() {
+        ImageIO.setUseCache(false);
+    }
+
+    /**
+     * Creates a benchmark with very short times, since we only test that the benchmark runs.
+     */
+    private static ImageIOBenchmark create() {
+        final ImageIOBenchmark benchmark = new ImageIOBenchmark();
+        benchmark.setTimes(0, 1);
+        benchmark.setImageSize(64);
+        return benchmark;
+    }
+
+    /**
+     * Verifies that the result contains a successful measurement for the given operation.
+     */
+    private static void assertMeasured(final List<ImageIOBenchmark.Row> rows, final String operation, final boolean hasPixels) {
+        for (final ImageIOBenchmark.Row row : rows) {
+            if (row.operation.equals(operation)) {
+                assertNull(row.error, row.error);
+                assertTrue(row.numCalls > 0);
+                assertEquals(hasPixels, row.numPixels > 0);
+                return;
+            }
+        }
+        fail("Missing measurement: " + operation);
+    }
+
+    /**
+     * Tests {@link ImageIOBenchmark#run(ImageReaderTestCase)}.
+     *
+     * @throws IOException if an error occurred while reading the test image.
+     */
+    @Test
+    public void testReader() throws IOException {
+        final ImageReaderCaseTest test = new ImageReaderCaseTest();
+        final List<ImageIOBenchmark.Row> rows = create().run(test);
+        assertMeasured(rows, "Stream metadata",    false);
+        assertMeasured(rows, "Full read",          true);
+        assertMeasured(rows, "Tiled read",         true);
+        assertMeasured(rows, "Subsampled read",    true);
+        assertMeasured(rows, "Random region read", true);
+        assertNull("The test case shall be closed.", test.reader);
+    }
+
+    /**
+     * Tests {@link ImageIOBenchmark#run(ImageWriterTestCase)}.
+     *
+     * @throws IOException if an error occurred while writing the test images.
+     */
+    @Test
+    public void testWriter() throws IOException {
+        final ImageWriterCaseTest test = new ImageWriterCaseTest();
+        final List<ImageIOBenchmark.Row> rows = create().run(test);
+        assertMeasured(rows, "Write 1 byte band",  true);
+        assertMeasured(rows, "Write 3 byte bands", true);
+        assertNull("The test case shall be closed.", test.writer);
+    }
+}
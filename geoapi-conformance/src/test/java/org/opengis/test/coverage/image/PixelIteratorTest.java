@@ -0,0 +1,229 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.coverage.image;
+
+import java.util.Random;
+import java.util.Vector;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.awt.image.BufferedImage;
+import java.awt.image.SinglePixelPackedSampleModel;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link PixelIterator}, in particular the consistency between the bulk comparison of sample values
+ * and the comparison sample by sample.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class PixelIteratorTest {
+    /**
+     * The random number generator, with a fixed seed for reproducible tests.
+     */
+    private final Random random = new Random(8243076524198317469L);
+
+    /**
+     * A rendered image made of the tiles of the given raster, for testing iterations over many tiles.
+     * The tiles are children of the wrapped raster, so they share the same data buffer.
+     */
+    private static final class TiledImage implements RenderedImage {
+        /** The raster to split in tiles. */
+        private final Raster raster;
+
+        /** Size of the tiles. */
+        private final int tileWidth, tileHeight;
+
+        /** Creates an image having tiles of the given size. */
+        TiledImage(final Raster raster, final int tileWidth, final int tileHeight) {
+            this.raster     = raster;
+            this.tileWidth  = tileWidth;
+            this.tileHeight = tileHeight;
+        }
+
+        @Override public Vector<RenderedImage> getSources()      {return null;}
+        @Override public Object         getProperty(String n)    {return Image.UndefinedProperty;}
+        @Override public String[]       getPropertyNames()       {return null;}
+        @Override public ColorModel     getColorModel()          {return null;}
+        @Override public SampleModel    getSampleModel()         {return raster.getSampleModel();}
+        @Override public int            getWidth()               {return raster.getWidth();}
+        @Override public int            getHeight()              {return raster.getHeight();}
+        @Override public int            getMinX()                {return raster.getMinX();}
+        @Override public int            getMinY()                {return raster.getMinY();}
+        @Override public int            getNumXTiles()           {return (getWidth()  + tileWidth  - 1) / tileWidth;}
+        @Override public int            getNumYTiles()           {return (getHeight() + tileHeight - 1) / tileHeight;}
+        @Override public int            getMinTileX()            {return 0;}
+        @Override public int            getMinTileY()            {return 0;}
+        @Override public int            getTileWidth()           {return tileWidth;}
+        @Override public int            getTileHeight()          {return tileHeight;}
+        @Override public int            getTileGridXOffset()     {return getMinX();}
+        @Override public int            getTileGridYOffset()     {return getMinY();}
+        @Override public Raster         getData()                {return raster;}
+        @Override public Raster         getData(Rectangle rect)  {throw new UnsupportedOperationException();}
+        @Override public WritableRaster copyData(WritableRaster r) {throw new UnsupportedOperationException();}
+        @Override public Raster getTile(final int tx, final int ty) {
+            final int x = getMinX() + tx * tileWidth;
+            final int y = getMinY() + ty * tileHeight;
+            final int w = Math.min(tileWidth,  getMinX() + getWidth()  - x);
+            final int h = Math.min(tileHeight, getMinY() + getHeight() - y);
+            return raster.createChild(x, y, w, h, x, y, null);
+        }
+    }
+
+    /**
+     * Creates an image of the given type filled with random values.
+     */
+    private RenderedImage createImage(final int dataType, final int numBands, final int tileWidth, final int tileHeight) {
+        final WritableRaster raster = ImageBackendTestCase.createBandedRaster(dataType, 97, 53, numBands);
+        ImageBackendTestCase.fill(raster, random);
+        return new TiledImage(raster, tileWidth, tileHeight);
+    }
+
+    /**
+     * Tests the comparison of images having the same sample values but different tile layouts,
+     * with various sub-areas, subsamplings and source bands. Each comparison is done with the
+     * bulk comparison (sequential and parallel) and with the sample by sample comparison.
+     */
+    @Test
+    public void testEqualSampleValues() {
+        final int[] types = {
+            DataBuffer.TYPE_BYTE,
+            DataBuffer.TYPE_USHORT,
+            DataBuffer.TYPE_SHORT,
+            DataBuffer.TYPE_INT,
+            DataBuffer.TYPE_FLOAT,
+            DataBuffer.TYPE_DOUBLE
+        };
+        for (final int type : types) {
+            final RenderedImage image = createImage(type, 3, 97, 53);
+            final Raster raster = image.getData();
+            final RenderedImage tiled = new TiledImage(raster, 10, 7);
+            final Rectangle area = new Rectangle(5, 3, 80, 40);
+            final int[] bands = {2, 0};
+            for (int mode=0; mode<3; mode++) {
+                new PixelIterator(image).assertSampleValuesEqual(new PixelIterator(tiled), 0, mode == 1);
+                new PixelIterator(image, area, 3, 2, bands).assertSampleValuesEqual(
+                        new PixelIterator(tiled, area, 3, 2, bands), 0, mode == 1);
+                if (mode == 2) {
+                    final PixelIterator expected = new PixelIterator(image, area, 3, 2, bands);
+                    assertTrue(expected.next());                // Force the sample by sample comparison.
+                    final PixelIterator actual = new PixelIterator(tiled, area, 3, 2, bands);
+                    assertTrue(actual.next());
+                    expected.assertSampleValuesEqual(actual, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests an iteration with a subsampling which moves the position after the end of the sub-area,
+     * but not after the end of the last tile intersecting that sub-area. The sub-area stops at
+     * <var>x</var>=81 and <var>y</var>=36, in the middle of tiles of 10×7 pixels. With a subsampling
+     * of 3, the positions after the last valid ones are 81 and 36, which shall not be iterated.
+     */
+    @Test
+    public void testSubsamplingBeyondSubArea() {
+        final RenderedImage tiled = createImage(DataBuffer.TYPE_BYTE, 1, 10, 7);
+        final PixelIterator it = new PixelIterator(tiled, new Rectangle(0, 0, 81, 36), 3, 3, null);
+        int count = 0;
+        while (it.next()) {
+            final int x = it.getX();
+            final int y = it.getY();
+            assertEquals("x", (count % 27) * 3, x);
+            assertEquals("y", (count / 27) * 3, y);
+            assertEquals(tiled.getData().getSample(x, y, 0), it.getSample());
+            count++;
+        }
+        assertEquals(27 * 12, count);
+    }
+
+    /**
+     * Tests the comparison of images having a sample model which is not a {@code ComponentSampleModel}.
+     * This test forces the use of {@link Raster#getPixels(int, int, int, int, double[])}.
+     */
+    @Test
+    public void testPackedSampleModel() {
+        final BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        assertTrue(image.getSampleModel() instanceof SinglePixelPackedSampleModel);
+        ImageBackendTestCase.fill(image.getRaster(), random);
+        final Raster copy = ImageBackendTestCase.createBandedRaster(DataBuffer.TYPE_BYTE, 40, 30, 3);
+        ((WritableRaster) copy).setRect(image.getRaster());
+        new PixelIterator(image).assertSampleValuesEqual(new PixelIterator(new TiledImage(copy, 16, 16)), 0, true);
+    }
+
+    /**
+     * Tests that the bulk comparison reports the first mismatched sample value
+     * with the same message than the sample by sample comparison.
+     */
+    @Test
+    public void testMismatch() {
+        final RenderedImage image = createImage(DataBuffer.TYPE_FLOAT, 2, 97, 53);
+        final WritableRaster modified = image.getData().createCompatibleWritableRaster();
+        modified.setRect(image.getData());
+        modified.setSample(40, 30, 1, 1000f);
+        modified.setSample(70, 45, 0, 2000f);
+        final RenderedImage tiled = new TiledImage(modified, 16, 8);
+        String expected = null;
+        for (int mode=0; mode<3; mode++) {
+            final PixelIterator it = new PixelIterator(image);
+            if (mode == 2) {
+                assertTrue(it.next());                          // Force the sample by sample comparison.
+            }
+            final PixelIterator actual = new PixelIterator(tiled);
+            if (mode == 2) {
+                assertTrue(actual.next());
+            }
+            try {
+                it.assertSampleValuesEqual(actual, 0.5, mode == 1);
+                fail("Mismatch not detected.");
+            } catch (AssertionError e) {
+                final String message = e.getMessage();
+                assertTrue(message, message.contains("(40, 30) band 1"));
+                if (expected == null) {
+                    expected = message;
+                } else {
+                    assertEquals(expected, message);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.dataset;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.lang.reflect.Proxy;
+import org.opengis.metadata.Metadata;
+import org.opengis.metadata.Identifier;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link ContentVerifier}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class ContentVerifierTest {
+    /**
+     * Creates a proxy implementing the given interface, with property values taken from the given map.
+     * Keys are method names. Methods not found in the map return {@code null}.
+     */
+    private static <T> T create(final Class<T> type, final Map<String,Object> values) {
+        return type.cast(Proxy.newProxyInstance(ContentVerifierTest.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals":   return proxy == args[0];
+                        case "toString": return type.getSimpleName();
+                        default:         return values.get(method.getName());
+                    }
+                }));
+    }
+
+    /**
+     * Creates a metadata with an identifier and a parent metadata for testing purpose.
+     */
+    private static Metadata createMetadata() {
+        final Map<String,Object> id = new HashMap<>();
+        id.put("getCode",      "ABC");
+        id.put("getCodeSpace", "Test");
+        final Map<String,Object> md = new HashMap<>();
+        md.put("getMetadataIdentifier", create(Identifier.class, id));
+        md.put("getMetadataStandards", Collections.emptyList());
+        return create(Metadata.class, md);
+    }
+
+    /**
+     * Tests {@link ContentVerifier#addMetadataToVerify(Metadata)} followed by {@code compareMetadata(…)}.
+     */
+    @Test
+    public void testCompareMetadata() {
+        final ContentVerifier verifier = new ContentVerifier();
+        verifier.addMetadataToVerify(createMetadata());
+        assertTrue(verifier.compareMetadata("metadataIdentifier.code",      "ABC",
+                                            "metadataIdentifier.codeSpace", "Test"));
+        verifier.clear();
+        verifier.addMetadataToVerify(createMetadata());
+        assertFalse(verifier.compareMetadata("metadataIdentifier.code", "XYZ"));
+    }
+
+    /**
+     * Tests {@link ContentVerifier#compareMetadata(Metadata, Map, ContentVerifier.DifferenceListener)}.
+     */
+    @Test
+    public void testStreamingComparison() {
+        final Map<String,Object> expected = new HashMap<>();
+        expected.put("metadataIdentifier.code",    "XYZ");
+        expected.put("metadataIdentifier.version", "1.0");
+        final List<String> differences = new ArrayList<>();
+        final ContentVerifier verifier = new ContentVerifier();
+        assertFalse(verifier.compareMetadata(createMetadata(), expected,
+                (path, e, a) -> differences.add(path + ": " + e + " ≠ " + a)));
+        Collections.sort(differences);
+        assertEquals(Arrays.asList("metadataIdentifier.code: XYZ ≠ ABC",
+                                   "metadataIdentifier.codeSpace: null ≠ Test",
+                                   "metadataIdentifier.version: 1.0 ≠ null"), differences);
+
+        expected.put("metadataIdentifier.code",      "ABC");
+        expected.put("metadataIdentifier.codeSpace", "Test");
+        expected.remove("metadataIdentifier.version");
+        assertTrue(verifier.compareMetadata(createMetadata(), expected, (path, e, a) -> fail(path)));
+    }
+}
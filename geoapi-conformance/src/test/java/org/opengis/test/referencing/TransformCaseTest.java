@@ -223,6 +223,69 @@ public strictfp class TransformCaseTest extends TransformTestCase {
         testVerifyInDomain(new double[] {10, 100}, new double[] {20, 400}, 10,  30);
     }
 
+    /**
+     * Tests {@link TransformTestCase#fuzzInDomain(double[], double[], long, long)}.
+     *
+     * @throws TransformException should never happen.
+     *
+     * @since 4.0
+     */
+    @Test
+    public void testFuzzInDomain() throws TransformException {
+        tolerance = 1E-10;
+        validators.validate(transform);
+        final TransformFuzzer.Result result = fuzzInDomain(new double[] {10, 100}, new double[] {20, 400}, 100000, 534546549);
+        assertEquals(100000, result.total.numPoints);
+        assertEquals(0, result.getNumFailures());
+        long sum = 0;
+        for (final TransformFuzzer.Region region : result.regions) {
+            sum += region.numPoints;
+        }
+        assertEquals(100000, sum);
+    }
+
+    /**
+     * Tests that {@link TransformFuzzer} generates the same points regardless the number of threads.
+     *
+     * @throws TransformException should never happen.
+     *
+     * @since 4.0
+     */
+    @Test
+    public void testFuzzerReproducibility() throws TransformException {
+        final TransformFuzzer.Result[] results = new TransformFuzzer.Result[2];
+        for (int i=0; i<results.length; i++) {
+            final TransformFuzzer fuzzer = new TransformFuzzer(transform, 1E-10, null);
+            fuzzer.setThreadCount(i == 0 ? 1 : 4);
+            fuzzer.setBatchSize(100);
+            results[i] = fuzzer.run(new double[] {10, 100}, new double[] {20, 400}, 10050, 534546549);
+        }
+        assertEquals(results[0].regions.length, results[1].regions.length);
+        for (int i=0; i<results[0].regions.length; i++) {
+            final TransformFuzzer.Region r0 = results[0].regions[i];
+            final TransformFuzzer.Region r1 = results[1].regions[i];
+            assertEquals("numPoints", r0.numPoints, r1.numPoints);
+            assertEquals("maxError",  r0.maxError,  r1.maxError, 0);
+            assertArrayEquals("errorHistogram", r0.errorHistogram, r1.errorHistogram);
+        }
+    }
+
+    /**
+     * Tests {@link TransformTestCase#fuzzInDomain(double[], double[], long, long)} using a bogus transform.
+     * A {@link TransformFailure} exception should be thrown.
+     *
+     * @throws TransformException should never happen.
+     *
+     * @since 4.0
+     */
+    @Test(expected=TransformFailure.class)
+    public void testFuzzInDomainUsingBogusTransform() throws TransformException {
+        tolerance = 1E-10;
+        validators.validate(transform);
+        ((BogusAffineTransform2D) transform).wrongInverse = true;
+        fuzzInDomain(new double[] {10, 100}, new double[] {20, 400}, 10000, 534546549);
+    }
+
     /**
      * Implementation of {@code testVerifyInDomain} for an arbitrary number of dimensions.
      */
@@ -0,0 +1,129 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2011-2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.report;
+
+import java.util.Set;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.referencing.AuthorityFactory;
+import org.opengis.referencing.IdentifiedObject;
+import org.opengis.util.FactoryException;
+import org.opengis.util.InternationalString;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link AuthorityCodesReport}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class AuthorityCodesReportTest {
+    /**
+     * A factory which blocks forever on the {@code "stuck"} code, ignoring interruptions,
+     * until {@link #release} is counted down. All other codes create a {@code null} object.
+     */
+    private static final class BlockingFactory implements AuthorityFactory {
+        /** Counted down at the end of the test for releasing the blocked threads. */
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override public Citation            getVendor()                                 {return null;}
+        @Override public Citation            getAuthority()                              {return null;}
+        @Override public Set<String>         getAuthorityCodes(Class<? extends IdentifiedObject> type) {return null;}
+        @Override public InternationalString getDescriptionText(String code)            {return null;}
+
+        @Override
+        public IdentifiedObject createObject(final String code) throws FactoryException {
+            if (code.equals("stuck")) {
+                boolean interrupted = false;
+                while (true) {
+                    try {
+                        release.await();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;         // Ignore, as some factories do.
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Tests that a factory ignoring interruptions does not prevent the creation of the next objects
+     * when the {@code TIMEOUT} property is set without {@code PARALLELISM}.
+     *
+     * @throws FactoryException if an error occurred while creating the report.
+     */
+    @Test(timeout = 20000)
+    public void testTimeoutWithBlockedThread() throws FactoryException {
+        final Properties properties = new Properties();
+        properties.setProperty("TIMEOUT", "100");
+        final AuthorityCodesReport report = new AuthorityCodesReport(properties);
+        final BlockingFactory factory = new BlockingFactory();
+        try {
+            report.add(factory, Arrays.asList("1", "stuck", "2", "3", "stuck", "4"));
+        } finally {
+            factory.release.countDown();
+        }
+        assertEquals(6, report.rows.size());
+        for (final AuthorityCodesReport.Row row : report.rows) {
+            assertEquals(row.code, row.code.equals("stuck"), row.hasError);
+        }
+    }
+
+    /**
+     * Tests that an illegal property value is reported with the property name.
+     *
+     * @throws FactoryException if an error occurred while creating the report.
+     */
+    @Test
+    public void testIllegalProperty() throws FactoryException {
+        final Properties properties = new Properties();
+        properties.setProperty("PARALLELISM", "two");
+        final AuthorityCodesReport report = new AuthorityCodesReport(properties);
+        try {
+            report.add(new BlockingFactory(), Arrays.asList("1"));
+            fail("Expected an exception.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("PARALLELISM"));
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2011-2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.test.report;
+
+import java.util.Properties;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link TransformBenchmarkReport}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class TransformBenchmarkReportTest {
+    /**
+     * A two-dimensional transform multiplying all coordinates by 2.
+     * The {@code float[]} method is not supported, for testing the report of errors.
+     */
+    private static final class Scale implements MathTransform {
+        @Override public int     getSourceDimensions() {return 2;}
+        @Override public int     getTargetDimensions() {return 2;}
+        @Override public boolean isIdentity()          {return false;}
+        @Override public Matrix  derivative(DirectPosition point) {throw new UnsupportedOperationException();}
+        @Override public MathTransform inverse()       {throw new UnsupportedOperationException();}
+        @Override public String  toWKT()               {throw new UnsupportedOperationException();}
+
+        @Override
+        public DirectPosition transform(final DirectPosition ptSrc, final DirectPosition ptDst) {
+            for (int i=0; i<2; i++) {
+                ptDst.setOrdinate(i, ptSrc.getOrdinate(i) * 2);
+            }
+            return ptDst;
+        }
+
+        @Override
+        public void transform(final double[] srcPts, final int srcOff, final double[] dstPts, final int dstOff, final int numPts) {
+            if (srcPts == dstPts && srcOff < dstOff) {
+                for (int i = numPts * 2; --i >= 0;) {
+                    dstPts[dstOff + i] = srcPts[srcOff + i] * 2;
+                }
+            } else {
+                for (int i=0; i < numPts * 2; i++) {
+                    dstPts[dstOff + i] = srcPts[srcOff + i] * 2;
+                }
+            }
+        }
+
+        @Override
+        public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) {
+            throw new UnsupportedOperationException("Not supported.");
+        }
+
+        @Override
+        public void transform(float[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {
+            throw new UnsupportedOperationException("Not supported.");
+        }
+
+        @Override
+        public void transform(double[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) {
+            throw new UnsupportedOperationException("Not supported.");
+        }
+    }
+
+    /**
+     * Creates a report with very short measurement times.
+     */
+    private static TransformBenchmarkReport createReport(final String batchSizes) {
+        final Properties properties = new Properties();
+        properties.setProperty("WARMUP.TIME", "1");
+        properties.setProperty("MEASUREMENT.TIME", "1");
+        properties.setProperty("BATCH.SIZES", batchSizes);
+        return new TransformBenchmarkReport(properties);
+    }
+
+    /**
+     * Tests the measurement of a transform. This test verifies the structure of the results,
+     * not the measured values.
+     */
+    @Test
+    public void testAdd() {
+        final TransformBenchmarkReport report = createReport("1, 16");
+        report.add("Scale", new Scale(), new double[] {-10, -10}, new double[] {10, 10});
+        assertEquals(8, report.getResults().size());
+        int batchSize = 1;
+        for (int i=0; i<8; i += 4) {
+            final TransformBenchmarkReport.Row reference = report.getResults().get(i);
+            assertEquals("DirectPosition", reference.method);
+            assertEquals(batchSize, reference.batchSize);
+            assertNull(reference.error);
+            assertEquals(1, reference.speedup, 0);
+            assertTrue(reference.pointsPerSecond > 0);
+            for (int j=1; j<4; j++) {
+                final TransformBenchmarkReport.Row row = report.getResults().get(i + j);
+                assertEquals("Scale", row.transform);
+                assertEquals(batchSize, row.batchSize);
+                if (row.method.equals("float[]")) {
+                    assertEquals("Not supported.", row.error);
+                    assertTrue(Double.isNaN(row.pointsPerSecond));
+                } else {
+                    assertNull(row.method, row.error);
+                    assertTrue(row.method, row.pointsPerSecond > 0);
+                }
+            }
+            batchSize = 16;
+        }
+    }
+
+    /**
+     * Tests that a domain of wrong dimension is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongDomain() {
+        createReport("1").add("Scale", new Scale(), new double[] {-10}, new double[] {10});
+    }
+
+    /**
+     * Tests that an illegal property value is reported with the property name.
+     */
+    @Test
+    public void testIllegalProperty() {
+        final TransformBenchmarkReport report = createReport("1, -4");
+        try {
+            report.add("Scale", new Scale(), new double[] {-10, -10}, new double[] {10, 10});
+            fail("Expected an exception.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("BATCH.SIZES"));
+        }
+    }
+}
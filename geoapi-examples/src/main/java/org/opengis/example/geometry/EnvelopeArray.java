@@ -0,0 +1,526 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.io.Serializable;
+
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.geometry.MismatchedReferenceSystemException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+
+/**
+ * A fixed-size array of envelopes which store all ordinate values in a single {@code double[]} array.
+ * This class is an alternative to arrays of {@link SimpleEnvelope} when a large amount of envelopes
+ * need to be processed, for example for filtering bounding boxes against a region of interest.
+ * Instead of one object (with its own {@code double[]} array) per envelope, all ordinate values
+ * are stored consecutively in the {@link #ordinates} array. Envelopes can be viewed as {@link Envelope}
+ * instances through a {@linkplain #cursor() cursor}, which can be moved to any envelope in this array
+ * without creating new objects.
+ *
+ * <p>All envelopes in this array share the same {@linkplain #getCoordinateReferenceSystem() coordinate
+ * reference system}. Like {@link SimpleEnvelope}, this simple implementation does not support envelopes
+ * crossing the anti-meridian.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class EnvelopeArray implements Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 7512688304520357036L;
+
+    /**
+     * Ordinate values of lower and upper corners of all envelopes. For each envelope, the lower
+     * corner ordinates are followed by the upper corner ordinates, in the same way than the
+     * {@link SimpleEnvelope} internal array. Consequently the minimal ordinate at dimension
+     * <var>j</var> of the envelope at index <var>i</var> is stored at index
+     * <var>i</var>×2×<var>dimension</var> + <var>j</var>, and the maximal ordinate is stored
+     * <var>dimension</var> elements after.
+     *
+     * <p>This array is public for allowing efficient bulk operations. However callers are responsible
+     * for ensuring that lower ordinate values are not greater than corresponding upper ordinate values.</p>
+     */
+    public final double[] ordinates;
+
+    /**
+     * The number of dimensions of all envelopes in this array.
+     *
+     * @see #getDimension()
+     */
+    private final int dimension;
+
+    /**
+     * The coordinate reference system associated to all envelopes, or {@code null} if unspecified.
+     *
+     * @see #getCoordinateReferenceSystem()
+     */
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * Creates a new array for the given number of envelopes.
+     * All ordinate values are initialized to zero.
+     *
+     * @param  crs        the coordinate reference system, or {@code null}.
+     * @param  dimension  the number of dimensions of each envelope.
+     * @param  count      the number of envelopes.
+     * @throws MismatchedDimensionException if the given CRS is not null and its dimension
+     *         is not equals to the given dimension.
+     */
+    public EnvelopeArray(final CoordinateReferenceSystem crs, final int dimension, final int count)
+            throws MismatchedDimensionException
+    {
+        this(crs, dimension, new double[Math.multiplyExact(dimension * 2, count)]);
+    }
+
+    /**
+     * Creates a new array wrapping the given ordinate values.
+     * See the {@link #ordinates} field for a description of the expected layout.
+     *
+     * <p>This constructor assigns the given array directly (without clone) to the
+     * {@link #ordinates} field, because that field is public anyway.</p>
+     *
+     * @param  crs        the coordinate reference system, or {@code null}.
+     * @param  dimension  the number of dimensions of each envelope.
+     * @param  ordinates  the ordinate values. This array is <strong>not</strong> cloned.
+     * @throws MismatchedDimensionException if the given CRS is not null and its dimension
+     *         is not equals to the given dimension.
+     * @throws IllegalArgumentException if the array length is not a multiple of twice the dimension.
+     */
+    public EnvelopeArray(final CoordinateReferenceSystem crs, final int dimension, final double... ordinates)
+            throws MismatchedDimensionException
+    {
+        Objects.requireNonNull(ordinates);
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Illegal dimension: " + dimension);
+        }
+        if (crs != null && crs.getCoordinateSystem().getDimension() != dimension) {
+            throw new MismatchedDimensionException();
+        }
+        if ((ordinates.length % (dimension * 2)) != 0) {
+            throw new IllegalArgumentException("Array length " + ordinates.length
+                    + " is not a multiple of twice the dimension " + dimension + '.');
+        }
+        this.ordinates = ordinates;
+        this.dimension = dimension;
+        this.crs       = crs;
+    }
+
+    /**
+     * Returns the lower corner ordinates followed by the upper corner ordinates of the given envelope.
+     */
+    static double[] bounds(final Envelope envelope) {
+        final int dimension = envelope.getDimension();
+        final double[] bounds = new double[dimension * 2];
+        for (int i=0; i<dimension; i++) {
+            bounds[i]             = envelope.getMinimum(i);
+            bounds[i + dimension] = envelope.getMaximum(i);
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns the coordinate reference system of all envelopes, or {@code null} if unspecified.
+     *
+     * @return the coordinate reference system, or {@code null}.
+     */
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the number of dimensions of all envelopes in this array.
+     *
+     * @return the number of dimensions of each envelope.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the number of envelopes in this array.
+     *
+     * @return the number of envelopes.
+     */
+    public int size() {
+        return ordinates.length / (dimension * 2);
+    }
+
+    /**
+     * Returns the minimal ordinate value of the envelope at the given index.
+     *
+     * @param  index  index of the envelope.
+     * @param  dim    the dimension for which to obtain the ordinate value.
+     * @return the minimal ordinate at the given dimension of the given envelope.
+     * @throws IndexOutOfBoundsException if an argument is out of bounds.
+     */
+    public double getMinimum(final int index, final int dim) throws IndexOutOfBoundsException {
+        return ordinates[offset(index, dim)];
+    }
+
+    /**
+     * Returns the maximal ordinate value of the envelope at the given index.
+     *
+     * @param  index  index of the envelope.
+     * @param  dim    the dimension for which to obtain the ordinate value.
+     * @return the maximal ordinate at the given dimension of the given envelope.
+     * @throws IndexOutOfBoundsException if an argument is out of bounds.
+     */
+    public double getMaximum(final int index, final int dim) throws IndexOutOfBoundsException {
+        return ordinates[offset(index, dim) + dimension];
+    }
+
+    /**
+     * Returns the index in the {@link #ordinates} array of the minimal ordinate at the given dimension.
+     */
+    private int offset(final int index, final int dim) throws IndexOutOfBoundsException {
+        if (dim < 0 || dim >= dimension) {
+            throw new IndexOutOfBoundsException("Dimension " + dim + " is out of bounds.");
+        }
+        return start(index) + dim;
+    }
+
+    /**
+     * Returns the index in the {@link #ordinates} array of the first ordinate of the envelope at the given index.
+     * The index is verified before the multiplication, which can not overflow for a valid index.
+     */
+    private int start(final int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds.");
+        }
+        return index * (dimension * 2);
+    }
+
+    /**
+     * Returns a copy of the envelope at the given index. Changes in the returned envelope
+     * will not be reflected in this array. For a view without copy, use {@link #cursor()}.
+     *
+     * @param  index  index of the envelope to get.
+     * @return a copy of the envelope at the given index.
+     * @throws IndexOutOfBoundsException if the given index is out of bounds.
+     */
+    public Envelope get(final int index) throws IndexOutOfBoundsException {
+        final int offset = start(index);
+        return new SimpleEnvelope(crs, Arrays.copyOfRange(ordinates, offset, offset + dimension * 2));
+    }
+
+    /**
+     * Sets the envelope at the given index to the ordinate values of the given envelope.
+     *
+     * @param  index     index of the envelope to set.
+     * @param  envelope  the new envelope.
+     * @throws IndexOutOfBoundsException if the given index is out of bounds.
+     * @throws MismatchedDimensionException if the given envelope does not have the expected dimension.
+     * @throws MismatchedReferenceSystemException if the given envelope does not have the expected CRS.
+     * @throws IllegalArgumentException if an ordinate value in the lower corner is greater than
+     *         the corresponding ordinate value in the upper corner.
+     */
+    public void set(final int index, final Envelope envelope)
+            throws MismatchedDimensionException, MismatchedReferenceSystemException
+    {
+        ensureCompatible(envelope.getDimension(), envelope.getCoordinateReferenceSystem());
+        final int offset = start(index);
+        for (int i=0; i<dimension; i++) {
+            final double lower = envelope.getMinimum(i);
+            final double upper = envelope.getMaximum(i);
+            if (lower > upper) {
+                throw new IllegalArgumentException("Ordinate value in the lower corner at dimension "
+                        + i + ", which is " + lower + ", can not be greater than the corresponding "
+                        + "ordinate value in the upper corner, which is " + upper + '.');
+            }
+            ordinates[offset + i            ] = lower;
+            ordinates[offset + i + dimension] = upper;
+        }
+    }
+
+    /**
+     * Ensures that an object of the given dimension and CRS can be used with this array.
+     * A null CRS is considered compatible with any CRS.
+     */
+    private void ensureCompatible(final int dim, final CoordinateReferenceSystem other)
+            throws MismatchedDimensionException, MismatchedReferenceSystemException
+    {
+        if (dim != dimension) {
+            throw new MismatchedDimensionException("Expected a dimension of " + dimension + " but got " + dim + '.');
+        }
+        if (crs != null && other != null && !crs.equals(other)) {
+            throw new MismatchedReferenceSystemException();
+        }
+    }
+
+    /**
+     * Returns the union of all envelopes in this array. NaN ordinate values are ignored.
+     * If this array is empty or all ordinate values in a dimension are NaN, then the union
+     * has NaN bounds in that dimension.
+     *
+     * @return the smallest envelope containing all envelopes in this array.
+     */
+    public Envelope union() {
+        final int stride = dimension * 2;
+        final double[] bounds = new double[stride];
+        Arrays.fill(bounds, 0, dimension, Double.POSITIVE_INFINITY);
+        Arrays.fill(bounds, dimension, stride, Double.NEGATIVE_INFINITY);
+        for (int i=0; i<ordinates.length; i += stride) {
+            for (int j=0; j<dimension; j++) {
+                final double lower = ordinates[i + j];
+                final double upper = ordinates[i + j + dimension];
+                if (lower < bounds[j])             bounds[j]             = lower;
+                if (upper > bounds[j + dimension]) bounds[j + dimension] = upper;
+            }
+        }
+        for (int j=0; j<dimension; j++) {
+            if (bounds[j] > bounds[j + dimension]) {
+                bounds[j] = bounds[j + dimension] = Double.NaN;
+            }
+        }
+        return new SimpleEnvelope(crs, bounds);
+    }
+
+    /**
+     * Stores in the given array the indices of all envelopes intersecting the given region.
+     * Envelopes touching the region border are considered intersecting.
+     * Envelopes having at least one NaN ordinate value are considered disjoint.
+     *
+     * @param  region   the region to test for intersection.
+     * @param  indices  where to store the indices of envelopes intersecting the region.
+     *                  The length of this array shall be at least the {@linkplain #size() size} of this array.
+     * @return number of indices stored in the {@code indices} array.
+     * @throws MismatchedDimensionException if the given envelope does not have the expected dimension.
+     * @throws MismatchedReferenceSystemException if the given envelope does not have the expected CRS.
+     */
+    public int intersects(final Envelope region, final int[] indices)
+            throws MismatchedDimensionException, MismatchedReferenceSystemException
+    {
+        ensureCompatible(region.getDimension(), region.getCoordinateReferenceSystem());
+        final double[] bounds = bounds(region);
+        final int stride = dimension * 2;
+        int count = 0;
+        int index = 0;
+next:   for (int i=0; i<ordinates.length; i += stride, index++) {
+            for (int j=0; j<dimension; j++) {
+                if (!(ordinates[i + j] <= bounds[j + dimension] && ordinates[i + j + dimension] >= bounds[j])) {
+                    continue next;
+                }
+            }
+            indices[count++] = index;
+        }
+        return count;
+    }
+
+    /**
+     * Stores in the given array the indices of all envelopes containing the given position.
+     * Positions on an envelope border are considered inside that envelope.
+     *
+     * @param  position  the position to test for inclusion.
+     * @param  indices   where to store the indices of envelopes containing the position.
+     *                   The length of this array shall be at least the {@linkplain #size() size} of this array.
+     * @return number of indices stored in the {@code indices} array.
+     * @throws MismatchedDimensionException if the given position does not have the expected dimension.
+     * @throws MismatchedReferenceSystemException if the given position does not have the expected CRS.
+     */
+    public int contains(final DirectPosition position, final int[] indices)
+            throws MismatchedDimensionException, MismatchedReferenceSystemException
+    {
+        ensureCompatible(position.getDimension(), position.getCoordinateReferenceSystem());
+        final double[] point = position.getCoordinate();
+        final int stride = dimension * 2;
+        int count = 0;
+        int index = 0;
+next:   for (int i=0; i<ordinates.length; i += stride, index++) {
+            for (int j=0; j<dimension; j++) {
+                final double value = point[j];
+                if (!(value >= ordinates[i + j] && value <= ordinates[i + j + dimension])) {
+                    continue next;
+                }
+            }
+            indices[count++] = index;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a new cursor initially positioned on the first envelope of this array.
+     * The cursor is a view: it reflects the current values of this array.
+     *
+     * @return a new cursor over the envelopes of this array.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * An {@link Envelope} view over the envelope at a given index of the enclosing {@link EnvelopeArray}.
+     * The same cursor can be {@linkplain #moveTo(int) moved} to any envelope without creating new objects.
+     * Cursors are not thread-safe; each thread should use its own cursor.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     * @since   4.0
+     */
+    public final class Cursor implements Envelope {
+        /**
+         * Index in the {@link EnvelopeArray#ordinates} array of the first ordinate of the current envelope.
+         */
+        private int offset;
+
+        /**
+         * Creates a new cursor on the first envelope.
+         */
+        Cursor() {
+        }
+
+        /**
+         * Moves this cursor to the envelope at the given index.
+         *
+         * @param  index  index of the new envelope.
+         * @return {@code this}, for method call chaining.
+         * @throws IndexOutOfBoundsException if the given index is out of bounds.
+         */
+        public Cursor moveTo(final int index) throws IndexOutOfBoundsException {
+            offset = start(index);
+            return this;
+        }
+
+        /**
+         * Returns the index of the envelope on which this cursor is located.
+         *
+         * @return index of the current envelope.
+         */
+        public int getIndex() {
+            return offset / (dimension * 2);
+        }
+
+        /**
+         * Returns the coordinate reference system of the enclosing array.
+         */
+        @Override
+        public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+            return crs;
+        }
+
+        /**
+         * Returns the number of dimensions of the enclosing array.
+         */
+        @Override
+        public int getDimension() {
+            return dimension;
+        }
+
+        /**
+         * Returns a copy of the lower corner of the current envelope.
+         */
+        @Override
+        public DirectPosition getLowerCorner() {
+            return new SimpleDirectPosition(crs, Arrays.copyOfRange(ordinates, offset, offset + dimension));
+        }
+
+        /**
+         * Returns a copy of the upper corner of the current envelope.
+         */
+        @Override
+        public DirectPosition getUpperCorner() {
+            final int start = offset + dimension;
+            return new SimpleDirectPosition(crs, Arrays.copyOfRange(ordinates, start, start + dimension));
+        }
+
+        /**
+         * Ensures that the given dimension is equals or greater than zero and lower than the
+         * number of dimensions in the enclosing array.
+         */
+        private void ensureValidDimension(final int dim) throws IndexOutOfBoundsException {
+            if (dim < 0 || dim >= dimension) {
+                throw new IndexOutOfBoundsException("Dimension " + dim + " is out of bounds.");
+            }
+        }
+
+        /**
+         * Returns the minimal ordinate value of the current envelope for the specified dimension.
+         */
+        @Override
+        public double getMinimum(final int dim) throws IndexOutOfBoundsException {
+            ensureValidDimension(dim);
+            return ordinates[offset + dim];
+        }
+
+        /**
+         * Returns the maximal ordinate value of the current envelope for the specified dimension.
+         */
+        @Override
+        public double getMaximum(final int dim) throws IndexOutOfBoundsException {
+            ensureValidDimension(dim);
+            return ordinates[offset + dim + dimension];
+        }
+
+        /**
+         * Returns the median ordinate value of the current envelope along the specified dimension.
+         */
+        @Override
+        public double getMedian(final int dim) throws IndexOutOfBoundsException {
+            ensureValidDimension(dim);
+            return 0.5*(ordinates[offset + dim] + ordinates[offset + dim + dimension]);
+        }
+
+        /**
+         * Returns the span of the current envelope along the specified dimension.
+         */
+        @Override
+        public double getSpan(final int dim) throws IndexOutOfBoundsException {
+            ensureValidDimension(dim);
+            return ordinates[offset + dim + dimension] - ordinates[offset + dim];
+        }
+
+        /**
+         * Returns {@code true} if the specified object is also an {@code Envelope}
+         * with equal corners and equal CRS.
+         */
+        @Override
+        public boolean equals(final Object object) {
+            if (object instanceof Envelope) {
+                final Envelope other = (Envelope) object;
+                return other.getDimension() == dimension &&
+                       Arrays.equals(Arrays.copyOfRange(ordinates, offset, offset + dimension * 2), bounds(other)) &&
+                       Objects.equals(crs, other.getCoordinateReferenceSystem());
+            }
+            return false;
+        }
+
+        /**
+         * Returns a hash code value for the current envelope. This is the same value
+         * than the hash code of the {@link SimpleEnvelope} returned by {@link EnvelopeArray#get(int)}.
+         */
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(Arrays.copyOfRange(ordinates, offset, offset + dimension * 2)) + Objects.hashCode(crs);
+        }
+
+        /**
+         * Formats the current envelope in the <cite>Well-Known Text</cite> (WKT) format,
+         * in the same way than {@link SimpleEnvelope#toString()}.
+         */
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder(64).append("BOX").append(dimension).append('D');
+            char separator = '(';
+            for (int i=0; i<dimension; i++) {
+                buffer.append(separator).append(ordinates[offset + i]);
+                separator = ' ';
+            }
+            buffer.append(',');
+            for (int i=0; i<dimension; i++) {
+                buffer.append(' ').append(ordinates[offset + i + dimension]);
+            }
+            return buffer.append(')').toString();
+        }
+    }
+}
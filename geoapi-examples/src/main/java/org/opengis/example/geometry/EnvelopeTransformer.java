@@ -0,0 +1,417 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.geometry.MismatchedReferenceSystemException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+
+
+/**
+ * Transforms envelopes through a potentially non-linear {@link MathTransform}.
+ * Transforming only the envelope corners is not sufficient for non-linear transforms,
+ * since the extreme values of the transformed envelope may be located in the middle of
+ * a curved edge. This class samples each edge of the envelopes at a configurable
+ * {@linkplain #getDensity() density}, transforms all sample points of many envelopes
+ * in a single call to {@link MathTransform#transform(double[], int, double[], int, int)},
+ * then computes the bounds of the transformed points.
+ *
+ * <p>When a sampled edge has a local extremum between two sample points, the location of the
+ * extremum is estimated using the {@linkplain MathTransform#derivative transform derivative}
+ * if available, or by a parabolic interpolation of the sample points otherwise. The estimated
+ * extrema are transformed in a second bulk operation and added to the envelope bounds.</p>
+ *
+ * <p>This simple implementation does not handle envelopes crossing the anti-meridian
+ * or containing a pole. Instances of this class are immutable and thread-safe.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class EnvelopeTransformer {
+    /**
+     * The default number of intervals between sample points on each envelope edge.
+     */
+    public static final int DEFAULT_DENSITY = 8;
+
+    /**
+     * Maximal number of sample points to transform in a single bulk operation.
+     * Arrays of envelopes are processed in chunks of approximatively this size
+     * for keeping the memory usage bounded.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The transform to apply on envelopes.
+     *
+     * @see #getTransform()
+     */
+    protected final MathTransform transform;
+
+    /**
+     * The expected CRS of source envelopes, or {@code null} if unknown.
+     */
+    private final CoordinateReferenceSystem sourceCRS;
+
+    /**
+     * The CRS of transformed envelopes, or {@code null} if unknown.
+     */
+    private final CoordinateReferenceSystem targetCRS;
+
+    /**
+     * Number of intervals between sample points on each envelope edge.
+     *
+     * @see #getDensity()
+     */
+    private final int density;
+
+    /**
+     * Creates a new envelope transformer for the given transform.
+     * The transformed envelopes will have no CRS.
+     *
+     * @param  transform  the transform to apply on envelopes.
+     * @param  density    number of intervals between sample points on each envelope edge.
+     *                    A value of 1 means that only the envelope corners are transformed.
+     * @throws IllegalArgumentException if the given density is not strictly positive.
+     */
+    public EnvelopeTransformer(final MathTransform transform, final int density) {
+        this(transform, null, null, density);
+    }
+
+    /**
+     * Creates a new envelope transformer for the given transform and coordinate reference systems.
+     * The transformed envelopes will be associated to the given target CRS.
+     *
+     * @param  transform  the transform to apply on envelopes.
+     * @param  sourceCRS  the expected CRS of source envelopes, or {@code null} if unknown.
+     * @param  targetCRS  the CRS of transformed envelopes, or {@code null} if unknown.
+     * @param  density    number of intervals between sample points on each envelope edge.
+     *                    A value of 1 means that only the envelope corners are transformed.
+     * @throws IllegalArgumentException if the given density is not strictly positive.
+     */
+    public EnvelopeTransformer(final MathTransform transform,
+            final CoordinateReferenceSystem sourceCRS,
+            final CoordinateReferenceSystem targetCRS, final int density)
+    {
+        Objects.requireNonNull(transform);
+        if (density < 1) {
+            throw new IllegalArgumentException("Density shall be strictly positive but got " + density + '.');
+        }
+        this.transform = transform;
+        this.sourceCRS = sourceCRS;
+        this.targetCRS = targetCRS;
+        this.density   = density;
+    }
+
+    /**
+     * Returns the transform applied on envelopes.
+     *
+     * @return the transform applied on envelopes.
+     */
+    public MathTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Returns the number of intervals between sample points on each envelope edge.
+     *
+     * @return number of intervals on each envelope edge.
+     */
+    public int getDensity() {
+        return density;
+    }
+
+    /**
+     * Transforms the given envelope.
+     *
+     * @param  envelope  the envelope to transform.
+     * @return the transformed envelope.
+     * @throws MismatchedDimensionException if the envelope dimension is not the transform source dimension.
+     * @throws MismatchedReferenceSystemException if the envelope CRS is not the expected source CRS.
+     * @throws TransformException if the envelope can not be transformed.
+     */
+    public Envelope transform(final Envelope envelope) throws TransformException {
+        final EnvelopeArray array = new EnvelopeArray(null, envelope.getDimension(), EnvelopeArray.bounds(envelope));
+        ensureCompatibleCRS(envelope.getCoordinateReferenceSystem());
+        return transform(array).get(0);
+    }
+
+    /**
+     * Transforms all envelopes in the given array. All sample points of many envelopes
+     * are transformed in a single {@link MathTransform} call, in chunks of bounded size.
+     *
+     * @param  envelopes  the envelopes to transform.
+     * @return the transformed envelopes, in the same order than the given envelopes.
+     * @throws MismatchedDimensionException if the envelopes dimension is not the transform source dimension.
+     * @throws MismatchedReferenceSystemException if the envelopes CRS is not the expected source CRS.
+     * @throws TransformException if an envelope can not be transformed.
+     */
+    public EnvelopeArray transform(final EnvelopeArray envelopes) throws TransformException {
+        final int srcDim = transform.getSourceDimensions();
+        final int tgtDim = transform.getTargetDimensions();
+        if (envelopes.getDimension() != srcDim) {
+            throw new MismatchedDimensionException("Expected envelopes of dimension " + srcDim
+                    + " but got " + envelopes.getDimension() + '.');
+        }
+        ensureCompatibleCRS(envelopes.getCoordinateReferenceSystem());
+        final int      count  = envelopes.size();
+        final EnvelopeArray result = new EnvelopeArray(targetCRS, tgtDim, count);
+        final double[] bounds = result.ordinates;
+        final int numEdges    = srcDim << (srcDim - 1);
+        final int numPoints   = numEdges * (density + 1);               // Number of points per envelope.
+        final int chunk       = Math.max(1, Math.min(count, CHUNK_SIZE / numPoints));
+        final double[] sources = new double[chunk * numPoints * srcDim];
+        final double[] targets = new double[chunk * numPoints * tgtDim];
+        final Extrema  extrema = new Extrema(srcDim, tgtDim);
+        for (int i=0; i<bounds.length; i += 2*tgtDim) {
+            Arrays.fill(bounds, i, i + tgtDim, Double.POSITIVE_INFINITY);
+            Arrays.fill(bounds, i + tgtDim, i + 2*tgtDim, Double.NEGATIVE_INFINITY);
+        }
+        for (int start=0; start<count; start += chunk) {
+            final int n = Math.min(chunk, count - start);
+            for (int i=0; i<n; i++) {
+                sample(envelopes.ordinates, (start + i) * 2*srcDim, srcDim, sources, i * numPoints * srcDim);
+            }
+            transform.transform(sources, 0, targets, 0, n * numPoints);
+            extrema.clear();
+            for (int i=0; i<n; i++) {
+                final int envelope = start + i;
+                final int offset = i * numPoints;
+                add(targets, offset * tgtDim, numPoints, tgtDim, bounds, envelope * 2*tgtDim);
+                extrema.locate(sources, targets, offset, numEdges, envelope);
+            }
+            extrema.transform(bounds);
+        }
+        for (int i=0; i<bounds.length; i += 2*tgtDim) {
+            for (int j=i; j < i + tgtDim; j++) {
+                if (bounds[j] > bounds[j + tgtDim]) {
+                    bounds[j] = bounds[j + tgtDim] = Double.NaN;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ensures that the given CRS is compatible with the expected source CRS.
+     * A null CRS is considered compatible with any CRS.
+     */
+    private void ensureCompatibleCRS(final CoordinateReferenceSystem crs) throws MismatchedReferenceSystemException {
+        if (crs != null && sourceCRS != null && !crs.equals(sourceCRS)) {
+            throw new MismatchedReferenceSystemException();
+        }
+    }
+
+    /**
+     * Stores the sample points on all edges of an envelope. An envelope of dimension <var>n</var> has
+     * <var>n</var>×2<sup><var>n</var>-1</sup> edges: for each dimension <var>d</var> along which the edge
+     * is oriented, there is one edge for each combination of minimal and maximal values in the other
+     * dimensions. Each edge is sampled by {@link #density} + 1 points, including the two corners.
+     *
+     * @param  envelope  the lower corner ordinates followed by the upper corner ordinates.
+     * @param  offset    index of the first ordinate of the envelope.
+     * @param  dim       the envelope dimension.
+     * @param  points    where to store the sample points.
+     * @param  dstOff    index where to store the first ordinate of the first sample point.
+     */
+    private void sample(final double[] envelope, final int offset, final int dim, final double[] points, int dstOff) {
+        final int numCorners = 1 << (dim - 1);
+        for (int edgeDim=0; edgeDim<dim; edgeDim++) {
+            final double lower = envelope[offset + edgeDim];
+            final double span  = envelope[offset + edgeDim + dim] - lower;
+            for (int corner=0; corner<numCorners; corner++) {
+                for (int k=0; k<=density; k++) {
+                    int bits = corner;
+                    for (int j=0; j<dim; j++) {
+                        final double value;
+                        if (j == edgeDim) {
+                            value = (k == density) ? lower + span : lower + span * k / density;
+                        } else {
+                            value = envelope[offset + j + ((bits & 1) != 0 ? dim : 0)];
+                            bits >>>= 1;
+                        }
+                        points[dstOff++] = value;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Expands the given bounds for including the given points. NaN values are ignored.
+     *
+     * @param  points     the transformed points.
+     * @param  offset     index of the first ordinate of the first point.
+     * @param  numPoints  number of points to add.
+     * @param  dim        dimension of the points.
+     * @param  bounds     the lower corner ordinates followed by the upper corner ordinates to expand.
+     * @param  boundsOff  index of the first ordinate of the envelope to expand.
+     */
+    private static void add(final double[] points, int offset, int numPoints, final int dim,
+                    final double[] bounds, final int boundsOff)
+    {
+        while (--numPoints >= 0) {
+            for (int j=0; j<dim; j++) {
+                final double value = points[offset++];
+                if (value < bounds[boundsOff + j])       bounds[boundsOff + j]       = value;
+                if (value > bounds[boundsOff + j + dim]) bounds[boundsOff + j + dim] = value;
+            }
+        }
+    }
+
+    /**
+     * Estimated locations of local extrema between sample points. This is a growable list of source
+     * points to transform in a single bulk operation, together with the index of the envelope to
+     * expand with each transformed point.
+     */
+    private final class Extrema {
+        /** Number of source and target dimensions. */
+        private final int srcDim, tgtDim;
+
+        /** Source ordinates of the estimated extrema. */
+        private double[] points;
+
+        /** Index of the envelope to expand with each point. */
+        private int[] owners;
+
+        /** Number of valid points. */
+        private int count;
+
+        /** Position where to evaluate the transform derivative. */
+        private final SimpleDirectPosition position;
+
+        /** Whether the derivative is known to be unsupported by the transform. */
+        private boolean noDerivative;
+
+        /** Creates an initially empty list. */
+        Extrema(final int srcDim, final int tgtDim) {
+            this.srcDim = srcDim;
+            this.tgtDim = tgtDim;
+            points   = new double[16 * srcDim];
+            owners   = new int[16];
+            position = new SimpleDirectPosition(srcDim);
+        }
+
+        /** Discards all points in this list. */
+        void clear() {
+            count = 0;
+        }
+
+        /**
+         * Searches for local extrema between sample points on all edges of an envelope.
+         *
+         * @param  sources   the source sample points.
+         * @param  targets   the transformed sample points.
+         * @param  offset    index of the first sample point of the envelope.
+         * @param  numEdges  number of edges of the envelope.
+         * @param  envelope  index of the envelope to expand.
+         */
+        void locate(final double[] sources, final double[] targets, final int offset,
+                    final int numEdges, final int envelope) throws TransformException
+        {
+            final int numCorners = numEdges / srcDim;
+            for (int edge=0; edge<numEdges; edge++) {
+                final int edgeDim = edge / numCorners;
+                final int first = offset + edge * (density + 1);
+                for (int i=0; i<tgtDim; i++) {
+                    for (int k=1; k<density; k++) {
+                        final double previous = targets[(first + k - 1) * tgtDim + i];
+                        final double current  = targets[(first + k    ) * tgtDim + i];
+                        final double next     = targets[(first + k + 1) * tgtDim + i];
+                        if ((current - previous) * (next - current) < 0) {
+                            refine(sources, first + k, edgeDim, i, current > previous, previous, current, next, envelope);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Estimates the location of a local extremum near the given sample point and adds it to this list.
+         *
+         * @param  sources    the source sample points.
+         * @param  p          index of the sample point which is a local extremum among the sample points.
+         * @param  edgeDim    the source dimension along which the edge is oriented.
+         * @param  tgt        the target dimension where the local extremum has been detected.
+         * @param  isMaximum  {@code true} for a local maximum, or {@code false} for a local minimum.
+         * @param  previous   value of the previous sample point in the target dimension.
+         * @param  current    value of the current sample point in the target dimension.
+         * @param  next       value of the next sample point in the target dimension.
+         * @param  envelope   index of the envelope to expand.
+         */
+        private void refine(final double[] sources, final int p, final int edgeDim, final int tgt,
+                final boolean isMaximum, final double previous, final double current, final double next,
+                final int envelope) throws TransformException
+        {
+            final int    base = p * srcDim;
+            final double s    = sources[base + edgeDim];
+            final double step = sources[base + srcDim + edgeDim] - s;
+            double location = Double.NaN;
+            if (!noDerivative) try {
+                final double dk = slope(sources, p, edgeDim, tgt);
+                if (dk == 0) {
+                    return;                     // The extremum is exactly on the sample point.
+                }
+                final int q = ((dk > 0) == isMaximum) ? p + 1 : p - 1;
+                final double dq = slope(sources, q, edgeDim, tgt);
+                if ((dk > 0) != (dq > 0)) {
+                    location = s + (sources[q * srcDim + edgeDim] - s) * (dk / (dk - dq));
+                }
+            } catch (TransformException | UnsupportedOperationException e) {
+                noDerivative = true;            // Fallback on parabolic interpolation for all remaining points.
+            }
+            if (noDerivative) {
+                final double curvature = previous - 2*current + next;
+                if (curvature != 0) {
+                    location = s + step * Math.max(-1, Math.min(1, (previous - next) / (2 * curvature)));
+                }
+            }
+            if (!Double.isNaN(location)) {
+                if (count == owners.length) {
+                    owners = Arrays.copyOf(owners, count * 2);
+                    points = Arrays.copyOf(points, count * 2 * srcDim);
+                }
+                final int offset = count * srcDim;
+                System.arraycopy(sources, base, points, offset, srcDim);
+                points[offset + edgeDim] = location;
+                owners[count++] = envelope;
+            }
+        }
+
+        /**
+         * Returns the derivative of the given target dimension along the given source dimension.
+         */
+        private double slope(final double[] sources, final int p, final int edgeDim, final int tgt)
+                throws TransformException
+        {
+            System.arraycopy(sources, p * srcDim, position.ordinates, 0, srcDim);
+            return transform.derivative(position).getElement(tgt, edgeDim);
+        }
+
+        /**
+         * Transforms all points in this list and expands the envelopes that own them.
+         *
+         * @param  bounds  the lower corner ordinates followed by the upper corner ordinates of all envelopes.
+         */
+        void transform(final double[] bounds) throws TransformException {
+            if (count != 0) {
+                final double[] result = new double[count * tgtDim];
+                transform.transform(points, 0, result, 0, count);
+                for (int i=0; i<count; i++) {
+                    add(result, i * tgtDim, 1, tgtDim, bounds, owners[i] * 2*tgtDim);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.io.Serializable;
+
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.geometry.MismatchedReferenceSystemException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+
+/**
+ * A fixed-size array of direct positions which store all ordinate values in a single {@code double[]} array.
+ * This class is an alternative to arrays of {@link SimpleDirectPosition} when a large amount of positions
+ * need to be processed: instead of one object (with its own {@code double[]} array) per position, all
+ * ordinate values are stored consecutively in the {@link #ordinates} array. Positions can be viewed as
+ * {@link DirectPosition} instances through a {@linkplain #cursor() cursor}, which can be moved to any
+ * position in this array without creating new objects.
+ *
+ * <p>All positions in this array share the same {@linkplain #getCoordinateReferenceSystem() coordinate
+ * reference system}. The ordinate values are stored in (<var>x₀</var>,<var>y₀</var>,<var>x₁</var>,<var>y₁</var>,
+ * <i>etc.</i>) order, which is the order expected by the
+ * {@link org.opengis.referencing.operation.MathTransform#transform(double[], int, double[], int, int)}
+ * method. Consequently this array can be given directly to bulk coordinate operations.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class PositionArray implements Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = -1408466356712640457L;
+
+    /**
+     * The ordinate values of all positions. The length of this array is the
+     * {@linkplain #getDimension() dimension} multiplied by the {@linkplain #size() number of positions}.
+     * The ordinate at dimension <var>j</var> of the position at index <var>i</var> is stored at
+     * index <var>i</var>×<var>dimension</var> + <var>j</var>.
+     *
+     * <p>This array is public for allowing efficient bulk operations, for example with
+     * {@link org.opengis.referencing.operation.MathTransform} or {@link java.util.Arrays} methods.</p>
+     */
+    public final double[] ordinates;
+
+    /**
+     * The number of dimensions of all positions in this array.
+     *
+     * @see #getDimension()
+     */
+    private final int dimension;
+
+    /**
+     * The coordinate reference system associated to all positions, or {@code null} if unspecified.
+     *
+     * @see #getCoordinateReferenceSystem()
+     */
+    private final CoordinateReferenceSystem crs;
+
+    /**
+     * Creates a new array for the given number of positions.
+     * All ordinate values are initialized to zero.
+     *
+     * @param  crs        the coordinate reference system, or {@code null}.
+     * @param  dimension  the number of dimensions of each position.
+     * @param  count      the number of positions.
+     * @throws MismatchedDimensionException if the given CRS is not null and its dimension
+     *         is not equals to the given dimension.
+     */
+    public PositionArray(final CoordinateReferenceSystem crs, final int dimension, final int count)
+            throws MismatchedDimensionException
+    {
+        this(crs, dimension, new double[Math.multiplyExact(dimension, count)]);
+    }
+
+    /**
+     * Creates a new array wrapping the given ordinate values.
+     *
+     * <p>This constructor assigns the given array directly (without clone) to the
+     * {@link #ordinates} field, because that field is public anyway.</p>
+     *
+     * @param  crs        the coordinate reference system, or {@code null}.
+     * @param  dimension  the number of dimensions of each position.
+     * @param  ordinates  the ordinate values. This array is <strong>not</strong> cloned.
+     * @throws MismatchedDimensionException if the given CRS is not null and its dimension
+     *         is not equals to the given dimension.
+     * @throws IllegalArgumentException if the array length is not a multiple of the dimension.
+     */
+    public PositionArray(final CoordinateReferenceSystem crs, final int dimension, final double... ordinates)
+            throws MismatchedDimensionException
+    {
+        Objects.requireNonNull(ordinates);
+        if (dimension <= 0) {
+            throw new IllegalArgumentException("Illegal dimension: " + dimension);
+        }
+        if (crs != null && crs.getCoordinateSystem().getDimension() != dimension) {
+            throw new MismatchedDimensionException();
+        }
+        if ((ordinates.length % dimension) != 0) {
+            throw new IllegalArgumentException("Array length " + ordinates.length
+                    + " is not a multiple of the dimension " + dimension + '.');
+        }
+        this.ordinates = ordinates;
+        this.dimension = dimension;
+        this.crs       = crs;
+    }
+
+    /**
+     * Returns the coordinate reference system of all positions, or {@code null} if unspecified.
+     *
+     * @return the coordinate reference system, or {@code null}.
+     */
+    public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+        return crs;
+    }
+
+    /**
+     * Returns the number of dimensions of all positions in this array.
+     *
+     * @return the number of dimensions of each position.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the number of positions in this array.
+     *
+     * @return the number of positions.
+     */
+    public int size() {
+        return ordinates.length / dimension;
+    }
+
+    /**
+     * Returns the ordinate value of the position at the given index.
+     *
+     * @param  index  index of the position.
+     * @param  dim    the dimension of the ordinate to get.
+     * @return the ordinate value at the given dimension of the given position.
+     * @throws IndexOutOfBoundsException if an argument is out of bounds.
+     */
+    public double getOrdinate(final int index, final int dim) throws IndexOutOfBoundsException {
+        return ordinates[offset(index, dim)];
+    }
+
+    /**
+     * Sets the ordinate value of the position at the given index.
+     *
+     * @param  index  index of the position.
+     * @param  dim    the dimension of the ordinate to set.
+     * @param  value  the new ordinate value.
+     * @throws IndexOutOfBoundsException if an argument is out of bounds.
+     */
+    public void setOrdinate(final int index, final int dim, final double value) throws IndexOutOfBoundsException {
+        ordinates[offset(index, dim)] = value;
+    }
+
+    /**
+     * Returns the index in the {@link #ordinates} array of the given ordinate.
+     */
+    private int offset(final int index, final int dim) throws IndexOutOfBoundsException {
+        if (dim < 0 || dim >= dimension) {
+            throw new IndexOutOfBoundsException("Dimension " + dim + " is out of bounds.");
+        }
+        return start(index) + dim;
+    }
+
+    /**
+     * Returns the index in the {@link #ordinates} array of the first ordinate of the position at the given index.
+     * The index is verified before the multiplication, which can not overflow for a valid index.
+     */
+    private int start(final int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds.");
+        }
+        return index * dimension;
+    }
+
+    /**
+     * Returns a copy of the position at the given index. Changes in the returned position
+     * will not be reflected in this array. For a view without copy, use {@link #cursor()}.
+     *
+     * @param  index  index of the position to get.
+     * @return a copy of the position at the given index.
+     * @throws IndexOutOfBoundsException if the given index is out of bounds.
+     */
+    public DirectPosition get(final int index) throws IndexOutOfBoundsException {
+        final int offset = start(index);
+        return new SimpleDirectPosition(crs, Arrays.copyOfRange(ordinates, offset, offset + dimension));
+    }
+
+    /**
+     * Sets the position at the given index to the ordinate values of the given position.
+     *
+     * @param  index     index of the position to set.
+     * @param  position  the new position.
+     * @throws IndexOutOfBoundsException if the given index is out of bounds.
+     * @throws MismatchedDimensionException if the given position does not have the expected dimension.
+     * @throws MismatchedReferenceSystemException if the given position does not have the expected CRS.
+     */
+    public void set(final int index, final DirectPosition position)
+            throws MismatchedDimensionException, MismatchedReferenceSystemException
+    {
+        ensureCompatible(position.getDimension(), position.getCoordinateReferenceSystem());
+        int offset = start(index);
+        for (int i=0; i<dimension; i++) {
+            ordinates[offset++] = position.getOrdinate(i);
+        }
+    }
+
+    /**
+     * Ensures that an object of the given dimension and CRS can be used with this array.
+     * A null CRS is considered compatible with any CRS.
+     */
+    private void ensureCompatible(final int dim, final CoordinateReferenceSystem other)
+            throws MismatchedDimensionException, MismatchedReferenceSystemException
+    {
+        if (dim != dimension) {
+            throw new MismatchedDimensionException("Expected a dimension of " + dimension + " but got " + dim + '.');
+        }
+        if (crs != null && other != null && !crs.equals(other)) {
+            throw new MismatchedReferenceSystemException();
+        }
+    }
+
+    /**
+     * Returns the envelope which contains all positions in this array. NaN ordinate values are ignored.
+     * If this array is empty or all ordinate values in a dimension are NaN, then the envelope has NaN
+     * bounds in that dimension.
+     *
+     * @return the envelope of all positions in this array.
+     */
+    public Envelope getEnvelope() {
+        final double[] bounds = new double[dimension * 2];
+        Arrays.fill(bounds, 0, dimension, Double.POSITIVE_INFINITY);
+        Arrays.fill(bounds, dimension, bounds.length, Double.NEGATIVE_INFINITY);
+        for (int i=0; i<ordinates.length;) {
+            for (int j=0; j<dimension; j++) {
+                final double value = ordinates[i++];
+                if (value < bounds[j]) bounds[j] = value;
+                if (value > bounds[j + dimension]) bounds[j + dimension] = value;
+            }
+        }
+        for (int j=0; j<dimension; j++) {
+            if (bounds[j] > bounds[j + dimension]) {
+                bounds[j] = bounds[j + dimension] = Double.NaN;
+            }
+        }
+        return new SimpleEnvelope(crs, bounds);
+    }
+
+    /**
+     * Stores in the given array the indices of all positions inside the given region.
+     * Positions on the region border are considered inside.
+     * Positions having at least one NaN ordinate value are considered outside.
+     *
+     * @param  region   the region where to search for positions.
+     * @param  indices  where to store the indices of positions inside the region.
+     *                  The length of this array shall be at least the {@linkplain #size() size} of this array.
+     * @return number of indices stored in the {@code indices} array.
+     * @throws MismatchedDimensionException if the given envelope does not have the expected dimension.
+     * @throws MismatchedReferenceSystemException if the given envelope does not have the expected CRS.
+     */
+    public int inside(final Envelope region, final int[] indices)
+            throws MismatchedDimensionException, MismatchedReferenceSystemException
+    {
+        ensureCompatible(region.getDimension(), region.getCoordinateReferenceSystem());
+        final double[] bounds = EnvelopeArray.bounds(region);
+        int count = 0;
+        int index = 0;
+next:   for (int i=0; i<ordinates.length; index++) {
+            final int end = i + dimension;
+            for (int j=0; j<dimension; j++) {
+                final double value = ordinates[i++];
+                if (!(value >= bounds[j] && value <= bounds[j + dimension])) {
+                    i = end;
+                    continue next;
+                }
+            }
+            indices[count++] = index;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a new cursor initially positioned on the first position of this array.
+     * The cursor is a view: changes in the cursor ordinates are written in this array.
+     *
+     * @return a new cursor over the positions of this array.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A {@link DirectPosition} view over the position at a given index of the enclosing {@link PositionArray}.
+     * The same cursor can be {@linkplain #moveTo(int) moved} to any position without creating new objects.
+     * Cursors are not thread-safe; each thread should use its own cursor.
+     *
+     * @author  Martin Desruisseaux (Geomatys)
+     * @version 4.0
+     * @since   4.0
+     */
+    public final class Cursor implements DirectPosition {
+        /**
+         * Index in the {@link PositionArray#ordinates} array of the first ordinate of the current position.
+         */
+        private int offset;
+
+        /**
+         * Creates a new cursor on the first position.
+         */
+        Cursor() {
+        }
+
+        /**
+         * Moves this cursor to the position at the given index.
+         *
+         * @param  index  index of the new position.
+         * @return {@code this}, for method call chaining.
+         * @throws IndexOutOfBoundsException if the given index is out of bounds.
+         */
+        public Cursor moveTo(final int index) throws IndexOutOfBoundsException {
+            offset = start(index);
+            return this;
+        }
+
+        /**
+         * Returns the index of the position on which this cursor is located.
+         *
+         * @return index of the current position.
+         */
+        public int getIndex() {
+            return offset / dimension;
+        }
+
+        /**
+         * Returns the coordinate reference system of the enclosing array.
+         */
+        @Override
+        public CoordinateReferenceSystem getCoordinateReferenceSystem() {
+            return crs;
+        }
+
+        /**
+         * Returns the number of dimensions of the enclosing array.
+         */
+        @Override
+        public int getDimension() {
+            return dimension;
+        }
+
+        /**
+         * Returns a <em>copy</em> of the ordinate values of the current position.
+         */
+        @Override
+        public double[] getCoordinate() {
+            return Arrays.copyOfRange(ordinates, offset, offset + dimension);
+        }
+
+        /**
+         * Returns the ordinate value of the current position at the given dimension.
+         */
+        @Override
+        public double getOrdinate(final int dim) throws IndexOutOfBoundsException {
+            if (dim < 0 || dim >= dimension) {
+                throw new IndexOutOfBoundsException("Dimension " + dim + " is out of bounds.");
+            }
+            return ordinates[offset + dim];
+        }
+
+        /**
+         * Sets the ordinate value of the current position at the given dimension.
+         * The value is written in the enclosing array.
+         */
+        @Override
+        public void setOrdinate(final int dim, final double value) throws IndexOutOfBoundsException {
+            if (dim < 0 || dim >= dimension) {
+                throw new IndexOutOfBoundsException("Dimension " + dim + " is out of bounds.");
+            }
+            ordinates[offset + dim] = value;
+        }
+
+        /**
+         * Unconditionally returns {@code this}, since this object is already a direct position.
+         */
+        @Override
+        public DirectPosition getDirectPosition() {
+            return this;
+        }
+
+        /**
+         * Returns {@code true} if the specified object is also a {@code DirectPosition}
+         * with equal coordinate and equal CRS, as documented in {@link DirectPosition#equals(Object)}.
+         */
+        @Override
+        public boolean equals(final Object object) {
+            if (object instanceof DirectPosition) {
+                final DirectPosition other = (DirectPosition) object;
+                return Arrays.equals(getCoordinate(), other.getCoordinate()) &&
+                       Objects.equals(crs, other.getCoordinateReferenceSystem());
+            }
+            return false;
+        }
+
+        /**
+         * Returns a hash code value compliant with the contract documented in {@link DirectPosition#hashCode()}.
+         */
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(getCoordinate()) + Objects.hashCode(crs);
+        }
+
+        /**
+         * Returns a string representation of the current position in <cite>Well-Known Text</cite> (WKT) format.
+         */
+        @Override
+        public String toString() {
+            final StringBuilder buffer = new StringBuilder("POINT");
+            char separator = '(';
+            for (int i=0; i<dimension; i++) {
+                buffer.append(separator).append(ordinates[offset + i]);
+                separator = ' ';
+            }
+            return buffer.append(')').toString();
+        }
+    }
+}
@@ -90,6 +90,19 @@ public class SimpleEnvelope implements Envelope, Serializable {
         setCorners(ordinates, envelope.getLowerCorner(), envelope.getUpperCorner());
     }
 
+    /**
+     * Constructs an envelope wrapping the given array without clone and without verification.
+     * This constructor is reserved to other classes in this package, which are responsible for
+     * ensuring that the array has the expected layout.
+     *
+     * @param  crs        the coordinate reference system, or {@code null}.
+     * @param  ordinates  the lower corner ordinates followed by the upper corner ordinates.
+     */
+    SimpleEnvelope(final CoordinateReferenceSystem crs, final double[] ordinates) {
+        this.crs       = crs;
+        this.ordinates = ordinates;
+    }
+
     /**
      * Sets the ordinate values to the given corners. This method does not verify the corners CRS
      * neither their dimensions; they must have been checked by the caller. However this method
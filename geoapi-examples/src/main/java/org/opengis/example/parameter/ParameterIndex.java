@@ -0,0 +1,131 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.parameter;
+
+import java.util.List;
+import java.io.Serializable;
+
+import org.opengis.util.GenericName;
+import org.opengis.referencing.IdentifiedObject;
+
+
+/**
+ * A case-insensitive index from parameter names and aliases to their position in a parameter list.
+ * This index is computed once per {@linkplain org.opengis.parameter.ParameterDescriptorGroup descriptor
+ * group} and shared by all {@linkplain org.opengis.parameter.ParameterValueGroup value groups} created
+ * from that descriptor, since those groups contain parameters of the same names in the same order.
+ *
+ * <p>The index is an open-addressing hash table using a case-folded hash code, which allows lookups
+ * by {@link String#equalsIgnoreCase(String)} without creating lower-case copies of the searched names.
+ * Instances of this class are immutable and can be shared between threads.</p>
+ *
+ * <p>The netCDF and Proj.4 wrappers contain copies of this class, since they do not depend on
+ * this examples module. Fixes applied to this class shall be applied to those copies too.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class ParameterIndex implements Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 2968127364571289102L;
+
+    /**
+     * The names and aliases, or {@code null} for empty slots.
+     * The length of this array is a power of 2.
+     */
+    private final String[] keys;
+
+    /**
+     * Index in the parameter list of the parameter identified by the name at the same slot in {@link #keys}.
+     */
+    private final int[] positions;
+
+    /**
+     * Number of parameters in the list from which this index has been built.
+     */
+    final int size;
+
+    /**
+     * Creates an index for the names and aliases of the given parameters. If the same name is used
+     * by more than one parameter, then the first occurrence has precedence. This is the same order
+     * than a linear search checking the name and aliases of each parameter in sequence.
+     *
+     * @param parameters  the parameters to index.
+     */
+    ParameterIndex(final List<? extends IdentifiedObject> parameters) {
+        size = parameters.size();
+        int count = size;
+        for (final IdentifiedObject parameter : parameters) {
+            count += parameter.getAlias().size();
+        }
+        final int capacity = Integer.highestOneBit(Math.max(count, 1)) << 2;     // Load factor ≤ 0.5
+        keys      = new String[capacity];
+        positions = new int   [capacity];
+        for (int i=0; i<size; i++) {
+            final IdentifiedObject parameter = parameters.get(i);
+            add(parameter.getName().getCode(), i);
+            for (final GenericName alias : parameter.getAlias()) {
+                add(alias.toString(), i);
+            }
+        }
+    }
+
+    /**
+     * Adds the given name in the index if no parameter is already registered for that name.
+     */
+    private void add(final String name, final int position) {
+        if (name != null) {
+            final int mask = keys.length - 1;
+            int i = hash(name) & mask;
+            String key;
+            while ((key = keys[i]) != null) {
+                if (key.equalsIgnoreCase(name)) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = name;
+            positions[i] = position;
+        }
+    }
+
+    /**
+     * Returns a hash code value which is the same for all strings that are equal
+     * according {@link String#equalsIgnoreCase(String)}.
+     */
+    private static int hash(final String name) {
+        int h = 0;
+        final int length = name.length();
+        for (int i=0; i<length; i++) {
+            h = 31*h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the position of the parameter having the given name or alias, ignoring case.
+     *
+     * @param  name  the name or alias of the parameter to search.
+     * @return position of the parameter in the list, or -1 if none.
+     */
+    int indexOf(final String name) {
+        final int mask = keys.length - 1;
+        int i = hash(name) & mask;
+        String key;
+        while ((key = keys[i]) != null) {
+            if (key.equalsIgnoreCase(name)) {
+                return positions[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+}
@@ -13,6 +13,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.lang.reflect.Field;
 
+import org.opengis.util.GenericName;
 import org.opengis.metadata.Identifier;
 import org.opengis.metadata.citation.Citation;
 import org.opengis.parameter.GeneralParameterDescriptor;
@@ -69,6 +70,15 @@ public class SimpleParameterGroup extends SimpleIdentifiedObject
      */
     private List<SimpleParameter> unmodifiable;
 
+    /**
+     * Index of parameter names, computed when first needed. This index is shared by all groups
+     * created by {@link #createValue()} or {@link #clone()}, since those groups contain parameters
+     * of the same names in the same order.
+     *
+     * @see #index()
+     */
+    private ParameterIndex index;
+
     /**
      * Creates a new parameter group of the given authority and name.
      *
@@ -82,6 +92,17 @@ public class SimpleParameterGroup extends SimpleIdentifiedObject
         unmodifiable = Collections.unmodifiableList(parameters);
     }
 
+    /**
+     * Creates a new parameter group sharing the given index of parameter names.
+     * This constructor is used by {@link #createValue()} only.
+     */
+    private SimpleParameterGroup(final Citation authority, final String name, final ParameterIndex index,
+            final SimpleParameter[] param)
+    {
+        this(authority, name, param);
+        this.index = index;
+    }
+
     /**
      * Returns the descriptor of the parameter group. Since this simple class implements both the
      * {@linkplain ParameterValueGroup value} and {@linkplain ParameterDescriptorGroup descriptor}
@@ -176,12 +197,7 @@ public class SimpleParameterGroup extends SimpleIdentifiedObject
      */
     @Override
     public GeneralParameterDescriptor descriptor(final String name) throws ParameterNotFoundException {
-        for (final SimpleParameter candidate : parameters) {
-            if (name.equalsIgnoreCase(candidate.getName().getCode())) {
-                return candidate;
-            }
-        }
-        throw new ParameterNotFoundException("No such parameter: " + name, name);
+        return search(name);
     }
 
     /**
@@ -213,14 +229,64 @@ public class SimpleParameterGroup extends SimpleIdentifiedObject
      */
     @Override
     public ParameterValue<?> parameter(final String name) throws ParameterNotFoundException {
+        return search(name);
+    }
+
+    /**
+     * Returns the index of parameter names, computing it if needed. A new index is computed
+     * if the number of elements in the {@linkplain #parameters} list changed.
+     */
+    private ParameterIndex index() {
+        ParameterIndex index = this.index;
+        if (index == null || index.size != parameters.size()) {
+            this.index = index = new ParameterIndex(parameters);
+        }
+        return index;
+    }
+
+    /**
+     * Implementation of {@link #descriptor(String)} and {@link #parameter(String)}.
+     * The search is case-insensitive and checks the name and aliases of each parameter.
+     * This method uses the index of parameter names shared by all groups of the same descriptor.
+     * Since the {@linkplain #parameters} list is modifiable, the parameter found in the index is
+     * verified and this method fallbacks on a linear search if the index is not up to date.
+     *
+     * @param  name  the case insensitive identifier code or alias of the parameter to search for.
+     * @return the parameter for the given identifier code or alias.
+     * @throws ParameterNotFoundException if there is no parameter for the given identifier code or alias.
+     */
+    private SimpleParameter search(final String name) throws ParameterNotFoundException {
+        final int i = index().indexOf(name);
+        if (i >= 0) {
+            final SimpleParameter candidate = parameters.get(i);
+            if (isNameOf(candidate, name)) {
+                return candidate;
+            }
+        }
         for (final SimpleParameter candidate : parameters) {
-            if (name.equalsIgnoreCase(candidate.getName().getCode())) {
+            if (isNameOf(candidate, name)) {
                 return candidate;
             }
         }
         throw new ParameterNotFoundException("No such parameter: " + name, name);
     }
 
+    /**
+     * Returns {@code true} if the given name is the name or an alias of the given parameter, ignoring case.
+     * This is the criterion used for building the {@link ParameterIndex}.
+     */
+    private static boolean isNameOf(final SimpleParameter candidate, final String name) {
+        if (name.equalsIgnoreCase(candidate.getName().getCode())) {
+            return true;
+        }
+        for (final GenericName alias : candidate.getAlias()) {
+            if (name.equalsIgnoreCase(alias.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns all subgroups with the specified name. The default implementation always
      * throws an exception, since this simple parameter group does not support subgroups.
@@ -271,7 +337,7 @@ public class SimpleParameterGroup extends SimpleIdentifiedObject
         for (int i=0; i<param.length; i++) {
             param[i] = parameters.get(i).createValue();
         }
-        return new SimpleParameterGroup(authority, code, param);
+        return new SimpleParameterGroup(authority, code, index(), param);
     }
 
     /**
@@ -283,6 +349,8 @@ public class SimpleParameterGroup extends SimpleIdentifiedObject
      *   <li>The {@linkplain #values()} are initialized to the same values than the cloned group.</li>
      * </ul>
      *
+     * In both cases, the new group shares the index of parameter names of this group.
+     *
      * @see #createValue()
      */
     @Override
@@ -297,7 +365,7 @@ public class SimpleParameterGroup extends SimpleIdentifiedObject
             Field field = SimpleParameterGroup.class.getDeclaredField("parameters");
             field.setAccessible(true);
             field.set(clone, copy);
-            unmodifiable = Collections.unmodifiableList(copy);
+            clone.unmodifiable = Collections.unmodifiableList(copy);
         } catch (CloneNotSupportedException | ReflectiveOperationException e) {
             throw new AssertionError(e);                                            // Should never happen.
         }
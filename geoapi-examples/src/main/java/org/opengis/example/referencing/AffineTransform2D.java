@@ -37,11 +37,14 @@ import org.opengis.example.geometry.SimpleDirectPosition;
  *   <li>The last matrix row contains the [0 0 1] values.</li>
  * </ul>
  *
+ * <p>The Java2D implementation of array transforms already uses specialized loops for identity,
+ * translation and scale cases, so this class does not need to provide its own fast paths.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 3.1
  * @since   3.1
  */
-public class AffineTransform2D extends AffineTransform implements MathTransform2D {
+public class AffineTransform2D extends AffineTransform implements MathTransform2D, LinearTransform {
     /**
      * For cross-version compatibility.
      */
@@ -162,6 +165,35 @@ public class AffineTransform2D extends AffineTransform implements MathTransform2
         return ptDst;
     }
 
+    /**
+     * Returns the coefficients of this affine transform as a 3×3 matrix.
+     * The last row contains the [0 0 1] values.
+     *
+     * @return a copy of the matrix of this affine transform.
+     */
+    @Override
+    public Matrix getMatrix() {
+        final Matrix m = new SimpleMatrix(3, 3);
+        m.setElement(0, 0, getScaleX());
+        m.setElement(0, 1, getShearX());
+        m.setElement(0, 2, getTranslateX());
+        m.setElement(1, 0, getShearY());
+        m.setElement(1, 1, getScaleY());
+        m.setElement(1, 2, getTranslateY());
+        m.setElement(2, 2, 1);
+        return m;
+    }
+
+    /**
+     * Returns {@code true} since Java2D transforms are always affine.
+     *
+     * @return {@code true}.
+     */
+    @Override
+    public final boolean isAffine() {
+        return true;
+    }
+
     /**
      * Gets the derivative of this transform at a point.
      * This method delegates its work to {@link #derivative(Point2D)}.
@@ -0,0 +1,170 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import java.util.Arrays;
+import java.io.Serializable;
+import org.opengis.referencing.operation.Matrix;
+
+
+/**
+ * A {@link Matrix} which can not be modified. Elements are stored in a flat array in row-major order,
+ * which is the layout used by {@link ProjectiveTransform} for its transformation loops. Since instances
+ * of this class are immutable, they can be shared between threads and returned directly by methods like
+ * {@link ProjectiveTransform#getMatrix()} or {@link ProjectiveTransform#derivative derivative(…)}
+ * without defensive copies. Invoking {@link #clone()} returns a modifiable copy.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class ImmutableMatrix implements Matrix, Serializable {
+    /**
+     * For cross-version compatibility.
+     */
+    private static final long serialVersionUID = 4652818453394128461L;
+
+    /**
+     * Number of rows and columns.
+     */
+    private final int numRow, numCol;
+
+    /**
+     * The matrix elements in row-major order. This array shall not be modified.
+     */
+    final double[] elements;
+
+    /**
+     * Creates an immutable copy of the given matrix.
+     *
+     * @param matrix  the matrix to copy.
+     */
+    ImmutableMatrix(final Matrix matrix) {
+        numRow = matrix.getNumRow();
+        numCol = matrix.getNumCol();
+        elements = new double[numRow * numCol];
+        for (int k=0,j=0; j<numRow; j++) {
+            for (int i=0; i<numCol; i++) {
+                elements[k++] = matrix.getElement(j, i);
+            }
+        }
+    }
+
+    /**
+     * Creates a matrix wrapping the given array without copying it.
+     * The given array shall not be modified after this constructor call.
+     *
+     * @param numRow    number of rows.
+     * @param numCol    number of columns.
+     * @param elements  the matrix elements in row-major order.
+     */
+    ImmutableMatrix(final int numRow, final int numCol, final double[] elements) {
+        this.numRow   = numRow;
+        this.numCol   = numCol;
+        this.elements = elements;
+    }
+
+    /**
+     * Returns the number of rows in this matrix.
+     */
+    @Override
+    public int getNumRow() {
+        return numRow;
+    }
+
+    /**
+     * Returns the number of columns in this matrix.
+     */
+    @Override
+    public int getNumCol() {
+        return numCol;
+    }
+
+    /**
+     * Returns the element at the given row and column.
+     */
+    @Override
+    public double getElement(final int row, final int column) {
+        if (row < 0 || row >= numRow || column < 0 || column >= numCol) {
+            throw new IndexOutOfBoundsException("Matrix index out of bounds: (" + row + ", " + column + ").");
+        }
+        return elements[row * numCol + column];
+    }
+
+    /**
+     * Unsupported operation, since this matrix is immutable.
+     * Invoke {@link #clone()} for getting a modifiable copy.
+     */
+    @Override
+    public void setElement(final int row, final int column, final double value) {
+        throw new UnsupportedOperationException("This matrix is unmodifiable.");
+    }
+
+    /**
+     * Returns {@code true} if this matrix is an identity matrix.
+     */
+    @Override
+    public boolean isIdentity() {
+        if (numRow != numCol) {
+            return false;
+        }
+        for (int k=0,j=0; j<numRow; j++) {
+            for (int i=0; i<numCol; i++) {
+                if (elements[k++] != (i==j ? 1 : 0)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a modifiable copy of this matrix.
+     */
+    @Override
+    public SimpleMatrix clone() {
+        return new SimpleMatrix(this);
+    }
+
+    /**
+     * Returns {@code true} if the given object is an immutable matrix of the same size with the same elements.
+     */
+    @Override
+    public boolean equals(final Object object) {
+        if (object instanceof ImmutableMatrix) {
+            final ImmutableMatrix other = (ImmutableMatrix) object;
+            return numRow == other.numRow && numCol == other.numCol && Arrays.equals(elements, other.elements);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a hash code value for this matrix.
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(elements) + 31 * numCol;
+    }
+
+    /**
+     * Returns a string representation of this matrix, one row per line.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder buffer = new StringBuilder();
+        final String lineSeparator = System.lineSeparator();
+        for (int k=0,j=0; j<numRow; j++) {
+            for (int i=0; i<numCol; i++) {
+                if (i != 0) buffer.append(' ');
+                buffer.append(elements[k++]);
+            }
+            buffer.append(lineSeparator);
+        }
+        return buffer.toString();
+    }
+}
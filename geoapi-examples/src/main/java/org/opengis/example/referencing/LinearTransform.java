@@ -0,0 +1,51 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+
+
+/**
+ * A {@link MathTransform} which can be represented by a matrix in homogeneous coordinates.
+ * This interface allows callers holding a generic {@code MathTransform} to get the linear part
+ * of the transform, for example in order to fold consecutive linear steps into a single one.
+ * The {@link SimpleTransformFactory#createConcatenatedTransform(MathTransform, MathTransform)}
+ * method uses this capability for concatenating linear transforms.
+ *
+ * <p>If the transform input dimension is {@code M} and output dimension is {@code N},
+ * then the matrix has size {@code [N+1][M+1]}, as documented in
+ * {@link SimpleTransformFactory#createAffineTransform(Matrix)}.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ *
+ * @see AffineTransform2D
+ * @see ProjectiveTransform
+ */
+public interface LinearTransform extends MathTransform {
+    /**
+     * Returns the coefficients of this linear transform as a matrix.
+     * The returned matrix may be unmodifiable. If modifications are allowed,
+     * changes in the returned matrix will not be reflected in this transform.
+     * Callers wanting a modifiable matrix should invoke {@link Matrix#clone()}.
+     *
+     * @return the matrix of this transform.
+     */
+    Matrix getMatrix();
+
+    /**
+     * Returns {@code true} if the last row of the {@linkplain #getMatrix() matrix} contains
+     * the [0 … 0 1] values. In such case, the transform is affine and does not need any
+     * division by the homogeneous <var>w</var> coordinate.
+     *
+     * @return {@code true} if this transform is affine.
+     */
+    boolean isAffine();
+}
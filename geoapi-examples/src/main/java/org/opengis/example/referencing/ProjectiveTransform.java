@@ -7,8 +7,8 @@
  */
 package org.opengis.example.referencing;
 
+import java.util.Arrays;
 import java.util.Objects;
-import javax.vecmath.GMatrix;
 
 import org.opengis.metadata.citation.Citation;
 import org.opengis.geometry.DirectPosition;
@@ -34,9 +34,11 @@ import org.opengis.example.geometry.SimpleDirectPosition;
  * </ul>
  *
  * <b>Performance note:</b>
- * This implementation is known to be slow. However the intent is to be pedagogic, not to be
- * efficient. Performance enhancements are left to implementors (<i>Tip:</i> override all
- * {@code transform} methods expecting array arguments).
+ * The transform methods are optimized for the common cases: identity transforms are a plain array copy,
+ * translations are add-only loops and affine transforms do not perform any division by the homogeneous
+ * <var>w</var> coordinate. The matrix is copied at construction time in an immutable form,
+ * which allows this transform to be used concurrently by many threads without synchronization.
+ * The inverse transform and the derivative of affine transforms are computed only once.
  *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 3.1
@@ -44,21 +46,52 @@ import org.opengis.example.geometry.SimpleDirectPosition;
  *
  * @see SimpleTransformFactory#createAffineTransform(Matrix)
  */
-public class ProjectiveTransform extends SimpleTransform {
+public class ProjectiveTransform extends SimpleTransform implements LinearTransform {
     /**
-     * For cross-version compatibility.
+     * For cross-version compatibility. Changed when the {@link #elements} and {@link #kind} fields have been
+     * added, since instances serialized before that change would be deserialized as identity transforms.
      */
-    private static final long serialVersionUID = -6681647845536764717L;
+    private static final long serialVersionUID = 2137094385641725938L;
 
     /**
-     * The matrix used for performing the coordinate conversions.
+     * The matrix used for performing the coordinate conversions. This is a copy of the matrix
+     * given at construction time. This matrix shall not be modified, since the transformations
+     * are performed using a snapshot of the matrix elements taken at construction time.
      */
     protected final SimpleMatrix matrix;
 
     /**
-     * The inverse of this transform, computed when first needed.
+     * An immutable copy of the {@linkplain #matrix}, with elements stored in a flat array
+     * in row-major order. This is the representation used by the transformation loops.
      */
-    private transient ProjectiveTransform inverse;
+    private final ImmutableMatrix elements;
+
+    /**
+     * The kind of transform, as one of {@link #IDENTITY}, {@link #TRANSLATION},
+     * {@link #AFFINE} or {@link #PROJECTIVE} constants.
+     */
+    private final int kind;
+
+    /**
+     * Kind of transform determined by {@link #kind(double[], int, int)}, from the most specific to
+     * the most generic kind. Each kind uses a different loop in the array {@code transform} methods.
+     */
+    private static final int IDENTITY = 0, TRANSLATION = 1, AFFINE = 2, PROJECTIVE = 3;
+
+    /**
+     * The inverse of this transform, computed when first needed. If many threads ask for the inverse
+     * at the same time, more than one instance may be computed but only one will be retained. This is
+     * harmless since all instances are equal, and avoids the need for synchronization.
+     */
+    private transient volatile ProjectiveTransform inverse;
+
+    /**
+     * The derivative of this transform, computed when first needed. This field is used only if the
+     * transform is affine, since the derivative is then the same at every points. This field does
+     * not need to be volatile because {@link ImmutableMatrix} is safely published by its final fields;
+     * in the worst case, concurrent threads compute the same matrix more than once.
+     */
+    private transient ImmutableMatrix derivative;
 
     /**
      * Creates a new operation for the given name, CRS and matrix.
@@ -76,13 +109,15 @@ public class ProjectiveTransform extends SimpleTransform {
     {
         super(authority, name, sourceCRS, targetCRS);
         Objects.requireNonNull(matrix);
-        this.matrix = matrix;
+        this.matrix = matrix.clone();
+        elements = new ImmutableMatrix(matrix);
         if (sourceCRS != null && sourceCRS.getCoordinateSystem().getDimension() != matrix.getNumCol() - 1) {
             throw new MismatchedDimensionException("Wrong number of source dimensions.");
         }
         if (targetCRS != null && targetCRS.getCoordinateSystem().getDimension() != matrix.getNumRow() - 1) {
             throw new MismatchedDimensionException("Wrong number of target dimensions.");
         }
+        kind = kind(elements.elements, matrix.getNumCol() - 1, matrix.getNumRow() - 1);
     }
 
     /**
@@ -104,8 +139,7 @@ public class ProjectiveTransform extends SimpleTransform {
     }
 
     /**
-     * Transforms the specified {@code ptSrc}. First, this implementation computes the
-     * following matrix product:
+     * Transforms the specified {@code ptSrc}. This method computes the following matrix product:
      *
      * <blockquote><pre>
      * ┌     ┐     ┌      ┐ ┌     ┐
@@ -113,14 +147,11 @@ public class ProjectiveTransform extends SimpleTransform {
      * │  w  │     │      │ │  1  │
      * └     ┘     └      ┘ └     ┘</pre></blockquote>
      * <p>
-     * Then, the destination ordinate values are divided by <var>w</var>. Note that in the
-     * common case where the transform is affine, <var>w</var> = 1.
+     * Then, the destination ordinate values are divided by <var>w</var>. The division is skipped
+     * in the common case where the transform is affine, since <var>w</var> = 1.
      */
     @Override
     public DirectPosition transform(final DirectPosition ptSrc, DirectPosition ptDst) throws MismatchedDimensionException {
-        //
-        // Check arguments validity.
-        //
         final int srcDim = matrix.getNumCol() - 1;
         final int dstDim = matrix.getNumRow() - 1;
         if (ptSrc.getDimension() != srcDim) {
@@ -133,72 +164,321 @@ public class ProjectiveTransform extends SimpleTransform {
         } else {
             ptDst = new SimpleDirectPosition(dstDim);
         }
-        //
-        // Create two matrixes of 1 column, which will
-        // represent the source and target coordinates.
-        //
-        final GMatrix source = new GMatrix(srcDim+1, 1);
-        final GMatrix target = new GMatrix(dstDim+1, 1);
-        source.setElement(srcDim, 0, 1);
-        for (int j=0; j<srcDim; j++) {
-            source.setElement(j, 0, ptSrc.getOrdinate(j));
-        }
-        //
-        // Compute [target] = [matrix]*[source]
-        // as documented in the method javadoc.
-        //
-        target.mul(matrix, source);
-        final double w = target.getElement(dstDim, 0);          // =1 if the transform is affine.
+        final double[] source = ptSrc.getCoordinate();
+        final double[] target = new double[dstDim];
+        transform(source, 0, target, 0, 1);
         for (int j=0; j<dstDim; j++) {
-            ptDst.setOrdinate(j, target.getElement(j, 0) / w);
+            ptDst.setOrdinate(j, target[j]);
         }
         return ptDst;
     }
 
     /**
-     * Gets the derivative of this transform. In the particular case of linear transforms,
-     * the derivative is the same at every points. Consequently the {@code point} argument
-     * is ignored.
+     * Returns the kind of transform represented by the given matrix elements.
+     * This is one of the {@link #IDENTITY}, {@link #TRANSLATION}, {@link #AFFINE}
+     * or {@link #PROJECTIVE} constants.
+     *
+     * @param  elements  the matrix elements in row-major order.
+     * @param  srcDim    number of source dimensions (number of columns minus one).
+     * @param  dstDim    number of target dimensions (number of rows minus one).
+     * @return the kind of transform.
+     */
+    private static int kind(final double[] elements, final int srcDim, final int dstDim) {
+        final int numCol = srcDim + 1;
+        int offset = dstDim * numCol;
+        for (int i=0; i<srcDim; i++) {
+            if (elements[offset++] != 0) {
+                return PROJECTIVE;
+            }
+        }
+        if (elements[offset] != 1) {
+            return PROJECTIVE;
+        }
+        if (srcDim != dstDim) {
+            return AFFINE;
+        }
+        boolean isIdentity = true;
+        for (int j=0; j<dstDim; j++) {
+            offset = j * numCol;
+            for (int i=0; i<srcDim; i++) {
+                if (elements[offset + i] != (i == j ? 1 : 0)) {
+                    return AFFINE;
+                }
+            }
+            isIdentity &= (elements[offset + srcDim] == 0);
+        }
+        return isIdentity ? IDENTITY : TRANSLATION;
+    }
+
+    /**
+     * Returns an unmodifiable view of the matrix used by this transform.
+     * Invoke {@link Matrix#clone()} on the returned matrix for getting a modifiable copy.
+     *
+     * @return an unmodifiable copy of the {@linkplain #matrix}.
+     */
+    @Override
+    public Matrix getMatrix() {
+        return elements;
+    }
+
+    /**
+     * Returns {@code true} if the last row of the matrix contains the [0 … 0 1] values.
+     *
+     * @return {@code true} if this transform is affine.
+     */
+    @Override
+    public boolean isAffine() {
+        return kind != PROJECTIVE;
+    }
+
+    /**
+     * Transforms a list of coordinate point ordinal values. This method uses a specialized loop
+     * for each kind of transform: a plain array copy for the identity transform, an add-only loop
+     * for translations, a matrix product without division for affine transforms and a matrix
+     * product followed by a division by <var>w</var> for projective transforms.
+     *
+     * @param  srcPts  the array containing the source point coordinates.
+     * @param  srcOff  the offset to the first point to be transformed in the source array.
+     * @param  dstPts  the array into which the transformed point coordinates are returned.
+     *                 May be the same than {@code srcPts}.
+     * @param  dstOff  the offset to the location of the first transformed point that is stored in the destination array.
+     * @param  numPts  the number of point objects to be transformed.
+     */
+    @Override
+    public void transform(double[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts) {
+        final int srcDim = matrix.getNumCol() - 1;
+        final int dstDim = matrix.getNumRow() - 1;
+        final double[] elements = this.elements.elements;
+        if (kind == IDENTITY) {
+            System.arraycopy(srcPts, srcOff, dstPts, dstOff, numPts * srcDim);
+            return;
+        }
+        if (kind == TRANSLATION) {
+            final int stride = srcDim + 1;
+            int n = numPts * dstDim;
+            if (srcPts == dstPts && srcOff < dstOff) {
+                // Overlapping arrays: iterate backward for reading source values before overwriting them.
+                while (n > 0) {
+                    for (int j=dstDim; --j >= 0;) {
+                        n--;
+                        dstPts[dstOff + n] = srcPts[srcOff + n] + elements[j*stride + srcDim];
+                    }
+                }
+            } else {
+                for (int i=0; i<n;) {
+                    for (int j=0; j<dstDim; j++, i++) {
+                        dstPts[dstOff + i] = srcPts[srcOff + i] + elements[j*stride + srcDim];
+                    }
+                }
+            }
+            return;
+        }
+        if (srcPts == dstPts && srcOff < dstOff + numPts * dstDim && dstOff < srcOff + numPts * srcDim) {
+            srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts * srcDim);
+            srcOff = 0;
+        }
+        final int lastRow = dstDim * (srcDim + 1);
+        if (kind == AFFINE) {
+            while (--numPts >= 0) {
+                for (int j=0; j<dstDim; j++) {
+                    dstPts[dstOff++] = dot(elements, j*(srcDim + 1), srcDim, srcPts, srcOff);
+                }
+                srcOff += srcDim;
+            }
+        } else {
+            while (--numPts >= 0) {
+                final double w = dot(elements, lastRow, srcDim, srcPts, srcOff);
+                for (int j=0; j<dstDim; j++) {
+                    dstPts[dstOff++] = dot(elements, j*(srcDim + 1), srcDim, srcPts, srcOff) / w;
+                }
+                srcOff += srcDim;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the given matrix row multiplied by the source point at the given offset,
+     * with an implicit 1 value appended to the source coordinates for the translation term.
+     *
+     * @param  elements  the matrix elements in row-major order.
+     * @param  row       index of the first element of the matrix row.
+     * @param  srcDim    number of source dimensions.
+     * @param  srcPts    the source coordinates.
+     * @param  srcOff    index of the first coordinate of the source point.
+     */
+    private static double dot(final double[] elements, final int row, final int srcDim, final double[] srcPts, final int srcOff) {
+        double sum = elements[row + srcDim];                                // Translation term.
+        for (int i=0; i<srcDim; i++) {
+            sum += elements[row + i] * srcPts[srcOff + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Same as {@link #dot(double[], int, int, double[], int)}, but for a source point stored in a {@code float[]} array.
+     */
+    private static double dot(final double[] elements, final int row, final int srcDim, final float[] srcPts, final int srcOff) {
+        double sum = elements[row + srcDim];                                // Translation term.
+        for (int i=0; i<srcDim; i++) {
+            sum += elements[row + i] * srcPts[srcOff + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Transforms a list of coordinate point ordinal values. Intermediate values are computed
+     * with {@code double} precision and casted to {@code float} values when stored.
+     * This method does not allocate temporary arrays, unless the source and target ranges overlap.
+     */
+    @Override
+    public void transform(float[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts) {
+        final int srcDim = matrix.getNumCol() - 1;
+        final int dstDim = matrix.getNumRow() - 1;
+        if (srcPts == dstPts && srcOff < dstOff + numPts * dstDim && dstOff < srcOff + numPts * srcDim) {
+            srcPts = Arrays.copyOfRange(srcPts, srcOff, srcOff + numPts * srcDim);
+            srcOff = 0;
+        }
+        final double[] elements = this.elements.elements;
+        final int lastRow = dstDim * (srcDim + 1);
+        final boolean isProjective = (kind == PROJECTIVE);
+        while (--numPts >= 0) {
+            final double w = isProjective ? dot(elements, lastRow, srcDim, srcPts, srcOff) : 1;
+            for (int j=0; j<dstDim; j++) {
+                final double v = dot(elements, j*(srcDim + 1), srcDim, srcPts, srcOff);
+                dstPts[dstOff++] = (float) (isProjective ? v / w : v);
+            }
+            srcOff += srcDim;
+        }
+    }
+
+    /**
+     * Transforms a list of coordinate point ordinal values. Intermediate values are computed
+     * with {@code double} precision. This method does not allocate temporary arrays.
+     */
+    @Override
+    public void transform(final float[] srcPts, int srcOff, final double[] dstPts, int dstOff, int numPts) {
+        final int srcDim = matrix.getNumCol() - 1;
+        final int dstDim = matrix.getNumRow() - 1;
+        final double[] elements = this.elements.elements;
+        final int lastRow = dstDim * (srcDim + 1);
+        final boolean isProjective = (kind == PROJECTIVE);
+        while (--numPts >= 0) {
+            final double w = isProjective ? dot(elements, lastRow, srcDim, srcPts, srcOff) : 1;
+            for (int j=0; j<dstDim; j++) {
+                final double v = dot(elements, j*(srcDim + 1), srcDim, srcPts, srcOff);
+                dstPts[dstOff++] = isProjective ? v / w : v;
+            }
+            srcOff += srcDim;
+        }
+    }
+
+    /**
+     * Transforms a list of coordinate point ordinal values. Intermediate values are computed
+     * with {@code double} precision and casted to {@code float} values when stored.
+     * This method does not allocate temporary arrays.
+     */
+    @Override
+    public void transform(final double[] srcPts, int srcOff, final float[] dstPts, int dstOff, int numPts) {
+        final int srcDim = matrix.getNumCol() - 1;
+        final int dstDim = matrix.getNumRow() - 1;
+        final double[] elements = this.elements.elements;
+        final int lastRow = dstDim * (srcDim + 1);
+        final boolean isProjective = (kind == PROJECTIVE);
+        while (--numPts >= 0) {
+            final double w = isProjective ? dot(elements, lastRow, srcDim, srcPts, srcOff) : 1;
+            for (int j=0; j<dstDim; j++) {
+                final double v = dot(elements, j*(srcDim + 1), srcDim, srcPts, srcOff);
+                dstPts[dstOff++] = (float) (isProjective ? v / w : v);
+            }
+            srcOff += srcDim;
+        }
+    }
+
+    /**
+     * Gets the derivative of this transform at a point. In the particular case of affine transforms,
+     * the derivative is the same at every points. Consequently the {@code point} argument is ignored
+     * and the same immutable matrix is returned on every call. For projective transforms, the derivative
+     * depends on the homogeneous <var>w</var> coordinate of the given point.
      *
-     * @param  point  ignored for a linear transform.
+     * @param  point  the point where to evaluate the derivative, ignored if the transform is affine.
      * @return the derivative (never {@code null}).
      */
     @Override
     public Matrix derivative(final DirectPosition point) {
         final int srcDim = matrix.getNumCol() - 1;
         final int dstDim = matrix.getNumRow() - 1;
-        final SimpleMatrix derivative = new SimpleMatrix(dstDim, srcDim);
-        matrix.copySubMatrix(0, 0, dstDim, srcDim, 0, 0, derivative);
-        return derivative;
+        final double[] elements = this.elements.elements;
+        if (kind != PROJECTIVE) {
+            ImmutableMatrix m = derivative;
+            if (m == null) {
+                final double[] linear = new double[dstDim * srcDim];
+                for (int j=0; j<dstDim; j++) {
+                    System.arraycopy(elements, j*(srcDim + 1), linear, j*srcDim, srcDim);
+                }
+                derivative = m = new ImmutableMatrix(dstDim, srcDim, linear);
+            }
+            return m;
+        }
+        Objects.requireNonNull(point, "A point is required for the derivative of a projective transform.");
+        if (point.getDimension() != srcDim) {
+            throw new MismatchedDimensionException("Wrong number of source dimensions.");
+        }
+        /*
+         * For each target dimension j, y[j] = n[j] / w where n[j] and w are linear in the source
+         * coordinates. Consequently ∂y[j]/∂x[i] = (m[j][i] − y[j]⋅m[w][i]) / w.
+         */
+        final double[] source = point.getCoordinate();
+        final int lastRow = dstDim * (srcDim + 1);
+        double w = elements[lastRow + srcDim];
+        for (int i=0; i<srcDim; i++) {
+            w += elements[lastRow + i] * source[i];
+        }
+        final SimpleMatrix m = new SimpleMatrix(dstDim, srcDim);
+        for (int j=0; j<dstDim; j++) {
+            final int row = j * (srcDim + 1);
+            double y = elements[row + srcDim];
+            for (int i=0; i<srcDim; i++) {
+                y += elements[row + i] * source[i];
+            }
+            y /= w;
+            for (int i=0; i<srcDim; i++) {
+                m.setElement(j, i, (elements[row + i] - y * elements[lastRow + i]) / w);
+            }
+        }
+        return m;
     }
 
     /**
      * Returns the inverse transform of this object. The default implementation
-     * {@linkplain SimpleMatrix#invert() invert} the {@linkplain #matrix} and
-     * build a new {@code ProjectiveTransform} from it.
+     * {@linkplain SimpleMatrix#invert() invert} a copy of the matrix snapshot taken at construction time
+     * and build a new {@code ProjectiveTransform} from it. The inverse is computed
+     * only once and shared, without synchronization: if many threads invoke this
+     * method concurrently, all of them get a valid inverse transform.
      */
     @Override
-    public synchronized ProjectiveTransform inverse() throws NoninvertibleTransformException {
-        if (inverse == null) {
-            final SimpleMatrix invert = matrix.clone();
+    public ProjectiveTransform inverse() throws NoninvertibleTransformException {
+        ProjectiveTransform inv = inverse;
+        if (inv == null) {
+            final SimpleMatrix invert = new SimpleMatrix(elements);
             try {
                 invert.invert();
             } catch (RuntimeException e) { // SingularMatrixException & MismatchedSizeException
                 throw new NoninvertibleTransformException("Can not invert \"" + code + '"', e);
             }
-            inverse = new ProjectiveTransform(authority, "Inverse of " + code, targetCRS, sourceCRS, invert);
-            inverse.inverse = this;
+            inv = new ProjectiveTransform(authority, "Inverse of " + code, targetCRS, sourceCRS, invert);
+            inv.inverse = this;
+            inverse = inv;
         }
-        return inverse;
+        return inv;
     }
 
     /**
      * Tests whether this transform does not move any points.
-     * The default implementation delegates to {@link SimpleMatrix#isIdentity()}.
+     * This information is computed at construction time.
      */
     @Override
     public boolean isIdentity() {
-        return matrix.isIdentity();
+        return kind == IDENTITY;
     }
 
     /**
@@ -207,7 +487,7 @@ public class ProjectiveTransform extends SimpleTransform {
     @Override
     public boolean equals(final Object object) {
         if (super.equals(object)) {
-            return matrix.equals(((ProjectiveTransform) object).matrix);
+            return elements.equals(((ProjectiveTransform) object).elements);
         }
         return false;
     }
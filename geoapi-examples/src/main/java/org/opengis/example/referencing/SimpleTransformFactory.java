@@ -33,6 +33,8 @@ import org.opengis.referencing.operation.SingleOperation;
  *   <li>{@link #getAvailableMethods(Class)}, which returns an empty set.</li>
  *   <li>{@link #getLastMethodUsed()}, which returns {@code null}.</li>
  *   <li>{@link #createAffineTransform(Matrix)}</li>
+ *   <li>{@link #createConcatenatedTransform(MathTransform, MathTransform)},
+ *       restricted to identity and {@linkplain LinearTransform linear} transforms.</li>
  * </ul>
  *
  * @author  Martin Desruisseaux (Geomatys)
@@ -149,13 +151,36 @@ public class SimpleTransformFactory implements MathTransformFactory {
     }
 
     /**
-     * Creates a transform by concatenating two existing transforms. The default implementation
-     * throws an exception in all cases since concatenated transforms are not implemented by this
-     * simple factory.
+     * Creates a transform by concatenating two existing transforms. This simple factory supports
+     * only the cases where one transform is the identity transform, or where both transforms are
+     * {@linkplain LinearTransform linear}. In the later case, the two matrices are multiplied and
+     * the result is given to {@link #createAffineTransform(Matrix)}, so the concatenation of linear
+     * steps is a single linear transform which can benefit from the fast paths for identity,
+     * translation and affine cases. Other cases throw an exception.
+     *
+     * @param  transform1  the first transform to apply to points.
+     * @param  transform2  the second transform to apply to points.
+     * @return the concatenated transform.
+     * @throws FactoryException if the transforms can not be concatenated.
      */
     @Override
-    public MathTransform createConcatenatedTransform(MathTransform transform1, MathTransform transform2) throws FactoryException {
-        throw new FactoryException("Concatenated transforms are not implemented.");
+    public MathTransform createConcatenatedTransform(final MathTransform transform1, final MathTransform transform2)
+            throws FactoryException
+    {
+        if (transform1.getTargetDimensions() != transform2.getSourceDimensions()) {
+            throw new FactoryException("The target dimension of the first transform does not match "
+                    + "the source dimension of the second transform.");
+        }
+        if (transform1.isIdentity()) return transform2;
+        if (transform2.isIdentity()) return transform1;
+        if (transform1 instanceof LinearTransform && transform2 instanceof LinearTransform) {
+            final SimpleMatrix m1 = new SimpleMatrix(((LinearTransform) transform1).getMatrix());
+            final SimpleMatrix m2 = new SimpleMatrix(((LinearTransform) transform2).getMatrix());
+            final SimpleMatrix product = new SimpleMatrix(m2.getNumRow(), m1.getNumCol());
+            product.mul(m2, m1);
+            return createAffineTransform(product);
+        }
+        throw new FactoryException("Concatenation of non-linear transforms is not implemented.");
     }
 
     /**
@@ -0,0 +1,163 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.opengis.test.Validators.*;
+
+
+/**
+ * Tests {@link EnvelopeArray}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class EnvelopeArrayTest {
+    /**
+     * Creates the array of envelopes used by the tests.
+     * For each envelope, the lower corner is followed by the upper corner.
+     */
+    private static EnvelopeArray create() {
+        return new EnvelopeArray(null, 2,
+                 0,  0,    4,  4,
+                 5,  5,    9,  6,
+                -3,  2,   -1,  8,
+                 2,  1,    6, 10);
+    }
+
+    /**
+     * Tests the cursor view over the envelopes.
+     */
+    @Test
+    public void testCursor() {
+        final EnvelopeArray array = create();
+        assertEquals(4, array.size());
+        assertEquals(2, array.getDimension());
+        final EnvelopeArray.Cursor cursor = array.cursor().moveTo(1);
+        assertEquals(1,   cursor.getIndex());
+        assertEquals(5.0, cursor.getMinimum(0), 0.0);
+        assertEquals(6.0, cursor.getMaximum(1), 0.0);
+        assertEquals(7.0, cursor.getMedian (0), 0.0);
+        assertEquals(1.0, cursor.getSpan   (1), 0.0);
+        assertArrayEquals(new double[] {5, 5}, cursor.getLowerCorner().getCoordinate(), 0.0);
+        assertArrayEquals(new double[] {9, 6}, cursor.getUpperCorner().getCoordinate(), 0.0);
+        assertEquals("BOX2D(5.0 5.0, 9.0 6.0)", cursor.toString());
+        assertEquals(array.get(1).toString(), cursor.toString());
+        assertEquals(cursor, array.get(1));
+        assertEquals(array.get(1).hashCode(), cursor.hashCode());
+        assertNotEquals(cursor, array.get(2));
+        validate(cursor);
+        try {
+            cursor.getMinimum(2);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * Tests {@link EnvelopeArray#set(int, Envelope)}.
+     */
+    @Test
+    public void testSet() {
+        final EnvelopeArray array = create();
+        array.set(3, new SimpleEnvelope(new SimpleDirectPosition(null, 1, 2),
+                                        new SimpleDirectPosition(null, 3, 4)));
+        assertEquals(1.0, array.getMinimum(3, 0), 0.0);
+        assertEquals(4.0, array.getMaximum(3, 1), 0.0);
+        try {
+            array.set(0, new SimpleEnvelope(new SimpleDirectPosition(null, 1, 2, 3),
+                                            new SimpleDirectPosition(null, 3, 4, 5)));
+            fail("Expected MismatchedDimensionException.");
+        } catch (MismatchedDimensionException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that an index for which the offset in the ordinates array would overflow is rejected.
+     * With 2 dimensions, the index 2<sup>30</sup> multiplied by 4 ordinates per envelope wraps to 0.
+     */
+    @Test
+    public void testIndexOverflow() {
+        final EnvelopeArray array = create();
+        final int index = 1 << 30;
+        try {
+            array.get(index);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            array.set(index, array.get(1));
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            array.getMinimum(index, 0);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            array.cursor().moveTo(index);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        assertEquals(0.0, array.getMinimum(0, 0), 0.0);
+    }
+
+    /**
+     * Tests {@link EnvelopeArray#union()}.
+     */
+    @Test
+    public void testUnion() {
+        final Envelope union = create().union();
+        assertEquals(-3.0, union.getMinimum(0), 0.0);
+        assertEquals( 0.0, union.getMinimum(1), 0.0);
+        assertEquals( 9.0, union.getMaximum(0), 0.0);
+        assertEquals(10.0, union.getMaximum(1), 0.0);
+    }
+
+    /**
+     * Tests {@link EnvelopeArray#intersects(Envelope, int[])}.
+     */
+    @Test
+    public void testIntersects() {
+        final EnvelopeArray array = create();
+        final int[] indices = new int[array.size()];
+        final int count = array.intersects(new SimpleEnvelope(
+                new SimpleDirectPosition(null, 4, 3),
+                new SimpleDirectPosition(null, 5, 4)), indices);
+        assertEquals(2, count);
+        assertEquals(0, indices[0]);            // Touch the border.
+        assertEquals(3, indices[1]);
+    }
+
+    /**
+     * Tests {@link EnvelopeArray#contains(DirectPosition, int[])}.
+     */
+    @Test
+    public void testContains() {
+        final EnvelopeArray array = create();
+        final int[] indices = new int[array.size()];
+        final int count = array.contains(new SimpleDirectPosition(null, 3, 2), indices);
+        assertEquals(2, count);
+        assertEquals(0, indices[0]);
+        assertEquals(3, indices[1]);
+        assertEquals(0, array.contains(new SimpleDirectPosition(null, Double.NaN, 2), indices));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import java.awt.geom.Point2D;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.TransformException;
+import org.opengis.example.referencing.SimpleMatrix;
+import org.opengis.example.referencing.SimpleTransform2D;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests {@link EnvelopeTransformer}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public strictfp class EnvelopeTransformerTest {
+    /**
+     * A non-linear transform computing (<var>x</var>, <var>y</var> - <var>x</var>²).
+     * The maximal <var>y</var> value of a transformed envelope is located in the middle of an edge.
+     */
+    @SuppressWarnings("serial")
+    private static final class Parabola extends SimpleTransform2D {
+        /** Whether the derivative is supported. */
+        private final boolean isDerivativeSupported;
+
+        /** Creates a new transform. */
+        Parabola(final boolean isDerivativeSupported) {
+            super(null, "Parabola", null, null);
+            this.isDerivativeSupported = isDerivativeSupported;
+        }
+
+        /** Transforms the given point. */
+        @Override
+        public Point2D transform(final Point2D ptSrc, Point2D ptDst) {
+            if (ptDst == null) {
+                ptDst = new Point2D.Double();
+            }
+            final double x = ptSrc.getX();
+            ptDst.setLocation(x, ptSrc.getY() - x*x);
+            return ptDst;
+        }
+
+        /** Computes the derivative at the given point, if supported. */
+        @Override
+        public Matrix derivative(final Point2D point) throws TransformException {
+            if (!isDerivativeSupported) {
+                return super.derivative(point);
+            }
+            final Matrix m = new SimpleMatrix(2, 2);
+            m.setElement(0, 0, 1);
+            m.setElement(1, 0, -2 * point.getX());
+            m.setElement(1, 1, 1);
+            return m;
+        }
+    }
+
+    /**
+     * Returns the envelope used for the tests.
+     */
+    private static Envelope envelope() {
+        return new SimpleEnvelope(new SimpleDirectPosition(null, -1, 0),
+                                  new SimpleDirectPosition(null,  2, 1));
+    }
+
+    /**
+     * Verifies the given transformed envelope.
+     */
+    private static void verify(final Envelope envelope, final double ymax) {
+        assertEquals("xmin", -1.0, envelope.getMinimum(0), 1E-12);
+        assertEquals("xmax",  2.0, envelope.getMaximum(0), 1E-12);
+        assertEquals("ymin", -4.0, envelope.getMinimum(1), 1E-12);
+        assertEquals("ymax", ymax, envelope.getMaximum(1), 1E-12);
+    }
+
+    /**
+     * Tests the transformation of corners only. The maximal <var>y</var> value is missed.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testCornersOnly() throws TransformException {
+        verify(new EnvelopeTransformer(new Parabola(true), 1).transform(envelope()), 0);
+    }
+
+    /**
+     * Tests the location of the maximal <var>y</var> value using the transform derivative.
+     * The sample points are not located on the extremum, which must be found from the derivative.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testWithDerivative() throws TransformException {
+        verify(new EnvelopeTransformer(new Parabola(true), 2).transform(envelope()), 1);
+    }
+
+    /**
+     * Tests the location of the maximal <var>y</var> value when the derivative is not supported.
+     * The extremum is estimated by parabolic interpolation, which is exact for this transform.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testWithoutDerivative() throws TransformException {
+        verify(new EnvelopeTransformer(new Parabola(false), 2).transform(envelope()), 1);
+    }
+
+    /**
+     * Tests the transformation of many envelopes in a single batch.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testBatch() throws TransformException {
+        final int count = 5000;
+        final EnvelopeArray envelopes = new EnvelopeArray(null, 2, count);
+        for (int i=0; i<count; i++) {
+            final double x = (i % 100) - 50;
+            final double y = (i / 100);
+            envelopes.set(i, new SimpleEnvelope(new SimpleDirectPosition(null, x, y),
+                                                new SimpleDirectPosition(null, x + 1.5, y + 2)));
+        }
+        final EnvelopeTransformer transformer = new EnvelopeTransformer(new Parabola(true), EnvelopeTransformer.DEFAULT_DENSITY);
+        final EnvelopeArray result = transformer.transform(envelopes);
+        assertEquals(count, result.size());
+        final EnvelopeArray.Cursor cursor = envelopes.cursor();
+        for (int i=0; i<count; i += 37) {
+            final Envelope expected = transformer.transform(cursor.moveTo(i));
+            assertEquals(expected.toString(), result.get(i).toString());
+            final double xmin = cursor.getMinimum(0);
+            final double xmax = cursor.getMaximum(0);
+            final double ymax = cursor.getMaximum(1) - ((xmin <= 0 && xmax >= 0) ? 0 : Math.min(xmin*xmin, xmax*xmax));
+            assertEquals(ymax, result.getMaximum(i, 1), 1E-12);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.geometry;
+
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.opengis.test.Validators.*;
+
+
+/**
+ * Tests {@link PositionArray}.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class PositionArrayTest {
+    /**
+     * Creates the array of positions used by the tests.
+     */
+    private static PositionArray create() {
+        return new PositionArray(null, 2,
+                4, 8,
+                2, 9,
+                7, 3,
+                Double.NaN, 5);
+    }
+
+    /**
+     * Tests the cursor view over the positions.
+     */
+    @Test
+    public void testCursor() {
+        final PositionArray array = create();
+        assertEquals(4, array.size());
+        assertEquals(2, array.getDimension());
+        final PositionArray.Cursor cursor = array.cursor();
+        assertArrayEquals(new double[] {4, 8}, cursor.getCoordinate(), 0.0);
+        assertSame(cursor, cursor.moveTo(2));
+        assertEquals(2, cursor.getIndex());
+        assertEquals(7.0, cursor.getOrdinate(0), 0.0);
+        assertEquals(3.0, cursor.getOrdinate(1), 0.0);
+        assertEquals("POINT(7.0 3.0)", cursor.toString());
+        assertEquals(array.get(2), cursor);
+        assertEquals(array.get(2).hashCode(), cursor.hashCode());
+        validate(cursor);
+
+        cursor.setOrdinate(1, 6);
+        assertEquals(6.0, array.getOrdinate(2, 1), 0.0);
+        try {
+            cursor.moveTo(4);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * Tests that an index for which the offset in the ordinates array would overflow is rejected.
+     * With 4 dimensions, the index 2<sup>30</sup> multiplied by 4 ordinates per position wraps to 0.
+     */
+    @Test
+    public void testIndexOverflow() {
+        final PositionArray array = new PositionArray(null, 4, 2);
+        final int index = 1 << 30;
+        try {
+            array.get(index);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            array.set(index, new SimpleDirectPosition(null, 1, 2, 3, 4));
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            array.setOrdinate(index, 0, 5);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        try {
+            array.cursor().moveTo(index);
+            fail("Expected IndexOutOfBoundsException.");
+        } catch (IndexOutOfBoundsException e) {
+            assertNotNull(e.getMessage());
+        }
+        assertArrayEquals(new double[4], array.get(0).getCoordinate(), 0.0);
+    }
+
+    /**
+     * Tests {@link PositionArray#set(int, DirectPosition)}.
+     */
+    @Test
+    public void testSet() {
+        final PositionArray array = create();
+        array.set(1, new SimpleDirectPosition(null, -1, -2));
+        assertArrayEquals(new double[] {-1, -2}, array.get(1).getCoordinate(), 0.0);
+        try {
+            array.set(1, new SimpleDirectPosition(null, 1, 2, 3));
+            fail("Expected MismatchedDimensionException.");
+        } catch (MismatchedDimensionException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * Tests {@link PositionArray#getEnvelope()}.
+     */
+    @Test
+    public void testGetEnvelope() {
+        final Envelope envelope = create().getEnvelope();
+        assertEquals(2.0, envelope.getMinimum(0), 0.0);
+        assertEquals(3.0, envelope.getMinimum(1), 0.0);
+        assertEquals(7.0, envelope.getMaximum(0), 0.0);
+        assertEquals(9.0, envelope.getMaximum(1), 0.0);
+
+        final Envelope empty = new PositionArray(null, 2, 0).getEnvelope();
+        assertTrue(Double.isNaN(empty.getMinimum(0)));
+        assertTrue(Double.isNaN(empty.getMaximum(1)));
+    }
+
+    /**
+     * Tests {@link PositionArray#inside(Envelope, int[])}.
+     */
+    @Test
+    public void testInside() {
+        final PositionArray array = create();
+        final int[] indices = new int[array.size()];
+        final int count = array.inside(new SimpleEnvelope(
+                new SimpleDirectPosition(null, 3, 3),
+                new SimpleDirectPosition(null, 7, 8)), indices);
+        assertEquals(2, count);
+        assertEquals(0, indices[0]);
+        assertEquals(2, indices[1]);
+    }
+}
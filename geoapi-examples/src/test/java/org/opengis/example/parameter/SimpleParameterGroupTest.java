@@ -7,9 +7,14 @@
  */
 package org.opengis.example.parameter;
 
+import java.util.Collection;
+import java.util.Collections;
+import org.opengis.util.GenericName;
 import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.parameter.ParameterNotFoundException;
 import org.opengis.metadata.citation.Citation;
 import org.opengis.example.metadata.SimpleCitation;
+import org.opengis.example.util.SimpleNameFactory;
 import tec.units.ri.unit.Units;
 
 import org.junit.Test;
@@ -55,4 +60,67 @@ public strictfp class SimpleParameterGroupTest {
         assertEquals(30.0, group.parameter("Latitude of natural origin") .doubleValue(), STRICT);
         assertNotEquals("Group should not anymore be equal to the clone.", group, clone);
     }
+
+    /**
+     * Tests the case-insensitive search of parameters by name,
+     * including in groups created by {@link SimpleParameterGroup#createValue()}.
+     */
+    @Test
+    public void testSearchByName() {
+        final Citation authority = new SimpleCitation("EPSG");
+        final SimpleParameterGroup group = new SimpleParameterGroup(authority, "Mercator (variant A)",
+                new SimpleParameter(authority, "Latitude of natural origin",  SimpleParameter.Type.LATITUDE),
+                new SimpleParameter(authority, "Longitude of natural origin", SimpleParameter.Type.LONGITUDE),
+                new SimpleParameter(authority, "False easting",               SimpleParameter.Type.LINEAR));
+
+        assertEquals("False easting", group.parameter("FALSE EASTING").getDescriptor().getName().getCode());
+        assertSame(group.parameter("Latitude of natural origin"), group.descriptor("latitude of NATURAL origin"));
+        try {
+            group.parameter("False northing");
+            fail("Expected ParameterNotFoundException.");
+        } catch (ParameterNotFoundException e) {
+            assertEquals("False northing", e.getParameterName());
+        }
+
+        final SimpleParameterGroup value = group.createValue();
+        value.parameter("false easting").setValue(500000.0);
+        assertEquals(500000.0, value.parameter("False easting").doubleValue(), STRICT);
+        assertEquals(     0.0, group.parameter("False easting").doubleValue(), STRICT);
+        assertNotSame(group.parameter("False easting"), value.parameter("False easting"));
+    }
+
+    /**
+     * Creates a parameter having the given alias.
+     */
+    private static SimpleParameter parameter(final Citation authority, final String name,
+            final SimpleParameter.Type type, final String alias)
+    {
+        return new SimpleParameter(authority, name, type) {
+            @Override public Collection<GenericName> getAlias() {
+                return Collections.singleton(SimpleNameFactory.DEFAULT.createLocalName(null, alias));
+            }
+        };
+    }
+
+    /**
+     * Tests the case-insensitive search of parameters by alias. Aliases shall be found with the index,
+     * and with the linear search after parameters have been added to the group.
+     */
+    @Test
+    public void testSearchByAlias() {
+        final Citation authority = new SimpleCitation("EPSG");
+        final SimpleParameterGroup group = new SimpleParameterGroup(authority, "Mercator (variant A)",
+                parameter(authority, "Latitude of natural origin",  SimpleParameter.Type.LATITUDE,  "lat_0"),
+                parameter(authority, "Longitude of natural origin", SimpleParameter.Type.LONGITUDE, "lon_0"),
+                parameter(authority, "False easting",               SimpleParameter.Type.LINEAR,    "x_0"));
+
+        assertEquals("Longitude of natural origin", group.parameter("LON_0").getDescriptor().getName().getCode());
+        assertSame(group.parameter("False easting"), group.parameter("x_0"));
+        assertSame(group.parameter("Latitude of natural origin"), group.descriptor("Lat_0"));
+
+        final SimpleParameter added = parameter(authority, "False northing", SimpleParameter.Type.LINEAR, "y_0");
+        group.parameters.add(added);
+        assertSame(added, group.parameter("y_0"));
+        assertSame(group.parameter("False easting"), group.parameter("x_0"));
+    }
 }
@@ -120,4 +120,15 @@ public strictfp class AffineTransform2DTest extends ProjectiveTransformTest {
         expectedTransformClass = AffineTransform2D.class;
         super.testGeneral();
     }
+
+    /**
+     * Declares that this particular test expects an {@link AffineTransform2D} instance,
+     * then runs the test.
+     */
+    @Test
+    @Override
+    public void testConcatenation() throws FactoryException, TransformException {
+        expectedTransformClass = AffineTransform2D.class;
+        super.testConcatenation();
+    }
 }
@@ -0,0 +1,42 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ */
+package org.opengis.example.referencing;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.test.referencing.ConcurrencyTest;
+
+
+/**
+ * Tests the concurrent use of {@link ProjectiveTransform} using the
+ * <code><a href="http://www.geoapi.org/geoapi-conformance/index.html">geoapi-conformance</a></code>
+ * module. This test verifies in particular the lazy computation of the inverse transform,
+ * which is done without synchronization.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+@RunWith(JUnit4.class)
+public strictfp class ProjectiveTransformConcurrencyTest extends ConcurrencyTest {
+    /**
+     * Creates a new test case.
+     */
+    public ProjectiveTransformConcurrencyTest() {
+        super(new SimpleTransformFactory() {
+            @Override // Prevent SimpleTransformFactory from creating AffineTransform2D instances.
+            public MathTransform createAffineTransform(final Matrix matrix) {
+                return new ProjectiveTransform(getVendor(), "Projective transform", null, null,
+                        (matrix instanceof SimpleMatrix) ? (SimpleMatrix) matrix : new SimpleMatrix(matrix));
+            }
+        }, null);
+    }
+}
@@ -17,6 +17,7 @@ import org.opengis.referencing.operation.Matrix;
 import org.opengis.referencing.operation.MathTransform;
 import org.opengis.referencing.operation.TransformException;
 import org.opengis.test.referencing.AffineTransformTest;
+import org.opengis.example.geometry.SimpleDirectPosition;
 
 import static org.junit.Assert.*;
 
@@ -73,6 +74,117 @@ public strictfp class ProjectiveTransformTest extends AffineTransformTest {
         super.testDimensionReduction();
     }
 
+    /**
+     * Tests the concatenation of two linear transforms, followed by a transformation
+     * of overlapping source and destination ranges in the same array.
+     *
+     * @throws FactoryException if a transform can not be created.
+     * @throws TransformException if a coordinate can not be transformed.
+     */
+    @Test
+    public void testConcatenation() throws FactoryException, TransformException {
+        final SimpleMatrix scale = new SimpleMatrix(3, 3);
+        scale.setIdentity();
+        scale.setElement(0, 0, 2);
+        scale.setElement(1, 1, 3);
+        final SimpleMatrix translate = new SimpleMatrix(3, 3);
+        translate.setIdentity();
+        translate.setElement(0, 2, 10);
+        translate.setElement(1, 2, -4);
+        final MathTransform step1 = mtFactory.createAffineTransform(scale);
+        final MathTransform step2 = mtFactory.createAffineTransform(translate);
+        final SimpleMatrix identity = new SimpleMatrix(3, 3);
+        identity.setIdentity();
+        assertSame(step1, mtFactory.createConcatenatedTransform(step1, mtFactory.createAffineTransform(identity)));
+        transform = mtFactory.createConcatenatedTransform(step1, step2);
+        assertTrue(((LinearTransform) transform).isAffine());
+        final double[] coordinates = {1, 2, 3, 4, 5, 6, Double.NaN, Double.NaN};
+        transform.transform(coordinates, 0, coordinates, 2, 3);
+        assertArrayEquals(new double[] {1, 2, 12, 2, 16, 8, 20, 14}, coordinates, 0.0);
+        /*
+         * Pure translation, which use a different code path.
+         */
+        transform = step2;
+        final double[] translated = {1, 2, 3, 4, 5, 6};
+        transform.transform(translated, 0, translated, 2, 2);
+        assertArrayEquals(new double[] {1, 2, 11, -2, 13, 0}, translated, 0.0);
+    }
+
+    /**
+     * Tests that the inverse transform and the derivative of an affine transform are computed only once,
+     * and that the derivative of a projective transform takes the homogeneous coordinate in account.
+     *
+     * @throws FactoryException if a transform can not be created.
+     * @throws TransformException if a derivative can not be computed.
+     */
+    @Test
+    public void testCachedInverseAndDerivative() throws FactoryException, TransformException {
+        final SimpleMatrix m = new SimpleMatrix(4, 4);
+        m.setIdentity();
+        m.setElement(0, 0, 2);
+        m.setElement(1, 3, 5);
+        transform = mtFactory.createAffineTransform(m);
+        m.setElement(0, 0, 4);                                  // Shall not be reflected in the transform.
+        assertTrue(((LinearTransform) transform).isAffine());
+        assertEquals(2, ((LinearTransform) transform).getMatrix().getElement(0, 0), 0.0);
+        assertSame(transform.inverse(), transform.inverse());
+        assertSame(transform, transform.inverse().inverse());
+        final Matrix derivative = transform.derivative(null);
+        assertSame(derivative, transform.derivative(null));
+        assertEquals(2, derivative.getElement(0, 0), 0.0);
+        try {
+            derivative.setElement(0, 0, 3);
+            fail("Derivative shall be unmodifiable.");
+        } catch (UnsupportedOperationException e) {
+            // This is the expected exception.
+        }
+        /*
+         * Projective case: y = x / (x + 1) in the first dimension, so ∂y/∂x = 1 / (x + 1)².
+         */
+        m.setIdentity();
+        m.setElement(3, 0, 1);
+        transform = mtFactory.createAffineTransform(m);
+        assertFalse(((LinearTransform) transform).isAffine());
+        final Matrix projective = transform.derivative(new SimpleDirectPosition(null, 1, 0, 0));
+        assertEquals(0.25, projective.getElement(0, 0), 1E-15);
+        assertEquals(0.5,  projective.getElement(1, 1), 1E-15);
+    }
+
+    /**
+     * Tests the transformation of {@code float} and {@code double} arrays by a projective transform,
+     * including overlapping source and destination ranges in the same {@code float} array.
+     *
+     * @throws FactoryException if a transform can not be created.
+     * @throws TransformException if a coordinate can not be transformed.
+     */
+    @Test
+    public void testProjectiveArrays() throws FactoryException, TransformException {
+        final SimpleMatrix m = new SimpleMatrix(3, 3);
+        m.setIdentity();
+        m.setElement(0, 0, 3);
+        m.setElement(1, 2, 2);
+        m.setElement(2, 0, 1);                                  // w = x + 1
+        transform = mtFactory.createAffineTransform(m);
+        final double[] expected = {1.5, 2, 2.25, 1.5, 2.5, 4.0/3};    // (3x, y+2) / (x+1)
+        final double[] source   = {1, 2, 3, 4, 5, 6};
+        final double[] doubles  = new double[6];
+        transform.transform(source, 0, doubles, 0, 3);
+        assertArrayEquals(expected, doubles, 1E-15);
+
+        final float[] floats = {1, 2, 3, 4, 5, 6, Float.NaN, Float.NaN};
+        transform.transform(floats, 0, floats, 2, 3);
+        for (int i=0; i<expected.length; i++) {
+            assertEquals((float) expected[i], floats[i+2], 0f);
+        }
+        transform.transform(new float[] {1, 2, 3, 4, 5, 6}, 0, doubles, 0, 3);
+        assertArrayEquals(expected, doubles, 1E-15);
+        final float[] result = new float[6];
+        transform.transform(source, 0, result, 0, 3);
+        for (int i=0; i<expected.length; i++) {
+            assertEquals((float) expected[i], result[i], 0f);
+        }
+    }
+
     /**
      * Invoked after every tests in order to ensure that the transform created by the factory
      * is of the expected type. This method requires that the transform class is exactly the
@@ -0,0 +1,556 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.renderable.RenderableImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.opengis.coverage.AttributeValues;
+import org.opengis.coverage.CannotEvaluateException;
+import org.opengis.coverage.CommonPointRule;
+import org.opengis.coverage.DomainObject;
+import org.opengis.coverage.GeometryValuePair;
+import org.opengis.coverage.PointOutsideCoverageException;
+import org.opengis.coverage.SampleDimension;
+import org.opengis.coverage.grid.GridCoordinates;
+import org.opengis.coverage.grid.GridCoverage;
+import org.opengis.coverage.grid.GridEnvelope;
+import org.opengis.coverage.grid.InvalidRangeException;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.Envelope;
+import org.opengis.geometry.Geometry;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.temporal.Period;
+import org.opengis.util.Record;
+import org.opengis.util.RecordType;
+
+
+/**
+ * Base class of read-only two-dimensional grid coverages backed by GDAL. Subclasses need to implement
+ * only the {@link #read read(…)} method, which copies pixel values of a region in a destination array.
+ * This base class implements the {@code getDataBlock(…)} and {@code evaluate(…)} methods on top of it.
+ *
+ * <p>Values returned by the {@code getDataBlock(…)} methods are pixel interleaved, i.e. all sample
+ * values of a pixel are consecutive, as in {@link java.awt.image.Raster#getPixels(int, int, int, int,
+ * double[])}. Pixels are stored in row-major order.</p>
+ *
+ * <p>This coverage is also its own {@linkplain #getGridGeometry() grid geometry} and
+ * {@linkplain #getExtent() grid extent}.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+abstract class AbstractCoverage implements GridCoverage, org.opengis.coverage.grid.GridGeometry, GridEnvelope {
+    /**
+     * Width and height of the blocks used by the bulk {@code evaluate(double[], …)} method
+     * when {@link #getOptimalDataBlockSizes()} does not provide block sizes.
+     */
+    private static final int DEFAULT_BLOCK_SIZE = 256;
+
+    /**
+     * Maximal number of values in the buffer used by the bulk {@code evaluate(double[], …)} method.
+     * If the region enclosing the points of a block is larger, then the points are read one by one.
+     */
+    private static final int MAX_BUFFER_LENGTH = 1 << 22;
+
+    /**
+     * Number of pixels in the raster.
+     */
+    final int width, height;
+
+    /**
+     * Conversion from pixel coordinates to "real world" coordinates.
+     * The (0,0) pixel coordinates map to the top-left pixel corner (not center).
+     */
+    final AffineTransform gridToCRS;
+
+    /**
+     * The coordinate reference system, or {@code null} if unknown or unsupported.
+     */
+    final CoordinateReferenceSystem crs;
+
+    /**
+     * For subclass constructors.
+     *
+     * @param  width      number of pixels along the <var>x</var> axis.
+     * @param  height     number of pixels along the <var>y</var> axis.
+     * @param  gridToCRS  conversion from pixel coordinates to "real world" coordinates.
+     * @param  crs        the coordinate reference system, or {@code null} if unknown.
+     */
+    AbstractCoverage(final int width, final int height, final AffineTransform gridToCRS, final CoordinateReferenceSystem crs) {
+        this.width     = width;
+        this.height    = height;
+        this.gridToCRS = gridToCRS;
+        this.crs       = crs;
+    }
+
+    /**
+     * Copies the values of all bands in the given region to the given destination array.
+     * The value of band <var>b</var> in pixel (<var>x</var>,<var>y</var>) is stored at index
+     * {@code offset + (y - ymin)*scanline + (x - xmin)*numBands + b}.
+     *
+     * @param  xmin         minimal <var>x</var> pixel coordinate, inclusive.
+     * @param  ymin         minimal <var>y</var> pixel coordinate, inclusive.
+     * @param  xmax         maximal <var>x</var> pixel coordinate, exclusive.
+     * @param  ymax         maximal <var>y</var> pixel coordinate, exclusive.
+     * @param  destination  the array of primitive type where to store the values.
+     * @param  offset       index in the destination array of the first value to store.
+     * @param  scanline     number of array elements between two rows.
+     * @throws IOException if an error occurred while reading the values.
+     */
+    abstract void read(int xmin, int ymin, int xmax, int ymax, Object destination, int offset, int scanline)
+            throws IOException;
+
+    /**
+     * Returns whether the given pixel has a value. This is {@code true} for all pixels inside the raster bounds,
+     * unless the raster has holes. This method is invoked by {@code evaluate(DirectPosition, …)} methods after
+     * the bounds check. The bulk {@code evaluate(double[], …)} method does not invoke this method, so subclasses
+     * with holes shall store NaN for pixels without value when {@link #read read(…)} is invoked with a
+     * {@code double[]} destination.
+     *
+     * @param  x  <var>x</var> pixel coordinate, inside the raster bounds.
+     * @param  y  <var>y</var> pixel coordinate, inside the raster bounds.
+     * @return whether the given pixel has a value.
+     */
+    boolean contains(final int x, final int y) {
+        return true;
+    }
+
+    /**
+     * Stores the given value in the given array of primitive type.
+     */
+    static void store(final Object destination, final int index, final double value) {
+        if (destination instanceof double[]) {
+            ((double[]) destination)[index] = value;
+        } else if (destination instanceof float[]) {
+            ((float[]) destination)[index] = (float) value;
+        } else if (destination instanceof int[]) {
+            ((int[]) destination)[index] = (int) (long) value;
+        } else if (destination instanceof short[]) {
+            ((short[]) destination)[index] = (short) (long) value;
+        } else if (destination instanceof byte[]) {
+            ((byte[]) destination)[index] = (byte) (long) value;
+        } else {
+            ((boolean[]) destination)[index] = (value != 0);
+        }
+    }
+
+    /**
+     * Verifies the given range and returns the number of values to store in the destination array.
+     */
+    private int length(final GridEnvelope range) {
+        if (range.getDimension() != 2) {
+            throw new InvalidRangeException("Expected a two-dimensional grid range.");
+        }
+        final int xmin = range.getLow(0), xmax = range.getHigh(0);
+        final int ymin = range.getLow(1), ymax = range.getHigh(1);
+        if (xmin < 0 || ymin < 0 || xmax >= width || ymax >= height || xmin > xmax || ymin > ymax) {
+            throw new InvalidRangeException("Grid range is outside the raster bounds.");
+        }
+        final long n = (xmax - xmin + 1L) * (ymax - ymin + 1L) * getNumSampleDimensions();
+        if (n > Integer.MAX_VALUE) {
+            throw new InvalidRangeException("Grid range is too large.");
+        }
+        return (int) n;
+    }
+
+    /**
+     * Reads the values in the given range and stores them in the given array.
+     *
+     * @param  range        the region to read.
+     * @param  destination  the array where to store the values.
+     * @param  length       number of values to store in the array, as computed by {@link #length(GridEnvelope)}.
+     * @return the destination array.
+     */
+    private <T> T read(final GridEnvelope range, final T destination, final int length) {
+        final int capacity = Array.getLength(destination);
+        if (capacity < length) {
+            throw new ArrayIndexOutOfBoundsException("Destination array is too small: needs " + length
+                    + " elements but got " + capacity + '.');
+        }
+        final int xmin = range.getLow(0);
+        final int xmax = range.getHigh(0) + 1;
+        try {
+            read(xmin, range.getLow(1), xmax, range.getHigh(1) + 1, destination, 0, (xmax - xmin) * getNumSampleDimensions());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return destination;
+    }
+
+    /**
+     * Reads the values of all bands in the pixel containing the given position.
+     */
+    private <T> T evaluate(final DirectPosition point, final T destination) {
+        final int numBands = getNumSampleDimensions();
+        if (Array.getLength(destination) < numBands) {
+            throw new ArrayIndexOutOfBoundsException("Destination array is too small.");
+        }
+        if (point.getDimension() != 2) {
+            throw new CannotEvaluateException("Expected a two-dimensional position.");
+        }
+        final Point2D.Double p = new Point2D.Double(point.getOrdinate(0), point.getOrdinate(1));
+        try {
+            gridToCRS.inverseTransform(p, p);
+        } catch (NoninvertibleTransformException e) {
+            throw new CannotEvaluateException(e.getMessage(), e);
+        }
+        final double x = Math.floor(p.x);
+        final double y = Math.floor(p.y);
+        if (!(x >= 0 && x < width && y >= 0 && y < height) || !contains((int) x, (int) y)) {   // Use '!' for catching NaN.
+            throw new PointOutsideCoverageException("Point is outside the raster.", point);
+        }
+        try {
+            read((int) x, (int) y, (int) x + 1, (int) y + 1, destination, 0, numBands);
+        } catch (IOException e) {
+            throw new CannotEvaluateException(e.getMessage(), e);
+        }
+        return destination;
+    }
+
+    /**
+     * Grid coordinates of a corner of the raster.
+     */
+    private static final class Coordinates implements GridCoordinates {
+        /** The grid coordinate values. */
+        private final int x, y;
+
+        /** Creates new grid coordinates. */
+        Coordinates(final int x, final int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override public int   getDimension()       {return 2;}
+        @Override public int[] getCoordinateValues() {return new int[] {x, y};}
+        @Override public int   getCoordinateValue(final int dimension) {
+            switch (dimension) {
+                case 0:  return x;
+                case 1:  return y;
+                default: throw new IndexOutOfBoundsException(String.valueOf(dimension));
+            }
+        }
+        @Override public void  setCoordinateValue(int dimension, int value) {throw new UnsupportedOperationException();}
+        @Override public String toString() {return "(" + x + ", " + y + ')';}
+    }
+
+    /**
+     * The spatial extent of a coverage, as the bounds of the pixel corners converted to "real world" coordinates.
+     */
+    private static final class Bounds implements Envelope {
+        /** The coordinate reference system, or {@code null} if unknown. */
+        private final CoordinateReferenceSystem crs;
+
+        /** The envelope in "real world" coordinates. */
+        private final Rectangle2D bounds;
+
+        /** Creates a new envelope for the given bounds. */
+        Bounds(final CoordinateReferenceSystem crs, final Rectangle2D bounds) {
+            this.crs    = crs;
+            this.bounds = bounds;
+        }
+
+        @Override public CoordinateReferenceSystem getCoordinateReferenceSystem() {return crs;}
+        @Override public int            getDimension()   {return 2;}
+        @Override public DirectPosition getLowerCorner() {return new AffineTransform2D.Position(crs, bounds.getMinX(), bounds.getMinY());}
+        @Override public DirectPosition getUpperCorner() {return new AffineTransform2D.Position(crs, bounds.getMaxX(), bounds.getMaxY());}
+        @Override public double getMinimum(int dimension) {return (dimension(dimension) == 0) ? bounds.getMinX()    : bounds.getMinY();}
+        @Override public double getMaximum(int dimension) {return (dimension(dimension) == 0) ? bounds.getMaxX()    : bounds.getMaxY();}
+        @Override public double getMedian (int dimension) {return (dimension(dimension) == 0) ? bounds.getCenterX() : bounds.getCenterY();}
+        @Override public double getSpan   (int dimension) {return (dimension(dimension) == 0) ? bounds.getWidth()   : bounds.getHeight();}
+        @Override public String toString() {
+            return "BOX(" + bounds.getMinX() + ' ' + bounds.getMinY() + ", " + bounds.getMaxX() + ' ' + bounds.getMaxY() + ')';
+        }
+
+        /** Verifies that the given dimension is 0 or 1, then returns it. */
+        private static int dimension(final int dimension) {
+            if (dimension < 0 || dimension >= 2) {
+                throw new IndexOutOfBoundsException(String.valueOf(dimension));
+            }
+            return dimension;
+        }
+    }
+
+    /**
+     * Returns the spatial extent of this coverage, computed from the {@linkplain #gridToCRS grid to CRS}
+     * conversion and the raster size. The envelope encompasses the corners of all pixels.
+     */
+    @Override
+    public Envelope getEnvelope() {
+        return new Bounds(crs, gridToCRS.createTransformedShape(new Rectangle(width, height)).getBounds2D());
+    }
+
+    /**
+     * Returns the values of all bands in the given range, pixel interleaved.
+     */
+    @Override
+    @Deprecated
+    public double[] getDataBlock(final org.opengis.coverage.grid.GridRange range, double[] destination) {
+        final int length = length(range);
+        if (destination == null) destination = new double[length];
+        return read(range, destination, length);
+    }
+
+    /** Returns the values of all bands in the given range, pixel interleaved. */
+    @Override
+    @Deprecated
+    public float[] getDataBlock(final org.opengis.coverage.grid.GridRange range, float[] destination) {
+        final int length = length(range);
+        if (destination == null) destination = new float[length];
+        return read(range, destination, length);
+    }
+
+    /** Returns the values of all bands in the given range, pixel interleaved. */
+    @Override
+    @Deprecated
+    public int[] getDataBlock(final org.opengis.coverage.grid.GridRange range, int[] destination) {
+        final int length = length(range);
+        if (destination == null) destination = new int[length];
+        return read(range, destination, length);
+    }
+
+    /** Returns the values of all bands in the given range, pixel interleaved. */
+    @Override
+    @Deprecated
+    public short[] getDataBlock(final org.opengis.coverage.grid.GridRange range, short[] destination) {
+        final int length = length(range);
+        if (destination == null) destination = new short[length];
+        return read(range, destination, length);
+    }
+
+    /** Returns the values of all bands in the given range, pixel interleaved. */
+    @Override
+    @Deprecated
+    public byte[] getDataBlock(final org.opengis.coverage.grid.GridRange range, byte[] destination) {
+        final int length = length(range);
+        if (destination == null) destination = new byte[length];
+        return read(range, destination, length);
+    }
+
+    /** Returns the values of all bands in the given range, pixel interleaved. */
+    @Override
+    @Deprecated
+    public boolean[] getDataBlock(final org.opengis.coverage.grid.GridRange range, boolean[] destination) {
+        final int length = length(range);
+        if (destination == null) destination = new boolean[length];
+        return read(range, destination, length);
+    }
+
+    /**
+     * Returns the values of all bands in the pixel containing the given point.
+     * The position shall be expressed in the coverage CRS.
+     */
+    @Override
+    public double[] evaluate(final DirectPosition point, final double[] destination) {
+        return evaluate(point, destination != null ? destination : new double[getNumSampleDimensions()]);
+    }
+
+    /**
+     * Returns the values of selected bands at many points. All points are converted to pixel coordinates
+     * in a single call, then sorted by blocks of the size given by {@link #getOptimalDataBlockSizes()},
+     * or by blocks of {@value #DEFAULT_BLOCK_SIZE}×{@value #DEFAULT_BLOCK_SIZE} pixels if unspecified.
+     * For each block, the region enclosing the points in that block is read only once.
+     */
+    @Override
+    public double[] evaluate(final double[] coordinates, final int numPts, int[] bands, double[] destination) {
+        final int numBands = getNumSampleDimensions();
+        if (bands == null) {
+            bands = new int[numBands];
+            for (int b=0; b<numBands; b++) {
+                bands[b] = b;
+            }
+        }
+        for (final int b : bands) {
+            if (b < 0 || b >= numBands) {
+                throw new IndexOutOfBoundsException(String.valueOf(b));
+            }
+        }
+        final int length = Math.multiplyExact(numPts, bands.length);
+        if (destination == null) {
+            destination = new double[length];
+        } else if (destination.length < length) {
+            throw new ArrayIndexOutOfBoundsException("Destination array is too small: needs " + length
+                    + " elements but got " + destination.length + '.');
+        }
+        final double[] grid = new double[Math.multiplyExact(numPts, 2)];
+        try {
+            gridToCRS.createInverse().transform(coordinates, 0, grid, 0, numPts);
+        } catch (NoninvertibleTransformException e) {
+            throw new CannotEvaluateException(e.getMessage(), e);
+        }
+        /*
+         * Sort the points by block, using keys made of the block index in the high bits and the point index
+         * in the 31 lower bits. If the number of blocks does not fit in the remaining bits, sort by rows only.
+         * Points outside the raster are set to NaN immediately.
+         */
+        int blockWidth = DEFAULT_BLOCK_SIZE, blockHeight = DEFAULT_BLOCK_SIZE;
+        final int[] blockSizes = getOptimalDataBlockSizes();
+        if (blockSizes != null) {
+            blockWidth  = blockSizes[0];
+            blockHeight = blockSizes[1];
+        }
+        long numBlocksX = (width  + (long) blockWidth  - 1) / blockWidth;
+        final long numBlocksY = (height + (long) blockHeight - 1) / blockHeight;
+        if (numBlocksX * numBlocksY >= (1L << 32)) {
+            blockWidth = width;
+            numBlocksX = 1;
+        }
+        final long[] keys = new long[numPts];
+        int count = 0;
+        for (int i=0; i<numPts; i++) {
+            final double x = Math.floor(grid[i*2    ]);
+            final double y = Math.floor(grid[i*2 + 1]);
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                final long block = ((long) y / blockHeight) * numBlocksX + ((long) x / blockWidth);
+                keys[count++] = (block << 31) | i;
+                grid[i*2    ] = x;
+                grid[i*2 + 1] = y;
+            } else {
+                Arrays.fill(destination, i * bands.length, (i+1) * bands.length, Double.NaN);
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        /*
+         * For each block, read the smallest region containing all points in that block.
+         * If that region is too large (for example because the optimal block size is large),
+         * read the points one by one instead.
+         */
+        double[] buffer = null;
+        int start = 0;
+        while (start < count) {
+            final long block = keys[start] >>> 31;
+            int xmin = Integer.MAX_VALUE, ymin = Integer.MAX_VALUE, xmax = 0, ymax = 0;
+            int end = start;
+            do {
+                final int i = (int) (keys[end] & Integer.MAX_VALUE);
+                final int x = (int) grid[i*2    ];
+                final int y = (int) grid[i*2 + 1];
+                xmin = Math.min(xmin, x);
+                ymin = Math.min(ymin, y);
+                xmax = Math.max(xmax, x + 1);
+                ymax = Math.max(ymax, y + 1);
+            } while (++end < count && (keys[end] >>> 31) == block);
+            final long n = (long) (xmax - xmin) * (ymax - ymin) * numBands;
+            final boolean single = (n > MAX_BUFFER_LENGTH);
+            final int scanline = single ? numBands : (xmax - xmin) * numBands;
+            final int required = single ? numBands : (int) n;
+            if (buffer == null || buffer.length < required) {
+                buffer = new double[required];
+            }
+            try {
+                if (!single) {
+                    read(xmin, ymin, xmax, ymax, buffer, 0, scanline);
+                }
+                for (int k=start; k<end; k++) {
+                    final int i = (int) (keys[k] & Integer.MAX_VALUE);
+                    final int x = (int) grid[i*2    ];
+                    final int y = (int) grid[i*2 + 1];
+                    final int source;
+                    if (single) {
+                        read(x, y, x+1, y+1, buffer, 0, scanline);
+                        source = 0;
+                    } else {
+                        source = (y - ymin) * scanline + (x - xmin) * numBands;
+                    }
+                    final int target = i * bands.length;
+                    for (int b=0; b<bands.length; b++) {
+                        destination[target + b] = buffer[source + bands[b]];
+                    }
+                }
+            } catch (IOException e) {
+                throw new CannotEvaluateException(e.getMessage(), e);
+            }
+            start = end;
+        }
+        return destination;
+    }
+
+    @Override public Object    evaluate(DirectPosition point)                      {return evaluate(point, (double[]) null);}
+    @Override public float[]   evaluate(DirectPosition point, float[]   dest)      {return evaluate(point, dest != null ? dest : new float  [getNumSampleDimensions()]);}
+    @Override public int[]     evaluate(DirectPosition point, int[]     dest)      {return evaluate(point, dest != null ? dest : new int    [getNumSampleDimensions()]);}
+    @Override public byte[]    evaluate(DirectPosition point, byte[]    dest)      {return evaluate(point, dest != null ? dest : new byte   [getNumSampleDimensions()]);}
+    @Override public boolean[] evaluate(DirectPosition point, boolean[] dest)      {return evaluate(point, dest != null ? dest : new boolean[getNumSampleDimensions()]);}
+    @Override public Set<Record> evaluate(DirectPosition p, Collection<String> list) {throw new UnsupportedOperationException();}
+    @Override public Set<? extends DomainObject<?>> evaluateInverse(Record v)      {throw new UnsupportedOperationException();}
+
+    @Override public CoordinateReferenceSystem getCoordinateReferenceSystem() {return crs;}
+    @Override public Set<Extent>               getDomainExtents()             {return Collections.emptySet();}
+    @Override public Set<? extends DomainObject<?>> getDomainElements()       {return Collections.emptySet();}
+    @Override public Collection<AttributeValues> getRangeElements()          {return Collections.emptySet();}
+    @Override public RecordType                getRangeType()                 {return null;}       // TODO
+    @Override public CommonPointRule           getCommonPointRule()           {return null;}       // TODO
+    @Override public Set<? extends GeometryValuePair> list()                  {throw new UnsupportedOperationException();}
+    @Override public Set<? extends GeometryValuePair> select(Geometry s, Period t) {throw new UnsupportedOperationException();}
+    @Override public List<? extends GeometryValuePair> find(DirectPosition p, int limit) {throw new UnsupportedOperationException();}
+    @Override public GeometryValuePair         find(DirectPosition p)         {throw new UnsupportedOperationException();}
+    @Override public List<GridCoverage>        getSources()                   {return Collections.emptyList();}
+    @Override public RenderableImage           getRenderableImage(int xAxis, int yAxis) {throw new UnsupportedOperationException();}
+    @Override public boolean                   isDataEditable()               {return false;}
+    @Override @SuppressWarnings("deprecation")
+    public org.opengis.coverage.grid.GridPacking getGridPacking()           {return null;}       // TODO
+    @Override public int[]                     getOptimalDataBlockSizes()     {return null;}
+    @Override public int                       getNumOverviews()              {return 0;}
+    @Override public GridCoverage              getOverview(int index)         {throw new IndexOutOfBoundsException(String.valueOf(index));}
+    @Override public org.opengis.coverage.grid.GridGeometry getOverviewGridGeometry(int index) {return getOverview(index).getGridGeometry();}
+    @Override public org.opengis.coverage.grid.GridGeometry getGridGeometry() {return this;}
+
+    /**
+     * Returns information about the band at the given index.
+     */
+    @Override
+    public SampleDimension getSampleDimension(final int index) {
+        if (index < 0 || index >= getNumSampleDimensions()) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return null;                                // TODO
+    }
+
+    /*
+     * Grid geometry and grid envelope methods.
+     */
+    @Override public GridEnvelope              getExtent()                    {return this;}
+    @Override @Deprecated public GridEnvelope  getGridRange()                 {return this;}
+    @Override public MathTransform             getGridToCRS()                 {return new AffineTransform2D(gridToCRS);}
+    @Override public int                       getDimension()                 {return 2;}
+    @Override public GridCoordinates           getLow()                       {return new Coordinates(0, 0);}
+    @Override public GridCoordinates           getHigh()                      {return new Coordinates(width - 1, height - 1);}
+    @Override public int                       getLow (int dimension)         {return getLow ().getCoordinateValue(dimension);}
+    @Override public int                       getHigh(int dimension)         {return getHigh().getCoordinateValue(dimension);}
+    @Override public int                       getSpan(int dimension)         {return getHigh(dimension) + 1;}
+
+    /*
+     * This coverage is read-only.
+     */
+    @Override @Deprecated public byte[] getPackedDataBlock(org.opengis.coverage.grid.GridRange range)            {throw new UnsupportedOperationException();}
+    @Override @Deprecated public void setDataBlock(org.opengis.coverage.grid.GridRange range, boolean[] values)  {throw new org.opengis.coverage.grid.GridNotEditableException();}
+    @Override @Deprecated public void setDataBlock(org.opengis.coverage.grid.GridRange range, byte[]    values)  {throw new org.opengis.coverage.grid.GridNotEditableException();}
+    @Override @Deprecated public void setDataBlock(org.opengis.coverage.grid.GridRange range, short[]   values)  {throw new org.opengis.coverage.grid.GridNotEditableException();}
+    @Override @Deprecated public void setDataBlock(org.opengis.coverage.grid.GridRange range, int[]     values)  {throw new org.opengis.coverage.grid.GridNotEditableException();}
+    @Override @Deprecated public void setDataBlock(org.opengis.coverage.grid.GridRange range, float[]   values)  {throw new org.opengis.coverage.grid.GridNotEditableException();}
+    @Override @Deprecated public void setDataBlock(org.opengis.coverage.grid.GridRange range, double[]  values)  {throw new org.opengis.coverage.grid.GridNotEditableException();}
+}
@@ -0,0 +1,191 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.Objects;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+
+
+/**
+ * A two-dimensional affine transform backed by a Java2D {@link AffineTransform}.
+ * This is used for the conversion from pixel coordinates to "real world" coordinates
+ * declared by the GDAL geotransform.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class AffineTransform2D implements MathTransform {
+    /**
+     * The affine transform. This is a copy of the transform given at construction time,
+     * which shall not be modified.
+     */
+    private final AffineTransform transform;
+
+    /**
+     * The inverse transform, computed when first needed.
+     */
+    private AffineTransform2D inverse;
+
+    /**
+     * Creates a new transform as a copy of the given Java2D transform.
+     *
+     * @param transform  the affine transform to copy.
+     */
+    AffineTransform2D(final AffineTransform transform) {
+        this.transform = new AffineTransform(transform);
+    }
+
+    /**
+     * A two-dimensional position. Used for the results of {@link #transform(DirectPosition, DirectPosition)}
+     * and for the corners of coverage envelopes.
+     */
+    static final class Position implements DirectPosition {
+        /** The coordinate reference system, or {@code null} if unspecified. */
+        private final CoordinateReferenceSystem crs;
+
+        /** The coordinate values. */
+        private final double[] coordinates;
+
+        /** Creates a new position at the given coordinates. */
+        Position(final CoordinateReferenceSystem crs, final double x, final double y) {
+            this.crs = crs;
+            coordinates = new double[] {x, y};
+        }
+
+        @Override public CoordinateReferenceSystem getCoordinateReferenceSystem() {return crs;}
+        @Override public DirectPosition getDirectPosition() {return this;}
+        @Override public int      getDimension()          {return 2;}
+        @Override public double[] getCoordinate()         {return coordinates.clone();}
+        @Override public double   getOrdinate(int i)      {return coordinates[i];}
+        @Override public void     setOrdinate(int i, double value) {coordinates[i] = value;}
+        @Override public String   toString()              {return "POINT(" + coordinates[0] + ' ' + coordinates[1] + ')';}
+
+        /** Returns a hash code value as specified in {@link DirectPosition#hashCode()}. */
+        @Override public int hashCode() {
+            return Arrays.hashCode(coordinates) + Objects.hashCode(crs);
+        }
+
+        /** Compares this position with the given object as specified in {@link DirectPosition#equals(Object)}. */
+        @Override public boolean equals(final Object other) {
+            if (other instanceof DirectPosition) {
+                final DirectPosition that = (DirectPosition) other;
+                return Arrays.equals(coordinates, that.getCoordinate()) &&
+                       Objects.equals(crs, that.getCoordinateReferenceSystem());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The derivative of the affine transform, which is the same at every position.
+     * This matrix is not modifiable.
+     */
+    private final class Derivative implements Matrix {
+        @Override public int     getNumRow()  {return 2;}
+        @Override public int     getNumCol()  {return 2;}
+        @Override public boolean isIdentity() {return (transform.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0;}
+        @Override public Matrix  clone()      {return this;}            // Okay since this matrix is not modifiable.
+        @Override public void    setElement(int row, int column, double value) {throw new UnsupportedOperationException();}
+        @Override public double  getElement(final int row, final int column) {
+            if (row >= 0 && row < 2 && column >= 0 && column < 2) {
+                switch (row*2 + column) {
+                    case 0:  return transform.getScaleX();
+                    case 1:  return transform.getShearX();
+                    case 2:  return transform.getShearY();
+                    default: return transform.getScaleY();
+                }
+            }
+            throw new IndexOutOfBoundsException("(" + row + ", " + column + ')');
+        }
+    }
+
+    @Override public int getSourceDimensions() {return 2;}
+    @Override public int getTargetDimensions() {return 2;}
+
+    /**
+     * Transforms the given position, storing the result in {@code ptDst} if non-null.
+     */
+    @Override
+    public DirectPosition transform(final DirectPosition ptSrc, final DirectPosition ptDst) {
+        if (ptSrc.getDimension() != 2) {
+            throw new MismatchedDimensionException("Expected a two-dimensional position.");
+        }
+        final Point2D.Double p = new Point2D.Double(ptSrc.getOrdinate(0), ptSrc.getOrdinate(1));
+        transform.transform(p, p);
+        if (ptDst == null) {
+            return new Position(null, p.x, p.y);
+        }
+        if (ptDst.getDimension() != 2) {
+            throw new MismatchedDimensionException("Expected a two-dimensional position.");
+        }
+        ptDst.setOrdinate(0, p.x);
+        ptDst.setOrdinate(1, p.y);
+        return ptDst;
+    }
+
+    @Override public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {transform.transform(srcPts, srcOff, dstPts, dstOff, numPts);}
+    @Override public void transform(float [] srcPts, int srcOff, float [] dstPts, int dstOff, int numPts) {transform.transform(srcPts, srcOff, dstPts, dstOff, numPts);}
+    @Override public void transform(float [] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) {transform.transform(srcPts, srcOff, dstPts, dstOff, numPts);}
+    @Override public void transform(double[] srcPts, int srcOff, float [] dstPts, int dstOff, int numPts) {transform.transform(srcPts, srcOff, dstPts, dstOff, numPts);}
+    @Override public Matrix  derivative(DirectPosition point) {return new Derivative();}
+    @Override public boolean isIdentity() {return transform.isIdentity();}
+
+    /**
+     * Returns the inverse of this transform.
+     */
+    @Override
+    public synchronized MathTransform inverse() throws NoninvertibleTransformException {
+        if (inverse == null) {
+            try {
+                inverse = new AffineTransform2D(transform.createInverse());
+            } catch (java.awt.geom.NoninvertibleTransformException e) {
+                throw new NoninvertibleTransformException(e.getMessage(), e);
+            }
+            inverse.inverse = this;
+        }
+        return inverse;
+    }
+
+    /**
+     * Returns a Well Known Text (WKT) version 1 representation of this transform.
+     */
+    @Override
+    public String toWKT() {
+        final double[] matrix = new double[6];
+        transform.getMatrix(matrix);                    // { m00 m10 m01 m11 m02 m12 }
+        return "PARAM_MT[\"Affine\", "
+                + "PARAMETER[\"num_row\", 3], PARAMETER[\"num_col\", 3], "
+                + "PARAMETER[\"elt_0_0\", " + matrix[0] + "], "
+                + "PARAMETER[\"elt_0_1\", " + matrix[2] + "], "
+                + "PARAMETER[\"elt_0_2\", " + matrix[4] + "], "
+                + "PARAMETER[\"elt_1_0\", " + matrix[1] + "], "
+                + "PARAMETER[\"elt_1_1\", " + matrix[3] + "], "
+                + "PARAMETER[\"elt_1_2\", " + matrix[5] + "]]";
+    }
+
+    @Override public String  toString()                {return toWKT();}
+    @Override public int     hashCode()                {return transform.hashCode() ^ 0x3A4F2D05;}
+    @Override public boolean equals(final Object obj)  {
+        return (obj instanceof AffineTransform2D) && transform.equals(((AffineTransform2D) obj).transform);
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A cache of raster blocks read by GDAL, shared by all datasets. Blocks are stored in direct buffers
+ * in native byte order, which is the layout produced by {@code ReadRaster_Direct}. The cache retains
+ * blocks in least-recently-used order up to a maximal amount of bytes. Buffers of evicted blocks are
+ * recycled for reading the next blocks, so a warmed cache does not allocate new buffers.
+ *
+ * <p>The cache structure is accessed only while holding the lock on this cache. A buffer is filled by GDAL
+ * outside that lock, at a time when it is owned only by the thread doing the read. Values are copied from
+ * a cached buffer outside that lock too, while the block is <cite>pinned</cite>: a pinned block evicted
+ * from the cache is not recycled before all threads copying its values released it. Since copiers do not
+ * modify the buffer position or limit, many threads can copy values from the same buffer concurrently.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class BlockCache {
+    /**
+     * The cache shared by all datasets.
+     */
+    static final BlockCache INSTANCE = new BlockCache(64 * 1024 * 1024);
+
+    /**
+     * Maximal number of evicted buffers to keep for recycling.
+     */
+    private static final int MAX_FREE_BUFFERS = 8;
+
+    /**
+     * Identification of a block in the cache. Instances used as keys in the map shall not be modified.
+     * Mutable instances are used only for lookups, in order to avoid allocation when a block is cached.
+     */
+    static final class Key {
+        /** The coverage which contains the block. Compared by identity. */
+        Object owner;
+
+        /** Band index, tile column and tile row. */
+        int band, tileX, tileY;
+
+        /** Creates a key to be initialized by {@link #set(Object, int, int, int)}. */
+        Key() {
+        }
+
+        /** Creates a copy of the given key. */
+        private Key(final Key other) {
+            set(other.owner, other.band, other.tileX, other.tileY);
+        }
+
+        /** Sets this key to the given values. */
+        final void set(final Object owner, final int band, final int tileX, final int tileY) {
+            this.owner = owner;
+            this.band  = band;
+            this.tileX = tileX;
+            this.tileY = tileY;
+        }
+
+        @Override public int hashCode() {
+            return System.identityHashCode(owner) + 31*(band + 31*(tileX + 31*tileY));
+        }
+
+        @Override public boolean equals(final Object obj) {
+            if (obj instanceof Key) {
+                final Key other = (Key) obj;
+                return owner == other.owner && band == other.band && tileX == other.tileX && tileY == other.tileY;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Reads a block from GDAL into a buffer.
+     */
+    @FunctionalInterface
+    interface Loader {
+        /** Fills the given buffer, which has a capacity of at least the size given to {@link #read read(…)}. */
+        void load(ByteBuffer block) throws IOException;
+    }
+
+    /**
+     * Copies values from a cached block. Implementations shall not retain the buffer reference.
+     */
+    @FunctionalInterface
+    interface Copier {
+        /** Copies values from the given block. Buffer position and limit shall not be modified. */
+        void copy(ByteBuffer block);
+    }
+
+    /**
+     * A buffer in the cache, together with the number of threads copying values from that buffer.
+     * Fields are read and written only while holding the lock on the cache.
+     */
+    private static final class Block {
+        /** The block values in native byte order. */
+        final ByteBuffer buffer;
+
+        /** Number of threads copying values from the buffer. */
+        int pins;
+
+        /** Whether this block has been removed from the cache while pinned. */
+        boolean evicted;
+
+        /** Creates a new block for the given buffer. */
+        Block(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * The cached blocks in least-recently-used order.
+     */
+    private final LinkedHashMap<Key,Block> blocks;
+
+    /**
+     * Buffers of evicted blocks, available for reuse.
+     */
+    private final ArrayDeque<ByteBuffer> free;
+
+    /**
+     * Sum of the capacities of all buffers in {@link #blocks}.
+     */
+    private long size;
+
+    /**
+     * Maximal value of {@link #size}.
+     */
+    private long capacity;
+
+    /**
+     * Creates a new cache of the given capacity.
+     *
+     * @param  capacity  maximal number of bytes to retain.
+     */
+    BlockCache(final long capacity) {
+        this.capacity = capacity;
+        blocks = new LinkedHashMap<>(64, 0.75f, true);
+        free   = new ArrayDeque<>(MAX_FREE_BUFFERS);
+    }
+
+    /**
+     * Sets the maximal number of bytes to retain in this cache.
+     */
+    synchronized void setCapacity(final long capacity) {
+        this.capacity = capacity;
+        evict();
+    }
+
+    /**
+     * Gives the block identified by the given key to the given copier. If the block is not in the cache,
+     * then it is loaded by the given loader in a buffer of the given size and cached for future reads.
+     *
+     * @param  key     identification of the block. May be a mutable key, which will be copied if needed.
+     * @param  length  number of bytes in the block.
+     * @param  loader  the action to invoke for loading the block if it is not in the cache.
+     * @param  copier  the action to invoke for copying values from the block.
+     * @throws IOException if an error occurred while loading the block.
+     */
+    void read(final Key key, final int length, final Loader loader, final Copier copier) throws IOException {
+        Block block;
+        ByteBuffer buffer;
+        synchronized (this) {
+            block = blocks.get(key);
+            if (block != null) {
+                block.pins++;
+                buffer = null;
+            } else {
+                buffer = recycle(length);
+            }
+        }
+        if (block == null) {
+            if (buffer == null) {
+                buffer = ByteBuffer.allocateDirect(length).order(ByteOrder.nativeOrder());
+            }
+            buffer.clear();
+            boolean success = false;
+            try {
+                loader.load(buffer);
+                success = true;
+            } finally {
+                if (!success) {
+                    synchronized (this) {
+                        recycle(buffer);                // Make the buffer available again before propagating the error.
+                    }
+                }
+            }
+            synchronized (this) {
+                block = blocks.get(key);
+                if (block != null) {
+                    recycle(buffer);                    // Another thread loaded the same block concurrently.
+                } else {
+                    block = new Block(buffer);
+                    blocks.put(new Key(key), block);
+                    size += buffer.capacity();
+                }
+                block.pins++;
+                evict();
+            }
+        }
+        try {
+            copier.copy(block.buffer);
+        } finally {
+            synchronized (this) {
+                if (--block.pins == 0 && block.evicted) {
+                    recycle(block.buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a free buffer of the given capacity, or {@code null} if none.
+     * Caller must hold the lock.
+     */
+    private ByteBuffer recycle(final int length) {
+        final Iterator<ByteBuffer> it = free.iterator();
+        while (it.hasNext()) {
+            final ByteBuffer buffer = it.next();
+            if (buffer.capacity() == length) {
+                it.remove();
+                return buffer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes the given buffer available for reuse. Caller must hold the lock.
+     */
+    private void recycle(final ByteBuffer buffer) {
+        if (free.size() >= MAX_FREE_BUFFERS) {
+            free.removeFirst();
+        }
+        free.addLast(buffer);
+    }
+
+    /**
+     * Invoked after the given block has been removed from the cache. The buffer is recycled now
+     * if no thread is copying values from it, or when the last thread releases it otherwise.
+     * Caller must hold the lock.
+     */
+    private void removed(final Block block) {
+        size -= block.buffer.capacity();
+        if (block.pins == 0) {
+            recycle(block.buffer);
+        } else {
+            block.evicted = true;
+        }
+    }
+
+    /**
+     * Removes the least recently used blocks until the cache size is not greater than its capacity.
+     * Caller must hold the lock.
+     */
+    private void evict() {
+        final Iterator<Block> it = blocks.values().iterator();
+        while (size > capacity && it.hasNext()) {
+            final Block block = it.next();
+            it.remove();
+            removed(block);
+        }
+    }
+
+    /**
+     * Removes all blocks of the given coverage. This method shall be invoked
+     * when a coverage is disposed, since its blocks will never be used again.
+     *
+     * @param  owner  the coverage for which to remove the blocks.
+     */
+    synchronized void removeAll(final Object owner) {
+        final Iterator<Map.Entry<Key,Block>> it = blocks.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Key,Block> entry = it.next();
+            if (entry.getKey().owner == owner) {
+                it.remove();
+                removed(entry.getValue());
+            }
+        }
+    }
+}
@@ -13,6 +13,8 @@
  */
 package org.opengis.wrapper.gdal;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.gdal.osr.SpatialReference;
 import org.opengis.metadata.Identifier;
 import org.opengis.metadata.extent.Extent;
@@ -30,14 +32,32 @@ import org.opengis.util.InternationalString;
 
 /**
  * Wrapper around GDAL spatial reference system.
+ * Instances are immutable and cached by their WKT definition, so rasters sharing the same
+ * CRS share the same wrapper and the WKT is parsed by GDAL only once.
  *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  *
  * @see <a href="http://gdal.org/java/org/gdal/osr/SpatialReference.html">GDAL SpatialReference</a>
  */
 class CRS extends ReferencingObject implements CoordinateReferenceSystem, CoordinateSystem, Identifier {
+    /**
+     * Maximal number of entries in the {@link #CACHE}.
+     */
+    static final int CACHE_SIZE = 100;
+
+    /**
+     * The CRS created for given WKT strings, in least-recently-used order. Keys are WKT given by users
+     * and WKT normalized by GDAL. Values may be {@code null} for WKT of unsupported CRS.
+     * All accesses to this map shall be synchronized on the map.
+     */
+    private static final Map<String,CRS> CACHE = new LinkedHashMap<String,CRS>(CACHE_SIZE, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(final Map.Entry<String,CRS> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
     /**
      * The Well Known Text (WKT) definition for this coordinate reference system, in OGC 01-009 syntax.
      */
@@ -66,40 +86,101 @@ class CRS extends ReferencingObject implements CoordinateReferenceSystem, Coordi
     }
 
     /**
-     * Creates a new coordinate reference system.
+     * Returns the coordinate reference system for the given WKT. If a CRS has already been created for
+     * the same WKT, or for a WKT which is normalized by GDAL to the same string, then the cached instance
+     * is returned. Otherwise the WKT is parsed by GDAL and the result is cached for future invocations.
+     * This method can be invoked concurrently by many threads.
      *
-     * @param  srs  the GDAL spatial reference system information.
-     * @return the Well Known Text (WKT) given by GDAL, or {@code null} if unsupported.
+     * @param  wkt  the Well Known Text (WKT) given by GDAL.
+     * @return the coordinate reference system, or {@code null} if unsupported.
      */
     static CRS create(final String wkt) {
-        if (wkt != null && !wkt.isEmpty()) {
-            final SpatialReference srs = new SpatialReference(wkt);
-            try {
-                if (srs.IsGeographic() != 0) {
-                    return new Geographic(wkt, srs);
-                } else if (srs.IsProjected() != 0) {
-                    return new Projected(wkt, srs);
-                } else {
-                    // TODO: we could also check IsGeocentric(), IsLocal() and IsCompound().
+        if (wkt == null || wkt.isEmpty()) {
+            return null;
+        }
+        synchronized (CACHE) {
+            final CRS crs = CACHE.get(wkt);
+            if (crs != null || CACHE.containsKey(wkt)) {
+                return crs;
+            }
+        }
+        /*
+         * Parse outside the synchronized block. If two threads parse the same WKT concurrently,
+         * the first result put in the cache is the one returned to both threads.
+         */
+        final SpatialReference srs = new SpatialReference(wkt);
+        CRS crs;
+        String normalized;
+        try {
+            normalized = srs.ExportToWkt();
+            if (wkt.equals(normalized)) {
+                normalized = null;
+            } else {
+                synchronized (CACHE) {
+                    crs = CACHE.get(normalized);
+                    if (crs != null || CACHE.containsKey(normalized)) {
+                        CACHE.put(wkt, crs);
+                        return crs;
+                    }
                 }
-            } finally {
-                srs.delete();
             }
+            if (srs.IsGeographic() != 0) {
+                crs = new Geographic(wkt, srs);
+            } else if (srs.IsProjected() != 0) {
+                crs = new Projected(wkt, srs);
+            } else {
+                crs = null;
+                // TODO: we could also check IsGeocentric(), IsLocal() and IsCompound().
+            }
+        } finally {
+            srs.delete();
+        }
+        synchronized (CACHE) {
+            final CRS existing = CACHE.putIfAbsent(wkt, crs);
+            if (existing != null) {
+                crs = existing;
+            }
+            if (normalized != null) {
+                CACHE.putIfAbsent(normalized, crs);
+            }
+        }
+        return crs;
+    }
+
+    /**
+     * Returns the given WKT as normalized by GDAL, for comparing reference systems
+     * which may be formatted differently.
+     *
+     * @param  wkt  the Well Known Text (WKT) given by GDAL, or {@code null}.
+     * @return the normalized WKT, or {@code null} if the given WKT is null or empty.
+     */
+    static String normalize(final String wkt) {
+        if (wkt == null || wkt.isEmpty()) {
+            return null;
+        }
+        final SpatialReference srs = new SpatialReference(wkt);
+        try {
+            return srs.ExportToWkt();
+        } finally {
+            srs.delete();
         }
-        return null;
     }
 
     /**
      * Geographic case of GDAL coordinate reference system.
      */
     private static final class Geographic extends CRS implements GeographicCRS, EllipsoidalCS {
+        /** The datum, with its ellipsoid and prime meridian. */
+        private final Datum datum;
+
         /** Creates a new geographic CRS for the given GDAL reference system. */
         Geographic(final String wkt, final SpatialReference srs) {
             super("GEOGCS", wkt, srs);
+            datum = new Datum(srs);
         }
 
         @Override public EllipsoidalCS getCoordinateSystem() {return this;}
-        @Override public GeodeticDatum getDatum()            {return null;}     // TODO
+        @Override public GeodeticDatum getDatum()            {return datum;}
     }
 
     /**
@@ -109,16 +190,20 @@ class CRS extends ReferencingObject implements CoordinateReferenceSystem, Coordi
         /** The coordinate reference system on which this projected CRS is based. */
         private final Geographic base;
 
+        /** The conversion from the base CRS to this projected CRS. */
+        private final MapProjection projection;
+
         /** Creates a new projected CRS for the given GDAL reference system. */
         Projected(final String wkt, final SpatialReference srs) {
             super("PROJCS", wkt, srs);
             base = new Geographic(null, srs);           // TODO: need a non-null WKT.
+            projection = new MapProjection(srs, base, this);
         }
 
         @Override public CartesianCS   getCoordinateSystem()   {return this;}
         @Override public GeodeticDatum getDatum()              {return base.getDatum();}
         @Override public GeographicCRS getBaseCRS()            {return base;}
-        @Override public Projection    getConversionFromBase() {return null;}       // TODO
+        @Override public Projection    getConversionFromBase() {return projection;}
     }
 
     @Override public final Extent               getDomainOfValidity()  {return null;}
@@ -15,8 +15,11 @@ package org.opengis.wrapper.gdal;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 import org.opengis.metadata.Metadata;
+import org.opengis.coverage.grid.GridCoverage;
 import org.gdal.gdal.Dataset;
 import org.gdal.gdal.gdal;
 
@@ -24,8 +27,14 @@ import org.gdal.gdal.gdal;
 /**
  * A file opened by GDAL.
  *
+ * <p>A GDAL dataset handle can not be used by many threads at the same time. By default, all read
+ * operations on a {@code DataSet} are serialized. A dataset opened in <cite>pooled mode</cite>
+ * instead lends a separate GDAL handle to each thread reading pixel values, so reads of the same
+ * file can be done in parallel. Those handles are opened lazily up to a maximal number, and closed
+ * after an idle timeout. Metadata are still read from a single handle.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
- * @version 3.1
+ * @version 4.0
  * @since   3.1
  */
 public class DataSet implements Closeable {
@@ -34,11 +43,21 @@ public class DataSet implements Closeable {
      */
     private Dataset ds;
 
+    /**
+     * The handles to use for reading pixel values in pooled mode, or {@code null} if not in pooled mode.
+     */
+    final HandlePool<Dataset> pool;
+
     /**
      * The raster metadata, fetched when first needed.
      */
     private Metadata metadata;
 
+    /**
+     * The pixel values, fetched when first needed.
+     */
+    private RasterCoverage coverage;
+
     /**
      * Opens a dataset for the given file in read-only mode.
      *
@@ -46,14 +65,46 @@ public class DataSet implements Closeable {
      * @throws IOException if the given file can not be opened.
      */
     public DataSet(final Path file) throws IOException {
-        ds = gdal.Open(file.toString());
-        if (ds == null) {
+        ds = open(file);
+        pool = null;
+    }
+
+    /**
+     * Opens a dataset for the given file in read-only mode, with a pool of GDAL handles for reading pixel values.
+     * Handles are opened when first needed, up to the given maximal number. When all handles are in use, threads
+     * wait until a handle is released. Handles not used for the given timeout are closed.
+     *
+     * @param  file         the file to open.
+     * @param  maxHandles   maximal number of GDAL handles opened at the same time for reading pixel values.
+     * @param  idleTimeout  delay after which an unused handle is closed.
+     * @param  unit         unit of the {@code idleTimeout} argument.
+     * @throws IOException if the given file can not be opened.
+     *
+     * @see #getHandleStatistics()
+     *
+     * @since 4.0
+     */
+    public DataSet(final Path file, final int maxHandles, final long idleTimeout, final TimeUnit unit) throws IOException {
+        pool = new HandlePool<Dataset>(maxHandles, unit.toNanos(idleTimeout)) {
+            @Override Dataset open() throws IOException {return DataSet.open(file);}
+            @Override void close(final Dataset handle) {handle.delete();}
+        };
+        ds = open(file);
+    }
+
+    /**
+     * Opens a GDAL handle on the given file.
+     */
+    private static Dataset open(final Path file) throws GDALException {
+        final Dataset handle = gdal.Open(file.toString());
+        if (handle == null) {
             String msg = gdal.GetLastErrorMsg();
             if (msg == null) {
                 msg = "Can not open \"" + file + "\".";
             }
             throw new GDALException(msg);
         }
+        return handle;
     }
 
     /**
@@ -69,6 +120,76 @@ public class DataSet implements Closeable {
         return metadata;
     }
 
+    /**
+     * Returns the pixel values of all bands as a grid coverage. Values are read by blocks of the size
+     * given by {@link GridCoverage#getOptimalDataBlockSizes()}, which is the natural block size of the
+     * file format. Blocks are cached, so reading a small window in a large raster reads only the blocks
+     * intersecting that window and does not read them again in subsequent requests.
+     *
+     * <p>The coverage can be used by many threads. It is valid only as long as this dataset is open.
+     * Reads from many threads are done in parallel only if this dataset has been opened in pooled mode.</p>
+     *
+     * @return the pixel values of all bands.
+     * @throws IOException if an error occurred while fetching information about the raster.
+     *
+     * @since 4.0
+     */
+    public synchronized GridCoverage getCoverage() throws IOException {
+        if (coverage == null) {
+            coverage = new RasterCoverage(this, dataset());
+        }
+        return coverage;
+    }
+
+    /**
+     * Returns the pixel values at the coarsest resolution which is still equal or finer than the given one.
+     * If the dataset contains overviews (also known as pyramids), then this method selects the overview
+     * with the largest pixels that are not larger than the given resolution. For example a thumbnail
+     * of a large image can be rendered from a small overview without reading the full resolution data.
+     * If no overview is fine enough, then this method returns the full resolution coverage.
+     *
+     * @param  resolution  the desired pixel size in units of the CRS, for the <var>x</var> and <var>y</var> axes.
+     * @return the pixel values at the coarsest resolution equal or finer than the given one.
+     * @throws IOException if an error occurred while fetching information about the raster.
+     *
+     * @see GridCoverage#getOverview(int)
+     *
+     * @since 4.0
+     */
+    public GridCoverage getCoverage(final double[] resolution) throws IOException {
+        final RasterCoverage full = (RasterCoverage) getCoverage();
+        try {
+            return full.forResolution(resolution);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns statistics about the GDAL handles used for reading pixel values,
+     * or {@code null} if this dataset has not been opened in pooled mode.
+     *
+     * @return statistics about the pool of GDAL handles, or {@code null} if none.
+     *
+     * @since 4.0
+     */
+    public HandleStatistics getHandleStatistics() {
+        return (pool != null) ? pool.statistics() : null;
+    }
+
+    /**
+     * Returns the GDAL dataset. Callers shall hold the lock on this {@code DataSet}.
+     *
+     * @throws IOException if this dataset has been closed.
+     */
+    final Dataset dataset() throws IOException {
+        final Dataset data = ds;
+        if (data == null) {
+            throw new GDALException("DataSet is closed.");
+        }
+        return data;
+    }
+
     /*
      * See http://www.gdal.org/gdal_tutorial.html
      */
@@ -82,6 +203,13 @@ public class DataSet implements Closeable {
         final Dataset data = ds;
         if (data != null) {
             ds = null;                  // Discard now in case of failure below.
+            if (coverage != null) {
+                coverage.dispose();
+                coverage = null;
+            }
+            if (pool != null) {
+                pool.close();
+            }
             data.delete();
         }
     }
@@ -0,0 +1,111 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.util.Date;
+import javax.measure.Unit;
+import javax.measure.quantity.Angle;
+import javax.measure.quantity.Length;
+import org.gdal.osr.SpatialReference;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.datum.PrimeMeridian;
+import org.opengis.util.InternationalString;
+
+
+/**
+ * Wrapper around the datum of a GDAL spatial reference system.
+ * Datum properties are copied from the GDAL object at construction time,
+ * so instances do not need the GDAL object anymore after construction.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class Datum extends ReferencingObject implements GeodeticDatum {
+    /**
+     * The ellipsoid given by the {@code SPHEROID} element.
+     */
+    private final Spheroid ellipsoid;
+
+    /**
+     * The prime meridian given by the {@code PRIMEM} element.
+     */
+    private final Meridian primeMeridian;
+
+    /**
+     * Creates a new datum for the given GDAL reference system.
+     *
+     * @param  srs  the GDAL spatial reference system information.
+     */
+    Datum(final SpatialReference srs) {
+        super(srs.GetAttrValue("DATUM"));
+        ellipsoid     = new Spheroid(srs);
+        primeMeridian = new Meridian(srs);
+    }
+
+    /**
+     * The ellipsoid of a GDAL spatial reference system.
+     */
+    private static final class Spheroid extends ReferencingObject implements Ellipsoid {
+        /** The ellipsoid axis lengths and the inverse flattening. */
+        private final double semiMajor, semiMinor, inverseFlattening;
+
+        /** Creates a new ellipsoid for the given GDAL reference system. */
+        Spheroid(final SpatialReference srs) {
+            super(srs.GetAttrValue("SPHEROID"));
+            semiMajor         = srs.GetSemiMajor();
+            semiMinor         = srs.GetSemiMinor();
+            inverseFlattening = srs.GetInvFlattening();
+        }
+
+        @Override public Unit<Length> getAxisUnit()          {return null;}                  // TODO
+        @Override public double       getSemiMajorAxis()     {return semiMajor;}
+        @Override public double       getSemiMinorAxis()     {return semiMinor;}
+        @Override public double       getInverseFlattening() {return isSphere() ? Double.POSITIVE_INFINITY : inverseFlattening;}
+        @Override public boolean      isIvfDefinitive()      {return !isSphere();}
+        @Override public boolean      isSphere()             {return inverseFlattening == 0;}
+        @Override public String       toWKT() {
+            return "SPHEROID[\"" + getCode() + "\", " + semiMajor + ", " + inverseFlattening + ']';
+        }
+    }
+
+    /**
+     * The prime meridian of a GDAL spatial reference system.
+     */
+    private static final class Meridian extends ReferencingObject implements PrimeMeridian {
+        /** Longitude of the prime meridian relative to Greenwich, in units of the geographic CRS. */
+        private final double longitude;
+
+        /** Creates a new prime meridian for the given GDAL reference system. */
+        Meridian(final SpatialReference srs) {
+            super(srs.GetAttrValue("PRIMEM"));
+            final String value = srs.GetAttrValue("PRIMEM", 1);
+            longitude = (value != null) ? Double.parseDouble(value) : 0;
+        }
+
+        @Override public double      getGreenwichLongitude() {return longitude;}
+        @Override public Unit<Angle> getAngularUnit()        {return null;}                  // TODO
+        @Override public String      toWKT()                 {return "PRIMEM[\"" + getCode() + "\", " + longitude + ']';}
+    }
+
+    @Override public Ellipsoid           getEllipsoid()        {return ellipsoid;}
+    @Override public PrimeMeridian       getPrimeMeridian()    {return primeMeridian;}
+    @Override public InternationalString getAnchorPoint()      {return null;}
+    @Override public Date                getRealizationEpoch() {return null;}
+    @Override public Extent              getDomainOfValidity() {return null;}
+    @Override public InternationalString getScope()            {return null;}
+    @Override public String              toWKT()               {return "DATUM[\"" + getCode() + "\", " + ellipsoid.toWKT() + ']';}
+}
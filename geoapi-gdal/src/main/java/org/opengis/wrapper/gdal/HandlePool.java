@@ -0,0 +1,266 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+
+
+/**
+ * A pool of GDAL handles opened on the same file. A GDAL dataset handle can not be used by many threads
+ * at the same time, but many handles can be opened on the same file. This pool lends handles to threads
+ * doing read operations, opens new handles lazily up to a maximal number, and closes handles which have
+ * been idle for longer than a timeout. If all handles are in use, threads wait until a handle is released.
+ *
+ * <p>Expired handles are closed when a handle is borrowed or returned; there is no background thread.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ *
+ * @param <H>  type of handles.
+ */
+abstract class HandlePool<H> {
+    /**
+     * A handle which is not in use, together with the time when it has been returned to the pool.
+     */
+    private static final class Idle<H> {
+        /** The handle which is not in use. */
+        final H handle;
+
+        /** Value of {@link System#nanoTime()} when the handle has been returned to the pool. */
+        final long releaseTime;
+
+        /** Creates a new entry for a handle returned to the pool. */
+        Idle(final H handle, final long releaseTime) {
+            this.handle      = handle;
+            this.releaseTime = releaseTime;
+        }
+    }
+
+    /**
+     * The handles which are not in use, with the most recently used last.
+     */
+    private final ArrayDeque<Idle<H>> idle;
+
+    /**
+     * Maximal number of handles opened at the same time.
+     */
+    private final int maxHandles;
+
+    /**
+     * Delay in nanoseconds after which an idle handle is closed.
+     */
+    private final long idleTimeout;
+
+    /**
+     * Number of handles currently opened, including the handles in use and the idle ones.
+     * Also includes the handles being opened.
+     */
+    private int numOpen;
+
+    /**
+     * Maximal value reached by {@link #numOpen}.
+     */
+    private int peakOpen;
+
+    /**
+     * Number of calls to {@link #acquire()} and number of those calls which had to wait.
+     */
+    private long numAcquisitions, numWaits;
+
+    /**
+     * Sum and maximum of the time in nanoseconds spent waiting for a handle.
+     */
+    private long totalWaitTime, maxWaitTime;
+
+    /**
+     * Whether this pool has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a new pool.
+     *
+     * @param  maxHandles   maximal number of handles opened at the same time.
+     * @param  idleTimeout  delay in nanoseconds after which an idle handle is closed.
+     */
+    HandlePool(final int maxHandles, final long idleTimeout) {
+        if (maxHandles <= 0) {
+            throw new IllegalArgumentException("The maximal number of handles must be positive.");
+        }
+        this.maxHandles  = maxHandles;
+        this.idleTimeout = idleTimeout;
+        idle = new ArrayDeque<>(maxHandles);
+    }
+
+    /**
+     * Opens a new handle. Invoked without lock.
+     *
+     * @return the new handle.
+     * @throws IOException if the handle can not be opened.
+     */
+    abstract H open() throws IOException;
+
+    /**
+     * Closes the given handle. Invoked without lock.
+     *
+     * @param  handle  the handle to close.
+     */
+    abstract void close(H handle);
+
+    /**
+     * Borrows a handle from this pool. Callers shall give the handle back by a call to {@link #release(Object)}
+     * in a {@code finally} block.
+     *
+     * @return a handle for exclusive use by the caller until it is released.
+     * @throws IOException if this pool is closed or if a new handle can not be opened.
+     */
+    final H acquire() throws IOException {
+        final H handle;
+        final Object[] expired;
+        synchronized (this) {
+            numAcquisitions++;
+            long waitStart = 0;
+            while (!closed && idle.isEmpty() && numOpen >= maxHandles) {
+                if (waitStart == 0) {
+                    waitStart = System.nanoTime();
+                    numWaits++;
+                }
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();         // Preserve the interrupted status for the caller.
+                    throw new InterruptedIOException("Interrupted while waiting for a GDAL handle.");
+                }
+            }
+            if (waitStart != 0) {
+                final long t = System.nanoTime() - waitStart;
+                totalWaitTime += t;
+                maxWaitTime = Math.max(maxWaitTime, t);
+            }
+            if (closed) {
+                throw new GDALException("DataSet is closed.");
+            }
+            final Idle<H> entry = idle.pollLast();          // Most recently used handle is likely warmer.
+            expired = expired(System.nanoTime());
+            if (entry != null) {
+                handle = entry.handle;
+            } else {
+                handle = null;
+                peakOpen = Math.max(peakOpen, ++numOpen);
+            }
+        }
+        closeAll(expired);
+        if (handle != null) {
+            return handle;
+        }
+        boolean success = false;
+        try {
+            final H created = open();
+            success = true;
+            return created;
+        } finally {
+            if (!success) {
+                synchronized (this) {
+                    numOpen--;
+                    notify();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a handle to this pool. If the pool has been closed, the handle is closed immediately.
+     *
+     * @param  handle  the handle obtained by {@link #acquire()}.
+     */
+    final void release(final H handle) {
+        final Object[] expired;
+        synchronized (this) {
+            if (closed) {
+                numOpen--;
+                expired = new Object[] {handle};
+            } else {
+                final long now = System.nanoTime();
+                idle.addLast(new Idle<>(handle, now));
+                expired = expired(now);
+                notify();
+            }
+        }
+        closeAll(expired);
+    }
+
+    /**
+     * Removes from the idle queue the handles which have not been used since the timeout.
+     * Caller must hold the lock and shall close the returned handles after releasing the lock.
+     */
+    private Object[] expired(final long now) {
+        int n = 0;
+        Object[] expired = null;
+        Idle<H> entry;
+        while ((entry = idle.peekFirst()) != null && now - entry.releaseTime > idleTimeout) {
+            idle.removeFirst();
+            if (expired == null) {
+                expired = new Object[idle.size() + 1];
+            }
+            expired[n++] = entry.handle;
+            numOpen--;
+        }
+        return expired;
+    }
+
+    /**
+     * Closes all the given handles. The array may be null.
+     */
+    @SuppressWarnings("unchecked")
+    private void closeAll(final Object[] handles) {
+        if (handles != null) {
+            for (final Object handle : handles) {
+                if (handle != null) {
+                    close((H) handle);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics about this pool.
+     */
+    final synchronized HandleStatistics statistics() {
+        return new HandleStatistics(numOpen, idle.size(), peakOpen, maxHandles,
+                numAcquisitions, numWaits, totalWaitTime, maxWaitTime);
+    }
+
+    /**
+     * Closes all idle handles and prevents new handles to be borrowed.
+     * Handles in use will be closed when they are released.
+     */
+    final void close() {
+        final Object[] handles;
+        synchronized (this) {
+            closed = true;
+            handles = new Object[idle.size()];
+            int n = 0;
+            for (final Idle<H> entry : idle) {
+                handles[n++] = entry.handle;
+            }
+            numOpen -= n;
+            idle.clear();
+            notifyAll();
+        }
+        closeAll(handles);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Statistics about the GDAL handles opened by a {@link DataSet} in pooled mode.
+ * Instances of this class are immutable snapshots taken at the time of the
+ * {@link DataSet#getHandleStatistics()} call.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final class HandleStatistics {
+    /**
+     * Number of handles opened, number of those handles which are idle, and maximal number reached.
+     */
+    private final int numOpen, numIdle, peakOpen;
+
+    /**
+     * Maximal number of handles allowed.
+     */
+    private final int maxHandles;
+
+    /**
+     * Number of times a handle has been borrowed, and number of those times where the caller had to wait.
+     */
+    private final long numAcquisitions, numWaits;
+
+    /**
+     * Sum and maximum of the time in nanoseconds spent waiting for a handle.
+     */
+    private final long totalWaitTime, maxWaitTime;
+
+    /**
+     * Creates a new snapshot of statistics.
+     */
+    HandleStatistics(final int numOpen, final int numIdle, final int peakOpen, final int maxHandles,
+            final long numAcquisitions, final long numWaits, final long totalWaitTime, final long maxWaitTime)
+    {
+        this.numOpen         = numOpen;
+        this.numIdle         = numIdle;
+        this.peakOpen        = peakOpen;
+        this.maxHandles      = maxHandles;
+        this.numAcquisitions = numAcquisitions;
+        this.numWaits        = numWaits;
+        this.totalWaitTime   = totalWaitTime;
+        this.maxWaitTime     = maxWaitTime;
+    }
+
+    /**
+     * Returns the number of GDAL handles currently opened, including the idle ones.
+     *
+     * @return number of opened handles.
+     */
+    public int getNumOpenHandles() {
+        return numOpen;
+    }
+
+    /**
+     * Returns the number of opened GDAL handles which are not currently used by any thread.
+     *
+     * @return number of idle handles.
+     */
+    public int getNumIdleHandles() {
+        return numIdle;
+    }
+
+    /**
+     * Returns the maximal number of handles which have been opened at the same time.
+     *
+     * @return maximal number of handles opened at the same time.
+     */
+    public int getPeakOpenHandles() {
+        return peakOpen;
+    }
+
+    /**
+     * Returns the maximal number of handles allowed to be opened at the same time.
+     *
+     * @return the limit on the number of opened handles.
+     */
+    public int getMaxHandles() {
+        return maxHandles;
+    }
+
+    /**
+     * Returns the number of times that a handle has been borrowed for a read operation.
+     *
+     * @return number of handle acquisitions.
+     */
+    public long getNumAcquisitions() {
+        return numAcquisitions;
+    }
+
+    /**
+     * Returns the number of acquisitions which had to wait because all handles were in use.
+     *
+     * @return number of acquisitions which had to wait.
+     */
+    public long getNumWaits() {
+        return numWaits;
+    }
+
+    /**
+     * Returns the total time spent by all threads waiting for a handle.
+     *
+     * @param  unit  the desired time unit.
+     * @return total wait time in the given unit.
+     */
+    public long getTotalWaitTime(final TimeUnit unit) {
+        return unit.convert(totalWaitTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the longest time that a thread has waited for a handle.
+     *
+     * @param  unit  the desired time unit.
+     * @return maximal wait time in the given unit.
+     */
+    public long getMaxWaitTime(final TimeUnit unit) {
+        return unit.convert(maxWaitTime, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns a string representation of those statistics for debugging purpose.
+     */
+    @Override
+    public String toString() {
+        return "HandleStatistics[open=" + numOpen + " (idle=" + numIdle + ", peak=" + peakOpen + ", max=" + maxHandles
+                + "), acquisitions=" + numAcquisitions + ", waits=" + numWaits
+                + ", totalWait=" + getTotalWaitTime(TimeUnit.MILLISECONDS) + " ms"
+                + ", maxWait=" + getMaxWaitTime(TimeUnit.MILLISECONDS) + " ms]";
+    }
+}
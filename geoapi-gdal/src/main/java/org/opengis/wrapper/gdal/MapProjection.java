@@ -0,0 +1,82 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.util.Collection;
+import java.util.Collections;
+import org.gdal.osr.SpatialReference;
+import org.opengis.metadata.extent.Extent;
+import org.opengis.metadata.quality.PositionalAccuracy;
+import org.opengis.parameter.ParameterDescriptorGroup;
+import org.opengis.parameter.ParameterValueGroup;
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.operation.Formula;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.OperationMethod;
+import org.opengis.referencing.operation.Projection;
+import org.opengis.util.InternationalString;
+
+
+/**
+ * Wrapper around the map projection of a GDAL projected coordinate reference system.
+ * The projection is also its own operation method, identified by the GDAL {@code PROJECTION} name.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class MapProjection extends ReferencingObject implements Projection, OperationMethod {
+    /**
+     * The source and target coordinate reference systems.
+     */
+    private final GeographicCRS source;
+
+    /**
+     * The projected coordinate reference system which use this projection.
+     */
+    private final ProjectedCRS target;
+
+    /**
+     * Creates a new projection for the given GDAL reference system.
+     *
+     * @param  srs     the GDAL spatial reference system information.
+     * @param  source  the base CRS of the projected CRS.
+     * @param  target  the projected CRS.
+     */
+    MapProjection(final SpatialReference srs, final GeographicCRS source, final ProjectedCRS target) {
+        super(srs.GetAttrValue("PROJECTION"));
+        this.source = source;
+        this.target = target;
+    }
+
+    @Override public OperationMethod     getMethod()           {return this;}
+    @Override public GeographicCRS       getSourceCRS()        {return source;}
+    @Override public ProjectedCRS        getTargetCRS()        {return target;}
+    @Override public String              getOperationVersion() {return null;}
+    @Override public Extent              getDomainOfValidity() {return null;}
+    @Override public InternationalString getScope()            {return null;}
+    @Override public ParameterValueGroup getParameterValues()  {return null;}       // TODO
+    @Override public MathTransform       getMathTransform()    {return null;}       // TODO
+    @Override public Collection<PositionalAccuracy> getCoordinateOperationAccuracy() {return Collections.emptySet();}
+
+    /*
+     * Operation method properties.
+     */
+    @Override public Formula                  getFormula()          {return null;}
+    @Override public Integer                  getSourceDimensions() {return 2;}
+    @Override public Integer                  getTargetDimensions() {return 2;}
+    @Override public ParameterDescriptorGroup getParameters()       {return null;}  // TODO
+    @Override public String                   toWKT()               {return "PROJECTION[\"" + getCode() + "\"]";}
+}
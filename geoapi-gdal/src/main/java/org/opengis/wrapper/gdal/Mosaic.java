@@ -0,0 +1,267 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.opengis.coverage.grid.GridCoverage;
+
+
+/**
+ * A virtual raster made of many GDAL datasets aligned on the same grid. The footprints of all datasets
+ * are stored in a spatial index, which can be saved in a file for opening the mosaic again without
+ * opening all datasets. Datasets are opened only when a read operation intersects their footprint,
+ * and the least recently used datasets are closed when too many of them are opened.
+ *
+ * <p>All datasets shall have the same coordinate reference system, the same number of bands and the same
+ * pixel size, without rotation. The offsets between datasets shall be an integer number of pixels.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final class Mosaic implements Closeable {
+    /**
+     * Maximal number of datasets opened at the same time, ignoring the datasets in use.
+     */
+    private static final int MAX_OPEN_DATASETS = 64;
+
+    /**
+     * Delay in seconds after which an unused GDAL handle is closed.
+     */
+    private static final long IDLE_TIMEOUT = 60;
+
+    /**
+     * A dataset opened by this mosaic, together with the number of read operations using it.
+     */
+    private static final class Entry {
+        /** The opened dataset. */
+        final DataSet dataset;
+
+        /** Number of read operations using the dataset. */
+        int users;
+
+        /** Creates a new entry for a dataset used by one read operation. */
+        Entry(final DataSet dataset) {
+            this.dataset = dataset;
+            users = 1;
+        }
+    }
+
+    /**
+     * The spatial index of dataset footprints.
+     */
+    private final MosaicIndex index;
+
+    /**
+     * The pixel values of all datasets.
+     */
+    private final MosaicCoverage coverage;
+
+    /**
+     * The opened datasets, with the least recently used first.
+     * Keys are indices in the {@link MosaicIndex#files} array.
+     */
+    private final Map<Integer,Entry> opened;
+
+    /**
+     * Whether this mosaic has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a new mosaic for the given index.
+     */
+    private Mosaic(final MosaicIndex index) {
+        this.index = index;
+        coverage = new MosaicCoverage(this, index);
+        opened = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Creates a mosaic of the given files. All files are opened in parallel for fetching their footprints,
+     * then the spatial index is built and saved in the given index file if non-null.
+     * The mosaic can be opened again later by {@link #open(Path)} without opening all files.
+     *
+     * @param  files      the files of the datasets in the mosaic. In case of overlap, the first files have precedence.
+     * @param  indexFile  the file where to save the spatial index, or {@code null} for not saving it.
+     * @return the mosaic of the given files.
+     * @throws IOException if a file can not be opened, is not aligned on the grid of the first file,
+     *         or if the index file can not be written.
+     */
+    public static Mosaic create(final Collection<Path> files, final Path indexFile) throws IOException {
+        final MosaicIndex index = MosaicIndex.build(new ArrayList<>(files));
+        if (indexFile != null) {
+            index.save(indexFile);
+        }
+        return new Mosaic(index);
+    }
+
+    /**
+     * Opens a mosaic from an index file written by {@link #create(Collection, Path)}.
+     * The index is memory-mapped and no dataset is opened by this method.
+     *
+     * @param  indexFile  the file where the spatial index has been saved.
+     * @return the mosaic described by the given file.
+     * @throws IOException if the index file can not be read.
+     */
+    public static Mosaic open(final Path indexFile) throws IOException {
+        return new Mosaic(MosaicIndex.load(indexFile));
+    }
+
+    /**
+     * Returns the files of all datasets in this mosaic, in the order given at creation time.
+     *
+     * @return the files of all datasets.
+     */
+    public List<Path> getFiles() {
+        final List<Path> files = new ArrayList<>(index.files.length);
+        for (final String file : index.files) {
+            files.add(Paths.get(file));
+        }
+        return files;
+    }
+
+    /**
+     * Returns the pixel values of all datasets as a single grid coverage.
+     * The coverage is valid only as long as this mosaic is open.
+     *
+     * @return the pixel values of all datasets.
+     */
+    public GridCoverage getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * Returns the dataset at the given index, opening it if needed. Callers shall invoke
+     * {@link #release(int)} in a {@code finally} block after they finished to use the dataset.
+     *
+     * @param  i  index of the dataset in the {@link MosaicIndex#files} array.
+     * @return the dataset at the given index.
+     * @throws IOException if the dataset can not be opened or if this mosaic is closed.
+     */
+    final DataSet acquire(final int i) throws IOException {
+        synchronized (this) {
+            if (closed) {
+                throw new GDALException("Mosaic is closed.");
+            }
+            final Entry entry = opened.get(i);
+            if (entry != null) {
+                entry.users++;
+                return entry.dataset;
+            }
+        }
+        /*
+         * Open the dataset outside the synchronized block. If another thread opened
+         * the same dataset concurrently, keep the first one and close the other one.
+         */
+        DataSet created = new DataSet(Paths.get(index.files[i]),
+                Runtime.getRuntime().availableProcessors(), IDLE_TIMEOUT, TimeUnit.SECONDS);
+        final DataSet dataset;
+        final List<DataSet> evicted;
+        synchronized (this) {
+            if (closed) {
+                created.close();
+                throw new GDALException("Mosaic is closed.");
+            }
+            final Entry entry = opened.get(i);
+            if (entry != null) {
+                entry.users++;
+                dataset = entry.dataset;
+            } else {
+                opened.put(i, new Entry(created));
+                dataset = created;
+                created = null;
+            }
+            evicted = evict();
+        }
+        if (created != null) {
+            created.close();
+        }
+        evicted.forEach(DataSet::close);
+        return dataset;
+    }
+
+    /**
+     * Declares that the caller does not use anymore the dataset obtained by {@link #acquire(int)}.
+     *
+     * @param  i  index of the dataset given to {@link #acquire(int)}.
+     */
+    final void release(final int i) {
+        final List<DataSet> evicted;
+        synchronized (this) {
+            final Entry entry = opened.get(i);
+            if (--entry.users == 0 && closed) {
+                opened.remove(i);
+                evicted = new ArrayList<>(1);
+                evicted.add(entry.dataset);
+            } else {
+                evicted = evict();
+            }
+        }
+        evicted.forEach(DataSet::close);
+    }
+
+    /**
+     * Removes from the map the least recently used datasets if there is too many opened datasets.
+     * Datasets in use are not removed. Caller must hold the lock and shall close the returned
+     * datasets after releasing the lock.
+     */
+    private List<DataSet> evict() {
+        final List<DataSet> evicted = new ArrayList<>();
+        int excess = opened.size() - MAX_OPEN_DATASETS;
+        final Iterator<Entry> it = opened.values().iterator();
+        while (excess > 0 && it.hasNext()) {
+            final Entry entry = it.next();
+            if (entry.users == 0) {
+                it.remove();
+                evicted.add(entry.dataset);
+                excess--;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Closes all datasets opened by this mosaic. Datasets in use by read operations
+     * are closed when those operations complete.
+     * If this method is invoked more than once, invocations after the first call have no effect.
+     */
+    @Override
+    public void close() {
+        final List<DataSet> unused = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            index.close();
+            final Iterator<Entry> it = opened.values().iterator();
+            while (it.hasNext()) {
+                final Entry entry = it.next();
+                if (entry.users == 0) {
+                    it.remove();
+                    unused.add(entry.dataset);
+                }
+            }
+        }
+        unused.forEach(DataSet::close);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.io.IOException;
+
+
+/**
+ * Pixel values of all datasets in a mosaic, viewed as a single grid coverage. A read operation searches
+ * the {@link MosaicIndex} for the datasets intersecting the requested region, then reads only those
+ * datasets through their {@link RasterCoverage}, thus benefiting from the pool of GDAL handles and
+ * from the block cache. Pixels not covered by any dataset are set to NaN for floating point arrays,
+ * or to 0 for integer arrays. If datasets overlap, the first dataset in the list of files has precedence.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class MosaicCoverage extends AbstractCoverage {
+    /**
+     * The mosaic which opens the datasets.
+     */
+    private final Mosaic mosaic;
+
+    /**
+     * The spatial index of dataset footprints.
+     */
+    private final MosaicIndex index;
+
+    /**
+     * Creates a new coverage for the given mosaic.
+     */
+    MosaicCoverage(final Mosaic mosaic, final MosaicIndex index) {
+        super(index.width, index.height, index.gridToCRS, CRS.create(index.wkt));
+        this.mosaic = mosaic;
+        this.index  = index;
+    }
+
+    /**
+     * Copies the values of all bands in the given region to the given destination array.
+     * Only the datasets intersecting the given region are opened.
+     */
+    @Override
+    void read(final int xmin, final int ymin, final int xmax, final int ymax,
+              final Object destination, final int offset, final int scanline) throws IOException
+    {
+        final int numBands = index.numBands;
+        final int rowLength = (xmax - xmin) * numBands;
+        final double fill = (destination instanceof double[] || destination instanceof float[]) ? Double.NaN : 0;
+        for (int y=ymin; y<ymax; y++) {
+            final int start = offset + (y - ymin) * scanline;
+            for (int i=0; i<rowLength; i++) {
+                store(destination, start + i, fill);
+            }
+        }
+        /*
+         * Records are sorted by dataset index. Iterate in reverse order
+         * for letting the first datasets overwrite the last ones.
+         */
+        final int[] records = index.search(xmin, ymin, xmax, ymax);
+        for (int i = records.length; --i >= 0;) {
+            final int record = records[i];
+            final int dx = index.field(record, MosaicIndex.XMIN);
+            final int dy = index.field(record, MosaicIndex.YMIN);
+            final int x0 = Math.max(xmin, dx);
+            final int y0 = Math.max(ymin, dy);
+            final int x1 = Math.min(xmax, index.field(record, MosaicIndex.XMAX));
+            final int y1 = Math.min(ymax, index.field(record, MosaicIndex.YMAX));
+            final int dataset = index.field(record, MosaicIndex.DATASET);
+            final DataSet ds = mosaic.acquire(dataset);
+            try {
+                final AbstractCoverage coverage = (AbstractCoverage) ds.getCoverage();
+                coverage.read(x0 - dx, y0 - dy, x1 - dx, y1 - dy, destination,
+                              offset + (y0 - ymin) * scanline + (x0 - xmin) * numBands, scanline);
+            } finally {
+                mosaic.release(dataset);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given pixel is covered by at least one dataset.
+     */
+    @Override
+    boolean contains(final int x, final int y) {
+        return index.search(x, y, x+1, y+1).length != 0;
+    }
+
+    /**
+     * Returns the number of bands, which is the same in all datasets.
+     */
+    @Override
+    public int getNumSampleDimensions() {
+        return index.numBands;
+    }
+}
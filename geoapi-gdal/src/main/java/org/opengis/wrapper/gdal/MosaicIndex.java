@@ -0,0 +1,517 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.awt.geom.AffineTransform;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.gdal.gdal.Dataset;
+import org.gdal.gdal.gdal;
+
+
+/**
+ * Spatial index of the footprints of the datasets in a mosaic. Footprints are stored in pixel coordinates
+ * of the mosaic grid, in a R-tree packed with the <cite>Sort-Tile-Recursive</cite> (STR) algorithm.
+ * The tree is stored in a flat {@link IntBuffer} of records, each record having the following fields:
+ *
+ * <ol>
+ *   <li>{@code xmin}, {@code ymin}: minimal pixel coordinates, inclusive.</li>
+ *   <li>{@code xmax}, {@code ymax}: maximal pixel coordinates, exclusive.</li>
+ *   <li>{@code first}: index of the first child record, or index of the dataset if {@code count} is 0.</li>
+ *   <li>{@code count}: number of children, or 0 if the record is a leaf (a dataset footprint).</li>
+ * </ol>
+ *
+ * Children of a node are consecutive records, and the root is the last record. This layout allows to
+ * write the index in a file and to search it directly in a memory-mapped buffer, without deserialization.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/R-tree">R-tree on Wikipedia</a>
+ */
+final class MosaicIndex {
+    /**
+     * Number of integer values in a record.
+     */
+    private static final int RECORD_LENGTH = 6;
+
+    /**
+     * Index of fields in a record, for use with {@link #field(int, int)}.
+     */
+    static final int XMIN = 0, YMIN = 1, XMAX = 2, YMAX = 3, DATASET = 4;
+
+    /**
+     * Maximal number of children in a node.
+     */
+    private static final int NODE_CAPACITY = 16;
+
+    /**
+     * Number identifying the file format, followed by its version.
+     */
+    private static final int MAGIC = 0x4D4F5341, VERSION = 1;
+
+    /**
+     * Relative tolerance when comparing pixel sizes and alignments, as a fraction of pixel size.
+     */
+    private static final double TOLERANCE = 0.01;
+
+    /**
+     * The files of all datasets in the mosaic. The index of a file in this array
+     * is the dataset index stored in the leaf records.
+     */
+    final String[] files;
+
+    /**
+     * Size of the mosaic grid in pixels, and number of bands in each dataset.
+     */
+    final int width, height, numBands;
+
+    /**
+     * Conversion from pixel coordinates of the mosaic to "real world" coordinates.
+     */
+    final AffineTransform gridToCRS;
+
+    /**
+     * The Well Known Text of the coordinate reference system, or {@code null} if none.
+     */
+    final String wkt;
+
+    /**
+     * The R-tree records, either in heap or in a memory-mapped file,
+     * or {@code null} after this index has been {@linkplain #close() closed}.
+     */
+    private volatile IntBuffer tree;
+
+    /**
+     * Creates an index with the given content.
+     */
+    private MosaicIndex(final String[] files, final int width, final int height, final int numBands,
+                        final AffineTransform gridToCRS, final String wkt, final IntBuffer tree)
+    {
+        this.files     = files;
+        this.width     = width;
+        this.height    = height;
+        this.numBands  = numBands;
+        this.gridToCRS = gridToCRS;
+        this.wkt       = wkt;
+        this.tree      = tree;
+    }
+
+    /**
+     * Information about a dataset, fetched when building the index.
+     */
+    private static final class Footprint {
+        /** The GeoTransform coefficients as given by GDAL. */
+        final double[] gt;
+
+        /** Size of the raster and number of bands. */
+        final int width, height, numBands;
+
+        /** The Well Known Text of the coordinate reference system. */
+        final String wkt;
+
+        /** Fetches information about the given file. */
+        Footprint(final String file) throws GDALException {
+            final Dataset ds = gdal.Open(file);
+            if (ds == null) {
+                throw new GDALException("Can not open \"" + file + "\".");
+            }
+            try {
+                gt       = ds.GetGeoTransform();
+                width    = ds.getRasterXSize();
+                height   = ds.getRasterYSize();
+                numBands = ds.getRasterCount();
+                wkt      = ds.GetProjection();
+            } finally {
+                ds.delete();
+            }
+        }
+    }
+
+    /**
+     * Builds the index for the given files. Files are opened in parallel for fetching their footprints.
+     * All datasets shall have the same CRS, number of bands and pixel size, and shall be aligned on the
+     * same grid (i.e. the offsets between datasets shall be an integer number of pixels).
+     *
+     * @param  files  the files of the datasets in the mosaic.
+     * @return the index of the given files.
+     * @throws IOException if a file can not be opened or is not compatible with the first file.
+     */
+    static MosaicIndex build(final List<Path> files) throws IOException {
+        final String[] names = new String[files.size()];
+        for (int i=0; i<names.length; i++) {
+            names[i] = files.get(i).toString();
+        }
+        if (names.length == 0) {
+            throw new IllegalArgumentException("A mosaic needs at least one file.");
+        }
+        final Footprint[] footprints;
+        try {
+            footprints = Arrays.stream(names).parallel().map((file) -> {
+                try {
+                    return new Footprint(file);
+                } catch (GDALException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).toArray(Footprint[]::new);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        /*
+         * Use the first dataset as the reference for the grid. Compute the position of all other
+         * datasets in units of reference pixels, and verify that they are aligned on the same grid.
+         */
+        final Footprint ref = footprints[0];
+        final double sx = ref.gt[1], sy = ref.gt[5];
+        final CRS crs = CRS.create(ref.wkt);
+        final long[] origins = new long[names.length * 2];
+        long xmin = Long.MAX_VALUE, ymin = Long.MAX_VALUE, xmax = Long.MIN_VALUE, ymax = Long.MIN_VALUE;
+        for (int i=0; i<footprints.length; i++) {
+            final Footprint fp = footprints[i];
+            final double px = (fp.gt[0] - ref.gt[0]) / sx;
+            final double py = (fp.gt[3] - ref.gt[3]) / sy;
+            final long ox = Math.round(px);
+            final long oy = Math.round(py);
+            if (fp.gt[2] != 0 || fp.gt[4] != 0 || Math.abs(fp.gt[1] / sx - 1) > TOLERANCE
+                    || Math.abs(fp.gt[5] / sy - 1) > TOLERANCE || Math.abs(px - ox) > TOLERANCE
+                    || Math.abs(py - oy) > TOLERANCE)
+            {
+                throw new GDALException("File \"" + names[i] + "\" is not aligned on the mosaic grid.");
+            }
+            if (fp.numBands != ref.numBands || !(Objects.equals(fp.wkt, ref.wkt) || sameCRS(fp.wkt, ref.wkt))) {
+                throw new GDALException("File \"" + names[i] + "\" does not have the same CRS or bands than \"" + names[0] + "\".");
+            }
+            origins[i*2    ] = ox;
+            origins[i*2 + 1] = oy;
+            xmin = Math.min(xmin, ox);
+            ymin = Math.min(ymin, oy);
+            xmax = Math.max(xmax, ox + fp.width);
+            ymax = Math.max(ymax, oy + fp.height);
+        }
+        if (xmax - xmin > Integer.MAX_VALUE || ymax - ymin > Integer.MAX_VALUE) {
+            throw new GDALException("Mosaic is too large.");
+        }
+        final int[] bounds = new int[footprints.length * 4];
+        for (int i=0; i<footprints.length; i++) {
+            final int x = (int) (origins[i*2    ] - xmin);
+            final int y = (int) (origins[i*2 + 1] - ymin);
+            bounds[i*4    ] = x;
+            bounds[i*4 + 1] = y;
+            bounds[i*4 + 2] = x + footprints[i].width;
+            bounds[i*4 + 3] = y + footprints[i].height;
+        }
+        final AffineTransform gridToCRS = new AffineTransform(sx, 0, 0, sy, ref.gt[0] + xmin*sx, ref.gt[3] + ymin*sy);
+        return create(names, bounds, ref.numBands, gridToCRS, (crs != null) ? ref.wkt : null);
+    }
+
+    /**
+     * Returns whether the given WKT strings describe the same coordinate reference system after normalization
+     * by GDAL. A missing CRS is considered different than any CRS, including an unsupported one.
+     */
+    private static boolean sameCRS(final String wkt1, final String wkt2) {
+        final String n1 = CRS.normalize(wkt1);
+        return (n1 != null) && n1.equals(CRS.normalize(wkt2));
+    }
+
+    /**
+     * Creates an index for datasets having the given footprints in pixel coordinates of the mosaic.
+     * The {@code bounds} array contains ({@code xmin}, {@code ymin}, {@code xmax}, {@code ymax})
+     * tuples for each file, with maximal values exclusive.
+     *
+     * @param  files      the files of the datasets in the mosaic.
+     * @param  bounds     footprints of all datasets in pixel coordinates of the mosaic.
+     * @param  numBands   number of bands in each dataset.
+     * @param  gridToCRS  conversion from pixel coordinates of the mosaic to "real world" coordinates.
+     * @param  wkt        the Well Known Text of the coordinate reference system, or {@code null} if none.
+     * @return the index of the given footprints.
+     */
+    static MosaicIndex create(final String[] files, final int[] bounds, final int numBands,
+                              final AffineTransform gridToCRS, final String wkt)
+    {
+        int width = 0, height = 0;
+        final int[] records = new int[recordCount(files.length) * RECORD_LENGTH];
+        for (int i=0; i<files.length; i++) {
+            final int r = i * RECORD_LENGTH;
+            System.arraycopy(bounds, i*4, records, r, 4);
+            records[r + DATASET] = i;
+            width  = Math.max(width,  records[r + XMAX]);
+            height = Math.max(height, records[r + YMAX]);
+        }
+        pack(records, files.length);
+        return new MosaicIndex(files, width, height, numBands, gridToCRS, wkt, IntBuffer.wrap(records));
+    }
+
+    /**
+     * Returns the total number of records in a tree of {@code n} leaves.
+     */
+    private static int recordCount(int n) {
+        int total = n;
+        while (n > 1) {
+            n = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Builds the R-tree with the STR algorithm. On input, the {@code n} first records are the leaves
+     * in arbitrary order. On output, leaves are sorted in STR order and the nodes are appended after them.
+     */
+    private static void pack(final int[] records, int n) {
+        int start = 0;
+        sort(records, start, n);
+        while (n > 1) {
+            final int parents = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+            final int target  = start + n;
+            for (int p=0; p<parents; p++) {
+                final int first = start + p * NODE_CAPACITY;
+                final int count = Math.min(NODE_CAPACITY, start + n - first);
+                int xmin = Integer.MAX_VALUE, ymin = Integer.MAX_VALUE, xmax = Integer.MIN_VALUE, ymax = Integer.MIN_VALUE;
+                for (int c = first; c < first + count; c++) {
+                    final int r = c * RECORD_LENGTH;
+                    xmin = Math.min(xmin, records[r    ]);
+                    ymin = Math.min(ymin, records[r + 1]);
+                    xmax = Math.max(xmax, records[r + 2]);
+                    ymax = Math.max(ymax, records[r + 3]);
+                }
+                final int r = (target + p) * RECORD_LENGTH;
+                records[r    ] = xmin;
+                records[r + 1] = ymin;
+                records[r + 2] = xmax;
+                records[r + 3] = ymax;
+                records[r + 4] = first;
+                records[r + 5] = count;
+            }
+            start = target;
+            n = parents;
+            sort(records, start, n);
+        }
+    }
+
+    /**
+     * Sorts the given records in STR order: by <var>x</var> center, then in vertical slices by <var>y</var> center.
+     * The slice size is a multiple of {@link #NODE_CAPACITY}, so consecutive groups of that size are nodes.
+     * Records are sorted with keys made of the center in the 32 high bits and the record index in the 32 low bits.
+     */
+    private static void sort(final int[] records, final int start, final int n) {
+        final long[] keys = new long[n];
+        for (int i=0; i<n; i++) {
+            final int r = (start + i) * RECORD_LENGTH;
+            keys[i] = sortKey(records[r], records[r + 2], i);
+        }
+        Arrays.sort(keys);
+        final int numNodes  = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+        final int numSlices = (int) Math.ceil(Math.sqrt(numNodes));
+        final int sliceSize = ((numNodes + numSlices - 1) / numSlices) * NODE_CAPACITY;
+        for (int s=0; s<n; s += sliceSize) {
+            final int e = Math.min(n, s + sliceSize);
+            for (int i=s; i<e; i++) {
+                final int index = (int) (keys[i] & Integer.MAX_VALUE);
+                final int r = (start + index) * RECORD_LENGTH;
+                keys[i] = sortKey(records[r + 1], records[r + 3], index);
+            }
+            Arrays.sort(keys, s, e);
+        }
+        final int[] sorted = new int[n * RECORD_LENGTH];
+        for (int i=0; i<n; i++) {
+            final int index = (int) (keys[i] & Integer.MAX_VALUE);
+            System.arraycopy(records, (start + index) * RECORD_LENGTH, sorted, i * RECORD_LENGTH, RECORD_LENGTH);
+        }
+        System.arraycopy(sorted, 0, records, start * RECORD_LENGTH, sorted.length);
+    }
+
+    /**
+     * Returns the key for sorting a record by the center of the given range. The center is computed with
+     * {@code long} arithmetic, so it can not overflow and fits in the 32 high bits with its sign. The record
+     * index is non-negative and stored in the 32 low bits, so keys are ordered by center, then by index.
+     */
+    private static long sortKey(final int min, final int max, final int index) {
+        final long center = ((long) min + max) >> 1;
+        return (center << Integer.SIZE) | index;
+    }
+
+    /**
+     * Returns the records of the datasets intersecting the given region, sorted by dataset index.
+     * The region is in pixel coordinates of the mosaic, with exclusive maximal values.
+     *
+     * @return indices of the leaf records intersecting the given region. May be an empty array.
+     */
+    final int[] search(final int xmin, final int ymin, final int xmax, final int ymax) {
+        final IntBuffer tree = tree();
+        final int numRecords = tree.limit() / RECORD_LENGTH;
+        if (numRecords == 0) {
+            return new int[0];
+        }
+        long[] found = new long[8];
+        int numFound = 0;
+        int[] stack = new int[32];
+        int depth = 0;
+        stack[depth++] = numRecords - 1;                    // The root.
+        while (depth != 0) {
+            final int record = stack[--depth];
+            final int r = record * RECORD_LENGTH;
+            if (tree.get(r) >= xmax || tree.get(r + 1) >= ymax || tree.get(r + 2) <= xmin || tree.get(r + 3) <= ymin) {
+                continue;
+            }
+            final int first = tree.get(r + 4);
+            final int count = tree.get(r + 5);
+            if (count == 0) {
+                if (numFound == found.length) {
+                    found = Arrays.copyOf(found, numFound * 2);
+                }
+                found[numFound++] = ((long) first << 32) | record;
+            } else {
+                if (depth + count > stack.length) {
+                    stack = Arrays.copyOf(stack, Math.max(stack.length * 2, depth + count));
+                }
+                for (int c=0; c<count; c++) {
+                    stack[depth++] = first + c;
+                }
+            }
+        }
+        Arrays.sort(found, 0, numFound);
+        final int[] records = new int[numFound];
+        for (int i=0; i<numFound; i++) {
+            records[i] = (int) found[i];
+        }
+        return records;
+    }
+
+    /**
+     * Returns the given field of the given record. The field shall be one of {@link #XMIN}, {@link #YMIN},
+     * {@link #XMAX}, {@link #YMAX} or {@link #DATASET} (the latter is valid only for leaf records).
+     */
+    final int field(final int record, final int field) {
+        return tree().get(record * RECORD_LENGTH + field);
+    }
+
+    /**
+     * Returns the R-tree records.
+     *
+     * @throws IllegalStateException if this index has been closed.
+     */
+    private IntBuffer tree() {
+        final IntBuffer tree = this.tree;
+        if (tree == null) {
+            throw new IllegalStateException("Mosaic is closed.");
+        }
+        return tree;
+    }
+
+    /**
+     * Releases the reference to the R-tree records. If the index has been loaded from a file,
+     * this allows the garbage collector to release the memory-mapped buffer. Java does not
+     * provide a way to unmap a file explicitly. Searches are not allowed after this method call.
+     */
+    final void close() {
+        tree = null;
+    }
+
+    /**
+     * Writes this index in the given file.
+     *
+     * @param  file  the file where to write the index.
+     * @throws IOException if an error occurred while writing the file.
+     */
+    final void save(final Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(numBands);
+            final double[] matrix = new double[6];
+            gridToCRS.getMatrix(matrix);
+            for (final double m : matrix) {
+                out.writeDouble(m);
+            }
+            writeString(out, wkt != null ? wkt : "");
+            out.writeInt(files.length);
+            for (final String f : files) {
+                writeString(out, f);
+            }
+            final IntBuffer tree = tree();
+            final int n = tree.limit();
+            out.writeInt(n);
+            for (int i=0; i<n; i++) {
+                out.writeInt(tree.get(i));
+            }
+        }
+    }
+
+    /**
+     * Writes the given string in UTF-8, prefixed by its length in bytes.
+     */
+    private static void writeString(final DataOutputStream out, final String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads the string written by {@link #writeString(DataOutputStream, String)}.
+     */
+    private static String readString(final ByteBuffer in) {
+        final byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens an index previously written by {@link #save(Path)}. The file is memory-mapped,
+     * and the tree is searched directly in the mapped buffer.
+     *
+     * @param  file  the file where the index has been saved.
+     * @return the index in the given file.
+     * @throws IOException if an error occurred while reading the file, or if the file is not a mosaic index.
+     */
+    static MosaicIndex load(final Path file) throws IOException {
+        final ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new GDALException("File \"" + file + "\" is not a mosaic index.");
+        }
+        final int width    = in.getInt();
+        final int height   = in.getInt();
+        final int numBands = in.getInt();
+        final double[] matrix = new double[6];
+        for (int i=0; i<matrix.length; i++) {
+            matrix[i] = in.getDouble();
+        }
+        final String wkt = readString(in);
+        final String[] files = new String[in.getInt()];
+        for (int i=0; i<files.length; i++) {
+            files[i] = readString(in);
+        }
+        final int n = in.getInt();
+        final IntBuffer tree = in.slice().asIntBuffer();
+        tree.limit(n);
+        return new MosaicIndex(files, width, height, numBands, new AffineTransform(matrix), wkt.isEmpty() ? null : wkt, tree);
+    }
+}
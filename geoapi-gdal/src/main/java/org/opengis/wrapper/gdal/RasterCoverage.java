@@ -0,0 +1,448 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.awt.geom.AffineTransform;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+import org.gdal.gdal.Band;
+import org.gdal.gdal.Dataset;
+import org.gdal.gdal.gdal;
+import org.gdal.gdalconst.gdalconst;
+import org.opengis.coverage.grid.GridCoverage;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+
+
+/**
+ * Pixel values of a GDAL raster, viewed as a two-dimensional grid coverage. Values are read by blocks
+ * having the size reported by {@link #getOptimalDataBlockSizes()}, which is the natural block size of
+ * the file format (for example the tile size of a tiled GeoTIFF). Blocks are read by GDAL directly in
+ * direct buffers, then cached in the {@link BlockCache} shared by all datasets. Consequently a request
+ * for a small window in a large raster reads only the blocks intersecting that window.
+ *
+ * <p>GDAL overviews are available as coverages of coarser resolution sharing the same CRS.
+ * The {@link #forResolution(double[])} method selects the coarsest overview suitable for a desired resolution.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ *
+ * @see <a href="http://gdal.org/java/org/gdal/gdal/Band.html">Java API for GDAL Band</a>
+ */
+class RasterCoverage extends AbstractCoverage {
+    /**
+     * Relative tolerance when comparing resolutions. Overview sizes are rounded to an integer number of pixels,
+     * so their resolutions are often slightly coarser than the exact sub-sampling factor (e.g. 2.0004 instead of 2).
+     */
+    private static final double RESOLUTION_TOLERANCE = 0.01;
+
+    /**
+     * The dataset which own the bands. Also used as a lock for all GDAL read operations if the dataset
+     * is not in pooled mode, since a GDAL dataset handle can not be used concurrently by many threads.
+     */
+    final DataSet owner;
+
+    /**
+     * The GDAL bands in this coverage. Those objects are owned by the dataset
+     * and become invalid after the dataset has been closed.
+     */
+    private final Band[] bands;
+
+    /**
+     * The overview level, or -1 if this coverage is the full resolution raster.
+     * Used for fetching the bands of handles borrowed from the {@linkplain DataSet#pool pool}.
+     */
+    private final int level;
+
+    /**
+     * The GDAL data type of each band, as one of the {@code gdalconst.GDT_*} constants.
+     */
+    private final int[] dataTypes;
+
+    /**
+     * Number of bytes in a sample value of each band.
+     */
+    private final int[] sampleSizes;
+
+    /**
+     * Natural size of the blocks in which the raster is stored, as reported by the first band.
+     */
+    private final int blockWidth, blockHeight;
+
+    /**
+     * The overviews, from finest to coarsest resolution, or {@code null} if not yet fetched.
+     * This is an empty array if this coverage is itself an overview.
+     */
+    private RasterCoverage[] overviews;
+
+    /**
+     * A request which is not in use, or {@code null} if none. Reads take the request from this slot
+     * and put it back when done, so sequential reads do not allocate objects. Concurrent reads allocate
+     * a new request only if the slot is empty, and only one of them will be kept after completion.
+     */
+    private final AtomicReference<Request> idleRequest = new AtomicReference<>();
+
+    /**
+     * Creates a coverage for all bands in the given dataset.
+     */
+    RasterCoverage(final DataSet owner, final Dataset ds) throws IOException {
+        this(owner, bands(ds), -1, ds.getRasterXSize(), ds.getRasterYSize(), gridToCRS(ds), CRS.create(ds.GetProjection()));
+    }
+
+    /**
+     * Creates a coverage for the overview at the given level of the given coverage.
+     * The overview has the same CRS than the full resolution coverage, but a coarser grid.
+     */
+    private RasterCoverage(final RasterCoverage base, final int level) throws IOException {
+        this(base, overviews(base.bands, level), level);
+        overviews = new RasterCoverage[0];
+    }
+
+    /**
+     * Creates a coverage for the given overview bands. The conversion from pixel coordinates is scaled
+     * for a pixel of the overview to cover many pixels of the full resolution raster.
+     */
+    private RasterCoverage(final RasterCoverage base, final Band[] bands, final int level) throws IOException {
+        this(base.owner, bands, level, bands[0].getXSize(), bands[0].getYSize(),
+             scale(base.gridToCRS, base.width  / (double) bands[0].getXSize(),
+                                   base.height / (double) bands[0].getYSize()), base.crs);
+    }
+
+    /**
+     * Creates a coverage for the given bands.
+     *
+     * @param  owner      the dataset which own the bands.
+     * @param  bands      the bands at full resolution or the overviews of those bands.
+     * @param  level      the overview level, or -1 for the full resolution.
+     * @param  width      number of pixels along the <var>x</var> axis.
+     * @param  height     number of pixels along the <var>y</var> axis.
+     * @param  gridToCRS  conversion from pixel coordinates to "real world" coordinates.
+     * @param  crs        the coordinate reference system, or {@code null} if unknown.
+     */
+    private RasterCoverage(final DataSet owner, final Band[] bands, final int level, final int width, final int height,
+            final AffineTransform gridToCRS, final CoordinateReferenceSystem crs) throws GDALException
+    {
+        super(width, height, gridToCRS, crs);
+        this.owner  = owner;
+        this.bands  = bands;
+        this.level  = level;
+        dataTypes   = new int[bands.length];
+        sampleSizes = new int[bands.length];
+        for (int i=0; i<bands.length; i++) {
+            final int type = bands[i].getDataType();
+            if (type != gdalconst.GDT_Byte    && type != gdalconst.GDT_UInt16  &&
+                type != gdalconst.GDT_Int16   && type != gdalconst.GDT_UInt32  &&
+                type != gdalconst.GDT_Int32   && type != gdalconst.GDT_Float32 &&
+                type != gdalconst.GDT_Float64)
+            {
+                throw new GDALException("Unsupported data type: " + gdal.GetDataTypeName(type));
+            }
+            dataTypes  [i] = type;
+            sampleSizes[i] = gdal.GetDataTypeSize(type) / Byte.SIZE;
+        }
+        if (bands.length != 0) {
+            blockWidth  = bands[0].GetBlockXSize();
+            blockHeight = bands[0].GetBlockYSize();
+        } else {
+            blockWidth  = width;
+            blockHeight = height;
+        }
+    }
+
+    /**
+     * Returns a copy of the given transform with pixels scaled by the given factors.
+     */
+    private static AffineTransform scale(final AffineTransform gridToCRS, final double sx, final double sy) {
+        final AffineTransform tr = new AffineTransform(gridToCRS);
+        tr.scale(sx, sy);
+        return tr;
+    }
+
+    /**
+     * Returns all bands of the given dataset.
+     */
+    private static Band[] bands(final Dataset ds) {
+        final Band[] bands = new Band[ds.getRasterCount()];
+        for (int i=0; i<bands.length; i++) {
+            bands[i] = ds.GetRasterBand(i + 1);
+        }
+        return bands;
+    }
+
+    /**
+     * Returns the overviews at the given level of all given bands.
+     */
+    private static Band[] overviews(final Band[] bands, final int level) throws GDALException {
+        final Band[] overviews = new Band[bands.length];
+        for (int i=0; i<bands.length; i++) {
+            final Band overview = bands[i].GetOverview(level);
+            if (overview == null) {
+                throw new GDALException("No overview at level " + level + " for band " + (i+1) + '.');
+            }
+            overviews[i] = overview;
+        }
+        return overviews;
+    }
+
+    /**
+     * Returns the conversion from pixel coordinates to "real world" coordinates for the given dataset.
+     */
+    private static AffineTransform gridToCRS(final Dataset ds) {
+        final double[] gt = ds.GetGeoTransform();
+        return new AffineTransform(gt[1], gt[4], gt[2], gt[5], gt[0], gt[3]);
+    }
+
+    /**
+     * Returns the overviews, from finest to coarsest resolution. GDAL bands may have different number of
+     * overviews; this method retains only the levels available in all bands. Overviews are assumed ordered
+     * from finest to coarsest resolution, as produced by {@code gdaladdo}.
+     */
+    private RasterCoverage[] overviews() {
+        synchronized (owner) {
+            if (overviews == null) try {
+                owner.dataset();                            // Check that the dataset is not closed.
+                int n = Integer.MAX_VALUE;
+                for (final Band band : bands) {
+                    n = Math.min(n, band.GetOverviewCount());
+                }
+                final RasterCoverage[] levels = new RasterCoverage[bands.length != 0 ? n : 0];
+                for (int i=0; i<levels.length; i++) {
+                    levels[i] = new RasterCoverage(this, i);
+                }
+                overviews = levels;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return overviews;
+        }
+    }
+
+    /**
+     * Returns the size of pixels along the given dimension, in units of the CRS.
+     */
+    private double resolution(final int dimension) {
+        return (dimension == 0) ? Math.hypot(gridToCRS.getScaleX(), gridToCRS.getShearY())
+                                : Math.hypot(gridToCRS.getShearX(), gridToCRS.getScaleY());
+    }
+
+    /**
+     * Returns the coarsest coverage having a resolution equal or finer than the given one.
+     * If no overview is fine enough, then this method returns the full resolution coverage.
+     *
+     * @param  resolution  the desired pixel size in units of the CRS, for the <var>x</var> and <var>y</var> axes.
+     * @return the coarsest adequate coverage, which may be {@code this}.
+     */
+    final RasterCoverage forResolution(final double[] resolution) {
+        if (resolution.length != 2) {
+            throw new IllegalArgumentException("Expected a resolution for two dimensions.");
+        }
+        final double tx = resolution[0] * (1 + RESOLUTION_TOLERANCE);
+        final double ty = resolution[1] * (1 + RESOLUTION_TOLERANCE);
+        RasterCoverage selected = this;
+        for (final RasterCoverage overview : overviews()) {
+            if (overview.resolution(0) <= tx && overview.resolution(1) <= ty) {
+                if (overview.width < selected.width || overview.height < selected.height) {
+                    selected = overview;
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * A request for values in a rectangular region of the raster. This object loads blocks from GDAL
+     * when they are not in the cache, then copies values from the blocks to the destination array.
+     * The same instance is reused for all blocks of a request and for the next requests (see
+     * {@link RasterCoverage#idleRequest}), so reading blocks already in the cache does not allocate any object.
+     * An instance shall be used by only one thread at a time.
+     */
+    private final class Request implements BlockCache.Loader, BlockCache.Copier {
+        /** The requested region in pixel coordinates. Upper values are exclusive. */
+        private int xmin, ymin, xmax, ymax;
+
+        /** The array where to store the values, or {@code null} if this request is not in use. */
+        private Object destination;
+
+        /** Index of the first value to store, and number of array elements between two rows. */
+        private int offset, scanline;
+
+        /** Identification of the current block, reused for cache lookups. */
+        private final BlockCache.Key key;
+
+        /** Region of the current block in pixel coordinates, clipped to the raster bounds. */
+        private int bx, by, bw, bh;
+
+        /** Index of the band in process. */
+        private int band;
+
+        /**
+         * Creates a request to be initialized by {@link #run run(…)}.
+         */
+        Request() {
+            key = new BlockCache.Key();
+        }
+
+        /**
+         * Reads all blocks intersecting the given region and copies their values to the destination.
+         * The destination array shall be of a primitive type. This request does not retain a reference
+         * to the destination array after this method returned.
+         */
+        final void run(final int xmin, final int ymin, final int xmax, final int ymax,
+                       final Object destination, final int offset, final int scanline) throws IOException
+        {
+            this.xmin        = xmin;
+            this.ymin        = ymin;
+            this.xmax        = xmax;
+            this.ymax        = ymax;
+            this.destination = destination;
+            this.offset      = offset;
+            this.scanline    = scanline;
+            try {
+                run();
+            } finally {
+                this.destination = null;
+                key.owner = null;
+            }
+        }
+
+        /**
+         * Reads all blocks intersecting the requested region and copies their values to the destination.
+         */
+        private void run() throws IOException {
+            final BlockCache cache = BlockCache.INSTANCE;
+            final int txmax = (xmax - 1) / blockWidth;
+            final int tymax = (ymax - 1) / blockHeight;
+            for (int ty = ymin / blockHeight; ty <= tymax; ty++) {
+                by = ty * blockHeight;
+                bh = Math.min(blockHeight, height - by);
+                for (int tx = xmin / blockWidth; tx <= txmax; tx++) {
+                    bx = tx * blockWidth;
+                    bw = Math.min(blockWidth, width - bx);
+                    for (band = 0; band < bands.length; band++) {
+                        key.set(RasterCoverage.this, band, tx, ty);
+                        cache.read(key, blockWidth * blockHeight * sampleSizes[band], this, this);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reads the current block from GDAL. The buffer rows have a length of {@link #bw} pixels.
+         * If the dataset is in pooled mode, the block is read with a GDAL handle borrowed for the
+         * duration of this method call. Otherwise all reads are serialized on the dataset handle.
+         */
+        @Override
+        public void load(final ByteBuffer block) throws IOException {
+            final int err;
+            final HandlePool<Dataset> pool = owner.pool;
+            if (pool != null) {
+                final Dataset handle = pool.acquire();
+                try {
+                    Band b = handle.GetRasterBand(band + 1);
+                    if (level >= 0) {
+                        b = b.GetOverview(level);
+                    }
+                    err = b.ReadRaster_Direct(bx, by, bw, bh, bw, bh, dataTypes[band], block);
+                } finally {
+                    pool.release(handle);
+                }
+            } else synchronized (owner) {
+                owner.dataset();                        // Check that the dataset is not closed.
+                err = bands[band].ReadRaster_Direct(bx, by, bw, bh, bw, bh, dataTypes[band], block);
+            }
+            if (err != gdalconst.CE_None) {
+                throw new GDALException(gdal.GetLastErrorMsg());
+            }
+        }
+
+        /**
+         * Copies the values of the current block which are inside the requested region.
+         */
+        @Override
+        public void copy(final ByteBuffer block) {
+            final int numBands   = bands.length;
+            final int dataType   = dataTypes[band];
+            final int sampleSize = sampleSizes[band];
+            final int xlow  = Math.max(xmin, bx);
+            final int xhigh = Math.min(xmax, bx + bw);
+            final int ylow  = Math.max(ymin, by);
+            final int yhigh = Math.min(ymax, by + bh);
+            for (int y=ylow; y<yhigh; y++) {
+                int src = ((y - by) * bw + (xlow - bx)) * sampleSize;
+                int dst = offset + (y - ymin) * scanline + (xlow - xmin) * numBands + band;
+                for (int x=xlow; x<xhigh; x++) {
+                    store(destination, dst, sample(block, src, dataType));
+                    src += sampleSize;
+                    dst += numBands;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the sample value at the given position in bytes.
+     */
+    private static double sample(final ByteBuffer block, final int position, final int dataType) {
+        if (dataType == gdalconst.GDT_Byte)    return Byte.toUnsignedInt(block.get(position));
+        if (dataType == gdalconst.GDT_UInt16)  return Short.toUnsignedInt(block.getShort(position));
+        if (dataType == gdalconst.GDT_Int16)   return block.getShort(position);
+        if (dataType == gdalconst.GDT_UInt32)  return Integer.toUnsignedLong(block.getInt(position));
+        if (dataType == gdalconst.GDT_Int32)   return block.getInt(position);
+        if (dataType == gdalconst.GDT_Float32) return block.getFloat(position);
+        return block.getDouble(position);
+    }
+
+    /**
+     * Copies the values of all bands in the given region to the given destination array.
+     * Only the blocks intersecting the region are read.
+     */
+    @Override
+    final void read(final int xmin, final int ymin, final int xmax, final int ymax,
+                    final Object destination, final int offset, final int scanline) throws IOException
+    {
+        Request request = idleRequest.getAndSet(null);
+        if (request == null) {
+            request = new Request();
+        }
+        request.run(xmin, ymin, xmax, ymax, destination, offset, scanline);
+        idleRequest.set(request);
+    }
+
+    /**
+     * Removes the blocks of this coverage from the cache.
+     * Invoked when the dataset is closed.
+     */
+    final void dispose() {
+        BlockCache.INSTANCE.removeAll(this);
+        if (overviews != null) {
+            for (final RasterCoverage overview : overviews) {
+                overview.dispose();
+            }
+        }
+    }
+
+    /**
+     * Returns the size of blocks in which the raster is stored, which is the optimal size for reading values.
+     */
+    @Override
+    public int[] getOptimalDataBlockSizes() {
+        return new int[] {blockWidth, blockHeight};
+    }
+
+    @Override public int          getNumSampleDimensions() {return bands.length;}
+    @Override public int          getNumOverviews()        {return overviews().length;}
+    @Override public GridCoverage getOverview(int index)   {return overviews()[index];}
+}
@@ -0,0 +1,172 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.awt.geom.AffineTransform;
+import java.util.Random;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.Envelope;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.TransformException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link AbstractCoverage} class with values computed from pixel coordinates.
+ * This test does not require the GDAL native library.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class AbstractCoverageTest {
+    /**
+     * A coverage where the value of band <var>b</var> at pixel (<var>x</var>,<var>y</var>)
+     * is <var>x</var>×1000 + <var>y</var>×10 + <var>b</var>.
+     */
+    private static final class Computed extends AbstractCoverage {
+        /** Number of calls to the {@code read(…)} method. */
+        int numReads;
+
+        /** Size of the blocks declared by {@link #getOptimalDataBlockSizes()}, or 0 if none. */
+        private final int blockSize;
+
+        /** Creates a coverage of 100×60 pixels of 0.5×0.25 units, with the origin at (20,10), in blocks of 16×16. */
+        Computed() {
+            super(100, 60, new AffineTransform(0.5, 0, 0, 0.25, 20, 10), null);
+            blockSize = 16;
+        }
+
+        /** Creates a coverage of the given size with pixels of 1 unit and no optimal block size. */
+        Computed(final int width, final int height) {
+            super(width, height, new AffineTransform(), null);
+            blockSize = 0;
+        }
+
+        @Override
+        void read(final int xmin, final int ymin, final int xmax, final int ymax,
+                  final Object destination, final int offset, final int scanline)
+        {
+            final int block = (blockSize != 0) ? blockSize : 256;
+            assertTrue(xmin >= 0 && ymin >= 0 && xmax <= width && ymax <= height);
+            assertTrue("Region shall be inside a single block.", xmin / block == (xmax - 1) / block && ymin / block == (ymax - 1) / block);
+            numReads++;
+            for (int y=ymin; y<ymax; y++) {
+                for (int x=xmin; x<xmax; x++) {
+                    for (int b=0; b<3; b++) {
+                        store(destination, offset + (y - ymin)*scanline + (x - xmin)*3 + b, x*1000 + y*10 + b);
+                    }
+                }
+            }
+        }
+
+        @Override public int   getNumSampleDimensions()   {return 3;}
+        @Override public int[] getOptimalDataBlockSizes() {return (blockSize != 0) ? new int[] {blockSize, blockSize} : null;}
+    }
+
+    /**
+     * Tests {@link AbstractCoverage#evaluate(double[], int, int[], double[])} on random points,
+     * some of them outside the coverage.
+     */
+    @Test
+    public void testBulkEvaluate() {
+        final Computed coverage = new Computed();
+        final Random random = new Random(446);
+        final int numPts = 5000;
+        final double[] coordinates = new double[numPts * 2];
+        for (int i=0; i<numPts; i++) {
+            coordinates[i*2    ] = 19 + random.nextDouble() * 52;
+            coordinates[i*2 + 1] =  9 + random.nextDouble() * 17;
+        }
+        final int[] bands = {2, 0};
+        final double[] values = coverage.evaluate(coordinates, numPts, bands, null);
+        assertEquals(numPts * bands.length, values.length);
+        assertTrue("Blocks shall be read only once.", coverage.numReads <= 7 * 4);
+        int numOutside = 0;
+        for (int i=0; i<numPts; i++) {
+            final double x = Math.floor((coordinates[i*2    ] - 20) / 0.5);
+            final double y = Math.floor((coordinates[i*2 + 1] - 10) / 0.25);
+            if (x >= 0 && x < 100 && y >= 0 && y < 60) {
+                assertEquals(x*1000 + y*10 + 2, values[i*2    ], 0);
+                assertEquals(x*1000 + y*10,     values[i*2 + 1], 0);
+            } else {
+                assertTrue(Double.isNaN(values[i*2    ]));
+                assertTrue(Double.isNaN(values[i*2 + 1]));
+                numOutside++;
+            }
+        }
+        assertTrue("Test shall include points outside the coverage.", numOutside != 0);
+    }
+
+    /**
+     * Tests {@link AbstractCoverage#evaluate(double[], int, int[], double[])} on points spread over a large coverage
+     * which does not declare an optimal block size. The regions read shall be small despite the spread of points.
+     */
+    @Test
+    public void testBulkEvaluateWithoutBlockSize() {
+        final Computed coverage = new Computed(200000, 100000);
+        final Random random = new Random(4461);
+        final int numPts = 1000;
+        final double[] coordinates = new double[numPts * 2];
+        for (int i=0; i<numPts; i++) {
+            coordinates[i*2    ] = random.nextInt(200000) + 0.5;
+            coordinates[i*2 + 1] = random.nextInt(100000) + 0.5;
+        }
+        final double[] values = coverage.evaluate(coordinates, numPts, new int[] {1}, null);
+        assertTrue(coverage.numReads <= numPts);
+        for (int i=0; i<numPts; i++) {
+            final double x = Math.floor(coordinates[i*2    ]);
+            final double y = Math.floor(coordinates[i*2 + 1]);
+            assertEquals(x*1000 + y*10 + 1, values[i], 0);
+        }
+    }
+
+    /**
+     * Tests {@link AbstractCoverage#evaluate(double[], int, int[], double[])} with an invalid band index.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInvalidBand() {
+        new Computed().evaluate(new double[] {21, 11}, 1, new int[] {3}, null);
+    }
+
+    /**
+     * Tests {@link AbstractCoverage#getEnvelope()} and {@link AbstractCoverage#getGridToCRS()}.
+     *
+     * @throws TransformException should never happen.
+     */
+    @Test
+    public void testGridGeometry() throws TransformException {
+        final Computed coverage = new Computed();
+        final Envelope envelope = coverage.getEnvelope();
+        assertEquals(2, envelope.getDimension());
+        assertEquals(20, envelope.getMinimum(0), 0);
+        assertEquals(70, envelope.getMaximum(0), 0);
+        assertEquals(10, envelope.getMinimum(1), 0);
+        assertEquals(25, envelope.getMaximum(1), 0);
+        assertEquals(50, envelope.getSpan(0), 0);
+        assertEquals(45, envelope.getMedian(0), 0);
+        assertArrayEquals(new double[] {70, 25}, envelope.getUpperCorner().getCoordinate(), 0);
+
+        final MathTransform gridToCRS = coverage.getGridToCRS();
+        final double[] points = {2, 4, 100, 60};
+        gridToCRS.transform(points, 0, points, 0, 2);
+        assertArrayEquals(new double[] {21, 11, 70, 25}, points, 0);
+        final DirectPosition p = gridToCRS.inverse().transform(envelope.getLowerCorner(), null);
+        assertArrayEquals(new double[] {0, 0}, p.getCoordinate(), 0);
+        assertEquals(0.25, gridToCRS.derivative(p).getElement(1, 1), 0);
+        assertFalse(gridToCRS.isIdentity());
+    }
+}
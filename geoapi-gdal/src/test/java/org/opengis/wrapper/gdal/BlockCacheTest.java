@@ -0,0 +1,143 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link BlockCache} class. This test does not require the GDAL native library.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class BlockCacheTest {
+    /**
+     * Number of calls to the loader.
+     */
+    private int numLoads;
+
+    /**
+     * The value read by the last call to the copier.
+     */
+    private int lastValue;
+
+    /**
+     * Reads the block at the given tile indices. The block content is the tile column index.
+     */
+    private void read(final BlockCache cache, final BlockCache.Key key, final int tileX) throws IOException {
+        key.set(this, 0, tileX, 0);
+        cache.read(key, 16, (block) -> {
+            numLoads++;
+            block.putInt(0, tileX);
+        }, (ByteBuffer block) -> lastValue = block.getInt(0));
+        assertEquals(tileX, lastValue);
+    }
+
+    /**
+     * Tests caching and eviction of least recently used blocks.
+     *
+     * @throws IOException should never happen since we do not use GDAL in this test.
+     */
+    @Test
+    public void testEviction() throws IOException {
+        final BlockCache cache = new BlockCache(3 * 16);
+        final BlockCache.Key key = new BlockCache.Key();
+        read(cache, key, 0);
+        read(cache, key, 1);
+        read(cache, key, 2);
+        assertEquals("Initial loads.", 3, numLoads);
+        read(cache, key, 0);
+        read(cache, key, 2);
+        assertEquals("Blocks should be cached.", 3, numLoads);
+        read(cache, key, 3);                                    // Shall evict block 1.
+        assertEquals(4, numLoads);
+        read(cache, key, 0);
+        read(cache, key, 2);
+        assertEquals("Blocks should still be cached.", 4, numLoads);
+        read(cache, key, 1);
+        assertEquals("Block should have been evicted.", 5, numLoads);
+        cache.removeAll(this);
+        read(cache, key, 2);
+        assertEquals("Blocks should have been removed.", 6, numLoads);
+    }
+
+    /**
+     * Tests that values are copied outside the cache lock, and that a block evicted while values
+     * are copied from it is not recycled for loading another block before the copy is finished.
+     *
+     * @throws Exception if an error occurred in the background thread or while waiting for it.
+     */
+    @Test
+    public void testConcurrentEviction() throws Exception {
+        final BlockCache cache = new BlockCache(16);
+        final BlockCache.Key key = new BlockCache.Key();
+        read(cache, key, 0);
+        key.set(this, 0, 0, 0);
+        cache.read(key, 16, (block) -> fail("Block should be cached."), (ByteBuffer block) -> {
+            final Thread other = new Thread(() -> {
+                try {
+                    read(cache, new BlockCache.Key(), 1);           // Shall evict block 0.
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            other.start();
+            try {
+                other.join(10000);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+            assertFalse("Copier shall not hold the cache lock.", other.isAlive());
+            assertEquals("Pinned block shall not be recycled.", 0, block.getInt(0));
+        });
+        assertEquals(2, numLoads);
+        read(cache, key, 0);
+        assertEquals("Block should have been evicted.", 3, numLoads);
+    }
+
+    /**
+     * Tests that the buffer given to a loader which failed is recycled for the next load.
+     *
+     * @throws IOException should never happen since we do not use GDAL in this test.
+     */
+    @Test
+    public void testFailedLoad() throws IOException {
+        final BlockCache cache = new BlockCache(3 * 16);
+        final BlockCache.Key key = new BlockCache.Key();
+        final ByteBuffer[] buffers = new ByteBuffer[2];
+        read(cache, key, 0);
+        read(cache, key, 1);
+        read(cache, key, 2);
+        read(cache, key, 3);                                    // Shall evict block 0 and recycle its buffer.
+        key.set(this, 0, 4, 0);
+        try {
+            cache.read(key, 16, (block) -> {
+                buffers[0] = block;
+                throw new IOException("Simulated failure.");
+            }, (ByteBuffer block) -> fail("Block should not be copied."));
+            fail("Expected IOException.");
+        } catch (IOException e) {
+            assertEquals("Simulated failure.", e.getMessage());
+        }
+        cache.read(key, 16, (block) -> buffers[1] = block, (ByteBuffer block) -> {});
+        assertNotNull(buffers[0]);
+        assertSame("Buffer of the failed load shall be recycled.", buffers[0], buffers[1]);
+    }
+}
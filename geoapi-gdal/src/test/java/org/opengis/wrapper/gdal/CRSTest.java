@@ -0,0 +1,144 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import org.opengis.referencing.crs.GeographicCRS;
+import org.opengis.referencing.crs.ProjectedCRS;
+import org.opengis.referencing.datum.Ellipsoid;
+import org.opengis.referencing.datum.GeodeticDatum;
+import org.opengis.referencing.operation.Projection;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link CRS} class, including its cache and the {@link Datum} and {@link MapProjection} wrappers.
+ * This test requires the GDAL native library.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class CRSTest {
+    /**
+     * The EPSG:4326 geographic CRS, as formatted by GDAL.
+     */
+    private static final String WGS84 =
+            "GEOGCS[\"WGS 84\","
+            + "DATUM[\"WGS_1984\","
+            +   "SPHEROID[\"WGS 84\",6378137,298.257223563,AUTHORITY[\"EPSG\",\"7030\"]],"
+            +   "AUTHORITY[\"EPSG\",\"6326\"]],"
+            + "PRIMEM[\"Greenwich\",0,AUTHORITY[\"EPSG\",\"8901\"]],"
+            + "UNIT[\"degree\",0.0174532925199433,AUTHORITY[\"EPSG\",\"9122\"]],"
+            + "AUTHORITY[\"EPSG\",\"4326\"]]";
+
+    /**
+     * The EPSG:32631 projected CRS (WGS 84 / UTM zone 31N), as formatted by GDAL.
+     */
+    private static final String UTM31 =
+            "PROJCS[\"WGS 84 / UTM zone 31N\"," + WGS84 + ','
+            + "PROJECTION[\"Transverse_Mercator\"],"
+            + "PARAMETER[\"latitude_of_origin\",0],"
+            + "PARAMETER[\"central_meridian\",3],"
+            + "PARAMETER[\"scale_factor\",0.9996],"
+            + "PARAMETER[\"false_easting\",500000],"
+            + "PARAMETER[\"false_northing\",0],"
+            + "UNIT[\"metre\",1,AUTHORITY[\"EPSG\",\"9001\"]],"
+            + "AXIS[\"Easting\",EAST],"
+            + "AXIS[\"Northing\",NORTH],"
+            + "AUTHORITY[\"EPSG\",\"32631\"]]";
+
+    /**
+     * Returns the given WKT with line breaks and indentation, which GDAL ignores when parsing.
+     */
+    private static String indent(final String wkt) {
+        return wkt.replace(",", ", ").replace("], ", "],\n    ");
+    }
+
+    /**
+     * Tests that a WKT given twice, or formatted differently, returns the cached instance.
+     */
+    @Test
+    public void testCache() {
+        final CRS crs = CRS.create(WGS84);
+        assertNotNull(crs);
+        assertSame("Same WKT.", crs, CRS.create(WGS84));
+        assertSame("Same WKT with different spaces.", crs, CRS.create(indent(WGS84)));
+        assertSame("Cached under the raw WKT.", crs, CRS.create(indent(WGS84)));
+        assertNull(CRS.create(""));
+    }
+
+    /**
+     * Tests that the least recently used entries are evicted when the cache is full.
+     */
+    @Test
+    public void testEviction() {
+        final String first = WGS84.replace("\"WGS 84\",DATUM", "\"Eviction test\",DATUM");
+        final CRS crs = CRS.create(first);
+        assertNotNull(crs);
+        assertSame(crs, CRS.create(first));
+        for (int i=0; i<CRS.CACHE_SIZE; i++) {
+            assertNotNull(CRS.create(WGS84.replace("\"WGS 84\",DATUM", "\"Eviction test " + i + "\",DATUM")));
+        }
+        final CRS recreated = CRS.create(first);
+        assertNotSame("Expected a new instance after eviction.", crs, recreated);
+        assertEquals("Eviction test", recreated.getName().getCode());
+    }
+
+    /**
+     * Tests the datum, ellipsoid and prime meridian of the EPSG:4326 geographic CRS.
+     */
+    @Test
+    public void testDatum() {
+        final CRS crs = CRS.create(WGS84);
+        assertTrue(crs instanceof GeographicCRS);
+        assertEquals("WGS 84", crs.getName().getCode());
+        assertEquals(2, crs.getDimension());
+        final GeodeticDatum datum = ((GeographicCRS) crs).getDatum();
+        assertEquals("WGS_1984", datum.getName().getCode());
+        final Ellipsoid ellipsoid = datum.getEllipsoid();
+        assertEquals("WGS 84",          ellipsoid.getName().getCode());
+        assertEquals(6378137,           ellipsoid.getSemiMajorAxis(),     0);
+        assertEquals(6356752.314245179, ellipsoid.getSemiMinorAxis(),     1E-6);
+        assertEquals(298.257223563,     ellipsoid.getInverseFlattening(), 0);
+        assertTrue  (ellipsoid.isIvfDefinitive());
+        assertFalse (ellipsoid.isSphere());
+        assertEquals("Greenwich", datum.getPrimeMeridian().getName().getCode());
+        assertEquals(0, datum.getPrimeMeridian().getGreenwichLongitude(), 0);
+    }
+
+    /**
+     * Tests the map projection and base CRS of the EPSG:32631 projected CRS.
+     */
+    @Test
+    public void testMapProjection() {
+        final CRS crs = CRS.create(UTM31);
+        assertTrue(crs instanceof ProjectedCRS);
+        assertEquals("WGS 84 / UTM zone 31N", crs.getName().getCode());
+        final ProjectedCRS projected = (ProjectedCRS) crs;
+        final GeographicCRS base = projected.getBaseCRS();
+        assertEquals("WGS 84", base.getName().getCode());
+        assertSame(base.getDatum(), projected.getDatum());
+        assertEquals("WGS_1984", projected.getDatum().getName().getCode());
+        assertEquals(6378137, projected.getDatum().getEllipsoid().getSemiMajorAxis(), 0);
+
+        final Projection projection = projected.getConversionFromBase();
+        assertEquals("Transverse_Mercator", projection.getName().getCode());
+        assertEquals("Transverse_Mercator", projection.getMethod().getName().getCode());
+        assertSame(base,      projection.getSourceCRS());
+        assertSame(projected, projection.getTargetCRS());
+        assertSame("Same WKT with different spaces.", crs, CRS.create(indent(UTM31)));
+    }
+}
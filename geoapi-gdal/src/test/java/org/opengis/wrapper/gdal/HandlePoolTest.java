@@ -0,0 +1,154 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link HandlePool} class. This test does not require the GDAL native library.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class HandlePoolTest {
+    /**
+     * A pool of integers used as handles.
+     */
+    private static final class Pool extends HandlePool<Integer> {
+        /** Number of handles created so far. */
+        int numCreated;
+
+        /** The handles which have been closed. */
+        final List<Integer> closed = new ArrayList<>();
+
+        /** Creates a new pool. */
+        Pool(final int maxHandles, final long idleTimeout) {
+            super(maxHandles, idleTimeout);
+        }
+
+        @Override synchronized Integer open()               {return numCreated++;}
+        @Override synchronized void    close(Integer handle) {closed.add(handle);}
+    }
+
+    /**
+     * Tests borrowing and releasing handles, with reuse of idle handles.
+     *
+     * @throws IOException should never happen since we do not use GDAL in this test.
+     */
+    @Test
+    public void testReuse() throws IOException {
+        final Pool pool = new Pool(2, TimeUnit.HOURS.toNanos(1));
+        final Integer h0 = pool.acquire();
+        final Integer h1 = pool.acquire();
+        assertNotEquals(h0, h1);
+        pool.release(h0);
+        assertEquals(h0, pool.acquire());
+        pool.release(h0);
+        pool.release(h1);
+        final HandleStatistics stats = pool.statistics();
+        assertEquals(2, stats.getNumOpenHandles());
+        assertEquals(2, stats.getNumIdleHandles());
+        assertEquals(2, stats.getPeakOpenHandles());
+        assertEquals(3, stats.getNumAcquisitions());
+        assertEquals(0, stats.getNumWaits());
+        pool.close();
+        assertEquals(2, pool.closed.size());
+        assertEquals(0, pool.statistics().getNumOpenHandles());
+        try {
+            pool.acquire();
+            fail("Pool should be closed.");
+        } catch (GDALException e) {
+            // This is the expected exception.
+        }
+    }
+
+    /**
+     * Tests that a thread waits when all handles are in use.
+     *
+     * @throws Exception if an error occurred in the background thread.
+     */
+    @Test
+    public void testWait() throws Exception {
+        final Pool pool = new Pool(1, TimeUnit.HOURS.toNanos(1));
+        final Integer handle = pool.acquire();
+        final Integer[] borrowed = new Integer[1];
+        final Thread thread = new Thread(() -> {
+            try {
+                borrowed[0] = pool.acquire();
+                pool.release(borrowed[0]);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        thread.start();
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("Thread should wait for the handle.", thread.isAlive());
+            Thread.sleep(10);
+        }
+        pool.release(handle);
+        thread.join();
+        assertEquals(handle, borrowed[0]);
+        final HandleStatistics stats = pool.statistics();
+        assertEquals(1, stats.getNumWaits());
+        assertEquals(1, stats.getPeakOpenHandles());
+    }
+
+    /**
+     * Tests that an interruption while waiting for a handle is reported by an {@link InterruptedIOException}
+     * and that the interrupted status of the thread is preserved.
+     *
+     * @throws IOException should never happen since we do not use GDAL in this test.
+     */
+    @Test
+    public void testInterrupt() throws IOException {
+        final Pool pool = new Pool(1, TimeUnit.HOURS.toNanos(1));
+        final Integer handle = pool.acquire();
+        Thread.currentThread().interrupt();
+        try {
+            pool.acquire();
+            fail("Expected an interruption.");
+        } catch (InterruptedIOException e) {
+            assertTrue("Interrupted status shall be preserved.", Thread.interrupted());
+        }
+        pool.release(handle);
+        assertEquals(handle, pool.acquire());
+    }
+
+    /**
+     * Tests closing handles after the idle timeout.
+     *
+     * @throws Exception should never happen since we do not use GDAL in this test.
+     */
+    @Test
+    public void testIdleTimeout() throws Exception {
+        final Pool pool = new Pool(4, TimeUnit.MILLISECONDS.toNanos(1));
+        final Integer h0 = pool.acquire();
+        final Integer h1 = pool.acquire();
+        pool.release(h0);
+        Thread.sleep(20);
+        pool.release(h1);                       // Shall close h0, which expired.
+        assertEquals(1, pool.closed.size());
+        assertEquals(h0, pool.closed.get(0));
+        assertEquals(1, pool.statistics().getNumOpenHandles());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.awt.geom.AffineTransform;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link MosaicIndex} class. This test does not require the GDAL native library.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class MosaicIndexTest {
+    /**
+     * Number of datasets in the test mosaic. Chosen large enough for having more than two levels in the tree.
+     */
+    private static final int NUM_FILES = 1000;
+
+    /**
+     * Creates an index of random footprints. The footprints are stored in the given array.
+     */
+    private static MosaicIndex createIndex(final int[] bounds) {
+        final Random random = new Random(445);
+        final String[] files = new String[NUM_FILES];
+        for (int i=0; i<NUM_FILES; i++) {
+            final int x = random.nextInt(10000);
+            final int y = random.nextInt(10000);
+            bounds[i*4    ] = x;
+            bounds[i*4 + 1] = y;
+            bounds[i*4 + 2] = x + 1 + random.nextInt(300);
+            bounds[i*4 + 3] = y + 1 + random.nextInt(300);
+            files[i] = "tile-" + i + ".tif";
+        }
+        return MosaicIndex.create(files, bounds.clone(), 3, new AffineTransform(0.5, 0, 0, -0.5, 100, 80), null);
+    }
+
+    /**
+     * Verifies that searches in the given index give the same results than a brute-force search.
+     */
+    private static void verifySearches(final MosaicIndex index, final int[] bounds) {
+        final Random random = new Random(7);
+        for (int n=0; n<200; n++) {
+            final int xmin = random.nextInt(10000);
+            final int ymin = random.nextInt(10000);
+            final int xmax = xmin + 1 + random.nextInt(1000);
+            final int ymax = ymin + 1 + random.nextInt(1000);
+            int count = 0;
+            final int[] expected = new int[NUM_FILES];
+            for (int i=0; i<NUM_FILES; i++) {
+                if (bounds[i*4] < xmax && bounds[i*4 + 1] < ymax && bounds[i*4 + 2] > xmin && bounds[i*4 + 3] > ymin) {
+                    expected[count++] = i;
+                }
+            }
+            final int[] records = index.search(xmin, ymin, xmax, ymax);
+            final int[] actual = new int[records.length];
+            for (int i=0; i<records.length; i++) {
+                final int record = records[i];
+                actual[i] = index.field(record, MosaicIndex.DATASET);
+                assertEquals(bounds[actual[i]*4], index.field(record, MosaicIndex.XMIN));
+                assertEquals(bounds[actual[i]*4 + 3], index.field(record, MosaicIndex.YMAX));
+            }
+            assertArrayEquals(Arrays.copyOf(expected, count), actual);
+        }
+    }
+
+    /**
+     * Tests searching datasets intersecting random regions.
+     */
+    @Test
+    public void testSearch() {
+        final int[] bounds = new int[NUM_FILES * 4];
+        final MosaicIndex index = createIndex(bounds);
+        assertEquals(3, index.numBands);
+        verifySearches(index, bounds);
+    }
+
+    /**
+     * Tests searching datasets having large or negative pixel coordinates.
+     * The sum of bounds in such footprints exceeds the range of 32 bits integers.
+     */
+    @Test
+    public void testLargeCoordinates() {
+        final Random random = new Random(12);
+        final int[] bounds = new int[NUM_FILES * 4];
+        final String[] files = new String[NUM_FILES];
+        for (int i=0; i<NUM_FILES; i++) {
+            final int x = random.nextInt() / 2;
+            final int y = random.nextInt() / 2;
+            bounds[i*4    ] = x;
+            bounds[i*4 + 1] = y;
+            bounds[i*4 + 2] = x + 1 + random.nextInt(Integer.MAX_VALUE / 4);
+            bounds[i*4 + 3] = y + 1 + random.nextInt(Integer.MAX_VALUE / 4);
+            files[i] = "tile-" + i + ".tif";
+        }
+        final MosaicIndex index = MosaicIndex.create(files, bounds.clone(), 1, new AffineTransform(), null);
+        for (int n=0; n<100; n++) {
+            final int xmin = random.nextInt() / 2;
+            final int ymin = random.nextInt() / 2;
+            final int xmax = xmin + 1 + random.nextInt(Integer.MAX_VALUE / 8);
+            final int ymax = ymin + 1 + random.nextInt(Integer.MAX_VALUE / 8);
+            int count = 0;
+            for (int i=0; i<NUM_FILES; i++) {
+                if (bounds[i*4] < xmax && bounds[i*4 + 1] < ymax && bounds[i*4 + 2] > xmin && bounds[i*4 + 3] > ymin) {
+                    count++;
+                }
+            }
+            assertEquals(count, index.search(xmin, ymin, xmax, ymax).length);
+        }
+    }
+
+    /**
+     * Tests that searches are not allowed anymore after the index has been closed.
+     */
+    @Test
+    public void testClose() {
+        final MosaicIndex index = createIndex(new int[NUM_FILES * 4]);
+        assertNotEquals(0, index.search(0, 0, 10000, 10000).length);
+        index.close();
+        try {
+            index.search(0, 0, 10000, 10000);
+            fail("Search should not be allowed after close.");
+        } catch (IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    /**
+     * Tests saving an index in a file and reading it back.
+     *
+     * @throws IOException if an error occurred while writing or reading the temporary file.
+     */
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        final int[] bounds = new int[NUM_FILES * 4];
+        final MosaicIndex index = createIndex(bounds);
+        final Path file = Files.createTempFile("mosaic", ".idx");
+        try {
+            index.save(file);
+            final MosaicIndex loaded = MosaicIndex.load(file);
+            assertEquals(index.width,     loaded.width);
+            assertEquals(index.height,    loaded.height);
+            assertEquals(index.numBands,  loaded.numBands);
+            assertEquals(index.gridToCRS, loaded.gridToCRS);
+            assertNull(loaded.wkt);
+            assertArrayEquals(index.files, loaded.files);
+            verifySearches(loaded, bounds);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
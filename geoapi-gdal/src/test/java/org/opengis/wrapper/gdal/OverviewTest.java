@@ -0,0 +1,157 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    This file is hereby placed into the Public Domain.
+ *    This means anyone is free to do whatever they wish with this file.
+ *
+ *    The GDAL wrappers are provided as code examples, in the hope to facilitate
+ *    GeoAPI implementations backed by other libraries. Implementors can take this
+ *    source code and use it for any purpose, commercial or non-commercial, copyrighted
+ *    or open-source, with no legal obligation to acknowledge the borrowing/copying
+ *    in any way.
+ */
+package org.opengis.wrapper.gdal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.gdal.gdal.Band;
+import org.gdal.gdal.Dataset;
+import org.gdal.gdal.Driver;
+import org.gdal.gdal.gdal;
+import org.gdal.gdalconst.gdalconst;
+import org.opengis.coverage.grid.GridCoverage;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the selection of overviews by {@link DataSet#getCoverage(double[])}
+ * and the values read from those overviews.
+ * This test requires the GDAL native library.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class OverviewTest {
+    /**
+     * Size of the full resolution raster, in pixels.
+     */
+    private static final int SIZE = 64;
+
+    /**
+     * Size of pixels of the full resolution raster, in units of the CRS.
+     */
+    private static final double RESOLUTION = 0.5;
+
+    /**
+     * The GeoTIFF file created for the tests, with overviews sub-sampled by factors 2 and 4.
+     */
+    private static Path file;
+
+    /**
+     * Creates a GeoTIFF file of {@value #SIZE}×{@value #SIZE} pixels where the value at pixel
+     * (<var>x</var>,<var>y</var>) is <var>x</var> + 100<var>y</var>, with averaged overviews.
+     *
+     * @throws IOException if the temporary file can not be created.
+     */
+    @BeforeClass
+    public static void createFile() throws IOException {
+        gdal.AllRegister();
+        file = Files.createTempFile("overviews", ".tif");
+        final Driver driver = gdal.GetDriverByName("GTiff");
+        final Dataset ds = driver.Create(file.toString(), SIZE, SIZE, 1, gdalconst.GDT_Float32);
+        try {
+            ds.SetGeoTransform(new double[] {10, RESOLUTION, 0, 20, 0, -RESOLUTION});
+            final float[] values = new float[SIZE * SIZE];
+            for (int y=0; y<SIZE; y++) {
+                for (int x=0; x<SIZE; x++) {
+                    values[y*SIZE + x] = x + 100*y;
+                }
+            }
+            final Band band = ds.GetRasterBand(1);
+            assertEquals(gdalconst.CE_None, band.WriteRaster(0, 0, SIZE, SIZE, values));
+            assertEquals(gdalconst.CE_None, ds.BuildOverviews("AVERAGE", new int[] {2, 4}));
+        } finally {
+            ds.delete();
+        }
+    }
+
+    /**
+     * Deletes the GeoTIFF file created for the tests.
+     *
+     * @throws IOException if the file can not be deleted.
+     */
+    @AfterClass
+    public static void deleteFile() throws IOException {
+        if (file != null) {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Returns the coverage selected for the given resolution, as a {@link RasterCoverage} instance.
+     */
+    private static RasterCoverage select(final DataSet ds, final double rx, final double ry) throws IOException {
+        final GridCoverage coverage = ds.getCoverage(new double[] {rx, ry});
+        assertTrue(coverage instanceof RasterCoverage);
+        return (RasterCoverage) coverage;
+    }
+
+    /**
+     * Tests the level selected for exact, in-between, finer-than-finest and coarser-than-coarsest resolutions.
+     *
+     * @throws IOException if an error occurred while reading the file.
+     */
+    @Test
+    public void testSelection() throws IOException {
+        try (DataSet ds = new DataSet(file)) {
+            final GridCoverage full = ds.getCoverage();
+            assertSame("Finer than full resolution.", full, select(ds, RESOLUTION / 4, RESOLUTION / 4));
+            assertSame("Full resolution.",            full, select(ds, RESOLUTION,     RESOLUTION));
+
+            final RasterCoverage level0 = select(ds, RESOLUTION * 2, RESOLUTION * 2);
+            assertEquals("Exact resolution of first overview.", SIZE / 2, level0.width);
+            assertEquals(SIZE / 2, level0.height);
+            assertSame("Between first and second overviews.", level0, select(ds, RESOLUTION * 3, RESOLUTION * 3));
+            assertSame("Coarser on one axis only.",           level0, select(ds, RESOLUTION * 4, RESOLUTION * 2));
+
+            final RasterCoverage level1 = select(ds, RESOLUTION * 4, RESOLUTION * 4);
+            assertEquals("Exact resolution of second overview.", SIZE / 4, level1.width);
+            assertEquals(SIZE / 4, level1.height);
+            assertSame("Slightly finer, within tolerance.",  level1, select(ds, RESOLUTION * 3.97, RESOLUTION * 3.97));
+            assertSame("Coarser than coarsest overview.",    level1, select(ds, RESOLUTION * 100,  RESOLUTION * 100));
+            assertNotSame("Finer, outside tolerance.",       level1, select(ds, RESOLUTION * 3.9,  RESOLUTION * 3.9));
+        }
+    }
+
+    /**
+     * Tests that reading an overview returns the values averaged from the full resolution raster.
+     *
+     * @throws IOException if an error occurred while reading the file.
+     */
+    @Test
+    public void testRead() throws IOException {
+        try (DataSet ds = new DataSet(file)) {
+            for (final int factor : new int[] {1, 2, 4}) {
+                final RasterCoverage coverage = select(ds, RESOLUTION * factor, RESOLUTION * factor);
+                final int size = SIZE / factor;
+                assertEquals(size, coverage.width);
+                final float[] values = new float[size * size];
+                coverage.read(0, 0, size, size, values, 0, size);
+                final double center = (factor - 1) / 2.0;       // Center of the full resolution pixels averaged.
+                for (int y=0; y<size; y++) {
+                    for (int x=0; x<size; x++) {
+                        final double expected = (x*factor + center) + 100*(y*factor + center);
+                        assertEquals("Sub-sampling " + factor, expected, values[y*size + x], 1E-3);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -36,6 +36,7 @@ import java.util.function.Function;
 import org.opengis.util.CodeList;
 import org.opengis.util.ControlledVocabulary;
 import org.opengis.util.InternationalString;
+import org.opengis.referencing.operation.MathTransform;
 import org.jpy.PyObject;
 
 
@@ -217,6 +218,26 @@ class Converter<T> implements Function<PyObject,T> {
         }
     }
 
+    /**
+     * Converter from Python objects to Java math transforms. Transforms are handled in a special way
+     * for transforming coordinates by batches of many points instead of one point at a time.
+     */
+    private static final class ForTransform extends Converter<MathTransform> {
+        /** Information about the Python environment (builtin functions, etc). */
+        private final Environment environment;
+
+        /** Creates a new converter for math transforms. */
+        ForTransform(final Environment environment) {
+            super(MathTransform.class);
+            this.environment = environment;
+        }
+
+        /** Converts the given Python object to a Java math transform. */
+        @Override public MathTransform apply(final PyObject value) {
+            return (value != null) ? new PythonTransform(environment, value) : null;
+        }
+    }
+
     /**
      * Converter from Python objects to Java objects using a user-provided function.
      * This is used only if the user provided a custom {@link Interfacing} instance.
@@ -241,9 +262,24 @@ class Converter<T> implements Function<PyObject,T> {
      * Returns a converter from Python objects to the given Java type.
      * The converter is not guaranteed to be suitable for the given type;
      * caller should verify (or delegate to a method that will verify).
+     * Converters are created when first needed, then cached in the given environment.
      */
-    @SuppressWarnings({"unchecked", "rawtypes"})
     static Converter<?> instance(final Environment environment, final Class<?> type) {
+        Converter<?> c = environment.converters.get(type);
+        if (c == null) {
+            c = create(environment, type);
+            final Converter<?> existing = environment.converters.putIfAbsent(type, c);
+            if (existing != null) c = existing;
+        }
+        return c;
+    }
+
+    /**
+     * Creates a new converter from Python objects to the given Java type.
+     * This method is invoked by {@link #instance(Environment, Class)} when the converter is not in the cache.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Converter<?> create(final Environment environment, final Class<?> type) {
         // 'if' statements should be ordered from most frequently-used to less frequently-used.
         final Converter<?> c;
         if (CharSequence.class.isAssignableFrom(type)) {
@@ -255,7 +291,11 @@ class Converter<T> implements Function<PyObject,T> {
         } else if (type.isInterface()) {
             final Interfacing inf = environment.getInterfacing(type);
             if (inf == Interfacing.GEOAPI) {
-                c = new GeoAPI<>(environment, type);
+                if (type == MathTransform.class) {
+                    c = new ForTransform(environment);
+                } else {
+                    c = new GeoAPI<>(environment, type);
+                }
             } else if (inf == Interfacing.DEFAULT) {
                 c = new Converter<>(type);
             } else {
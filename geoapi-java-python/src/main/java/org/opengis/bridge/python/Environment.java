@@ -34,6 +34,9 @@ package org.opengis.bridge.python;
 import java.util.List;
 import java.util.Objects;
 import java.util.Collections;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.lang.reflect.Method;
 import org.jpy.PyModule;
 import org.jpy.PyObject;
 
@@ -52,12 +55,94 @@ public class Environment {
      */
     final PyObject builtins;
 
+    /**
+     * The Python {@code collections.abc.Sequence} and {@code tuple} types.
+     * Used for determining if a Python collection supports indexed access and is immutable.
+     *
+     * @see Sequence#get(int)
+     */
+    final PyObject sequenceType, tupleType;
+
+    /**
+     * Converters from Python objects to Java objects of the key type, created when first needed.
+     * Converters are cached per environment because they depend on {@link #getInterfacing(Class)}.
+     *
+     * @see Converter#instance(Environment, Class)
+     */
+    final ConcurrentMap<Class<?>, Converter<?>> converters;
+
+    /**
+     * How to forward calls to Java methods to the equivalent Python attributes, created when first needed.
+     * This map avoids the need to inspect method annotations and generic types on every call.
+     *
+     * @see Singleton#invoke(Object, Method, Object[])
+     */
+    final ConcurrentMap<Method, Singleton.Call> calls;
+
+    /**
+     * The attributes to prefetch for each GeoAPI interface, created when first needed.
+     * This map is cleared when the prefetch depth changes.
+     *
+     * @see #setPrefetchDepth(int)
+     */
+    final ConcurrentMap<Class<?>, Prefetch> prefetches;
+
+    /**
+     * Depth of the attributes to fetch in a single call, or 0 if prefetching is disabled.
+     *
+     * @see #getPrefetchDepth()
+     */
+    private volatile int prefetchDepth;
+
+    /**
+     * Incremented by {@link #invalidateAll()} for discarding all prefetched values.
+     */
+    volatile int generation;
+
+    /**
+     * The Python function fetching many attributes in a single call, created when first needed.
+     *
+     * @see #prefetchHelper()
+     */
+    private PyObject prefetchHelper;
+
+    /**
+     * The Python {@code NotImplemented} value, used by {@link #prefetchHelper} for attributes that can not be prefetched.
+     */
+    final PyObject notPrefetched;
+
+    /**
+     * The NumPy module, loaded when first needed.
+     *
+     * @see #numpy()
+     */
+    private PyObject numpy;
+
     /**
      * Creates a new environment with default configuration.
      * A Python interpreter must be available at the time this constructor is invoked.
      */
     public Environment() {
-        builtins = PyModule.getBuiltins();
+        this(PyModule.getBuiltins(), PyModule.importModule("collections.abc").getAttribute("Sequence"), null);
+    }
+
+    /**
+     * Creates a new environment using the given Python objects. This constructor is used for testing
+     * with Python objects simulated in Java, since the public constructor requires a Python interpreter.
+     *
+     * @param  builtins      the Python built-in functions.
+     * @param  sequenceType  the Python {@code collections.abc.Sequence} type.
+     * @param  numpy         the NumPy module, or {@code null} for loading it when first needed.
+     */
+    Environment(final PyObject builtins, final PyObject sequenceType, final PyObject numpy) {
+        this.builtins     = builtins;
+        this.sequenceType = sequenceType;
+        this.numpy        = numpy;
+        tupleType     = builtins.getAttribute("tuple");
+        notPrefetched = builtins.getAttribute("NotImplemented");
+        converters    = new ConcurrentHashMap<>();
+        calls         = new ConcurrentHashMap<>();
+        prefetches    = new ConcurrentHashMap<>();
     }
 
     /**
@@ -70,6 +155,8 @@ public class Environment {
      *   <li>An enumeration such as {@link org.opengis.annotation.Obligation}.</li>
      *   <li>A code list such as {@link org.opengis.metadata.Datatype}.</li>
      *   <li>A GeoAPI interface (not an implementation class) such as {@link org.opengis.metadata.Metadata}.</li>
+     *   <li>A {@link org.opengis.referencing.operation.MathTransform}, in which case coordinates are given
+     *       to Python in NumPy arrays of many points (see {@link #toNumPy(double[], int, int)}).</li>
      *   <li>A non-GeoAPI interface such as {@link java.util.function.Supplier}.</li>
      * </ul>
      *
@@ -112,6 +199,202 @@ public class Environment {
         }
     }
 
+    /**
+     * Returns the depth of the attributes fetched in a single call, or 0 if prefetching is disabled.
+     *
+     * @return depth of prefetched attributes, or 0 if disabled.
+     *
+     * @see #setPrefetchDepth(int)
+     */
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    /**
+     * Enables or disables the prefetching of attribute values. By default, each method invoked on a Java object
+     * wrapping a Python object fetches the corresponding Python attribute. When prefetching is enabled, the first
+     * method invoked on a wrapper fetches the values of all attributes of the Python object in a single call,
+     * then the values are cached for all other methods. A depth of 1 fetches only the attributes of the object,
+     * a depth of 2 fetches also the attributes of nested objects (excluding elements of collections), <i>etc.</i>
+     *
+     * <p>Prefetching reduces the number of calls between Java and Python when the whole metadata tree is walked,
+     * but values are not updated if the Python objects are modified. Applications modifying Python objects shall
+     * invoke {@link #invalidate(Object)} or {@link #invalidateAll()} after the modifications.</p>
+     *
+     * @param  depth  depth of prefetched attributes, or 0 for disabling prefetching.
+     */
+    public void setPrefetchDepth(final int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Prefetch depth can not be negative.");
+        }
+        synchronized (prefetches) {
+            prefetchDepth = depth;
+            prefetches.clear();
+            generation++;
+        }
+    }
+
+    /**
+     * Discards the prefetched values of the given Java wrapper. The next method invoked on that wrapper
+     * will fetch again the values from the Python object. This method does nothing if the given object
+     * is not a wrapper for a Python object or if prefetching is disabled.
+     *
+     * @param  wrapper  a Java object wrapping a Python object.
+     *
+     * @see #setPrefetchDepth(int)
+     */
+    public void invalidate(final Object wrapper) {
+        Singleton.invalidate(wrapper);
+    }
+
+    /**
+     * Discards the prefetched values of all Java wrappers created by this environment.
+     *
+     * @see #setPrefetchDepth(int)
+     */
+    public void invalidateAll() {
+        synchronized (prefetches) {
+            generation++;
+        }
+    }
+
+    /**
+     * Returns the Python function fetching many attributes in a single call, creating it when first needed.
+     */
+    final synchronized PyObject prefetchHelper() {
+        if (prefetchHelper == null) {
+            prefetchHelper = Prefetch.createHelper(builtins);
+        }
+        return prefetchHelper;
+    }
+
+    /**
+     * Returns the NumPy module, loading it when first needed.
+     */
+    private synchronized PyObject numpy() {
+        if (numpy == null) {
+            numpy = PyModule.importModule("numpy");
+        }
+        return numpy;
+    }
+
+    /**
+     * Verifies that the given range is inside the bounds of an array of the given length.
+     */
+    private static void checkRange(final int capacity, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset > capacity - length) {
+            throw new ArrayIndexOutOfBoundsException("Range [" + offset + " … " + (offset + length)
+                    + ") is outside the array bounds [0 … " + capacity + ").");
+        }
+    }
+
+    /**
+     * Copies a range of the given Java array in a new NumPy array. The values are transferred through
+     * the Python buffer protocol, which JPY supports for Java arrays of primitive types, in a single copy
+     * without conversion of individual elements. The buffer is released before this method returns.
+     */
+    private PyObject toNumPy(final Object data, final int capacity, final int offset, final int length) {
+        checkRange(capacity, offset, length);
+        final PyObject view = builtins.call("memoryview", data);
+        try {
+            final PyObject part = view.callMethod("__getitem__", builtins.call("slice", offset, offset + length));
+            try {
+                return numpy().call("array", part);
+            } finally {
+                part.callMethod("release");
+            }
+        } finally {
+            view.callMethod("release");
+        }
+    }
+
+    /**
+     * Copies the values of the given NumPy array in a range of the given Java array.
+     * This is the converse of {@link #toNumPy(Object, int, int, int)}.
+     */
+    private void fromNumPy(final PyObject array, final String dtype, final Object destination,
+                           final int capacity, final int offset, final int length)
+    {
+        checkRange(capacity, offset, length);
+        final PyObject flat = numpy().call("ascontiguousarray", array, dtype).callMethod("ravel");
+        final int n = builtins.call("len", flat).getIntValue();
+        if (n != length) {
+            throw new IllegalArgumentException("Expected " + length + " values but the NumPy array has " + n + '.');
+        }
+        final PyObject view = builtins.call("memoryview", destination);
+        try {
+            view.callMethod("__setitem__", builtins.call("slice", offset, offset + length), flat);
+        } finally {
+            view.callMethod("release");
+        }
+    }
+
+    /**
+     * Copies a range of the given Java array in a new one-dimensional NumPy array of {@code float64} values.
+     * The values are copied in a single operation through the Python buffer protocol,
+     * without the element-by-element conversions done for other Python objects.
+     * The NumPy array does not reference the Java array after this method returns.
+     *
+     * @param  data    the array containing the values to copy.
+     * @param  offset  index of the first value to copy.
+     * @param  length  number of values to copy.
+     * @return a NumPy array containing a copy of the given values.
+     * @throws ArrayIndexOutOfBoundsException if the given range is outside the array bounds.
+     *
+     * @see #fromNumPy(PyObject, double[], int, int)
+     */
+    public PyObject toNumPy(final double[] data, final int offset, final int length) {
+        return toNumPy(data, data.length, offset, length);
+    }
+
+    /**
+     * Copies a range of the given Java array in a new one-dimensional NumPy array of {@code float32} values.
+     * The values are copied in a single operation through the Python buffer protocol.
+     *
+     * @param  data    the array containing the values to copy.
+     * @param  offset  index of the first value to copy.
+     * @param  length  number of values to copy.
+     * @return a NumPy array containing a copy of the given values.
+     * @throws ArrayIndexOutOfBoundsException if the given range is outside the array bounds.
+     *
+     * @see #fromNumPy(PyObject, float[], int, int)
+     */
+    public PyObject toNumPy(final float[] data, final int offset, final int length) {
+        return toNumPy(data, data.length, offset, length);
+    }
+
+    /**
+     * Copies the values of the given NumPy array in a range of the given Java array.
+     * The NumPy array can have any shape; its values are copied in row-major order
+     * after conversion to {@code float64} if needed.
+     *
+     * @param  array        the NumPy array (or any object accepted by {@code numpy.ascontiguousarray}).
+     * @param  destination  the array where to copy the values.
+     * @param  offset       index in the destination array of the first value to copy.
+     * @param  length       number of values to copy, which shall be the number of elements in the NumPy array.
+     * @throws ArrayIndexOutOfBoundsException if the given range is outside the array bounds.
+     * @throws IllegalArgumentException if the NumPy array does not contain {@code length} elements.
+     */
+    public void fromNumPy(final PyObject array, final double[] destination, final int offset, final int length) {
+        fromNumPy(array, "float64", destination, destination.length, offset, length);
+    }
+
+    /**
+     * Copies the values of the given NumPy array in a range of the given Java array.
+     * The NumPy array can have any shape; its values are copied in row-major order
+     * after conversion to {@code float32} if needed.
+     *
+     * @param  array        the NumPy array (or any object accepted by {@code numpy.ascontiguousarray}).
+     * @param  destination  the array where to copy the values.
+     * @param  offset       index in the destination array of the first value to copy.
+     * @param  length       number of values to copy, which shall be the number of elements in the NumPy array.
+     * @throws ArrayIndexOutOfBoundsException if the given range is outside the array bounds.
+     * @throws IllegalArgumentException if the NumPy array does not contain {@code length} elements.
+     */
+    public void fromNumPy(final PyObject array, final float[] destination, final int offset, final int length) {
+        fromNumPy(array, "float32", destination, destination.length, offset, length);
+    }
+
     /**
      * Specifies how the Java methods in the given interface should be mapped to Python methods or attributes.
      * There is two main interfacing modes supported by default: if this method returns {@link Interfacing#GEOAPI},
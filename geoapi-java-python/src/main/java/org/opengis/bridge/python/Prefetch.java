@@ -0,0 +1,170 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.bridge.python;
+
+import java.util.Map;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import org.opengis.referencing.operation.MathTransform;
+import org.jpy.PyObject;
+
+
+/**
+ * The list of Python attributes to fetch in a single call for all properties of a GeoAPI interface.
+ * A {@code Prefetch} instance is created once per interface and cached in the {@link Environment}.
+ * The Python helper function receives the attribute names and returns the values in the same order.
+ * For properties having another GeoAPI interface as their type, the helper can also fetch the
+ * properties of the nested object, up to the depth specified by {@link Environment#setPrefetchDepth(int)}.
+ * Collection elements are not prefetched; they are fetched when first requested.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class Prefetch {
+    /**
+     * Source code of the Python function which fetches the values of all given attributes.
+     * Values of nested objects are returned as {@code (object, values)} tuples.
+     * Attributes which are missing or are methods are returned as {@code NotImplemented},
+     * in which case the Java method falls back on the usual attribute or method call.
+     */
+    private static final String HELPER =
+            "def prefetch(obj, spec):\n" +
+            "    values = []\n" +
+            "    for entry in spec:\n" +
+            "        if isinstance(entry, str):\n" +
+            "            name, nested = entry, None\n" +
+            "        else:\n" +
+            "            name, nested = entry[0], entry[1]\n" +
+            "        value = getattr(obj, name, NotImplemented)\n" +
+            "        if callable(value):\n" +
+            "            value = NotImplemented\n" +
+            "        elif nested is not None and value is not None:\n" +
+            "            value = (value, prefetch(value, nested))\n" +
+            "        values.append(value)\n" +
+            "    return values\n";
+
+    /**
+     * The attributes to fetch, as given to the Python helper function. Each element is either
+     * the attribute name as a {@link String}, or an {@code Object[] {name, nested}} array where
+     * {@code nested} is the {@code spec} array of the nested object.
+     */
+    final Object[] spec;
+
+    /**
+     * Index in the {@link #spec} array of the attribute for each Java method.
+     */
+    private final Map<Method,Integer> indices;
+
+    /**
+     * For each element in {@link #spec}, the attributes prefetched in the nested object,
+     * or {@code null} if the attributes of the nested object are not prefetched.
+     */
+    final Prefetch[] nested;
+
+    /**
+     * Creates the list of attributes to fetch for the given interface.
+     *
+     * @param  environment  the environment for which to create the list.
+     * @param  type         the GeoAPI interface of the Python object.
+     * @param  depth        1 for fetching only the attributes of the object, 2 for including nested objects, <i>etc.</i>
+     */
+    private Prefetch(final Environment environment, final Class<?> type, final int depth) {
+        final List<Object> entries = new ArrayList<>();
+        final List<Prefetch> children = new ArrayList<>();
+        indices = new HashMap<>();
+        final Method[] methods = type.getMethods();
+        Arrays.sort(methods, Comparator.comparing(Method::toString));      // For a deterministic order.
+        for (final Method method : methods) {
+            if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers())
+                    || method.getDeclaringClass() == Object.class)
+            {
+                continue;
+            }
+            final Singleton.Call call = Singleton.call(environment, method);
+            if (call.kind != Singleton.Call.PYTHON) {
+                continue;
+            }
+            Prefetch child = null;
+            if (depth > 1 && !call.isIterable && call.type.isInterface() && call.type != MathTransform.class
+                    && !CharSequence.class.isAssignableFrom(call.type)          // Includes InternationalString.
+                    && environment.getInterfacing(call.type) == Interfacing.GEOAPI)
+            {
+                child = new Prefetch(environment, call.type, depth - 1);
+            }
+            indices.put(method, entries.size());
+            entries.add(child != null ? new Object[] {call.name, child.spec} : call.name);
+            children.add(child);
+        }
+        spec   = entries.toArray();
+        nested = children.toArray(new Prefetch[children.size()]);
+    }
+
+    /**
+     * Returns the list of attributes to fetch for the given interface.
+     * The list is created when first needed, then cached in the environment.
+     */
+    static Prefetch forType(final Environment environment, final Class<?> type) {
+        Prefetch p = environment.prefetches.get(type);
+        if (p == null) {
+            p = new Prefetch(environment, type, environment.getPrefetchDepth());
+            final Prefetch existing = environment.prefetches.putIfAbsent(type, p);
+            if (existing != null) p = existing;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the index of the attribute for the given method, or -1 if none.
+     */
+    final int indexOf(final Method method) {
+        final Integer index = indices.get(method);
+        return (index != null) ? index : -1;
+    }
+
+    /**
+     * Creates the Python helper function in the given environment.
+     *
+     * @param  builtins  the Python built-in functions.
+     * @return the Python function to invoke with {@code __call__(object, spec)}.
+     */
+    static PyObject createHelper(final PyObject builtins) {
+        final PyObject namespace = builtins.call("dict");
+        builtins.call("exec", HELPER, namespace);
+        return namespace.callMethod("__getitem__", "prefetch");
+    }
+}
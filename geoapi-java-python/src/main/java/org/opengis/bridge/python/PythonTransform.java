@@ -0,0 +1,263 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.bridge.python;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.lang.reflect.Array;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.geometry.MismatchedDimensionException;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.MathTransform;
+import org.opengis.referencing.operation.Matrix;
+import org.opengis.referencing.operation.NoninvertibleTransformException;
+import org.opengis.referencing.operation.TransformException;
+import org.jpy.PyObject;
+
+
+/**
+ * A math transform implemented in Python, which transforms coordinates by batches of many points.
+ * The Python object shall have a {@code transform(points)} method expecting a NumPy array of shape
+ * (<var>n</var>, {@code getDimSource}) and returning an array of shape (<var>n</var>, {@code getDimTarget}).
+ * Coordinates are exchanged as NumPy arrays through the Python buffer protocol, so transforming
+ * many points requires one Python call per chunk of points instead of one call per point.
+ *
+ * <p>All other methods (dimensions, derivative, inverse, <i>etc.</i>) are delegated to the Python object
+ * as for any other GeoAPI interface, with the Python attribute names given by the UML identifiers.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class PythonTransform implements MathTransform {
+    /**
+     * Maximal number of points to transform in a single Python call.
+     * This is a compromise between the number of calls and the size of temporary NumPy arrays.
+     */
+    static final int CHUNK_SIZE = 8192;
+
+    /**
+     * Information about the Python environment (builtin functions, etc).
+     */
+    private final Environment environment;
+
+    /**
+     * The Python object implementing the transform.
+     */
+    private final PyObject object;
+
+    /**
+     * A proxy forwarding the methods other than coordinate transformations to the Python object.
+     */
+    private final MathTransform proxy;
+
+    /**
+     * Number of source and target dimensions, or 0 if not yet fetched from the Python object.
+     * Those values are fetched when first needed, so creating a transform does not call Python.
+     */
+    private int dimSource, dimTarget;
+
+    /**
+     * Creates a new transform wrapping the given Python object.
+     */
+    PythonTransform(final Environment environment, final PyObject object) {
+        this.environment = environment;
+        this.object      = object;
+        this.proxy       = Singleton.create(environment, object, MathTransform.class);
+    }
+
+    /**
+     * A direct position backed by an array, for the result of {@link #transform(DirectPosition, DirectPosition)}.
+     */
+    private static final class Position implements DirectPosition {
+        /** The coordinate values. */
+        private final double[] ordinates;
+
+        /** Creates a new position wrapping the given coordinates. */
+        Position(final double[] ordinates) {
+            this.ordinates = ordinates;
+        }
+
+        @Override public CoordinateReferenceSystem getCoordinateReferenceSystem() {return null;}
+        @Override public DirectPosition getDirectPosition() {return this;}
+        @Override public int      getDimension()          {return ordinates.length;}
+        @Override public double[] getCoordinate()         {return ordinates.clone();}
+        @Override public double   getOrdinate(int i)      {return ordinates[i];}
+        @Override public void     setOrdinate(int i, double value) {ordinates[i] = value;}
+
+        /** Returns a hash code value as specified in {@link DirectPosition#hashCode()}. */
+        @Override public int hashCode() {
+            return Arrays.hashCode(ordinates) + Objects.hashCode(getCoordinateReferenceSystem());
+        }
+
+        /** Compares this position with the given object as specified in {@link DirectPosition#equals(Object)}. */
+        @Override public boolean equals(final Object other) {
+            if (other instanceof DirectPosition) {
+                final DirectPosition that = (DirectPosition) other;
+                return Arrays.equals(ordinates, that.getCoordinate()) &&
+                       Objects.equals(getCoordinateReferenceSystem(), that.getCoordinateReferenceSystem());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the number of source dimensions, fetching it from the Python object when first needed.
+     */
+    @Override
+    public int getSourceDimensions() {
+        int n = dimSource;
+        if (n == 0) {
+            dimSource = n = proxy.getSourceDimensions();
+        }
+        return n;
+    }
+
+    /**
+     * Returns the number of target dimensions, fetching it from the Python object when first needed.
+     */
+    @Override
+    public int getTargetDimensions() {
+        int n = dimTarget;
+        if (n == 0) {
+            dimTarget = n = proxy.getTargetDimensions();
+        }
+        return n;
+    }
+
+    /**
+     * Transforms the given position by a call to the batch transform method with a single point.
+     */
+    @Override
+    public DirectPosition transform(final DirectPosition ptSrc, DirectPosition ptDst) throws TransformException {
+        final int dimSource = getSourceDimensions();
+        final int dimTarget = getTargetDimensions();
+        if (ptSrc.getDimension() != dimSource) {
+            throw new MismatchedDimensionException("Expected a position of dimension " + dimSource + '.');
+        }
+        final double[] coordinates = new double[dimTarget];
+        transform(ptSrc.getCoordinate(), 0, coordinates, 0, 1);
+        if (ptDst == null) {
+            ptDst = new Position(coordinates);
+        } else {
+            if (ptDst.getDimension() != dimTarget) {
+                throw new MismatchedDimensionException("Expected a position of dimension " + dimTarget + '.');
+            }
+            for (int i=0; i<dimTarget; i++) {
+                ptDst.setOrdinate(i, coordinates[i]);
+            }
+        }
+        return ptDst;
+    }
+
+    /**
+     * Transforms the given coordinates by chunks of {@value #CHUNK_SIZE} points.
+     * Arrays can be {@code double[]} or {@code float[]}, in any combination.
+     */
+    private void transform(Object srcPts, int srcOff, final Object dstPts, int dstOff, int numPts)
+            throws TransformException
+    {
+        final int dimSource = getSourceDimensions();
+        final int dimTarget = getTargetDimensions();
+        if (srcPts == dstPts && numPts > 0) {
+            // Source and target may overlap. Copy the source for avoiding overwriting points not yet transformed.
+            final int length = numPts * dimSource;
+            final Object copy = Array.newInstance(srcPts.getClass().getComponentType(), length);
+            System.arraycopy(srcPts, srcOff, copy, 0, length);
+            srcPts = copy;
+            srcOff = 0;
+        }
+        while (numPts > 0) {
+            final int n = Math.min(numPts, CHUNK_SIZE);
+            final int srcLength = n * dimSource;
+            final int dstLength = n * dimTarget;
+            try {
+                PyObject points;
+                if (srcPts instanceof double[]) {
+                    points = environment.toNumPy((double[]) srcPts, srcOff, srcLength);
+                } else {
+                    points = environment.toNumPy((float[]) srcPts, srcOff, srcLength);
+                }
+                points = points.callMethod("reshape", n, dimSource);
+                final PyObject result = object.callMethod("transform", points);
+                if (dstPts instanceof double[]) {
+                    environment.fromNumPy(result, (double[]) dstPts, dstOff, dstLength);
+                } else {
+                    environment.fromNumPy(result, (float[]) dstPts, dstOff, dstLength);
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // JPY reports Python exceptions as RuntimeException.
+                throw new TransformException(e.getMessage(), e);
+            }
+            srcOff += srcLength;
+            dstOff += dstLength;
+            numPts -= n;
+        }
+    }
+
+    @Override
+    public void transform(double[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) throws TransformException {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    @Override
+    public void transform(float[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    @Override
+    public void transform(float[] srcPts, int srcOff, double[] dstPts, int dstOff, int numPts) throws TransformException {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    @Override
+    public void transform(double[] srcPts, int srcOff, float[] dstPts, int dstOff, int numPts) throws TransformException {
+        transform((Object) srcPts, srcOff, (Object) dstPts, dstOff, numPts);
+    }
+
+    @Override public Matrix        derivative(DirectPosition point) throws TransformException {return proxy.derivative(point);}
+    @Override public MathTransform inverse() throws NoninvertibleTransformException         {return proxy.inverse();}
+    @Override public boolean       isIdentity()                                              {return proxy.isIdentity();}
+    @Override public String        toWKT()                                                   {return proxy.toWKT();}
+    @Override public String        toString()                                                {return proxy.toString();}
+    @Override public int           hashCode()                                                {return object.hashCode();}
+
+    /**
+     * Returns {@code true} if the given object wraps the same Python object than this transform.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        return (other instanceof PythonTransform) && object.equals(((PythonTransform) other).object);
+    }
+}
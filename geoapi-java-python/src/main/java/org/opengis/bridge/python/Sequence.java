@@ -33,7 +33,8 @@ package org.opengis.bridge.python;
 
 import java.util.Iterator;
 import java.util.ListIterator;
-import java.util.AbstractSequentialList;
+import java.util.AbstractList;
+import java.util.RandomAccess;
 import java.util.NoSuchElementException;
 import java.lang.reflect.Array;
 import org.jpy.PyObject;
@@ -44,11 +45,20 @@ import org.jpy.PyObject;
  * (the main collection type used in GeoAPI Python interfaces) this implementation accepts
  * any container capable to provide an iterator.
  *
+ * <p>Iterations are delegated to the Python iterator. Indexed accesses are delegated to the Python
+ * {@code __getitem__} method if the collection is a Python sequence, or to a list created by a
+ * single call to the Python {@code list(…)} function otherwise. If the collection is a tuple or
+ * a list created by this class, then the size and the converted elements are cached.</p>
+ *
+ * <p>If the collection is not a Python sequence (for example a set or a generator), then the list created
+ * at the first call to {@link #size()} or {@link #get(int)} is a snapshot: changes in the Python collection
+ * after that call are not reflected by this list, including by iterators created after that call.</p>
+ *
  * @author  Martin Desruisseaux (Geomatys)
  * @version 4.0
  * @since   4.0
  */
-final class Sequence<E> extends AbstractSequentialList<E> {
+final class Sequence<E> extends AbstractList<E> implements RandomAccess {
     /**
      * Information about the Python environment (builtin functions, etc).
      */
@@ -66,15 +76,16 @@ final class Sequence<E> extends AbstractSequentialList<E> {
     private final PyObject collection;
 
     /**
-     * Iterator over the elements returned by {@link #get(int)}, cached for performance reasons.
-     * This is {@code null} if not yet requested.
+     * The Python object to use for indexed accesses, or {@code null} if not yet determined.
+     * This is either {@link #collection} if it is a Python sequence, or a copy in a Python list otherwise.
      */
-    private transient Iterator<E> iter;
+    private transient PyObject indexable;
 
     /**
-     * Index of the next element to be returned by {@link #iter}.
+     * The converted elements if {@link #indexable} is immutable, or {@code null} otherwise.
+     * Elements in this array are {@code null} until requested.
      */
-    private transient int nextIndex;
+    private transient E[] converted;
 
     /**
      * Creates a new sequence for the given Python collection.
@@ -83,42 +94,91 @@ final class Sequence<E> extends AbstractSequentialList<E> {
      * @param collection  the Python sequence. Can actually be any collection capable to provide an iterator.
      */
     Sequence(final Environment environment, final Class<E> type, final PyObject collection) {
+        this(environment, Converter.verifiedInstance(environment, type), collection);
+    }
+
+    /**
+     * Creates a new sequence for the given Python collection using the given converter for the elements.
+     *
+     * @param converter   the function to apply on each element for converting from Python to Java objects.
+     * @param collection  the Python sequence. Can actually be any collection capable to provide an iterator.
+     */
+    Sequence(final Environment environment, final Converter<? extends E> converter, final PyObject collection) {
         this.environment = environment;
         this.collection  = collection;
-        this.converter   = Converter.verifiedInstance(environment, type);
+        this.converter   = converter;
+    }
+
+    /**
+     * Returns the Python object to use for indexed accesses. If the collection is not a Python sequence
+     * (for example a set or a generator), then its elements are copied in a Python list in a single call.
+     * If the returned object is immutable, then the {@link #converted} array is created for caching the
+     * converted elements.
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized PyObject indexable() {
+        if (indexable == null) {
+            final PyObject builtins = environment.builtins;
+            final boolean immutable;
+            if (builtins.call("isinstance", collection, environment.sequenceType).getIntValue() != 0) {
+                indexable = collection;
+                immutable = builtins.call("isinstance", collection, environment.tupleType).getIntValue() != 0;
+            } else {
+                indexable = builtins.call("list", collection);
+                immutable = true;                           // Because the list is private to this class.
+            }
+            if (immutable) {
+                converted = (E[]) Array.newInstance(converter.type, builtins.call("len", indexable).getIntValue());
+            }
+        }
+        return indexable;
     }
 
     /**
      * Returns the length of the Python sequence wrapped by this list.
+     * The length is cached if the sequence is immutable.
+     * If the collection is not a Python sequence, then this method copies all its elements
+     * in a Python list on the first invocation and returns the length of that snapshot.
      */
     @Override
     public int size() {
-        return environment.builtins.call("len", collection).getIntValue();
+        final PyObject items = indexable();
+        synchronized (this) {
+            if (converted != null) {
+                return converted.length;
+            }
+        }
+        return environment.builtins.call("len", items).getIntValue();
     }
 
     /**
-     * Returns the element at the given index.
-     * This method is optimized for accesses with increasing indices.
+     * Returns the element at the given index. This method delegates to the Python {@code __getitem__}
+     * method without iterating over previous elements. If the sequence is immutable, then the converted
+     * elements are cached.
      */
     @Override
     public E get(final int index) {
-        if (index >= 0) {
-            if (iter == null || index < nextIndex) {
-                iter = iterator();
-                nextIndex = 0;
+        final PyObject items = indexable();
+        final E[] cache;
+        synchronized (this) {
+            cache = converted;
+        }
+        if (cache != null) {
+            if (index < 0 || index >= cache.length) {
+                throw new IndexOutOfBoundsException(index);
             }
-            try {
-                E element;
-                do {
-                    element = iter.next();
-                } while (++nextIndex <= index);
-                return element;
-            } catch (NoSuchElementException e) {
-                iter = null;
-                // Exception will be thrown below.
+            E element = cache[index];
+            if (element == null) {
+                element = converter.apply(items.callMethod("__getitem__", index));
+                cache[index] = element;             // Benign race: concurrent threads would store equal values.
             }
+            return element;
         }
-        throw new IndexOutOfBoundsException(index);
+        // Python would accept negative indices, but not Java.
+        if (index < 0 || index >= environment.builtins.call("len", items).getIntValue()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return converter.apply(items.callMethod("__getitem__", index));
     }
 
     /**
@@ -195,7 +255,11 @@ final class Sequence<E> extends AbstractSequentialList<E> {
          * Creates a new iterator.
          */
         Iter() {
-            iter = environment.builtins.call("iter", collection);
+            final PyObject source;
+            synchronized (Sequence.this) {
+                source = (indexable != null) ? indexable : collection;     // Generators may have been consumed.
+            }
+            iter = environment.builtins.call("iter", source);
         }
 
         /**
@@ -39,6 +39,7 @@ import java.lang.reflect.WildcardType;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.InvocationHandler;
 import org.opengis.annotation.UML;
+import org.opengis.util.InternationalString;
 import org.jpy.PyObject;
 
 
@@ -60,12 +61,45 @@ final class Singleton implements InvocationHandler {
      */
     private final PyObject object;
 
+    /**
+     * The GeoAPI interface implemented by the proxy, used for determining the attributes to prefetch.
+     */
+    private final Class<?> type;
+
+    /**
+     * The attributes described by {@link #prefetched}, or {@code null} if not yet fetched.
+     */
+    private Prefetch prefetch;
+
+    /**
+     * The values of all attributes fetched in a single call, or {@code null} if not yet fetched.
+     * Values may be Java objects converted by JPY, or Python objects.
+     */
+    private Object[] prefetched;
+
+    /**
+     * The values fetched together with the attributes of a parent object, or {@code null} if none.
+     * Those values are converted to the {@link #prefetched} array when first needed.
+     */
+    private PyObject pending;
+
+    /**
+     * Value of {@link Environment#generation} at the time {@link #prefetched} or {@link #pending} was fetched.
+     */
+    private int generation;
+
+    /**
+     * Sentinel value for attributes which can not be taken from the prefetched values.
+     */
+    private static final Object NOT_PREFETCHED = new Object();
+
     /**
      * Creates a new handler for the given Python object.
      */
-    private Singleton(final Environment environment, final PyObject object) {
+    private Singleton(final Environment environment, final PyObject object, final Class<?> type) {
         this.environment = environment;
         this.object      = object;
+        this.type        = type;
     }
 
     /**
@@ -78,7 +112,52 @@ final class Singleton implements InvocationHandler {
      */
     static <T> T create(final Environment environment, final PyObject object, final Class<T> type) {
         return type.cast(Proxy.newProxyInstance(Singleton.class.getClassLoader(),
-                    new Class<?>[] {type}, new Singleton(environment, object)));
+                    new Class<?>[] {type}, new Singleton(environment, object, type)));
+    }
+
+    /**
+     * Wraps the given Python object in a Java object of the given type, with attribute values
+     * already fetched together with the attributes of a parent object.
+     */
+    private Object create(final PyObject object, final Class<?> type, final Prefetch prefetch, final PyObject values) {
+        final Singleton handler = new Singleton(environment, object, type);
+        handler.prefetch   = prefetch;
+        handler.pending    = values;
+        handler.generation = generation;
+        return Proxy.newProxyInstance(Singleton.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    /**
+     * Discards the prefetched values of the given proxy, if it is a wrapper for a Python object.
+     *
+     * @see Environment#invalidate(Object)
+     */
+    static void invalidate(final Object wrapper) {
+        if (wrapper != null && Proxy.isProxyClass(wrapper.getClass())) {
+            final InvocationHandler h = Proxy.getInvocationHandler(wrapper);
+            if (h instanceof Singleton) {
+                final Singleton s = (Singleton) h;
+                synchronized (s) {
+                    s.prefetch   = null;
+                    s.prefetched = null;
+                    s.pending    = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns information about how to forward calls to the given method.
+     * The information is created when first needed, then cached in the environment.
+     */
+    static Call call(final Environment environment, final Method method) {
+        Call call = environment.calls.get(method);
+        if (call == null) {
+            call = new Call(method);
+            final Call existing = environment.calls.putIfAbsent(method, call);
+            if (existing != null) call = existing;
+        }
+        return call;
     }
 
     /**
@@ -92,6 +171,101 @@ final class Singleton implements InvocationHandler {
         return null;
     }
 
+    /**
+     * How to forward a call to a Java method to the equivalent Python attribute or method.
+     * Instances are created once per method and cached in {@link Environment#calls},
+     * so that annotations and generic types are inspected only on the first call.
+     */
+    static final class Call {
+        /**
+         * Kinds of call: a Python attribute or method, or an {@code Object} method handled in a special way.
+         */
+        static final byte PYTHON = 0, TO_STRING = 1, HASH_CODE = 2, EQUALS = 3;
+
+        /**
+         * The kind of call, as one of {@link #PYTHON}, {@link #TO_STRING}, {@link #HASH_CODE} or {@link #EQUALS}.
+         */
+        final byte kind;
+
+        /**
+         * Name of the Python attribute or method.
+         */
+        final String name;
+
+        /**
+         * The return type of the Java method.
+         */
+        final Class<?> type;
+
+        /**
+         * Whether the Java method returns a collection, in which case each element will be converted on-the-fly.
+         */
+        final boolean isIterable;
+
+        /**
+         * The generic return type, used for inferring the type of elements if the result is a collection.
+         */
+        private final Type genericType;
+
+        /**
+         * Converter of the result, or of collection elements if {@link #isIterable} is {@code true}.
+         * Created when first needed, since the return type of some methods may not be convertible.
+         */
+        private volatile Converter<?> converter;
+
+        /**
+         * Creates the call information for the given method.
+         */
+        Call(final Method method) {
+            String name = identifier(method.getAnnotation(UML.class));
+            byte kind = PYTHON;
+            if (name == null) {
+                name = method.getName();
+                /*
+                 * The Object.hashCode(), equals(Object) and toString() methods are dispatched here and
+                 * need to be handled in a special way (other Object methods are not dispatched here).
+                 */
+                switch (method.getParameterCount()) {
+                    case 0: {
+                        if (name.equals("toString")) {
+                            kind = TO_STRING;
+                        } else if (name.equals("hashCode")) {
+                            kind = HASH_CODE;
+                        }
+                        break;
+                    }
+                    case 1: {
+                        if (name.equals("equals")) {
+                            kind = EQUALS;
+                        }
+                        break;
+                    }
+                }
+            }
+            this.kind   = kind;
+            this.name   = name;
+            type        = method.getReturnType();
+            genericType = method.getGenericReturnType();
+            isIterable  = Iterable.class.isAssignableFrom(type);
+        }
+
+        /**
+         * Returns the converter of the result, or of collection elements if the method returns a collection.
+         */
+        Converter<?> converter(final Environment environment) {
+            Converter<?> c = converter;
+            if (c == null) {
+                if (isIterable) {
+                    c = Converter.verifiedInstance(environment, boundOfParameterizedProperty(genericType));
+                } else {
+                    c = Converter.instance(environment, type);
+                }
+                converter = c;
+            }
+            return c;
+        }
+    }
+
     /**
      * Forwards a call to a method from the Java interface to the equivalent method or property in Python.
      *
@@ -102,37 +276,37 @@ final class Singleton implements InvocationHandler {
      */
     @Override
     public Object invoke(final Object proxy, final Method method, Object[] args) {
-        String name = identifier(method.getAnnotation(UML.class));
-        if (name == null) {
-            name = method.getName();
-            /*
-             * The Object.hashCode(), equals(Object) and toString() methods are dispatched here and
-             * need to be handled in a special way (other Object methods are not dispatched here).
-             * The toString() method delegates to Python string representation, and the equals(…)
-             * method checks if the underlying Python objects are the same.
-             */
-            switch (args.length) {
-                case 0: {
-                    if (name.equals("toString")) {
-                        return environment.builtins.call("str", object).getStringValue();
-                    } else if (name.equals("hashCode")) {
-                        return object.hashCode();
-                    }
-                    break;
-                }
-                case 1: {
-                    if (name.equals("equals")) {
-                        final Object arg = args[0];
-                        if (arg != null && arg.getClass() == proxy.getClass()) {
-                            return object.equals(((Singleton) Proxy.getInvocationHandler(arg)).object);
-                        } else {
-                            return false;
-                        }
-                    }
-                    break;
+        final Call call = call(environment, method);
+        /*
+         * The toString() method delegates to Python string representation,
+         * and the equals(…) method checks if the underlying Python objects are the same.
+         */
+        switch (call.kind) {
+            case Call.TO_STRING: {
+                return environment.builtins.call("str", object).getStringValue();
+            }
+            case Call.HASH_CODE: {
+                return object.hashCode();
+            }
+            case Call.EQUALS: {
+                final Object arg = args[0];
+                if (arg != null && arg.getClass() == proxy.getClass()) {
+                    return object.equals(((Singleton) Proxy.getInvocationHandler(arg)).object);
+                } else {
+                    return false;
                 }
             }
         }
+        /*
+         * If prefetching is enabled, get the value from the attributes fetched in a single call.
+         * If the value can not be obtained that way, fallback on the Python attribute.
+         */
+        if (args == null && environment.getPrefetchDepth() != 0) {
+            final Object value = prefetched(method, call);
+            if (value != NOT_PREFETCHED) {
+                return value;
+            }
+        }
         /*
          * If there is arguments, convert all of them from Java to Python objects. If some argument can not
          * be converted, they will be left as-is. They may cause an exception to be thrown at callMethod(…)
@@ -157,19 +331,17 @@ final class Singleton implements InvocationHandler {
                     args[i] = arg;
                 }
             }
-            result = object.callMethod(name, args);
+            result = object.callMethod(call.name, args);
         } else {
-            result = object.getAttribute(name);
+            result = object.getAttribute(call.name);
         }
         /*
          * Convert the result of the Python method call to the type expected by the Java method.
          * This may be a collection, in which case each element will be converted on-the-fly.
          */
-        Class<?> type = method.getReturnType();
-        if (Iterable.class.isAssignableFrom(type)) {
+        if (call.isIterable) {
             if (result != null) {
-                type = boundOfParameterizedProperty(method.getGenericReturnType());
-                return new Sequence<>(environment, type, result);
+                return new Sequence<>(environment, call.converter(environment), result);
             } else {
                 return Collections.emptyList();
             }
@@ -178,11 +350,111 @@ final class Singleton implements InvocationHandler {
             if (getClass().equals(proxy.getClass())) {
                 return this;
             } else {
-                return Proxy.newProxyInstance(Singleton.class.getClassLoader(), new Class<?>[] {type}, this);
+                return Proxy.newProxyInstance(Singleton.class.getClassLoader(), new Class<?>[] {call.type}, this);
             }
         } else {
-            return Converter.instance(environment, type).apply(result);
+            return call.converter(environment).apply(result);
+        }
+    }
+
+    /**
+     * Returns the value of the given method from the prefetched attributes, fetching them if needed.
+     * Returns {@link #NOT_PREFETCHED} if the value shall be fetched from the Python attribute instead.
+     */
+    private Object prefetched(final Method method, final Call call) {
+        final Prefetch p;
+        final Object[] values;
+        synchronized (this) {
+            final int current = environment.generation;
+            if (generation != current) {
+                prefetch   = null;
+                prefetched = null;
+                pending    = null;
+            }
+            if (prefetch == null) {
+                prefetch = Prefetch.forType(environment, type);
+            }
+            if (prefetched == null) {
+                if (prefetch.indexOf(method) < 0) {
+                    return NOT_PREFETCHED;                  // Avoid fetching everything for nothing.
+                }
+                PyObject raw = pending;
+                if (raw == null) {
+                    raw = environment.prefetchHelper().callMethod("__call__", object, prefetch.spec);
+                }
+                prefetched = raw.getObjectArrayValue(Object.class);
+                pending    = null;
+                generation = current;
+            }
+            p = prefetch;
+            values = prefetched;
+        }
+        final int index = p.indexOf(method);
+        if (index < 0) {
+            return NOT_PREFETCHED;
+        }
+        final Object value = values[index];
+        if (environment.notPrefetched.equals(value)) {
+            return NOT_PREFETCHED;
+        }
+        if (call.isIterable) {
+            if (value == null) {
+                return Collections.emptyList();
+            } else if (value instanceof PyObject) {
+                return new Sequence<>(environment, call.converter(environment), (PyObject) value);
+            } else {
+                return NOT_PREFETCHED;                      // For example a Python string converted by JPY.
+            }
+        }
+        final Prefetch nested = p.nested[index];
+        if (nested != null && value instanceof PyObject) {
+            final Object[] pair = ((PyObject) value).getObjectArrayValue(Object.class);
+            if (pair.length == 2 && pair[0] instanceof PyObject && pair[1] instanceof PyObject) {
+                return create((PyObject) pair[0], call.type, nested, (PyObject) pair[1]);
+            }
+            return NOT_PREFETCHED;
+        }
+        final Converter<?> converter = call.converter(environment);
+        if (value == null || value instanceof PyObject) {
+            return converter.apply((PyObject) value);
+        }
+        /*
+         * JPY converts Python strings, numbers and booleans to Java objects.
+         * Adapt those objects to the type returned by the Java method, using the wrapper class for primitive types.
+         */
+        final Class<?> target = wrapper(call.type);
+        if (target.isInstance(value)) {
+            return value;
+        } else if (value instanceof Number) {
+            final Number n = (Number) value;
+            if (target == Integer.class) return n.intValue();
+            if (target == Double.class)  return n.doubleValue();
+            if (target == Float.class)   return n.floatValue();
+            if (target == Long.class)    return n.longValue();
+            if (target == Short.class)   return n.shortValue();
+            if (target == Byte.class)    return n.byteValue();
+            if (target == Boolean.class) return n.intValue() != 0;
+        } else if (value instanceof String && target == InternationalString.class) {
+            return new Literal((String) value);
+        }
+        return NOT_PREFETCHED;
+    }
+
+    /**
+     * Returns the wrapper class for the given primitive type, or the given type unchanged if it is not primitive.
+     */
+    private static Class<?> wrapper(final Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == Double .TYPE) return Double .class;
+            if (type == Integer.TYPE) return Integer.class;
+            if (type == Boolean.TYPE) return Boolean.class;
+            if (type == Float  .TYPE) return Float  .class;
+            if (type == Long   .TYPE) return Long   .class;
+            if (type == Short  .TYPE) return Short  .class;
+            if (type == Byte   .TYPE) return Byte   .class;
+            if (type == Character.TYPE) return Character.class;
         }
+        return type;
     }
 
     /**
@@ -0,0 +1,242 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.jpy;
+
+import java.util.Map;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Collection;
+import java.util.function.Function;
+import java.lang.reflect.Array;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * A Python object simulated in Java, for testing the Java-Python bridge without Python interpreter.
+ * This class is in the JPY package because {@link PyObject} has no public constructor.
+ * Attributes are stored in a map and methods are Java functions receiving the method arguments.
+ * Python functions and modules are represented in the same way, with {@code call(…)} delegating
+ * to the method of the same name.
+ *
+ * <p>Values returned by the simulated methods and attributes can be {@link PyObject} instances,
+ * or Java objects which are wrapped in new {@code FakePyObject} instances.</p>
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public class FakePyObject extends PyObject {
+    /**
+     * Generator of unique values for the pointers to Python objects.
+     */
+    private static final AtomicLong POINTERS = new AtomicLong();
+
+    /**
+     * The Python type name, for example {@code "list"}, {@code "tuple"} or {@code "object"}.
+     */
+    public final String type;
+
+    /**
+     * The Java value represented by this Python object, or {@code null} if none.
+     * Python lists and tuples are represented by {@link List} instances.
+     */
+    public final Object value;
+
+    /**
+     * The attributes of this Python object. Values can be {@link PyObject} or Java objects.
+     */
+    public final Map<String,Object> attributes;
+
+    /**
+     * The methods of this Python object, or the functions of this Python module.
+     */
+    public final Map<String, Function<Object[],Object>> methods;
+
+    /**
+     * Number of calls to {@link #getAttribute(String)} and {@link #callMethod(String, Object...)}.
+     */
+    public int numAttributeAccesses, numMethodCalls;
+
+    /**
+     * Creates a new simulated Python object of the given type.
+     *
+     * @param type   the Python type name.
+     * @param value  the Java value represented by this Python object, or {@code null} if none.
+     */
+    public FakePyObject(final String type, final Object value) {
+        super(POINTERS.incrementAndGet());
+        this.type  = type;
+        this.value = value;
+        attributes = new HashMap<>();
+        methods    = new HashMap<>();
+        if (value instanceof List<?>) {
+            final List<?> list = (List<?>) value;
+            methods.put("__getitem__", (args) -> {
+                final int i = (Integer) args[0];
+                if (i < 0 || i >= list.size()) {
+                    throw new RuntimeException("IndexError: " + type + " index out of range");
+                }
+                return list.get(i);
+            });
+        }
+    }
+
+    /**
+     * Returns the given value as a Python object.
+     *
+     * @param  value  the value to wrap, or {@code null}.
+     * @return the given value as a Python object, or {@code null} if the given value was null.
+     */
+    public static PyObject wrap(final Object value) {
+        if (value == null || value instanceof PyObject) {
+            return (PyObject) value;
+        }
+        final String type;
+        if (value instanceof List<?>) {
+            type = "list";
+        } else if (value instanceof String) {
+            type = "str";
+        } else if (value instanceof Number) {
+            type = (value instanceof Double || value instanceof Float) ? "float" : "int";
+        } else if (value instanceof Boolean) {
+            type = "bool";
+        } else {
+            type = "object";
+        }
+        return new FakePyObject(type, value);
+    }
+
+    /**
+     * Returns the value of the attribute of the given name.
+     *
+     * @throws RuntimeException with a message containing {@code "AttributeError"} if there is no such attribute.
+     */
+    @Override
+    public PyObject getAttribute(final String name) {
+        numAttributeAccesses++;
+        if (!attributes.containsKey(name)) {
+            throw new RuntimeException("AttributeError: '" + type + "' object has no attribute '" + name + '\'');
+        }
+        return wrap(attributes.get(name));
+    }
+
+    /**
+     * Invokes the method of the given name.
+     *
+     * @throws RuntimeException with a message containing {@code "AttributeError"} if there is no such method.
+     */
+    @Override
+    public PyObject callMethod(final String name, final Object... args) {
+        numMethodCalls++;
+        final Function<Object[],Object> method = methods.get(name);
+        if (method == null) {
+            throw new RuntimeException("AttributeError: '" + type + "' object has no attribute '" + name + '\'');
+        }
+        return wrap(method.apply(args));
+    }
+
+    /**
+     * Invokes the function of the given name in this module.
+     */
+    @Override
+    public PyObject call(final String name, final Object... args) {
+        return callMethod(name, args);
+    }
+
+    /**
+     * Returns the value as an integer. Booleans are converted to 0 or 1.
+     */
+    @Override
+    public int getIntValue() {
+        if (value instanceof Boolean) {
+            return ((Boolean) value) ? 1 : 0;
+        }
+        return ((Number) value).intValue();
+    }
+
+    /**
+     * Returns the value as a floating point number.
+     */
+    @Override
+    public double getDoubleValue() {
+        return ((Number) value).doubleValue();
+    }
+
+    /**
+     * Returns the value as a string.
+     */
+    @Override
+    public String getStringValue() {
+        return (value != null) ? value.toString() : null;
+    }
+
+    /**
+     * Returns the value as a Java object.
+     */
+    @Override
+    public Object getObjectValue() {
+        return value;
+    }
+
+    /**
+     * Returns the elements of a Python list or tuple.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T[] getObjectArrayValue(final Class<? extends T> c) {
+        return ((Collection<?>) value).toArray((T[]) Array.newInstance(c, 0));
+    }
+
+    /**
+     * Python objects are compared by identity.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        return other == this;
+    }
+
+    /**
+     * Returns an identity hash code.
+     */
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    /**
+     * Returns a string representation for debugging purpose.
+     */
+    @Override
+    public String toString() {
+        return type + '[' + value + ']';
+    }
+}
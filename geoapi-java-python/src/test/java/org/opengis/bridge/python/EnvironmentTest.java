@@ -0,0 +1,136 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.bridge.python;
+
+import org.jpy.PyObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link Environment} class with Python objects simulated in Java.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class EnvironmentTest {
+    /**
+     * The simulated Python environment.
+     */
+    private final FakePython python = new FakePython();
+
+    /**
+     * Tests {@link Environment#toNumPy(double[], int, int)} and {@link Environment#fromNumPy(PyObject, double[], int, int)}.
+     */
+    @Test
+    public void testNumPy() {
+        final double[] data = {1, 2, 3, 4, 5};
+        final PyObject array = python.environment.toNumPy(data, 1, 3);
+        assertArrayEquals(new double[] {2, 3, 4}, FakePython.value(array), 0);
+        final double[] target = new double[6];
+        python.environment.fromNumPy(array, target, 2, 3);
+        assertArrayEquals(new double[] {0, 0, 2, 3, 4, 0}, target, 0);
+    }
+
+    /**
+     * Tests {@link Environment#toNumPy(float[], int, int)} and {@link Environment#fromNumPy(PyObject, float[], int, int)}.
+     */
+    @Test
+    public void testNumPyFloat() {
+        final float[] data = {1, 2, 3, 4, 5};
+        final PyObject array = python.environment.toNumPy(data, 3, 2);
+        final float[] target = new float[3];
+        python.environment.fromNumPy(array, target, 1, 2);
+        assertArrayEquals(new float[] {0, 4, 5}, target, 0);
+    }
+
+    /**
+     * Tests the range checks of {@link Environment#toNumPy(double[], int, int)}.
+     */
+    @Test
+    public void testToNumPyRangeCheck() {
+        final double[] data = new double[5];
+        try {
+            python.environment.toNumPy(data, -1, 2);
+            fail("Negative offset shall not be accepted.");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("[-1 … 1)"));
+        }
+        try {
+            python.environment.toNumPy(data, 2, 4);
+            fail("Range outside the array shall not be accepted.");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("[0 … 5)"));
+        }
+        try {
+            python.environment.toNumPy(data, 1, Integer.MAX_VALUE);
+            fail("Overflow shall not be accepted.");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // Expected.
+        }
+        try {
+            python.environment.toNumPy(new float[3], 0, -1);
+            fail("Negative length shall not be accepted.");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // Expected.
+        }
+        assertEquals(0, ((double[]) FakePython.value(python.environment.toNumPy(data, 5, 0))).length);
+    }
+
+    /**
+     * Tests the range checks of {@link Environment#fromNumPy(PyObject, double[], int, int)}.
+     */
+    @Test
+    public void testFromNumPyRangeCheck() {
+        final PyObject array = FakePython.ndarray(new double[] {1, 2, 3});
+        try {
+            python.environment.fromNumPy(array, new double[4], 2, 3);
+            fail("Range outside the array shall not be accepted.");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("[2 … 5)"));
+        }
+        try {
+            python.environment.fromNumPy(array, new float[4], -1, 3);
+            fail("Negative offset shall not be accepted.");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            // Expected.
+        }
+        try {
+            python.environment.fromNumPy(array, new double[4], 0, 2);
+            fail("Mismatched number of values shall not be accepted.");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Expected 2 values"));
+        }
+    }
+}
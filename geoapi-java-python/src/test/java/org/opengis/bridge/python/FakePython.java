@@ -0,0 +1,223 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.bridge.python;
+
+import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.lang.reflect.Array;
+import org.jpy.FakePyObject;
+import org.jpy.PyObject;
+
+
+/**
+ * The subset of Python built-in functions needed by the Java-Python bridge, simulated in Java.
+ * This class provides an {@link Environment} which can be tested without Python interpreter.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+final class FakePython {
+    /**
+     * The simulated Python built-in functions.
+     */
+    final FakePyObject builtins;
+
+    /**
+     * The simulated Python {@code NotImplemented} value.
+     */
+    final FakePyObject notImplemented;
+
+    /**
+     * The simulated NumPy module. Arrays are represented by {@code double[]} or {@code float[]} values.
+     */
+    final FakePyObject numpy;
+
+    /**
+     * The environment using the simulated Python functions.
+     */
+    final Environment environment;
+
+    /**
+     * Number of calls to the simulated prefetch helper function, ignoring recursive calls.
+     */
+    int numPrefetchCalls;
+
+    /**
+     * Creates a new simulated Python environment.
+     */
+    @SuppressWarnings("unchecked")
+    FakePython() {
+        builtins       = new FakePyObject("module", "builtins");
+        notImplemented = new FakePyObject("NotImplementedType", null);
+        final FakePyObject sequenceType = new FakePyObject("type", Set.of("list", "tuple"));
+        builtins.attributes.put("tuple", new FakePyObject("type", Set.of("tuple")));
+        builtins.attributes.put("NotImplemented", notImplemented);
+        function("str",        (args) -> String.valueOf(args[0]));
+        function("len",        (args) -> {
+            final Object value = value(args[0]);
+            return value.getClass().isArray() ? Array.getLength(value) : ((Collection<?>) value).size();
+        });
+        function("isinstance", (args) -> ((Set<?>) value(args[1])).contains(((FakePyObject) args[0]).type));
+        function("list",       (args) -> new ArrayList<>((Collection<?>) value(args[0])));
+        function("iter",       (args) -> new FakePyObject("iterator", ((Collection<?>) value(args[0])).iterator()));
+        function("next",       (args) -> {
+            final Iterator<?> it = (Iterator<?>) value(args[0]);
+            if (!it.hasNext()) {
+                throw new RuntimeException("StopIteration");
+            }
+            return it.next();
+        });
+        function("dict", (args) -> {
+            final Map<Object,Object> map = new HashMap<>();
+            final FakePyObject dict = new FakePyObject("dict", map);
+            dict.methods.put("__getitem__", (key) -> map.get(key[0]));
+            return dict;
+        });
+        function("exec", (args) -> {
+            if (((String) args[0]).contains("def prefetch(")) {
+                final FakePyObject helper = new FakePyObject("function", null);
+                helper.methods.put("__call__", (a) -> {
+                    numPrefetchCalls++;
+                    return prefetch((FakePyObject) a[0], (Object[]) a[1]);
+                });
+                ((Map<Object,Object>) value(args[1])).put("prefetch", helper);
+            }
+            return null;
+        });
+        function("slice",      (args) -> new FakePyObject("slice", new int[] {(Integer) args[0], (Integer) args[1]}));
+        function("memoryview", (args) -> memoryview(args[0]));
+        numpy = new FakePyObject("module", "numpy");
+        numpy.methods.put("array", (args) -> ndarray(value(args[0])));
+        numpy.methods.put("ascontiguousarray", (args) -> {
+            final Object data = value(args[0]);
+            final int length = Array.getLength(data);
+            final boolean single = "float32".equals(args[1]);
+            final Object copy = single ? new float[length] : new double[length];
+            for (int i=0; i<length; i++) {
+                final double v = Array.getDouble(data, i);
+                if (single) Array.setFloat(copy, i, (float) v);
+                else Array.setDouble(copy, i, v);
+            }
+            return ndarray(copy);
+        });
+        environment = new Environment(builtins, sequenceType, numpy);
+    }
+
+    /**
+     * Adds a function in the simulated built-in functions.
+     */
+    private void function(final String name, final Function<Object[],Object> function) {
+        builtins.methods.put(name, function);
+    }
+
+    /**
+     * Simulates a Python memory view over the given Java array of primitive type.
+     * Views support slicing, assignment of slices and release.
+     */
+    private static FakePyObject memoryview(final Object array) {
+        final FakePyObject view = new FakePyObject("memoryview", array);
+        view.methods.put("__getitem__", (args) -> {
+            final int[] range = value(args[0]);
+            final int length = range[1] - range[0];
+            final Object part = Array.newInstance(array.getClass().getComponentType(), length);
+            System.arraycopy(array, range[0], part, 0, length);
+            return memoryview(part);
+        });
+        view.methods.put("__setitem__", (args) -> {
+            final int[] range = value(args[0]);
+            System.arraycopy(value(args[1]), 0, array, range[0], range[1] - range[0]);
+            return null;
+        });
+        view.methods.put("release", (args) -> null);
+        return view;
+    }
+
+    /**
+     * Simulates a NumPy array with the values of the given Java array.
+     * The shape is ignored, so {@code reshape} and {@code ravel} return the same array.
+     */
+    static FakePyObject ndarray(final Object data) {
+        final FakePyObject array = new FakePyObject("ndarray", data);
+        array.methods.put("reshape", (args) -> array);
+        array.methods.put("ravel",   (args) -> array);
+        return array;
+    }
+
+    /**
+     * Returns the Java value represented by the given simulated Python object.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T value(final Object object) {
+        return (T) ((FakePyObject) object).value;
+    }
+
+    /**
+     * Creates a simulated Python tuple.
+     */
+    static FakePyObject tuple(final Object... elements) {
+        return new FakePyObject("tuple", Arrays.asList(elements));
+    }
+
+    /**
+     * Java implementation of the Python helper function defined in {@link Prefetch}.
+     * Values are stored in the returned list as JPY would convert them.
+     */
+    private PyObject prefetch(final FakePyObject object, final Object[] spec) {
+        final List<Object> values = new ArrayList<>();
+        for (final Object entry : spec) {
+            final String name;
+            Object[] nested = null;
+            if (entry instanceof String) {
+                name = (String) entry;
+            } else {
+                name   = (String)   ((Object[]) entry)[0];
+                nested = (Object[]) ((Object[]) entry)[1];
+            }
+            Object value = object.attributes.getOrDefault(name, notImplemented);
+            if (value instanceof FakePyObject && ((FakePyObject) value).type.equals("function")) {
+                value = notImplemented;
+            } else if (nested != null && value != null) {
+                value = tuple(value, prefetch((FakePyObject) value, nested));
+            }
+            values.add(value);
+        }
+        return new FakePyObject("list", values);
+    }
+}
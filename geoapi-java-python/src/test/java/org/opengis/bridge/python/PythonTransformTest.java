@@ -0,0 +1,162 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.bridge.python;
+
+import java.lang.reflect.Array;
+import org.opengis.geometry.DirectPosition;
+import org.opengis.referencing.crs.CoordinateReferenceSystem;
+import org.opengis.referencing.operation.TransformException;
+import org.jpy.FakePyObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link PythonTransform} class with Python objects simulated in Java.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class PythonTransformTest {
+    /**
+     * The simulated Python environment.
+     */
+    private final FakePython python = new FakePython();
+
+    /**
+     * Number of calls to the simulated Python {@code transform(points)} method.
+     */
+    private int numTransformCalls;
+
+    /**
+     * Creates a simulated Python transform from two-dimensional points (<var>x</var>, <var>y</var>)
+     * to three-dimensional points (<var>x</var>, <var>y</var>, <var>x</var> + <var>y</var>).
+     */
+    private FakePyObject createTransform() {
+        final FakePyObject object = new FakePyObject("object", null);
+        object.attributes.put("getDimSource", 2);
+        object.attributes.put("getDimTarget", 3);
+        object.methods.put("transform", (args) -> {
+            numTransformCalls++;
+            final Object points = FakePython.value(args[0]);
+            final int n = Array.getLength(points) / 2;
+            final double[] result = new double[n * 3];
+            for (int i=0; i<n; i++) {
+                final double x = Array.getDouble(points, i*2);
+                final double y = Array.getDouble(points, i*2 + 1);
+                result[i*3    ] = x;
+                result[i*3 + 1] = y;
+                result[i*3 + 2] = x + y;
+            }
+            return FakePython.ndarray(result);
+        });
+        return object;
+    }
+
+    /**
+     * Returns a position without CRS for the given coordinates.
+     */
+    private static DirectPosition position(final double... coordinates) {
+        return new DirectPosition() {
+            @Override public CoordinateReferenceSystem getCoordinateReferenceSystem() {return null;}
+            @Override public DirectPosition getDirectPosition() {return this;}
+            @Override public int      getDimension()          {return coordinates.length;}
+            @Override public double[] getCoordinate()         {return coordinates.clone();}
+            @Override public double   getOrdinate(int i)      {return coordinates[i];}
+            @Override public void     setOrdinate(int i, double value) {coordinates[i] = value;}
+        };
+    }
+
+    /**
+     * Tests that the dimensions are fetched only when first needed.
+     */
+    @Test
+    public void testLazyDimensions() {
+        final FakePyObject object = createTransform();
+        final PythonTransform tr = new PythonTransform(python.environment, object);
+        assertEquals(0, object.numAttributeAccesses);
+        assertEquals(2, tr.getSourceDimensions());
+        assertEquals(3, tr.getTargetDimensions());
+        assertEquals(2, tr.getSourceDimensions());
+        assertEquals(2, object.numAttributeAccesses);
+    }
+
+    /**
+     * Tests the transformation of many points, which requires many Python calls.
+     *
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test
+    public void testTransformByChunks() throws TransformException {
+        final PythonTransform tr = new PythonTransform(python.environment, createTransform());
+        final int numPts = PythonTransform.CHUNK_SIZE * 2 + 100;
+        final double[] source = new double[numPts * 2 + 1];
+        for (int i=1; i<source.length; i++) {
+            source[i] = i;
+        }
+        final float[] target = new float[numPts * 3 + 2];
+        tr.transform(source, 1, target, 2, numPts);
+        assertEquals("Number of Python calls", 3, numTransformCalls);
+        assertEquals(0, target[0], 0);
+        assertEquals(0, target[1], 0);
+        for (int i=0; i<numPts; i++) {
+            final float x = i*2 + 1;
+            final float y = i*2 + 2;
+            assertEquals(x,     target[i*3 + 2], 0);
+            assertEquals(y,     target[i*3 + 3], 0);
+            assertEquals(x + y, target[i*3 + 4], 0);
+        }
+    }
+
+    /**
+     * Tests {@link PythonTransform#transform(DirectPosition, DirectPosition)}
+     * and the {@code equals} and {@code hashCode} methods of the returned position.
+     *
+     * @throws TransformException if a point can not be transformed.
+     */
+    @Test
+    public void testTransformPosition() throws TransformException {
+        final PythonTransform tr = new PythonTransform(python.environment, createTransform());
+        final DirectPosition point = tr.transform(position(3, 4), null);
+        assertEquals(3, point.getDimension());
+        assertArrayEquals(new double[] {3, 4, 7}, point.getCoordinate(), 0);
+        final DirectPosition other = tr.transform(position(3, 4), null);
+        assertNotSame(point, other);
+        assertEquals(point, other);
+        assertEquals(point.hashCode(), other.hashCode());
+        assertEquals(point, position(3, 4, 7));
+        other.setOrdinate(2, 8);
+        assertNotEquals(point, other);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ *    GeoAPI - Java interfaces for OGC/ISO standards
+ *    http://www.geoapi.org
+ *
+ *    Copyright (C) 2018 Open Geospatial Consortium, Inc.
+ *    All Rights Reserved. http://www.opengeospatial.org/ogc/legal
+ *
+ *    Permission to use, copy, and modify this software and its documentation, with
+ *    or without modification, for any purpose and without fee or royalty is hereby
+ *    granted, provided that you include the following on ALL copies of the software
+ *    and documentation or portions thereof, including modifications, that you make:
+ *
+ *    1. The full text of this NOTICE in a location viewable to users of the
+ *       redistributed or derivative work.
+ *    2. Notice of any changes or modifications to the OGC files, including the
+ *       date changes were made.
+ *
+ *    THIS SOFTWARE AND DOCUMENTATION IS PROVIDED "AS IS," AND COPYRIGHT HOLDERS MAKE
+ *    NO REPRESENTATIONS OR WARRANTIES, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED
+ *    TO, WARRANTIES OF MERCHANTABILITY OR FITNESS FOR ANY PARTICULAR PURPOSE OR THAT
+ *    THE USE OF THE SOFTWARE OR DOCUMENTATION WILL NOT INFRINGE ANY THIRD PARTY
+ *    PATENTS, COPYRIGHTS, TRADEMARKS OR OTHER RIGHTS.
+ *
+ *    COPYRIGHT HOLDERS WILL NOT BE LIABLE FOR ANY DIRECT, INDIRECT, SPECIAL OR
+ *    CONSEQUENTIAL DAMAGES ARISING OUT OF ANY USE OF THE SOFTWARE OR DOCUMENTATION.
+ *
+ *    The name and trademarks of copyright holders may NOT be used in advertising or
+ *    publicity pertaining to the software without specific, written prior permission.
+ *    Title to copyright in this software and any associated documentation will at all
+ *    times remain with copyright holders.
+ */
+package org.opengis.bridge.python;
+
+import java.lang.reflect.Method;
+import org.opengis.metadata.citation.Citation;
+import org.opengis.metadata.citation.Series;
+import org.opengis.referencing.operation.MathTransform;
+import org.jpy.FakePyObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Tests the {@link Singleton} class with Python objects simulated in Java.
+ *
+ * @author  Martin Desruisseaux (Geomatys)
+ * @version 4.0
+ * @since   4.0
+ */
+public final strictfp class SingletonTest {
+    /**
+     * The simulated Python environment.
+     */
+    private final FakePython python = new FakePython();
+
+    /**
+     * The simulated Python series, created by {@link #citation()}.
+     */
+    private FakePyObject series;
+
+    /**
+     * Creates a simulated Python citation with a title and a series.
+     */
+    private FakePyObject citation() {
+        series = new FakePyObject("object", null);
+        series.attributes.put("name", "Test series");
+        series.attributes.put("issueIdentification", "Issue 1");
+        final FakePyObject citation = new FakePyObject("object", null);
+        citation.attributes.put("title", "Test citation");
+        citation.attributes.put("series", series);
+        return citation;
+    }
+
+    /**
+     * Tests getter methods forwarded to Python attributes, without prefetching.
+     */
+    @Test
+    public void testGetter() {
+        final FakePyObject object = citation();
+        final Citation citation = Singleton.create(python.environment, object, Citation.class);
+        assertEquals("Test citation", citation.getTitle().toString());
+        final Series s = citation.getSeries();
+        assertEquals("Test series", s.getName().toString());
+        assertEquals("Issue 1",     s.getIssueIdentification().toString());
+        assertEquals(2, object.numAttributeAccesses);
+        assertEquals(2, series.numAttributeAccesses);
+        assertEquals(0, python.numPrefetchCalls);
+    }
+
+    /**
+     * Tests fetching all attributes of a citation and its series in a single call.
+     */
+    @Test
+    public void testPrefetch() {
+        python.environment.setPrefetchDepth(2);
+        final FakePyObject object = citation();
+        final Citation citation = Singleton.create(python.environment, object, Citation.class);
+        assertEquals("Test citation", citation.getTitle().toString());
+        final Series s = citation.getSeries();
+        assertEquals("Test series", s.getName().toString());
+        assertEquals("Issue 1",     s.getIssueIdentification().toString());
+        assertEquals(0, object.numAttributeAccesses);
+        assertEquals(0, series.numAttributeAccesses);
+        assertEquals(1, python.numPrefetchCalls);
+        /*
+         * A missing attribute shall fallback on the usual call to Python,
+         * which reports the error in the same way than without prefetching.
+         */
+        try {
+            citation.getEdition();
+            fail("Expected an AttributeError.");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("AttributeError"));
+        }
+        assertEquals(1, object.numAttributeAccesses);
+        assertEquals(1, python.numPrefetchCalls);
+    }
+
+    /**
+     * Tests prefetching properties of primitive types.
+     */
+    @Test
+    public void testPrefetchPrimitive() {
+        python.environment.setPrefetchDepth(1);
+        final FakePyObject object = new FakePyObject("object", null);
+        object.attributes.put("getDimSource", 2);
+        object.attributes.put("getDimTarget", 3);
+        object.attributes.put("isIdentity", Boolean.FALSE);
+        final MathTransform tr = Singleton.create(python.environment, object, MathTransform.class);
+        assertEquals(2, tr.getSourceDimensions());
+        assertEquals(3, tr.getTargetDimensions());
+        assertFalse(tr.isIdentity());
+        assertEquals(0, object.numAttributeAccesses);
+        assertEquals(1, python.numPrefetchCalls);
+    }
+
+    /**
+     * Tests {@link Environment#invalidate(Object)} and {@link Environment#invalidateAll()}.
+     */
+    @Test
+    public void testInvalidate() {
+        python.environment.setPrefetchDepth(1);
+        final FakePyObject object = citation();
+        final Citation citation = Singleton.create(python.environment, object, Citation.class);
+        assertEquals("Test citation", citation.getTitle().toString());
+        object.attributes.put("title", "Modified");
+        assertEquals("Test citation", citation.getTitle().toString());
+        python.environment.invalidate(citation);
+        assertEquals("Modified", citation.getTitle().toString());
+        assertEquals(2, python.numPrefetchCalls);
+        object.attributes.put("title", "Modified again");
+        python.environment.invalidateAll();
+        assertEquals("Modified again", citation.getTitle().toString());
+        assertEquals(3, python.numPrefetchCalls);
+    }
+
+    /**
+     * Tests that the call plans and converters are created on the first call, then reused.
+     * Also tests the {@code Object} methods, which are dispatched without argument array.
+     *
+     * @throws NoSuchMethodException if a tested method is not found.
+     */
+    @Test
+    public void testCallPlanCache() throws NoSuchMethodException {
+        final Method getTitle = Citation.class.getMethod("getTitle");
+        assertFalse(python.environment.calls.containsKey(getTitle));
+        final FakePyObject object = citation();
+        final Citation c1 = Singleton.create(python.environment, object, Citation.class);
+        final Citation c2 = Singleton.create(python.environment, citation(), Citation.class);
+        assertEquals("Test citation", c1.getTitle().toString());
+        final Singleton.Call call = python.environment.calls.get(getTitle);
+        assertNotNull(call);
+        assertEquals(Singleton.Call.PYTHON, call.kind);
+        assertEquals("title", call.name);
+        assertFalse(call.isIterable);
+        final Converter<?> converter = call.converter(python.environment);
+        assertSame(converter, Converter.instance(python.environment, call.type));
+        /*
+         * A second call on another object shall neither create a new plan (which would require
+         * a new reflective lookup of the UML annotation) nor a new converter.
+         */
+        final int numCalls      = python.environment.calls.size();
+        final int numConverters = python.environment.converters.size();
+        assertEquals("Test citation", c2.getTitle().toString());
+        assertEquals("Number of call plans.", numCalls,      python.environment.calls.size());
+        assertEquals("Number of converters.", numConverters, python.environment.converters.size());
+        assertSame(call, python.environment.calls.get(getTitle));
+        assertSame(call, Singleton.call(python.environment, getTitle));
+        assertSame(converter, call.converter(python.environment));
+        /*
+         * Object methods. The plans shall recognize them even if they have no UML annotation.
+         */
+        assertEquals(object.hashCode(), c1.hashCode());
+        assertEquals(c1, Singleton.create(python.environment, object, Citation.class));
+        assertNotEquals(c1, c2);
+        assertNotNull(c1.toString());
+        assertEquals(Singleton.Call.HASH_CODE, Singleton.call(python.environment, Object.class.getMethod("hashCode")).kind);
+        assertEquals(Singleton.Call.TO_STRING, Singleton.call(python.environment, Object.class.getMethod("toString")).kind);
+        assertEquals(Singleton.Call.EQUALS,    Singleton.call(python.environment, Object.class.getMethod("equals", Object.class)).kind);
+        assertEquals(1, object.numAttributeAccesses);
+    }
+}
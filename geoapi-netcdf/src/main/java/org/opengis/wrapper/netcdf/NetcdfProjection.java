@@ -729,7 +729,7 @@ public class NetcdfProjection extends NetcdfIdentifiedObject
             final Parameter param = parameters.get(i);
             values[i] = NetcdfParameter.create(param, aliases.get(param.getName()));
         }
-        return new SimpleParameterGroup(new AliasList(projection.getClassName()), values);
+        return new SimpleParameterGroup(new AliasList(projection.getClassName()), null, values);
     }
 
     /**
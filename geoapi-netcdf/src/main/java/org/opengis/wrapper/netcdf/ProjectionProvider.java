@@ -84,6 +84,12 @@ abstract class ProjectionProvider<P extends Projection> extends NetcdfIdentified
      */
     private final boolean hasStandardParallels;
 
+    /**
+     * Index of parameter names and aliases shared by all groups created by {@link #createValue()},
+     * or {@code null} if not yet computed.
+     */
+    private transient ParameterIndex index;
+
     /**
      * Declares the name of a map projection and its parameters, together with the OGC and EPSG names.
      * The length of the given array shall be a multiple of 3. For each triplet, the names are
@@ -293,7 +299,9 @@ abstract class ProjectionProvider<P extends Projection> extends NetcdfIdentified
      */
     @Override
     public ParameterValueGroup createValue() {
-        return new SimpleParameterGroup(name, parameters());
+        final SimpleParameterGroup group = new SimpleParameterGroup(name, index, parameters());
+        index = group.index();
+        return group;
     }
 
     /**
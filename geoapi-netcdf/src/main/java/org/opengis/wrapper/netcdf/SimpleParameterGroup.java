@@ -64,15 +64,34 @@ final class SimpleParameterGroup extends NetcdfIdentifiedObject
      */
     private List<NetcdfParameter<?>> parameters;
 
+    /**
+     * Index of the names and aliases of all {@linkplain #parameters}. This index is shared by all
+     * groups created by {@link #createValue()} or {@link #clone()}, and by all groups created by
+     * the same {@link ProjectionProvider}.
+     */
+    private final ParameterIndex index;
+
     /**
      * Creates a new parameter group of the given name.
      *
      * @param name   the parameter group name.
+     * @param index  the index of parameter names and aliases, or {@code null} for computing it.
      * @param param  the parameters to be included in this group.
      */
-    SimpleParameterGroup(final AliasList name, final NetcdfParameter<?>... param) {
+    SimpleParameterGroup(final AliasList name, ParameterIndex index, final NetcdfParameter<?>... param) {
         parameters = Collections.unmodifiableList(Arrays.asList(param));
-        this.name = name;
+        if (index == null) {
+            index = new ParameterIndex(parameters);
+        }
+        this.index = index;
+        this.name  = name;
+    }
+
+    /**
+     * Returns the index of parameter names and aliases, for sharing with other groups.
+     */
+    final ParameterIndex index() {
+        return index;
     }
 
     /**
@@ -183,19 +202,20 @@ final class SimpleParameterGroup extends NetcdfIdentifiedObject
      * code}. This convenience method provides a way to get and set parameter values by name. For
      * example the following idiom fetches a floating point value for the {@code "false_easting"}
      * parameter:
+     *
+     * <blockquote><code>
+     * double value = <b>parameter</b>("false_easting").{@linkplain ParameterValue#doubleValue() doubleValue}();
+     * </code></blockquote>
+     *
+     * The search is case-insensitive and checks the name and aliases of each parameter.
+     * This method uses an index shared by all groups of the same descriptor.
      */
     @Override
     public NetcdfParameter<?> parameter(final String name) throws ParameterNotFoundException {
         Objects.requireNonNull(name);
-        for (final NetcdfParameter<?> candidate : parameters) {
-            if (name.equalsIgnoreCase(candidate.getName().getCode())) {
-                return candidate;
-            }
-            for (final GenericName alias : candidate.getAlias()) {
-                if (name.equalsIgnoreCase(alias.toString())) {
-                    return candidate;
-                }
-            }
+        final int i = index.indexOf(name);
+        if (i >= 0) {
+            return parameters.get(i);
         }
         throw new ParameterNotFoundException("No such parameter: " + name, name);
     }
@@ -233,11 +253,12 @@ final class SimpleParameterGroup extends NetcdfIdentifiedObject
         for (int i=0; i<param.length; i++) {
             param[i] = parameters.get(i).createValue();
         }
-        return new SimpleParameterGroup(name, param);
+        return new SimpleParameterGroup(name, index, param);
     }
 
     /**
      * Returns a copy of this parameter group.
+     * The copy shares the index of parameter names of this group.
      */
     @Override
     public SimpleParameterGroup clone() {
@@ -441,6 +441,42 @@ public interface Coverage {
     double[] evaluate(DirectPosition point, double[] destination)
             throws PointOutsideCoverageException, CannotEvaluateException, ArrayIndexOutOfBoundsException;
 
+    /**
+     * Returns the values of selected sample dimensions at many points in the coverage.
+     * This method is equivalent to invoking {@link #evaluate(DirectPosition, double[])} for each point,
+     * but allows implementations to process the points in an efficient order (for example grouped by tiles),
+     * to convert all coordinates to grid coordinates in a single
+     * {@link org.opengis.referencing.operation.MathTransform} call, and to avoid the creation of
+     * temporary objects for each point.
+     *
+     * <p>Coordinates are given as a sequence of tuples in the coverage coordinate reference system,
+     * in the same way than the coordinates given to {@code MathTransform.transform(double[], …)}.
+     * The value of the <var>b</var>-th selected band at point <var>i</var> is stored at index
+     * <code>i × bands.length + b</code> in the destination array.
+     * Points outside the coverage or without value are stored as {@link Double#NaN}
+     * instead of causing a {@link PointOutsideCoverageException} to be thrown.</p>
+     *
+     * @departure integration
+     *   Added for performance reasons. Evaluating points one at a time through
+     *   <code>evaluate(DirectPosition)</code> does not scale to millions of points.
+     *
+     * @param  coordinates  the coordinates of the points, as consecutive tuples.
+     * @param  numPts       number of points to evaluate.
+     * @param  bands        indices of the sample dimensions to evaluate, or {@code null} for all of them.
+     * @param  destination  an optionally preallocated array in which to store the values, or {@code null} if none.
+     * @return the values of the selected sample dimensions at all given points.
+     *         If {@code destination} was non-null, then it is returned.
+     *         Otherwise, a new array is allocated and returned.
+     * @throws IndexOutOfBoundsException if a band index is out of bounds.
+     * @throws CannotEvaluateException if the points can not be evaluated for some other reason.
+     * @throws ArrayIndexOutOfBoundsException if the {@code coordinates} array is too small,
+     *         or if the {@code destination} array is not null and too small to hold the output.
+     *
+     * @since 4.0
+     */
+    double[] evaluate(double[] coordinates, int numPts, int[] bands, double[] destination)
+            throws IndexOutOfBoundsException, CannotEvaluateException, ArrayIndexOutOfBoundsException;
+
     /**
      * Returns a set of {@linkplain DomainObject domain objects} for the specified record of feature
      * attribute values. Normally, this method returns the set of {@linkplain DomainObject objects}
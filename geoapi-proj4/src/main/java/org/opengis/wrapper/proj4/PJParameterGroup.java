@@ -67,6 +67,15 @@ final class PJParameterGroup extends PJObject implements ParameterValueGroup, Pa
      */
     private final List<PJParameter> unmodifiable;
 
+    /**
+     * Index of the names and aliases of the first {@link ParameterIndex#size} parameters,
+     * computed when first needed. This index is shared by all groups created by
+     * {@link #createValue()} or {@link #clone()}.
+     *
+     * @see #index()
+     */
+    private ParameterIndex index;
+
     /**
      * Creates a new parameter group for the given identifier.
      */
@@ -85,6 +94,17 @@ final class PJParameterGroup extends PJObject implements ParameterValueGroup, Pa
         unmodifiable = Collections.unmodifiableList(parameters);
     }
 
+    /**
+     * Creates a new parameter group for the given identifier and parameters,
+     * sharing the given index of parameter names.
+     */
+    private PJParameterGroup(final Identifier identifier, final Collection<GenericName> aliases,
+            final ParameterIndex index, final PJParameter[] param)
+    {
+        this(identifier, aliases, param);
+        this.index = index;
+    }
+
     /**
      * Creates a new parameter group as a copy of the given one.
      *
@@ -99,6 +119,9 @@ final class PJParameterGroup extends PJObject implements ParameterValueGroup, Pa
             parameters.add(new PJParameter((ParameterValue) value));
         }
         unmodifiable = Collections.unmodifiableList(parameters);
+        if (param instanceof PJParameterGroup) {
+            index = ((PJParameterGroup) param).index;
+        }
     }
 
     /**
@@ -178,10 +201,23 @@ final class PJParameterGroup extends PJObject implements ParameterValueGroup, Pa
      * If the value is not found, create a new one. This is not quite the expected behavior for this
      * method, but Proj.4 does not include a list of expected parameter values for each projection,
      * so we don't know in advance what are the allowed parameters.
+     *
+     * <p>The search uses an index of parameter names and aliases shared by all groups of the same
+     * descriptor, completed by a linear search over the parameters added after the index creation.</p>
      */
     @Override
     public PJParameter parameter(final String name) {
-        for (final PJParameter candidate : parameters) {
+        ParameterIndex index = this.index;
+        if (index == null) {
+            this.index = index = new ParameterIndex(parameters);
+        }
+        final int i = index.indexOf(name);
+        if (i >= 0) {
+            return parameters.get(i);
+        }
+        // Parameters added after the index creation.
+        for (int j=index.size; j<parameters.size(); j++) {
+            final PJParameter candidate = parameters.get(j);
             if (name.equalsIgnoreCase(candidate.getName().getCode())) {
                 return candidate;
             }
@@ -235,11 +271,25 @@ final class PJParameterGroup extends PJObject implements ParameterValueGroup, Pa
         for (int i=0; i<param.length; i++) {
             param[i] = parameters.get(i).createValue();
         }
-        return new PJParameterGroup(name, aliases, param);
+        return new PJParameterGroup(name, aliases, index(), param);
+    }
+
+    /**
+     * Returns the index of parameter names, computing it if needed. A new index is computed
+     * if parameters have been added since the last computation, in order to share an index
+     * covering all parameters with the groups created by {@link #createValue()}.
+     */
+    private ParameterIndex index() {
+        ParameterIndex index = this.index;
+        if (index == null || index.size != parameters.size()) {
+            this.index = index = new ParameterIndex(parameters);
+        }
+        return index;
     }
 
     /**
      * Returns a copy of this parameter group.
+     * The copy shares the index of parameter names of this group.
      */
     @Override
     @SuppressWarnings("CloneDoesntCallSuperClone")          // Okay since this class is final.